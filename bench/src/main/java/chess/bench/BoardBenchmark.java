@@ -0,0 +1,112 @@
+package chess.bench;
+
+import chess.Board;
+import chess.Move;
+import chess.MoveList;
+import chess.pieces.Piece;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call latency of the Board rules engine entry points over a fixed set of mid-game positions. Each invocation
+ * moves on to the next position so the results are not tuned to a single layout.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class BoardBenchmark {
+
+    private static final int POSITION_COUNT = 64;
+
+    @Param({"false", "true"})
+    public boolean isCustom;
+
+    @Param({"20", "40"})
+    public int plies;
+
+    private Board[] boards;
+    private int[] legalMoves;
+    private Piece[] movedPieces;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boards = Positions.midGame(POSITION_COUNT, plies, isCustom, 42);
+        legalMoves = new int[POSITION_COUNT];
+        movedPieces = new Piece[POSITION_COUNT];
+        MoveList moves = new MoveList();
+        for (int position = 0; position < POSITION_COUNT; position++) {
+            boards[position].generateLegalMoves(false, moves);
+            if (!moves.isEmpty()) {
+                legalMoves[position] = moves.get(moves.size() / 2);
+                movedPieces[position] = boards[position].getPiece(Move.getFromRow(legalMoves[position]),
+                        Move.getFromCol(legalMoves[position]));
+            }
+        }
+    }
+
+    private int nextPosition() {
+        index = (index + 1) & (POSITION_COUNT - 1);
+        return index;
+    }
+
+    /**
+     * A legal move through movePiece, taken back with unmakeMove so the position is unchanged for the next call
+     */
+    @Benchmark
+    public boolean movePiece() {
+        int position = nextPosition();
+        Board board = boards[position];
+        int move = legalMoves[position];
+        if (move == Move.NONE) {
+            return false;
+        }
+        boolean isMoved = board.movePiece(Move.getFromRow(move), Move.getFromCol(move), Move.getToRow(move),
+                Move.getToCol(move), false);
+        board.unmakeMove();
+        return isMoved;
+    }
+
+    @Benchmark
+    public int[] getKing() {
+        return boards[nextPosition()].getKing(false);
+    }
+
+    @Benchmark
+    public boolean canCheckOwnKing() {
+        return boards[nextPosition()].canCheckOwnKing(false);
+    }
+
+    /**
+     * canCheckEnemyKing flips the enemy check flag when it finds a check, so the flag is flipped back afterwards
+     */
+    @Benchmark
+    public boolean canCheckEnemyKing() {
+        int position = nextPosition();
+        Piece piece = movedPieces[position];
+        if (piece == null) {
+            return false;
+        }
+        Board board = boards[position];
+        boolean isCheck = board.canCheckEnemyKing(piece, false);
+        if (isCheck) {
+            board.setCheck(true);
+        }
+        return isCheck;
+    }
+}
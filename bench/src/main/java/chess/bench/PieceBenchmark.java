@@ -0,0 +1,82 @@
+package chess.bench;
+
+import chess.Board;
+import chess.pieces.Piece;
+import chess.pieces.PieceType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call latency of Piece.canMove for each Piece subclass. Every piece of the chosen type in a set of mid-game
+ * positions is asked about every square of its board in turn, so hits, misses and blocked paths are all measured.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PieceBenchmark {
+
+    @Param({"PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING", "TIGER", "ORBIT"})
+    public PieceType type;
+
+    private Board[] boards;
+    private Piece[] pieces;
+    private int[] boardIndexes;
+    private int pieceIndex;
+    private int square;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boards = Positions.midGame(64, 30, true, 7);
+        List<Piece> found = new ArrayList<>();
+        List<Integer> foundBoards = new ArrayList<>();
+        for (int position = 0; position < boards.length; position++) {
+            Board board = boards[position];
+            for (int row = 0; row < board.getRows(); row++) {
+                for (int col = 0; col < board.getCols(); col++) {
+                    Piece piece = board.getPiece(row, col);
+                    if (piece != null && piece.getType() == type) {
+                        found.add(piece);
+                        foundBoards.add(position);
+                    }
+                }
+            }
+        }
+        if (found.isEmpty()) {
+            throw new IllegalStateException("No " + type + " in the benchmark positions");
+        }
+        pieces = found.toArray(new Piece[0]);
+        boardIndexes = foundBoards.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Benchmark
+    public boolean canMove() {
+        Board board = boards[boardIndexes[pieceIndex]];
+        Piece piece = pieces[pieceIndex];
+        int cols = board.getCols();
+        boolean canMove = piece.canMove(board, square / cols, square % cols);
+        if (++square == board.getRows() * cols) {
+            square = 0;
+            if (++pieceIndex == pieces.length) {
+                pieceIndex = 0;
+            }
+        }
+        return canMove;
+    }
+}
@@ -0,0 +1,71 @@
+package chess.bench;
+
+import chess.Board;
+import chess.Move;
+import chess.MoveList;
+
+import java.util.SplittableRandom;
+
+/**
+ * Builds reproducible mid-game positions for the benchmarks by playing seeded random legal moves from the starting
+ * position, preferring captures so the positions have a realistic mix of material.
+ */
+final class Positions {
+
+    private Positions() {
+    }
+
+    /**
+     * Plays count independent games of the given number of plies and returns the final positions. A game that ends
+     * before the last ply is replayed with the next random moves, so every position is reached after the full (even)
+     * number of plies.
+     * @param count number of positions
+     * @param plies number of half moves to play in each game, rounded up to an even number
+     * @param isCustom true for the Tiger and Orbit setup
+     * @param seed random seed
+     * @return boards in mid-game positions, White to move in each
+     */
+    static Board[] midGame(int count, int plies, boolean isCustom, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        Board[] boards = new Board[count];
+        MoveList moves = new MoveList();
+        MoveList captures = new MoveList();
+        for (int index = 0; index < count; index++) {
+            Board board;
+            do {
+                board = playGame(random, plies + (plies % 2), isCustom, moves, captures);
+            } while (board == null);
+            boards[index] = new Board(board);
+        }
+        return boards;
+    }
+
+    /**
+     * Plays one random game from the starting position
+     * @return the board after the given number of plies, or null if the game ended before
+     */
+    private static Board playGame(SplittableRandom random, int plies, boolean isCustom, MoveList moves,
+                                  MoveList captures) {
+        Board board = new Board(isCustom);
+        boolean isBlack = false;
+        for (int ply = 0; ply < plies; ply++) {
+            board.generateLegalMoves(isBlack, moves);
+            if (moves.isEmpty()) {
+                return null;
+            }
+            captures.clear();
+            for (int moveIndex = 0; moveIndex < moves.size(); moveIndex++) {
+                int move = moves.get(moveIndex);
+                if (!board.isEmpty(Move.getToRow(move), Move.getToCol(move))) {
+                    captures.add(move);
+                }
+            }
+            MoveList choices = !captures.isEmpty() && random.nextInt(3) == 0 ? captures : moves;
+            int move = choices.get(random.nextInt(choices.size()));
+            board.movePiece(Move.getFromRow(move), Move.getFromCol(move), Move.getToRow(move),
+                    Move.getToCol(move), isBlack);
+            isBlack = !isBlack;
+        }
+        return board;
+    }
+}
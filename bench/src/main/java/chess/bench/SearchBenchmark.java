@@ -0,0 +1,70 @@
+package chess.bench;
+
+import chess.Board;
+import chess.engine.Engine;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.TranspositionTable;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lazy SMP scaling of the engine: each operation is a fixed time search of a mid-game position, and the nodes counter
+ * reports nodes per second summed over all search threads. Comparing the threads parameters shows how close to linear
+ * the node rate scales.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"false", "true"})
+    public boolean isCustom;
+
+    private Board[] boards;
+    private Engine engine;
+    private int index;
+
+    /**
+     * Nodes searched, reported by JMH as a rate per second
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long nodes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boards = Positions.midGame(16, 12, isCustom, 11);
+        engine = new Engine(new TranspositionTable(64L << 20), threads);
+    }
+
+    @Benchmark
+    public SearchResult search(Counters counters) {
+        Board board = boards[index];
+        index = (index + 1) % boards.length;
+        SearchResult result = engine.search(board, false, SearchLimits.time(200));
+        counters.nodes += result.getNodes();
+        return result;
+    }
+}
@@ -2,6 +2,8 @@ package chess;
 
 import chess.pieces.*;
 
+import java.util.Arrays;
+
 /**
  * Board Class to set up and maintain Chessboard, game states, current layout of pieces, and evaluate game logic
  */
@@ -17,6 +19,95 @@ public class Board {
     private int[] whitePosition;
     private int[] blackPosition;
 
+    /**
+     * Boards with at most 64 squares are also stored as bitboards: one long per piece type and color, indexed by
+     * colorIndex * PieceType.COUNT + type ordinal, where bit (row * cols + col) is set if such a piece is on the square.
+     * Larger boards leave these null and are only stored in the pieces array.
+     */
+    private long[] pieceBitboards;
+    private long[] colorBitboards;
+    private long occupiedBitboard;
+
+    /**
+     * Boards of 65 to WideBitboard.MAX_SQUARES squares keep the same bitboards as multi-word long[] masks laid out by
+     * wideLayout, indexed like pieceBitboards. Other boards leave these null.
+     */
+    private WideBitboard wideLayout;
+    private long[][] widePieceBitboards;
+    private long[][] wideColorBitboards;
+    private long[] wideOccupied;
+
+    /**
+     * Boards too large for wide bitboards keep a SparseIndex of the occupied squares instead, so scans over the pieces
+     * and the lines of sliding pieces cost in proportion to the number of pieces rather than the area. Smaller boards
+     * leave it null. Like every board these are at most Move.MAX_SIDE rows and columns, the limit of packed moves.
+     */
+    private SparseIndex sparseIndex;
+
+    /**
+     * Whether the board is 8x8, so slider attacks come from MagicBitboards instead of walking the lines
+     */
+    private boolean isMagicBacked;
+
+    /**
+     * Square index of each player's King indexed by color (0 White, 1 Black), or -1 if the player has no King on the
+     * board, kept up to date whenever a square changes. kingCounts guards against boards set up with several Kings.
+     */
+    private int[] kingSquares = {-1, -1};
+    private int[] kingCounts = new int[2];
+
+    /**
+     * Attack maps of both players, indexed by colorIndex * rows * cols + square index. Each entry counts the pieces of
+     * that player that could capture on the square, and is updated incrementally whenever a square changes.
+     */
+    private int[] attackCounts;
+
+    /**
+     * Zobrist key of the position (see Zobrist), updated incrementally whenever a square or the side to move changes,
+     * and the shared key table for boards of this size, or null if the keys are computed on demand
+     */
+    private long zobristKey;
+    private long[] zobristTable;
+
+    /**
+     * Evaluation terms of the position from White's view (see EvalWeights): the middlegame and endgame sums of material
+     * plus square bonus, and the phase, updated incrementally whenever a square changes. evalTable is the shared
+     * square value table of evalWeights for boards of this size, or null if the values are computed on demand.
+     */
+    private EvalWeights evalWeights = EvalWeights.DEFAULT;
+    private int[] evalTable;
+    private int middlegameScore;
+    private int endgameScore;
+    private int phase;
+
+    /**
+     * Whether it is Black's turn. Every move made hands the turn to the other color of the piece that moved.
+     */
+    private boolean isBlackTurn;
+
+    /**
+     * Destination tables of the leaping pieces for boards of this size (see LeapTable), indexed by PieceType ordinal
+     * for Knights, Kings and Tigers and by radius for Orbits. They are shared with every board of the same size and
+     * looked up on first use; boards too large for tables leave them null.
+     */
+    private LeapTable[] leapTables = new LeapTable[PieceType.COUNT];
+    private LeapTable[] orbitTables = new LeapTable[4];
+
+    /**
+     * Undo records of the moves made with makeMove, used as a stack by unmakeMove. Each record is the packed move, the
+     * captured Piece (or null), and a long packing the moving Pawn's first move flag, the check flags, and both King
+     * squares from before the move (see packState).
+     */
+    private int[] historyMoves = new int[64];
+    private Piece[] historyCaptured = new Piece[64];
+    private long[] historyStates = new long[64];
+    private int historySize;
+
+    /**
+     * Scratch list for hasLegalMove, reused so looking for a reply does not allocate
+     */
+    private final MoveList replyMoves = new MoveList();
+
     /**
      * Default constructor for a Board with 8 rows and 8 columns and Pieces board initialized to default chessboard
      */
@@ -35,6 +126,7 @@ public class Board {
                 pieces[rowCount][colCount] = null;
             }
         }
+        allocateIndexes();
         initializeBoard(rows, cols, false);
     }
 
@@ -58,16 +150,19 @@ public class Board {
                 pieces[rowCount][colCount] = null;
             }
         }
+        allocateIndexes();
         initializeBoard(rows, cols, isCustom);
     }
     /**
      * Constructs a board with numRows rows and numColumns columns and chessboard initialized
-     * @param numRows number of rows
-     * @param numColumns number of columns
+     * @param numRows number of rows, at most Move.MAX_SIDE
+     * @param numColumns number of columns, at most Move.MAX_SIDE
      * @param isCustom true if Custom Board desired
      *                 false if Standard Board desired
+     * @throws IllegalArgumentException if a side is longer than Move.MAX_SIDE, which packed moves cannot address
      */
     public Board(int numRows, int numColumns, boolean isCustom){
+        checkSize(numRows, numColumns);
         rows = numRows;
         cols = numColumns;
         pieces = new Piece[rows][cols];
@@ -77,11 +172,148 @@ public class Board {
         isBlackCheckmate = false;
         this.whitePosition = new int[2];
         this.blackPosition = new int[2];
+        allocateIndexes();
         initializeBoard(numRows, numColumns, isCustom);
     }
 
     /**
-     * Getter for the Chessboard array stored in a two-dimensional array
+     * Constructs an empty board with numRows rows and numColumns columns, for boards of any size including those
+     * too small for a setup
+     * @param numRows number of rows
+     * @param numColumns number of columns
+     */
+    private Board(int numRows, int numColumns){
+        rows = numRows;
+        cols = numColumns;
+        pieces = new Piece[rows][cols];
+        this.whitePosition = new int[2];
+        this.blackPosition = new int[2];
+        allocateIndexes();
+    }
+
+    /**
+     * Creates a board of the given size with no pieces on it and White to move. Unlike the setup constructors this
+     * works for boards of any size, even those too narrow or short for the standard pieces.
+     * @param numRows number of rows, from 1 to Move.MAX_SIDE
+     * @param numColumns number of columns, from 1 to Move.MAX_SIDE
+     * @return new empty Board
+     * @throws IllegalArgumentException if a side is shorter than 1 or longer than Move.MAX_SIDE
+     */
+    public static Board empty(int numRows, int numColumns){
+        if(numRows < 1 || numColumns < 1){
+            throw new IllegalArgumentException("A board needs at least one row and one column");
+        }
+        checkSize(numRows, numColumns);
+        return new Board(numRows, numColumns);
+    }
+
+    /**
+     * Rejects boards with more rows or columns than a packed move can address (see Move)
+     */
+    private static void checkSize(int numRows, int numColumns){
+        if(numRows > Move.MAX_SIDE || numColumns > Move.MAX_SIDE){
+            throw new IllegalArgumentException("Boards have at most " + Move.MAX_SIDE + " rows and columns, got "
+                    + numRows + "x" + numColumns);
+        }
+    }
+
+    /**
+     * Copy constructor that creates an independent Board with the same layout and game state as the given board. Every
+     * Piece is copied, so moves made on the new board never affect the original. Moves made on the original board
+     * cannot be unmade on the copy.
+     * @param other board to copy
+     */
+    public Board(Board other){
+        rows = other.rows;
+        cols = other.cols;
+        pieces = new Piece[rows][cols];
+        isWhiteCheck = other.isWhiteCheck;
+        isBlackCheck = other.isBlackCheck;
+        isWhiteCheckmate = other.isWhiteCheckmate;
+        isBlackCheckmate = other.isBlackCheckmate;
+        this.whitePosition = other.whitePosition.clone();
+        this.blackPosition = other.blackPosition.clone();
+        this.kingSquares = other.kingSquares.clone();
+        this.kingCounts = other.kingCounts.clone();
+        this.attackCounts = other.attackCounts.clone();
+        this.zobristKey = other.zobristKey;
+        this.zobristTable = other.zobristTable;
+        this.evalWeights = other.evalWeights;
+        this.evalTable = other.evalTable;
+        this.middlegameScore = other.middlegameScore;
+        this.endgameScore = other.endgameScore;
+        this.phase = other.phase;
+        this.isBlackTurn = other.isBlackTurn;
+        this.leapTables = other.leapTables.clone();
+        this.orbitTables = other.orbitTables.clone();
+        if(other.sparseIndex != null){
+            sparseIndex = new SparseIndex(other.sparseIndex);
+            for(int index = 0; index < sparseIndex.size(); index++){
+                int square = sparseIndex.getSquare(index);
+                copyPiece(other, square / cols, square % cols);
+            }
+        } else {
+            for(int rowCount = 0; rowCount < rows; rowCount++){
+                for(int colCount = 0; colCount < cols; colCount++){
+                    copyPiece(other, rowCount, colCount);
+                }
+            }
+        }
+        isMagicBacked = other.isMagicBacked;
+        wideLayout = other.wideLayout;
+        if(other.wideLayout != null){
+            widePieceBitboards = new long[2 * PieceType.COUNT][];
+            for(int index = 0; index < widePieceBitboards.length; index++){
+                widePieceBitboards[index] = other.widePieceBitboards[index].clone();
+            }
+            wideColorBitboards = new long[][] {other.wideColorBitboards[0].clone(),
+                    other.wideColorBitboards[1].clone()};
+            wideOccupied = other.wideOccupied.clone();
+        }
+        if(other.pieceBitboards != null){
+            pieceBitboards = other.pieceBitboards.clone();
+            colorBitboards = other.colorBitboards.clone();
+            occupiedBitboard = other.occupiedBitboard;
+        }
+    }
+
+    private void copyPiece(Board other, int rowCoord, int colCoord){
+        Piece otherPiece = other.pieces[rowCoord][colCoord];
+        if(otherPiece != null){
+            Piece piece = otherPiece.copy();
+            piece.setRowCoord(rowCoord);
+            piece.setColCoord(colCoord);
+            pieces[rowCoord][colCoord] = piece;
+        }
+    }
+
+    /**
+     * Allocates the attack maps, and the bitboards if the board is small enough for every square to fit in a single
+     * long
+     */
+    private void allocateIndexes(){
+        attackCounts = new int[2 * rows * cols];
+        zobristTable = Zobrist.getTable(rows * cols);
+        zobristKey = Zobrist.dimensionKey(rows, cols);
+        evalTable = evalWeights.getTable(rows, cols);
+        if(rows * cols <= 64){
+            pieceBitboards = new long[2 * PieceType.COUNT];
+            colorBitboards = new long[2];
+        }
+        isMagicBacked = rows == 8 && cols == 8;
+        wideLayout = WideBitboard.get(rows, cols);
+        if(wideLayout != null){
+            widePieceBitboards = new long[2 * PieceType.COUNT][wideLayout.getWords()];
+            wideColorBitboards = new long[2][wideLayout.getWords()];
+            wideOccupied = wideLayout.newBitboard();
+        } else if(pieceBitboards == null){
+            sparseIndex = new SparseIndex(rows, cols);
+        }
+    }
+
+    /**
+     * Getter for the Chessboard array stored in a two-dimensional array. The array is kept in sync with the bitboards
+     * and must only be changed through setPiece, removePiece and clearBoard.
      * @return Piece[][] pieces array
      */
     public Piece[][] getPieces() {
@@ -98,35 +330,31 @@ public class Board {
      */
     private void initializeBoard(int rows, int cols, boolean isCustom){
         //initialize Pawns
-        for (int rowInitializer = 0; rowInitializer < rows; rowInitializer++){
-            for (int colInitializer = 0; colInitializer < cols; colInitializer++){
-                pieces[rowInitializer][colInitializer] = null;
-            }
-        }
+        clearBoard();
         for(int colCounter = 0; colCounter < cols; colCounter++){
-            pieces[1][colCounter] = new Pawn(1, colCounter, true);
-            pieces[rows-2][colCounter] = new Pawn(rows - 2, colCounter, false);
+            placePiece(1, colCounter, new Pawn(1, colCounter, true));
+            placePiece(rows - 2, colCounter, new Pawn(rows - 2, colCounter, false));
         }
-        pieces[0][0] = new Rook(0,0, true);
-        pieces[0][cols - 1] = new Rook(0, cols - 1, true);
-        pieces[rows - 1][0] = new Rook(rows - 1,0, false);
-        pieces[rows - 1][cols - 1] = new Rook(rows - 1, cols - 1, false);
+        placePiece(0, 0, new Rook(0,0, true));
+        placePiece(0, cols - 1, new Rook(0, cols - 1, true));
+        placePiece(rows - 1, 0, new Rook(rows - 1,0, false));
+        placePiece(rows - 1, cols - 1, new Rook(rows - 1, cols - 1, false));
 
-        pieces[0][1] = new Knight(0, 1, true);
-        pieces[0][cols - 2] = new Knight(0, cols - 2, true);
-        pieces[rows - 1][1] = new Knight(rows - 1, 1,  false);
-        pieces[rows - 1][cols - 2] = new Knight(rows - 1, cols - 2, false);
+        placePiece(0, 1, new Knight(0, 1, true));
+        placePiece(0, cols - 2, new Knight(0, cols - 2, true));
+        placePiece(rows - 1, 1, new Knight(rows - 1, 1,  false));
+        placePiece(rows - 1, cols - 2, new Knight(rows - 1, cols - 2, false));
 
-        pieces[0][2] = new Bishop(0, 2,  true);
-        pieces[0][cols - 3] = new Bishop(0, cols - 3, true);
-        pieces[rows - 1][2] = new Bishop(rows - 1, 2,  false);
-        pieces[rows - 1][cols - 3] = new Bishop(rows - 1, cols - 3, false);
+        placePiece(0, 2, new Bishop(0, 2,  true));
+        placePiece(0, cols - 3, new Bishop(0, cols - 3, true));
+        placePiece(rows - 1, 2, new Bishop(rows - 1, 2,  false));
+        placePiece(rows - 1, cols - 3, new Bishop(rows - 1, cols - 3, false));
 
-        pieces[0][3] = new Queen(0, 3,  true);
-        pieces[rows - 1][3] = new Queen(rows - 1, 3,  false);
+        placePiece(0, 3, new Queen(0, 3,  true));
+        placePiece(rows - 1, 3, new Queen(rows - 1, 3,  false));
 
-        pieces[0][4] = new King(0, 4, true);
-        pieces[rows - 1][4] = new King(rows - 1, 4, false);
+        placePiece(0, 4, new King(0, 4, true));
+        placePiece(rows - 1, 4, new King(rows - 1, 4, false));
         this.whitePosition[0] = rows - 1;
         this.whitePosition[1] = 4;
         this.blackPosition[0] = 0;
@@ -135,263 +363,1095 @@ public class Board {
 
 
         if(isCustom){
-            pieces[1][0] = new Tiger(1, 0, true);
-            pieces[rows - 2][0] = new Tiger(rows - 2 , 0, false);
+            placePiece(1, 0, new Tiger(1, 0, true));
+            placePiece(rows - 2, 0, new Tiger(rows - 2 , 0, false));
 
-            pieces[1][cols - 1] = new Orbit(1, cols - 1, true);
-            pieces[rows - 2][cols - 1] = new Orbit(rows - 2, cols - 1, false);
+            placePiece(1, cols - 1, new Orbit(1, cols - 1, true));
+            placePiece(rows - 2, cols - 1, new Orbit(rows - 2, cols - 1, false));
         }
 
     }
 
-
     /**
-     *
-     * @return Number of rows in the board
+     * Puts the piece on the given square, replacing whatever was there, and keeps the bitboards, King squares and
+     * attack maps in sync. Does not update the coordinates stored in the piece. Coordinates must be on the board.
+     * @param rowCoord row coordinate of square
+     * @param colCoord column coordinate of square
+     * @param piece piece to place, must not be null
      */
-    public int getRows() {
-        return rows;
+    private void placePiece(int rowCoord, int colCoord, Piece piece){
+        Piece oldPiece = pieces[rowCoord][colCoord];
+        if(oldPiece != null){
+            pieces[rowCoord][colCoord] = null;
+            removeFromIndexes(rowCoord, colCoord, oldPiece);
+        } else {
+            updateLinesThrough(rowCoord, colCoord, -1);
+        }
+        pieces[rowCoord][colCoord] = piece;
+        addToIndexes(rowCoord, colCoord, piece);
     }
 
     /**
-     *
-     * @return Number of columns in the board
+     * Empties the given square and keeps the bitboards, King squares and attack maps in sync. Coordinates must be on
+     * the board.
+     * @param rowCoord row coordinate of square
+     * @param colCoord column coordinate of square
      */
-    public int getCols() {
-        return cols;
+    private void clearSquare(int rowCoord, int colCoord){
+        Piece oldPiece = pieces[rowCoord][colCoord];
+        if(oldPiece == null){
+            return;
+        }
+        pieces[rowCoord][colCoord] = null;
+        removeFromIndexes(rowCoord, colCoord, oldPiece);
+        updateLinesThrough(rowCoord, colCoord, 1);
+    }
+
+    private void addToIndexes(int rowCoord, int colCoord, Piece piece){
+        int colorIndex = piece.isBlack() ? 1 : 0;
+        if(piece.getType() == PieceType.KING){
+            kingSquares[colorIndex] = getSquareIndex(rowCoord, colCoord);
+            kingCounts[colorIndex]++;
+        }
+        zobristKey ^= Zobrist.pieceKey(piece, getSquareIndex(rowCoord, colCoord), zobristTable, rows * cols);
+        updateEvalTerms(rowCoord, colCoord, piece, 1);
+        if(pieceBitboards != null){
+            long squareBit = 1L << getSquareIndex(rowCoord, colCoord);
+            pieceBitboards[colorIndex * PieceType.COUNT + piece.getType().ordinal()] |= squareBit;
+            colorBitboards[colorIndex] |= squareBit;
+            occupiedBitboard |= squareBit;
+        } else if(wideLayout != null){
+            int square = getSquareIndex(rowCoord, colCoord);
+            WideBitboard.set(widePieceBitboards[colorIndex * PieceType.COUNT + piece.getType().ordinal()], square);
+            WideBitboard.set(wideColorBitboards[colorIndex], square);
+            WideBitboard.set(wideOccupied, square);
+        } else {
+            sparseIndex.add(rowCoord, colCoord);
+        }
+        updatePieceAttacks(rowCoord, colCoord, piece, 1);
+    }
+
+    private void removeFromIndexes(int rowCoord, int colCoord, Piece oldPiece){
+        int colorIndex = oldPiece.isBlack() ? 1 : 0;
+        zobristKey ^= Zobrist.pieceKey(oldPiece, getSquareIndex(rowCoord, colCoord), zobristTable, rows * cols);
+        updateEvalTerms(rowCoord, colCoord, oldPiece, -1);
+        if(pieceBitboards != null){
+            long squareBit = 1L << getSquareIndex(rowCoord, colCoord);
+            pieceBitboards[colorIndex * PieceType.COUNT + oldPiece.getType().ordinal()] &= ~squareBit;
+            colorBitboards[colorIndex] &= ~squareBit;
+            occupiedBitboard &= ~squareBit;
+        } else if(wideLayout != null){
+            int square = getSquareIndex(rowCoord, colCoord);
+            WideBitboard.clear(widePieceBitboards[colorIndex * PieceType.COUNT + oldPiece.getType().ordinal()], square);
+            WideBitboard.clear(wideColorBitboards[colorIndex], square);
+            WideBitboard.clear(wideOccupied, square);
+        } else {
+            sparseIndex.remove(rowCoord, colCoord);
+        }
+        if(oldPiece.getType() == PieceType.KING){
+            kingCounts[colorIndex]--;
+            if(kingSquares[colorIndex] == getSquareIndex(rowCoord, colCoord)){
+                kingSquares[colorIndex] = kingCounts[colorIndex] > 0 ? scanForKing(oldPiece.isBlack()) : -1;
+            }
+        }
+        updatePieceAttacks(rowCoord, colCoord, oldPiece, -1);
     }
 
     /**
-     * Checks to see if the given spot on the board is empty or occupied
-     * @param rowCoord  Coordinate of row on the board to be checked
-     * @param colCoord  Coordinate of column on the board to be checked
-     * @return True if the spot on the board is empty
+     * Adds (delta 1) or removes (delta -1) the material, square bonus and phase weight of a piece standing on the given
+     * square to the evaluation terms
+     * @param rowCoord row of the piece
+     * @param colCoord column of the piece
+     * @param piece piece added or removed
+     * @param delta 1 when the piece is added, -1 when it is removed
      */
-    public boolean isEmpty(int rowCoord, int colCoord){
-        return pieces[rowCoord][colCoord] == null;
+    private void updateEvalTerms(int rowCoord, int colCoord, Piece piece, int delta){
+        PieceType type = piece.getType();
+        boolean isBlack = piece.isBlack();
+        int middlegame;
+        int endgame;
+        if(evalTable != null){
+            int code = type.ordinal() * 2 + (isBlack ? 1 : 0);
+            int index = 2 * (code * rows * cols + getSquareIndex(rowCoord, colCoord));
+            middlegame = evalTable[index];
+            endgame = evalTable[index + 1];
+        } else {
+            middlegame = evalWeights.getSquareValue(type, isBlack, rowCoord, colCoord, rows, cols, false);
+            endgame = evalWeights.getSquareValue(type, isBlack, rowCoord, colCoord, rows, cols, true);
+        }
+        if(type == PieceType.ORBIT){
+            int radius = ((Orbit) piece).getRadius();
+            middlegame += radius * evalWeights.getOrbitRadiusMiddlegameValue();
+            endgame += radius * evalWeights.getOrbitRadiusEndgameValue();
+        }
+        int sign = isBlack ? -delta : delta;
+        middlegameScore += sign * middlegame;
+        endgameScore += sign * endgame;
+        phase += delta * evalWeights.getPhaseWeight(type);
     }
 
     /**
-     * Removes a piece from the given location on the board
-     * @param rowCoord row coordinate of piece
-     * @param colCoord column coordinate of piece
+     * Adds (delta 1) or removes (delta -1) the attacks of a piece standing on the given square to its player's attack
+     * map. A piece attacks every square it could capture an enemy piece on, whether or not one is there.
+     * @param rowCoord row coordinate of the piece
+     * @param colCoord column coordinate of the piece
+     * @param piece piece whose attacks change
+     * @param delta 1 to add the attacks, -1 to remove them
      */
-    public void removePiece(int rowCoord, int colCoord){
-        this.pieces[rowCoord][colCoord] = null;
+    private void updatePieceAttacks(int rowCoord, int colCoord, Piece piece, int delta){
+        int base = piece.isBlack() ? rows * cols : 0;
+        switch (piece.getType()) {
+            case PAWN:
+                for (int rowMove = -1; rowMove < 2; rowMove += 2) {
+                    addAttack(base, rowCoord + rowMove, colCoord - 1, delta);
+                    addAttack(base, rowCoord + rowMove, colCoord + 1, delta);
+                    if (((Pawn) piece).getIsFirstMove()) {
+                        addAttack(base, rowCoord + 2 * rowMove, colCoord, delta);
+                    }
+                }
+                break;
+            case KNIGHT:
+                if (updateLeapAttacks(base, rowCoord, colCoord, getLeapTable(PieceType.KNIGHT, 0), delta)) {
+                    break;
+                }
+                for (int offset = -2; offset <= 2; offset += 4) {
+                    for (int side = -1; side <= 1; side += 2) {
+                        addAttack(base, rowCoord + offset, colCoord + side, delta);
+                        addAttack(base, rowCoord + side, colCoord + offset, delta);
+                    }
+                }
+                break;
+            case TIGER:
+                if (!updateLeapAttacks(base, rowCoord, colCoord, getLeapTable(PieceType.TIGER, 0), delta)) {
+                    for (int offset = -2; offset <= 2; offset += 4) {
+                        addAttack(base, rowCoord + offset, colCoord, delta);
+                        addAttack(base, rowCoord, colCoord + offset, delta);
+                    }
+                }
+                // Tigers also capture on every adjacent square, like a King
+                updateAdjacentAttacks(base, rowCoord, colCoord, delta);
+                break;
+            case KING:
+                updateAdjacentAttacks(base, rowCoord, colCoord, delta);
+                break;
+            case ORBIT:
+                int radius = LeapTable.clampRadius(((Orbit) piece).getRadius(), rows, cols);
+                if (updateLeapAttacks(base, rowCoord, colCoord, getLeapTable(PieceType.ORBIT, radius), delta)) {
+                    break;
+                }
+                for (int rowMove = Math.max(-radius, -rowCoord); rowMove <= Math.min(radius, rows - 1 - rowCoord);
+                     rowMove++) {
+                    for (int colMove = Math.max(-radius, -colCoord); colMove <= Math.min(radius, cols - 1 - colCoord);
+                         colMove++) {
+                        if ((rowMove != 0 || colMove != 0) && rowMove * rowMove + colMove * colMove <= radius * radius) {
+                            addAttack(base, rowCoord + rowMove, colCoord + colMove, delta);
+                        }
+                    }
+                }
+                break;
+            default:
+                if (isMagicBacked) {
+                    addToAttacks(base, MagicBitboards.attacks(piece.getType(), rowCoord * 8 + colCoord,
+                            occupiedBitboard), delta);
+                    break;
+                }
+                for (int rowStep = -1; rowStep < 2; rowStep++) {
+                    for (int colStep = -1; colStep < 2; colStep++) {
+                        if ((rowStep != 0 || colStep != 0) && slidesAlong(piece.getType(), rowStep, colStep)) {
+                            updateRayAttacks(base, rowCoord, colCoord, rowStep, colStep, delta);
+                        }
+                    }
+                }
+                break;
+        }
     }
 
     /**
-     * Sets a given location on the board to be the given Piece
-     * @param rowCoord row coordinate of piece
-     * @param colCoord column coordinate of piece
-     * @param piece new piece that is to be set
-     * @return true if the piece was set on the board;
-     *         false otherwise;
+     * Adds delta to every destination of a leaping piece on the given square
+     * @return false if there is no table, leaving the attacks to be computed square by square
      */
-    public boolean setPiece(int rowCoord, int colCoord, Piece piece){
-        if(rowCoord < 0 || colCoord < 0 || rowCoord >= rows || colCoord >= cols) {
+    private boolean updateLeapAttacks(int base, int rowCoord, int colCoord, LeapTable table, int delta){
+        if(table == null){
             return false;
         }
-        if(piece == null){
-            pieces[rowCoord][colCoord] = null;
-            return true;
+        int square = rowCoord * cols + colCoord;
+        int[] destinations = table.getDestinations();
+        for (int index = table.getStart(square); index < table.getEnd(square); index++) {
+            int destination = destinations[index];
+            attackCounts[base + (destination >>> 8) * cols + (destination & 0xFF)] += delta;
         }
-        pieces[rowCoord][colCoord] = piece;
-        piece.setRowCoord(rowCoord);
-        piece.setColCoord(colCoord);
         return true;
     }
 
     /**
-     * Wipes and clears the board with all the pieces on the board set to null
+     * Adds delta to the attacks of every square adjacent to (rowCoord, colCoord), the captures of a King and a Tiger
      */
-    public void clearBoard(){
-        for (int rowIter = 0; rowIter < rows; rowIter++) {
-            for (int colIter = 0; colIter < cols; colIter++) {
-                pieces[rowIter][colIter] = null;
+    private void updateAdjacentAttacks(int base, int rowCoord, int colCoord, int delta){
+        if (updateLeapAttacks(base, rowCoord, colCoord, getLeapTable(PieceType.KING, 0), delta)) {
+            return;
+        }
+        for (int rowMove = -1; rowMove < 2; rowMove++) {
+            for (int colMove = -1; colMove < 2; colMove++) {
+                if (rowMove != 0 || colMove != 0) {
+                    addAttack(base, rowCoord + rowMove, colCoord + colMove, delta);
+                }
             }
+        }
+    }
 
+    private void addAttack(int base, int rowCoord, int colCoord, int delta){
+        if(rowCoord >= 0 && colCoord >= 0 && rowCoord < rows && colCoord < cols){
+            attackCounts[base + rowCoord * cols + colCoord] += delta;
         }
     }
+
     /**
-     * Returns the piece on the board that is located at the given coordinates. If there is no piece there, returns null
-     * @param rowCoord row coordinate on board
-     * @param colCoord column coordinate on board
-     * @return Piece the piece that is on the board at the coordinate;
-     *         null if invalid coordinates or no piece on the board
+     * Adds delta to every square from the square after (rowCoord, colCoord) in the direction (rowStep, colStep) up to
+     * and including the first occupied square
      */
-    public Piece getPiece(int rowCoord, int colCoord){
-        if(rowCoord < 0 || colCoord < 0 || rowCoord >= rows || colCoord >= cols) {
-            return null;
+    private void updateRayAttacks(int base, int rowCoord, int colCoord, int rowStep, int colStep, int delta){
+        if (isLineIndexed()) {
+            int square = rowCoord * cols + colCoord;
+            int last = getLineEnd(rowCoord, colCoord, rowStep, colStep);
+            if (last < 0) {
+                return;
+            }
+            int step = rowStep * cols + colStep;
+            do {
+                square += step;
+                attackCounts[base + square] += delta;
+            } while (square != last);
+            return;
+        }
+        int rowIter = rowCoord + rowStep;
+        int colIter = colCoord + colStep;
+        while (rowIter >= 0 && colIter >= 0 && rowIter < rows && colIter < cols) {
+            attackCounts[base + rowIter * cols + colIter] += delta;
+            if (pieces[rowIter][colIter] != null) {
+                return;
+            }
+            rowIter += rowStep;
+            colIter += colStep;
         }
-        return pieces[rowCoord][colCoord];
     }
 
     /**
-     * Checks to see if there is a piece at the given rowCoord, colCoord and if there is checks to see if that piece can
-     * be moved to the desired newRol, newCol coordinates. If the move is legal and valid, then the piece will be moved
-     * and if an opposing players piece can be captured at the end location, it is captured.
-     * @param rowCoord Starting  row coordinate
-     * @param colCoord Starting column coordinate
-     * @param newRow Ending row coordinate
-     * @param newCol Ending column coordinate
-     * @param isBlack
-     * @return true if the piece can be moved to new location;
-     *         false if invalid or illegal move
+     * When a square becomes empty (delta 1) or occupied (delta -1), the attacks of every sliding piece whose line runs
+     * through the square are extended past it or cut off at it
+     * @param rowCoord row coordinate of the square that changed
+     * @param colCoord column coordinate of the square that changed
+     * @param delta 1 if the square was emptied, -1 if it was filled
      */
-    public boolean movePiece(int rowCoord, int colCoord, int newRow, int newCol, boolean isBlack){
-
-        if(newRow < 0 || newCol < 0 || newRow >= rows || newCol >= cols){
-            return false;
+    private void updateLinesThrough(int rowCoord, int colCoord, int delta){
+        if (isMagicBacked) {
+            updateLinesThroughMagic(rowCoord * 8 + colCoord, delta);
+            return;
         }
-        if(rowCoord == newRow && colCoord == newCol){
-            return false;
+        if (wideLayout != null) {
+            updateLinesThroughWide(rowCoord, colCoord, delta);
+            return;
         }
-        Piece currentPiece = this.getPiece(rowCoord, colCoord);
-        if (currentPiece == null || currentPiece.isBlack() != isBlack){
-            return false;
+        if (sparseIndex != null) {
+            updateLinesThroughSparse(rowCoord, colCoord, delta);
+            return;
         }
-        if (currentPiece.canMove(this, newRow, newCol)){
-            Piece oldPiece = this.getPiece(newRow, newCol);
-            setPiece(newRow, newCol, currentPiece);
-            setPiece(rowCoord, colCoord, null);
-            boolean isChecked = getCheck(isBlack);
-            boolean isOwnCheck = canCheckOwnKing(isBlack);
-            if(isOwnCheck){
-                setPiece(rowCoord, colCoord, currentPiece);
-                setPiece(newRow, newCol, oldPiece);
-                getKing(isBlack);
-                return false;
-            }
-            if(isChecked && !isOwnCheck){
-                setCheck(isBlack);
-            }
-            boolean isEnemyCheck = canCheckEnemyKing(currentPiece, isBlack);
-            int[] enemyCoord = getKing(!isBlack);
-            Piece enemyKing = getPiece(enemyCoord[0], enemyCoord[1]);
-            if(isEnemyCheck){
-                for (int rowMove = -1; rowMove < 2; rowMove++){
-                    for (int colMove = -1; colMove < 2; colMove++) {
-                        if(!enemyKing.canMove(this, enemyCoord[0] + rowMove, enemyCoord[1] + colMove)){
-                            setCheckmate(!isBlack);
+        for (int rowStep = -1; rowStep < 2; rowStep++) {
+            for (int colStep = -1; colStep < 2; colStep++) {
+                if (rowStep == 0 && colStep == 0) {
+                    continue;
+                }
+                int rowIter = rowCoord + rowStep;
+                int colIter = colCoord + colStep;
+                while (rowIter >= 0 && colIter >= 0 && rowIter < rows && colIter < cols) {
+                    Piece slider = pieces[rowIter][colIter];
+                    if (slider != null) {
+                        if (slidesAlong(slider.getType(), rowStep, colStep)) {
+                            updateRayAttacks(slider.isBlack() ? rows * cols : 0, rowCoord, colCoord, -rowStep,
+                                    -colStep, delta);
                         }
+                        break;
                     }
+                    rowIter += rowStep;
+                    colIter += colStep;
                 }
             }
-            return true;
-        } else {
-            return false;
         }
     }
 
     /**
-     * Sets whether a Player is in checkmate
-     * @param isBlack color of player in checkmate
+     * updateLinesThrough for 8x8 boards. The sliders that see the square are found by looking back from it, and for
+     * each one the squares beyond it are the difference between its attacks with the square empty and with the square
+     * occupied. The square must be empty in occupiedBitboard when this is called.
      */
-    public void setCheckmate(boolean isBlack) {
-        if(isBlack == true){
-            isBlackCheckmate = true;
-            isBlackCheck = true;
-        } else {
-            isWhiteCheckmate = true;
-            isWhiteCheck = true;
+    private void updateLinesThroughMagic(int square, int delta){
+        long squareBit = 1L << square;
+        long queens = getBitboard(PieceType.QUEEN, false) | getBitboard(PieceType.QUEEN, true);
+        long rooks = getBitboard(PieceType.ROOK, false) | getBitboard(PieceType.ROOK, true);
+        long bishops = getBitboard(PieceType.BISHOP, false) | getBitboard(PieceType.BISHOP, true);
+        long sliders = (MagicBitboards.rookAttacks(square, occupiedBitboard) & (rooks | queens))
+                | (MagicBitboards.bishopAttacks(square, occupiedBitboard) & (bishops | queens));
+        while (sliders != 0) {
+            int sliderSquare = Long.numberOfTrailingZeros(sliders);
+            sliders &= sliders - 1;
+            Piece slider = pieces[sliderSquare >>> 3][sliderSquare & 7];
+            long beyond = MagicBitboards.attacks(slider.getType(), sliderSquare, occupiedBitboard)
+                    & ~MagicBitboards.attacks(slider.getType(), sliderSquare, occupiedBitboard | squareBit);
+            addToAttacks(slider.isBlack() ? 64 : 0, beyond, delta);
         }
     }
 
-    private boolean isWhiteCheck(){
-        return this.isWhiteCheck;
-    }
-
-    private boolean isBlackCheck(){
-        return this.isBlackCheck;
-    }
-
     /**
-     * Gets whether the isBlack player is under checkmate
-     * @param isBlack color of player to look up checkmate
-     * @return true if king under checkmate
+     * updateLinesThrough for boards with wide bitboards: the first piece in every direction is found with a bit scan
+     * along the ray, and whether it slides that way with the Rook, Bishop and Queen bitboards, instead of stepping
+     * through the pieces array
      */
-    public boolean getCheckmate(boolean isBlack){
-        if(isBlack == true){
-            return isBlackCheckmate;
-        } else {
-            return isWhiteCheckmate;
+    private void updateLinesThroughWide(int rowCoord, int colCoord, int delta){
+        int square = rowCoord * cols + colCoord;
+        for (int direction = 0; direction < WideBitboard.DIRECTIONS.length; direction++) {
+            int last = wideLayout.lastSquare(square, direction, wideOccupied);
+            if (last < 0 || !WideBitboard.test(wideOccupied, last)) {
+                continue;
+            }
+            int rowStep = WideBitboard.DIRECTIONS[direction][0];
+            int colStep = WideBitboard.DIRECTIONS[direction][1];
+            PieceType lineType = rowStep == 0 || colStep == 0 ? PieceType.ROOK : PieceType.BISHOP;
+            boolean isBlackSlider = WideBitboard.test(wideColorBitboards[1], last);
+            if (WideBitboard.test(getWideBitboard(lineType, isBlackSlider), last)
+                    || WideBitboard.test(getWideBitboard(PieceType.QUEEN, isBlackSlider), last)) {
+                updateRayAttacks(isBlackSlider ? rows * cols : 0, rowCoord, colCoord, -rowStep, -colStep, delta);
+            }
         }
     }
 
     /**
-     * Gets the check status for the isBlack player
-     * @param isBlack color of player to return check status
-     * @return true if king is checked, false otherwise
+     * updateLinesThrough for boards with a sparse index: the first piece in every direction is found with a binary
+     * search of the line's occupied squares. The square must be missing from the index when this is called.
      */
-    public boolean getCheck(boolean isBlack) {
-        if(isBlack){
-            return isBlackCheck();
-        } else {
-            return isWhiteCheck();
+    private void updateLinesThroughSparse(int rowCoord, int colCoord, int delta){
+        for (int[] direction : WideBitboard.DIRECTIONS) {
+            int last = sparseIndex.lastSquare(rowCoord, colCoord, direction[0], direction[1]);
+            if (last < 0) {
+                continue;
+            }
+            Piece slider = pieces[last / cols][last % cols];
+            if (slider != null && slidesAlong(slider.getType(), direction[0], direction[1])) {
+                updateRayAttacks(slider.isBlack() ? rows * cols : 0, rowCoord, colCoord, -direction[0], -direction[1],
+                        delta);
+            }
         }
     }
 
     /**
-     * sets the color isBlack to be under check if it previously was not, and sets the check status to false if the king
-     * was previously under check
-     * @param isBlack
+     * Adds delta to the attack map entry of every square in the bitboard
      */
-    public void setCheck(boolean isBlack){
-        if(isBlack){
-            isBlackCheck = !isBlackCheck;
-        } else {
-            isWhiteCheck = !isWhiteCheck;
+    private void addToAttacks(int base, long squares, int delta){
+        while (squares != 0) {
+            attackCounts[base + Long.numberOfTrailingZeros(squares)] += delta;
+            squares &= squares - 1;
         }
     }
 
     /**
-     * This functions serves 2 functions: updates the positions of the two kings on the board,
-     *  and gets the positions of the king for the specified color
-     * @param isBlack color of desired King piece
-     * @return int[] the coordinates of the King Piece in the format {rowCoord, colCoord}
+     * @return true if a piece of the given type slides along lines in the direction (rowStep, colStep)
      */
-    public int[] getKing(boolean isBlack) {
-        for (int rowIter = 0; rowIter < getRows(); rowIter++) {
-            for (int colIter = 0; colIter < getCols(); colIter++) {
-                Piece currentPiece = getPiece(rowIter, colIter);
-                if(currentPiece instanceof King){
-                    if(currentPiece.isBlack() == true){
-                        blackPosition[0] = currentPiece.getRowCoord();
-                        blackPosition[1] = currentPiece.getColCoord();
-                    } else {
-                        whitePosition[0] = currentPiece.getRowCoord();
-                        whitePosition[1] = currentPiece.getColCoord();
-                    }
-                }
-            }
-
-        }
-        if(isBlack){
-            return blackPosition;
-        } else {
-            return whitePosition;
+    private static boolean slidesAlong(PieceType type, int rowStep, int colStep){
+        if (type == PieceType.QUEEN) {
+            return true;
         }
+        return rowStep == 0 || colStep == 0 ? type == PieceType.ROOK : type == PieceType.BISHOP;
     }
 
+
     /**
-     * Checks to see if a given move will cause the player's own king to be exposed to check, or the king continues
+     *
+     * @return Number of rows in the board
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     *
+     * @return Number of columns in the board
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Gets the bit index used by the bitboards for the given square
+     * @param rowCoord row coordinate of square
+     * @param colCoord column coordinate of square
+     * @return int index of the square, row * cols + col
+     */
+    public int getSquareIndex(int rowCoord, int colCoord) {
+        return rowCoord * cols + colCoord;
+    }
+
+    /**
+     * Checks whether the board is small enough (at most 64 squares) to be stored as bitboards. The bitboard getters
+     * may only be used on such boards.
+     * @return true if the board keeps bitboards
+     */
+    public boolean isBitboardBacked() {
+        return pieceBitboards != null;
+    }
+
+    /**
+     * Gets the bitboard of all pieces of the given type and color. Bit (row * cols + col) is set for each such piece.
+     * @param type type of piece
+     * @param isBlack color of piece
+     * @return long bitboard of the pieces
+     */
+    public long getBitboard(PieceType type, boolean isBlack) {
+        return pieceBitboards[(isBlack ? PieceType.COUNT : 0) + type.ordinal()];
+    }
+
+    /**
+     * Gets the bitboard of all squares occupied by the given player
+     * @param isBlack color of player
+     * @return long bitboard of the player's pieces
+     */
+    public long getOccupancy(boolean isBlack) {
+        return colorBitboards[isBlack ? 1 : 0];
+    }
+
+    /**
+     * Gets the bitboard of all occupied squares
+     * @return long bitboard of every piece on the board
+     */
+    public long getOccupancy() {
+        return occupiedBitboard;
+    }
+
+    /**
+     * Gets the layout of the multi-word bitboards kept by boards of 65 to WideBitboard.MAX_SQUARES squares. The wide
+     * bitboard getters may only be used on such boards.
+     * @return WideBitboard layout, or null if the board keeps no wide bitboards
+     */
+    public WideBitboard getWideLayout() {
+        return wideLayout;
+    }
+
+    /**
+     * Gets the wide bitboard of all pieces of the given type and color. The array is the board's own and must not be
+     * changed.
+     * @param type type of piece
+     * @param isBlack color of piece
+     * @return long[] bitboard of the pieces
+     */
+    public long[] getWideBitboard(PieceType type, boolean isBlack) {
+        return widePieceBitboards[(isBlack ? PieceType.COUNT : 0) + type.ordinal()];
+    }
+
+    /**
+     * Gets the wide bitboard of all squares occupied by the given player. The array is the board's own and must not
+     * be changed.
+     * @param isBlack color of player
+     * @return long[] bitboard of the player's pieces
+     */
+    public long[] getWideOccupancy(boolean isBlack) {
+        return wideColorBitboards[isBlack ? 1 : 0];
+    }
+
+    /**
+     * Gets the wide bitboard of all occupied squares. The array is the board's own and must not be changed.
+     * @return long[] bitboard of every piece on the board
+     */
+    public long[] getWideOccupancy() {
+        return wideOccupied;
+    }
+
+    /**
+     * Whether getLineEnd finds the end of a line with the wide bitboards or the sparse index instead of stepping along
+     * it. 8x8 boards use MagicBitboards instead, and other boards of up to 64 squares walk the pieces array.
+     * @return true if the board has wide bitboards or a sparse index
+     */
+    public boolean isLineIndexed() {
+        return wideLayout != null || sparseIndex != null;
+    }
+
+    /**
+     * Finds the last square a sliding piece on the given square covers in a direction: the first occupied square, or
+     * the square on the edge if the line is empty
+     * @param rowCoord row coordinate of the square
+     * @param colCoord column coordinate of the square
+     * @param rowStep row direction, -1, 0, or 1
+     * @param colStep column direction, -1, 0, or 1, not both 0
+     * @return square index of the last square, or -1 if the square is on the edge in that direction
+     */
+    public int getLineEnd(int rowCoord, int colCoord, int rowStep, int colStep) {
+        if (wideLayout != null) {
+            return wideLayout.lastSquare(rowCoord * cols + colCoord, WideBitboard.direction(rowStep, colStep),
+                    wideOccupied);
+        }
+        if (sparseIndex != null) {
+            return sparseIndex.lastSquare(rowCoord, colCoord, rowStep, colStep);
+        }
+        int last = -1;
+        int rowIter = rowCoord + rowStep;
+        int colIter = colCoord + colStep;
+        while (rowIter >= 0 && colIter >= 0 && rowIter < rows && colIter < cols) {
+            last = rowIter * cols + colIter;
+            if (pieces[rowIter][colIter] != null) {
+                break;
+            }
+            rowIter += rowStep;
+            colIter += colStep;
+        }
+        return last;
+    }
+
+    /**
+     * Checks to see if the given spot on the board is empty or occupied
+     * @param rowCoord  Coordinate of row on the board to be checked
+     * @param colCoord  Coordinate of column on the board to be checked
+     * @return True if the spot on the board is empty
+     */
+    public boolean isEmpty(int rowCoord, int colCoord){
+        if(pieceBitboards != null){
+            return (occupiedBitboard & (1L << getSquareIndex(rowCoord, colCoord))) == 0;
+        }
+        return pieces[rowCoord][colCoord] == null;
+    }
+
+    /**
+     * Removes a piece from the given location on the board
+     * @param rowCoord row coordinate of piece
+     * @param colCoord column coordinate of piece
+     */
+    public void removePiece(int rowCoord, int colCoord){
+        clearSquare(rowCoord, colCoord);
+    }
+
+    /**
+     * Sets a given location on the board to be the given Piece
+     * @param rowCoord row coordinate of piece
+     * @param colCoord column coordinate of piece
+     * @param piece new piece that is to be set
+     * @return true if the piece was set on the board;
+     *         false otherwise;
+     */
+    public boolean setPiece(int rowCoord, int colCoord, Piece piece){
+        if(rowCoord < 0 || colCoord < 0 || rowCoord >= rows || colCoord >= cols) {
+            return false;
+        }
+        if(piece == null){
+            clearSquare(rowCoord, colCoord);
+            return true;
+        }
+        placePiece(rowCoord, colCoord, piece);
+        piece.setRowCoord(rowCoord);
+        piece.setColCoord(colCoord);
+        return true;
+    }
+
+    /**
+     * Wipes and clears the board with all the pieces on the board set to null
+     */
+    public void clearBoard(){
+        if(sparseIndex != null){
+            clearSparse();
+        } else {
+            for (int rowIter = 0; rowIter < rows; rowIter++) {
+                for (int colIter = 0; colIter < cols; colIter++) {
+                    pieces[rowIter][colIter] = null;
+                }
+            }
+            Arrays.fill(attackCounts, 0);
+        }
+        if(pieceBitboards != null){
+            Arrays.fill(pieceBitboards, 0L);
+            colorBitboards[0] = 0L;
+            colorBitboards[1] = 0L;
+            occupiedBitboard = 0L;
+        } else if(wideLayout != null){
+            for (long[] bitboard : widePieceBitboards) {
+                Arrays.fill(bitboard, 0L);
+            }
+            Arrays.fill(wideColorBitboards[0], 0L);
+            Arrays.fill(wideColorBitboards[1], 0L);
+            Arrays.fill(wideOccupied, 0L);
+        }
+        kingSquares[0] = -1;
+        kingSquares[1] = -1;
+        kingCounts[0] = 0;
+        kingCounts[1] = 0;
+        zobristKey = Zobrist.dimensionKey(rows, cols) ^ (isBlackTurn ? Zobrist.sideKey() : 0L);
+        middlegameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+        historySize = 0;
+    }
+    /**
+     * clearBoard for boards with a sparse index: only the occupied squares are visited. The attacks of every piece are
+     * taken off the attack maps while the board is still intact, which leaves them all zero without filling them.
+     */
+    private void clearSparse(){
+        for (int index = 0; index < sparseIndex.size(); index++) {
+            int square = sparseIndex.getSquare(index);
+            updatePieceAttacks(square / cols, square % cols, pieces[square / cols][square % cols], -1);
+        }
+        for (int index = 0; index < sparseIndex.size(); index++) {
+            int square = sparseIndex.getSquare(index);
+            pieces[square / cols][square % cols] = null;
+        }
+        sparseIndex.clear();
+    }
+
+    /**
+     * Gets the destination table of a leaping piece for boards of this size, looking it up on first use
+     * @param type KNIGHT, KING, TIGER (its jumps only) or ORBIT
+     * @param radius radius of an Orbit, ignored for the other types
+     * @return LeapTable, or null if the board is too large for tables
+     */
+    public LeapTable getLeapTable(PieceType type, int radius){
+        if(rows * cols > LeapTable.MAX_TABLE_SQUARES){
+            return null;
+        }
+        if(type == PieceType.ORBIT){
+            radius = LeapTable.clampRadius(radius, rows, cols);
+            if(radius >= orbitTables.length){
+                orbitTables = Arrays.copyOf(orbitTables, radius + 1);
+            }
+            if(orbitTables[radius] == null){
+                orbitTables[radius] = LeapTable.get(type, radius, rows, cols);
+            }
+            return orbitTables[radius];
+        }
+        if(leapTables[type.ordinal()] == null){
+            leapTables[type.ordinal()] = LeapTable.get(type, 0, rows, cols);
+        }
+        return leapTables[type.ordinal()];
+    }
+
+    /**
+     * Returns the piece on the board that is located at the given coordinates. If there is no piece there, returns null
+     * @param rowCoord row coordinate on board
+     * @param colCoord column coordinate on board
+     * @return Piece the piece that is on the board at the coordinate;
+     *         null if invalid coordinates or no piece on the board
+     */
+    public Piece getPiece(int rowCoord, int colCoord){
+        if(rowCoord < 0 || colCoord < 0 || rowCoord >= rows || colCoord >= cols) {
+            return null;
+        }
+        return pieces[rowCoord][colCoord];
+    }
+
+    /**
+     * Checks to see if there is a piece at the given rowCoord, colCoord and if there is checks to see if that piece can
+     * be moved to the desired newRol, newCol coordinates. If the move is legal and valid, then the piece will be moved
+     * and if an opposing players piece can be captured at the end location, it is captured.
+     * @param rowCoord Starting  row coordinate
+     * @param colCoord Starting column coordinate
+     * @param newRow Ending row coordinate
+     * @param newCol Ending column coordinate
+     * @param isBlack
+     * @return true if the piece can be moved to new location;
+     *         false if invalid or illegal move
+     */
+    public boolean movePiece(int rowCoord, int colCoord, int newRow, int newCol, boolean isBlack){
+        if(!isLegalMove(rowCoord, colCoord, newRow, newCol, isBlack)){
+            return false;
+        }
+        Piece currentPiece = this.getPiece(rowCoord, colCoord);
+        boolean isChecked = getCheck(isBlack);
+        makeMove(Move.encode(rowCoord, colCoord, newRow, newCol));
+        if(isChecked){
+            setCheck(isBlack);
+        }
+        canCheckEnemyKing(currentPiece, isBlack);
+        if(isCheckmate(!isBlack)){
+            setCheckmate(!isBlack);
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether the isBlack player may move the piece at rowCoord, colCoord to newRow, newCol: the coordinates
+     * must be on the board, the piece must belong to the player and be able to make the move, and the move must not
+     * leave the player's own King under check. The board and its pieces are the same after the call as before.
+     * @param rowCoord Starting  row coordinate
+     * @param colCoord Starting column coordinate
+     * @param newRow Ending row coordinate
+     * @param newCol Ending column coordinate
+     * @param isBlack color of the Player moving
+     * @return true if the move is legal
+     */
+    public boolean isLegalMove(int rowCoord, int colCoord, int newRow, int newCol, boolean isBlack){
+        if(newRow < 0 || newCol < 0 || newRow >= rows || newCol >= cols){
+            return false;
+        }
+        if(rowCoord == newRow && colCoord == newCol){
+            return false;
+        }
+        Piece currentPiece = this.getPiece(rowCoord, colCoord);
+        if (currentPiece == null || currentPiece.isBlack() != isBlack){
+            return false;
+        }
+        if (!currentPiece.canMove(this, newRow, newCol)){
+            return false;
+        }
+        int kingSquare = findKingSquare(isBlack);
+        if (kingSquare < 0 || (kingSquare != getSquareIndex(rowCoord, colCoord) && !isInCheck(isBlack)
+                && !isPinned(rowCoord, colCoord))) {
+            return true;
+        }
+        return !leavesKingAttacked(Move.encode(rowCoord, colCoord, newRow, newCol), kingSquare, isBlack);
+    }
+
+    /**
+     * Makes the packed move on the board without checking whether it is legal. Any piece on the end square is
+     * captured, a moving Pawn uses up its first move, the turn passes to the other color, and an undo record is pushed
+     * so the move can be taken back with unmakeMove.
+     * @param move packed move (see Move)
+     */
+    public void makeMove(int move){
+        int fromRow = Move.getFromRow(move);
+        int fromCol = Move.getFromCol(move);
+        int toRow = Move.getToRow(move);
+        int toCol = Move.getToCol(move);
+        Piece movingPiece = pieces[fromRow][fromCol];
+        Piece capturedPiece = pieces[toRow][toCol];
+        boolean wasFirstMove = movingPiece.getType() == PieceType.PAWN && ((Pawn) movingPiece).getIsFirstMove();
+        if(historySize == historyMoves.length){
+            historyMoves = Arrays.copyOf(historyMoves, historySize * 2);
+            historyCaptured = Arrays.copyOf(historyCaptured, historySize * 2);
+            historyStates = Arrays.copyOf(historyStates, historySize * 2);
+        }
+        historyMoves[historySize] = move;
+        historyCaptured[historySize] = capturedPiece;
+        historyStates[historySize] = packState(wasFirstMove);
+        historySize++;
+
+        clearSquare(fromRow, fromCol);
+        if(wasFirstMove){
+            ((Pawn) movingPiece).setFirstMove(false);
+        }
+        placePiece(toRow, toCol, movingPiece);
+        movingPiece.setRowCoord(toRow);
+        movingPiece.setColCoord(toCol);
+        setBlackTurn(!movingPiece.isBlack());
+    }
+
+    /**
+     * Takes back the last move made with makeMove, restoring any captured piece, the Pawn first move flag, the check
+     * flags, the side to move and the King positions. Moves must be unmade in the reverse order they were made, with no
+     * other changes to the board in between.
+     * @return the packed move that was taken back, or Move.NONE if no move has been made
+     */
+    public int unmakeMove(){
+        if(historySize == 0){
+            return Move.NONE;
+        }
+        historySize--;
+        int move = historyMoves[historySize];
+        Piece capturedPiece = historyCaptured[historySize];
+        long state = historyStates[historySize];
+        historyCaptured[historySize] = null;
+
+        int fromRow = Move.getFromRow(move);
+        int fromCol = Move.getFromCol(move);
+        int toRow = Move.getToRow(move);
+        int toCol = Move.getToCol(move);
+        Piece movingPiece = pieces[toRow][toCol];
+        clearSquare(toRow, toCol);
+        if((state & 1L) != 0){
+            ((Pawn) movingPiece).setFirstMove(true);
+        }
+        placePiece(fromRow, fromCol, movingPiece);
+        movingPiece.setRowCoord(fromRow);
+        movingPiece.setColCoord(fromCol);
+        if(capturedPiece != null){
+            placePiece(toRow, toCol, capturedPiece);
+        }
+        restoreState(state);
+        return move;
+    }
+
+    /**
+     * @return number of moves made with makeMove that can still be taken back with unmakeMove
+     */
+    public int getMadeMoveCount(){
+        return historySize;
+    }
+
+    /**
+     * Packs the state that a move can change but that cannot be worked out from the move itself
+     * @param wasFirstMove whether the moving piece is a Pawn that had not moved yet
+     * @return long with the first move flag in bit 0, the check and checkmate flags in bits 1 to 4, the side to move
+     *         in bit 5, and the stored White and Black King squares (plus one, 0 if there is no King) in bits 8 to 35
+     *         and 36 to 63
+     */
+    private long packState(boolean wasFirstMove){
+        long state = wasFirstMove ? 1L : 0L;
+        state |= isWhiteCheck ? 2L : 0L;
+        state |= isBlackCheck ? 4L : 0L;
+        state |= isWhiteCheckmate ? 8L : 0L;
+        state |= isBlackCheckmate ? 16L : 0L;
+        state |= isBlackTurn ? 32L : 0L;
+        state |= (long) (kingSquares[0] + 1) << 8;
+        state |= (long) (kingSquares[1] + 1) << 36;
+        return state;
+    }
+
+    /**
+     * Restores the flags and King squares packed by packState. The Pawn first move flag is restored by unmakeMove
+     * before the Pawn is put back, so its attacks are counted with the right flag.
+     * @param state packed state
+     */
+    private void restoreState(long state){
+        isWhiteCheck = (state & 2L) != 0;
+        isBlackCheck = (state & 4L) != 0;
+        isWhiteCheckmate = (state & 8L) != 0;
+        isBlackCheckmate = (state & 16L) != 0;
+        setBlackTurn((state & 32L) != 0);
+        kingSquares[0] = (int) ((state >>> 8) & 0xFFFFFFFL) - 1;
+        kingSquares[1] = (int) ((state >>> 36) & 0xFFFFFFFL) - 1;
+    }
+
+    /**
+     * @return true if it is Black's turn to move
+     */
+    public boolean isBlackTurn(){
+        return isBlackTurn;
+    }
+
+    /**
+     * Sets whose turn it is. The turn is also handed over by every move made, so this is only needed to set up a
+     * position.
+     * @param isBlackTurn true if it is Black's turn
+     */
+    public void setBlackTurn(boolean isBlackTurn){
+        if(this.isBlackTurn != isBlackTurn){
+            this.isBlackTurn = isBlackTurn;
+            zobristKey ^= Zobrist.sideKey();
+        }
+    }
+
+    /**
+     * Gets the Zobrist key of the position: a 64 bit hash of the pieces on every square (including a Pawn's first move
+     * and an Orbit's radius), the board size and the side to move. The key is kept up to date as the board changes, so
+     * this never scans the board.
+     * @return long Zobrist key
+     */
+    public long getZobristKey(){
+        return zobristKey;
+    }
+
+    /**
+     * Gets the middlegame sum of material plus square bonus of every piece, White's pieces counting positive and
+     * Black's negative. Like the other evaluation terms it is kept up to date as the board changes.
+     * @return int score in centipawns from White's view
+     */
+    public int getMiddlegameScore(){
+        return middlegameScore;
+    }
+
+    /**
+     * Gets the endgame sum of material plus square bonus of every piece, White's pieces counting positive and Black's
+     * negative
+     * @return int score in centipawns from White's view
+     */
+    public int getEndgameScore(){
+        return endgameScore;
+    }
+
+    /**
+     * Gets the sum of the phase weights of the pieces on the board, which may exceed getEvalWeights().getFullPhase()
+     * on boards with more pieces than the standard setup
+     * @return int phase, 0 when only Kings and Pawns are left with the default weights
+     */
+    public int getPhase(){
+        return phase;
+    }
+
+    /**
+     * @return weights of the evaluation terms kept by the board
+     */
+    public EvalWeights getEvalWeights(){
+        return evalWeights;
+    }
+
+    /**
+     * Sets the weights of the evaluation terms, recomputing the terms from every piece on the board
+     * @param evalWeights new weights
+     */
+    public void setEvalWeights(EvalWeights evalWeights){
+        this.evalWeights = evalWeights;
+        evalTable = evalWeights.getTable(rows, cols);
+        middlegameScore = 0;
+        endgameScore = 0;
+        phase = 0;
+        if(sparseIndex != null){
+            for(int index = 0; index < sparseIndex.size(); index++){
+                int square = sparseIndex.getSquare(index);
+                updateEvalTerms(square / cols, square % cols, pieces[square / cols][square % cols], 1);
+            }
+        } else {
+            for(int rowIter = 0; rowIter < rows; rowIter++){
+                for(int colIter = 0; colIter < cols; colIter++){
+                    if(pieces[rowIter][colIter] != null){
+                        updateEvalTerms(rowIter, colIter, pieces[rowIter][colIter], 1);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Two boards are equal if they have the same size, the same side to move, and the same piece on every square,
+     * with the same Pawn first move flags and Orbit radii. Check flags and move history are not compared.
+     * @param obj object to compare with
+     * @return true if obj is a Board with the same position
+     */
+    @Override
+    public boolean equals(Object obj){
+        if(this == obj){
+            return true;
+        }
+        if(!(obj instanceof Board)){
+            return false;
+        }
+        Board other = (Board) obj;
+        if(zobristKey != other.zobristKey || rows != other.rows || cols != other.cols
+                || isBlackTurn != other.isBlackTurn){
+            return false;
+        }
+        if(sparseIndex != null){
+            if(sparseIndex.size() != other.sparseIndex.size()){
+                return false;
+            }
+            for(int index = 0; index < sparseIndex.size(); index++){
+                int square = sparseIndex.getSquare(index);
+                if(!samePiece(pieces[square / cols][square % cols], other.pieces[square / cols][square % cols])){
+                    return false;
+                }
+            }
+            return true;
+        }
+        for(int rowIter = 0; rowIter < rows; rowIter++){
+            for(int colIter = 0; colIter < cols; colIter++){
+                if(!samePiece(pieces[rowIter][colIter], other.pieces[rowIter][colIter])){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return hash code derived from the Zobrist key, consistent with equals
+     */
+    @Override
+    public int hashCode(){
+        return Long.hashCode(zobristKey);
+    }
+
+    private static boolean samePiece(Piece piece, Piece otherPiece){
+        if(piece == null || otherPiece == null){
+            return piece == otherPiece;
+        }
+        if(piece.getType() != otherPiece.getType() || piece.isBlack() != otherPiece.isBlack()){
+            return false;
+        }
+        if(piece.getType() == PieceType.PAWN){
+            return ((Pawn) piece).getIsFirstMove() == ((Pawn) otherPiece).getIsFirstMove();
+        }
+        if(piece.getType() == PieceType.ORBIT){
+            return ((Orbit) piece).getRadius() == ((Orbit) otherPiece).getRadius();
+        }
+        return true;
+    }
+
+    /**
+     * Sets whether a Player is in checkmate
+     * @param isBlack color of player in checkmate
+     */
+    public void setCheckmate(boolean isBlack) {
+        if(isBlack == true){
+            isBlackCheckmate = true;
+            isBlackCheck = true;
+        } else {
+            isWhiteCheckmate = true;
+            isWhiteCheck = true;
+        }
+    }
+
+    private boolean isWhiteCheck(){
+        return this.isWhiteCheck;
+    }
+
+    private boolean isBlackCheck(){
+        return this.isBlackCheck;
+    }
+
+    /**
+     * Gets whether the isBlack player is under checkmate
+     * @param isBlack color of player to look up checkmate
+     * @return true if king under checkmate
+     */
+    public boolean getCheckmate(boolean isBlack){
+        if(isBlack == true){
+            return isBlackCheckmate;
+        } else {
+            return isWhiteCheckmate;
+        }
+    }
+
+    /**
+     * Gets the check status for the isBlack player
+     * @param isBlack color of player to return check status
+     * @return true if king is checked, false otherwise
+     */
+    public boolean getCheck(boolean isBlack) {
+        if(isBlack){
+            return isBlackCheck();
+        } else {
+            return isWhiteCheck();
+        }
+    }
+
+    /**
+     * sets the color isBlack to be under check if it previously was not, and sets the check status to false if the king
+     * was previously under check
+     * @param isBlack
+     */
+    public void setCheck(boolean isBlack){
+        if(isBlack){
+            isBlackCheck = !isBlackCheck;
+        } else {
+            isWhiteCheck = !isWhiteCheck;
+        }
+    }
+
+    /**
+     * Gets the position of the King of the given color. The King squares are kept up to date as pieces are placed,
+     * removed and moved, so this does not search the board. If the player has no King on the board, the last known
+     * position is returned.
+     * @param isBlack color of desired King piece
+     * @return int[] the coordinates of the King Piece in the format {rowCoord, colCoord}
+     */
+    public int[] getKing(boolean isBlack) {
+        int kingSquare = kingSquares[isBlack ? 1 : 0];
+        int[] position = isBlack ? blackPosition : whitePosition;
+        if(kingSquare >= 0){
+            position[0] = kingSquare / cols;
+            position[1] = kingSquare % cols;
+        }
+        return position;
+    }
+
+    /**
+     * Checks to see if a given move will cause the player's own king to be exposed to check, or the king continues
      * to be in check position after attempted move
      * @param isBlack color of the Player moving
      * @return true if the move would cause your own King to be under check
      *         false if move is safe
      */
     public boolean canCheckOwnKing(boolean isBlack){
-        int[] kingPosition = getKing(isBlack);
-        for(int rowIteration = 0; rowIteration < getRows(); rowIteration++){
-            for(int colIteration = 0; colIteration < getCols(); colIteration++){
-                Piece currentPiece = this.getPiece(rowIteration, colIteration);
-                if(currentPiece != null && currentPiece.canMove(this, kingPosition[0], kingPosition[1])){
-                    return true;
-                }
-            }
-        }
-        return false;
+        return isInCheck(isBlack);
     }
 
     /**
@@ -401,12 +1461,393 @@ public class Board {
      * @return true if the enemy King will be under check after the move
      */
     public boolean canCheckEnemyKing(Piece piece, boolean isBlack){
-        int[] enemyKing = getKing(!isBlack);
-        if(piece.canMove(this, enemyKing[0], enemyKing[1])){
+        int enemyKing = findKingSquare(!isBlack);
+        if(enemyKing >= 0 && piece.canMove(this, enemyKing / cols, enemyKing % cols)){
             setCheck(!isBlack);
             return true;
         }
         return false;
     }
 
+    /**
+     * Fills the given list with every legal move for the isBlack player as packed moves (see Move). A move is legal if
+     * the piece can make it by its own movement rules and it does not leave the player's own King under check. Only
+     * King moves, moves of pinned pieces and moves out of check have to be tried on the board; with the attack maps
+     * every other move is known to be safe. The list is cleared first and reused, so the method does not allocate
+     * once the list is large enough.
+     * @param isBlack color of the Player moving
+     * @param out list that receives the moves
+     */
+    public void generateLegalMoves(boolean isBlack, MoveList out) {
+        addPseudoLegalMoves(isBlack, out);
+        int kingSquare = findKingSquare(isBlack);
+        if (kingSquare < 0) {
+            return;
+        }
+        boolean isChecked = isInCheck(isBlack);
+        int legalCount = 0;
+        int lastFrom = -1;
+        boolean isLastPinned = false;
+        for (int index = 0; index < out.size(); index++) {
+            int move = out.get(index);
+            int from = (Move.getFromRow(move) << 16) | Move.getFromCol(move);
+            if (from != lastFrom) {
+                lastFrom = from;
+                isLastPinned = isPinned(Move.getFromRow(move), Move.getFromCol(move));
+            }
+            boolean isSafe = !isChecked && !isLastPinned
+                    && getSquareIndex(Move.getFromRow(move), Move.getFromCol(move)) != kingSquare;
+            if (isSafe || !leavesKingAttacked(move, kingSquare, isBlack)) {
+                out.set(legalCount++, move);
+            }
+        }
+        out.truncate(legalCount);
+    }
+
+    /**
+     * Checks whether the isBlack player has at least one legal move, stopping at the first one found. Out of check
+     * every move of a piece that is neither the King nor pinned is legal, so usually the first move settles it. Under
+     * check only evasions are tried on the board: King moves, and when a single piece gives check, captures of it and
+     * moves onto the squares between it and the King if it is a Rook, Bishop or Queen. Under double check only the
+     * King can move.
+     * @param isBlack color of the Player to move
+     * @return true if the player has a legal move
+     */
+    public boolean hasLegalMove(boolean isBlack) {
+        MoveList moves = replyMoves;
+        int kingSquare = findKingSquare(isBlack);
+        if (kingSquare < 0) {
+            addPseudoLegalMoves(isBlack, moves);
+            return !moves.isEmpty();
+        }
+        int checkers = attackCounts[(isBlack ? 0 : rows * cols) + kingSquare];
+        int checkerSquare = -1;
+        if (checkers == 1) {
+            addPseudoLegalMoves(!isBlack, moves);
+            for (int index = 0; index < moves.size() && checkerSquare < 0; index++) {
+                int move = moves.get(index);
+                if (getSquareIndex(Move.getToRow(move), Move.getToCol(move)) == kingSquare) {
+                    checkerSquare = getSquareIndex(Move.getFromRow(move), Move.getFromCol(move));
+                }
+            }
+        }
+        addPseudoLegalMoves(isBlack, moves);
+        int lastFrom = -1;
+        boolean isLastPinned = false;
+        for (int index = 0; index < moves.size(); index++) {
+            int move = moves.get(index);
+            int from = getSquareIndex(Move.getFromRow(move), Move.getFromCol(move));
+            if (from == kingSquare) {
+                if (!leavesKingAttacked(move, kingSquare, isBlack)) {
+                    return true;
+                }
+                continue;
+            }
+            if (checkers == 0) {
+                if (from != lastFrom) {
+                    lastFrom = from;
+                    isLastPinned = isPinned(Move.getFromRow(move), Move.getFromCol(move));
+                }
+                if (!isLastPinned || !leavesKingAttacked(move, kingSquare, isBlack)) {
+                    return true;
+                }
+            } else if (checkers == 1 && (checkerSquare < 0 || isEvasion(move, kingSquare, checkerSquare))
+                    && !leavesKingAttacked(move, kingSquare, isBlack)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a move that is not a King move could answer a single check: it captures the checking piece, or
+     * the checking piece is a Rook, Bishop or Queen and the move ends between it and the King
+     */
+    private boolean isEvasion(int move, int kingSquare, int checkerSquare) {
+        int toRow = Move.getToRow(move);
+        int toCol = Move.getToCol(move);
+        if (getSquareIndex(toRow, toCol) == checkerSquare) {
+            return true;
+        }
+        PieceType checkerType = pieces[checkerSquare / cols][checkerSquare % cols].getType();
+        if (checkerType != PieceType.ROOK && checkerType != PieceType.BISHOP && checkerType != PieceType.QUEEN) {
+            return false;
+        }
+        int rowDistance = checkerSquare / cols - kingSquare / cols;
+        int colDistance = checkerSquare % cols - kingSquare % cols;
+        int rowStep = Integer.signum(rowDistance);
+        int colStep = Integer.signum(colDistance);
+        int toRowDistance = toRow - kingSquare / cols;
+        int toColDistance = toCol - kingSquare % cols;
+        int steps = rowStep != 0 ? toRowDistance * rowStep : toColDistance * colStep;
+        return steps > 0 && steps < Math.max(Math.abs(rowDistance), Math.abs(colDistance))
+                && toRowDistance == steps * rowStep && toColDistance == steps * colStep;
+    }
+
+    /**
+     * Checks whether the King of the given color is under check and its player has no legal move
+     * @param isBlack color of the Player to move
+     * @return true if the player is checkmated
+     */
+    public boolean isCheckmate(boolean isBlack) {
+        return isInCheck(isBlack) && !hasLegalMove(isBlack);
+    }
+
+    /**
+     * Checks whether the King of the given color is not under check but its player has no legal move
+     * @param isBlack color of the Player to move
+     * @return true if the player is stalemated
+     */
+    public boolean isStalemate(boolean isBlack) {
+        return !isInCheck(isBlack) && !hasLegalMove(isBlack);
+    }
+
+    /**
+     * Fills the given list with the moves every piece of the isBlack player can make by its own movement rules,
+     * whether or not they leave the King under check
+     * @param isBlack color of the Player moving
+     * @param out list that receives the moves, cleared first
+     */
+    private void addPseudoLegalMoves(boolean isBlack, MoveList out) {
+        out.clear();
+        if (pieceBitboards != null) {
+            long ownPieces = colorBitboards[isBlack ? 1 : 0];
+            while (ownPieces != 0) {
+                int square = Long.numberOfTrailingZeros(ownPieces);
+                ownPieces &= ownPieces - 1;
+                pieces[square / cols][square % cols].generateMoves(this, out);
+            }
+        } else if (wideLayout != null) {
+            long[] ownPieces = wideColorBitboards[isBlack ? 1 : 0];
+            for (int word = 0; word < ownPieces.length; word++) {
+                long bits = ownPieces[word];
+                while (bits != 0) {
+                    int square = word << 6 | Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                    pieces[square / cols][square % cols].generateMoves(this, out);
+                }
+            }
+        } else if (sparseIndex != null) {
+            for (int index = 0; index < sparseIndex.size(); index++) {
+                int square = sparseIndex.getSquare(index);
+                Piece currentPiece = pieces[square / cols][square % cols];
+                if (currentPiece.isBlack() == isBlack) {
+                    currentPiece.generateMoves(this, out);
+                }
+            }
+        } else {
+            for (int rowIter = 0; rowIter < rows; rowIter++) {
+                for (int colIter = 0; colIter < cols; colIter++) {
+                    Piece currentPiece = pieces[rowIter][colIter];
+                    if (currentPiece != null && currentPiece.isBlack() == isBlack) {
+                        currentPiece.generateMoves(this, out);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Tries the move on the board without updating any Piece, checks whether the moving player's King is attacked
+     * afterwards, and puts the board back
+     * @param move packed move
+     * @param kingSquare square index of the moving player's King before the move
+     * @param isBlack color of the Player moving
+     * @return true if the move leaves the King under attack
+     */
+    private boolean leavesKingAttacked(int move, int kingSquare, boolean isBlack) {
+        int fromRow = Move.getFromRow(move);
+        int fromCol = Move.getFromCol(move);
+        int toRow = Move.getToRow(move);
+        int toCol = Move.getToCol(move);
+        Piece movingPiece = pieces[fromRow][fromCol];
+        Piece capturedPiece = pieces[toRow][toCol];
+        clearSquare(fromRow, fromCol);
+        placePiece(toRow, toCol, movingPiece);
+        boolean isAttacked;
+        if (kingSquare == getSquareIndex(fromRow, fromCol)) {
+            isAttacked = isSquareAttacked(toRow, toCol, !isBlack);
+        } else {
+            isAttacked = isSquareAttacked(kingSquare / cols, kingSquare % cols, !isBlack);
+        }
+        placePiece(fromRow, fromCol, movingPiece);
+        clearSquare(toRow, toCol);
+        if (capturedPiece != null) {
+            placePiece(toRow, toCol, capturedPiece);
+        }
+        return isAttacked;
+    }
+
+    /**
+     * Gets the square of the King of the given color without changing any state
+     * @param isBlack color of King
+     * @return square index of the King, or -1 if there is no King of that color on the board
+     */
+    private int findKingSquare(boolean isBlack) {
+        return kingSquares[isBlack ? 1 : 0];
+    }
+
+    /**
+     * Searches the board for a King of the given color. Only needed when a board set up with more than one King of a
+     * color loses the one that was being tracked.
+     * @param isBlack color of King
+     * @return square index of a King, or -1 if there is none
+     */
+    private int scanForKing(boolean isBlack) {
+        if (wideLayout != null) {
+            long[] kings = getWideBitboard(PieceType.KING, isBlack);
+            for (int word = 0; word < kings.length; word++) {
+                if (kings[word] != 0) {
+                    return word << 6 | Long.numberOfTrailingZeros(kings[word]);
+                }
+            }
+            return -1;
+        }
+        if (sparseIndex != null) {
+            for (int index = 0; index < sparseIndex.size(); index++) {
+                int square = sparseIndex.getSquare(index);
+                Piece currentPiece = pieces[square / cols][square % cols];
+                if (currentPiece.getType() == PieceType.KING && currentPiece.isBlack() == isBlack) {
+                    return square;
+                }
+            }
+            return -1;
+        }
+        for (int rowIter = 0; rowIter < rows; rowIter++) {
+            for (int colIter = 0; colIter < cols; colIter++) {
+                Piece currentPiece = pieces[rowIter][colIter];
+                if (currentPiece != null && currentPiece.getType() == PieceType.KING && currentPiece.isBlack() == isBlack) {
+                    return getSquareIndex(rowIter, colIter);
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether any piece of the byBlack player could capture a piece standing on the given square. This is a
+     * lookup in the incrementally maintained attack map and never changes the board or any Piece.
+     * @param rowCoord row coordinate of square
+     * @param colCoord column coordinate of square
+     * @param byBlack color of the attacking player
+     * @return true if the square is attacked
+     */
+    public boolean isSquareAttacked(int rowCoord, int colCoord, boolean byBlack) {
+        return getAttackCount(rowCoord, colCoord, byBlack) > 0;
+    }
+
+    /**
+     * Gets the number of pieces of the byBlack player that could capture a piece standing on the given square
+     * @param rowCoord row coordinate of square
+     * @param colCoord column coordinate of square
+     * @param byBlack color of the attacking player
+     * @return int number of attackers
+     */
+    public int getAttackCount(int rowCoord, int colCoord, boolean byBlack) {
+        return attackCounts[(byBlack ? rows * cols : 0) + rowCoord * cols + colCoord];
+    }
+
+    /**
+     * Checks whether the King of the given color is attacked by the other player
+     * @param isBlack color of King
+     * @return true if the King is on the board and under check
+     */
+    public boolean isInCheck(boolean isBlack) {
+        int kingSquare = kingSquares[isBlack ? 1 : 0];
+        return kingSquare >= 0 && attackCounts[(isBlack ? 0 : rows * cols) + kingSquare] > 0;
+    }
+
+    /**
+     * Checks whether the piece on the given square is pinned: it stands on a line between its own King and an enemy
+     * Rook, Bishop or Queen with nothing else in between, so moving it off the line would expose the King.
+     * @param rowCoord row coordinate of the piece
+     * @param colCoord column coordinate of the piece
+     * @return true if the piece is pinned
+     */
+    public boolean isPinned(int rowCoord, int colCoord) {
+        Piece piece = getPiece(rowCoord, colCoord);
+        if (piece == null || piece.getType() == PieceType.KING) {
+            return false;
+        }
+        int kingSquare = kingSquares[piece.isBlack() ? 1 : 0];
+        if (kingSquare < 0) {
+            return false;
+        }
+        if (isMagicBacked) {
+            return isPinnedMagic(rowCoord * 8 + colCoord, kingSquare, piece.isBlack());
+        }
+        int rowDistance = rowCoord - kingSquare / cols;
+        int colDistance = colCoord - kingSquare % cols;
+        if (rowDistance != 0 && colDistance != 0 && Math.abs(rowDistance) != Math.abs(colDistance)) {
+            return false;
+        }
+        int rowStep = Integer.signum(rowDistance);
+        int colStep = Integer.signum(colDistance);
+        if (wideLayout != null) {
+            int direction = WideBitboard.direction(rowStep, colStep);
+            int square = getSquareIndex(rowCoord, colCoord);
+            if (wideLayout.lastSquare(kingSquare, direction, wideOccupied) != square) {
+                return false;
+            }
+            int last = wideLayout.lastSquare(square, direction, wideOccupied);
+            if (last < 0) {
+                return false;
+            }
+            PieceType lineType = rowStep == 0 || colStep == 0 ? PieceType.ROOK : PieceType.BISHOP;
+            return WideBitboard.test(getWideBitboard(lineType, !piece.isBlack()), last)
+                    || WideBitboard.test(getWideBitboard(PieceType.QUEEN, !piece.isBlack()), last);
+        }
+        if (sparseIndex != null) {
+            if (sparseIndex.lastSquare(kingSquare / cols, kingSquare % cols, rowStep, colStep)
+                    != getSquareIndex(rowCoord, colCoord)) {
+                return false;
+            }
+            int last = sparseIndex.lastSquare(rowCoord, colCoord, rowStep, colStep);
+            Piece pinner = last < 0 ? null : pieces[last / cols][last % cols];
+            return pinner != null && pinner.isBlack() != piece.isBlack()
+                    && slidesAlong(pinner.getType(), rowStep, colStep);
+        }
+        int rowIter = kingSquare / cols + rowStep;
+        int colIter = kingSquare % cols + colStep;
+        while (rowIter != rowCoord || colIter != colCoord) {
+            if (pieces[rowIter][colIter] != null) {
+                return false;
+            }
+            rowIter += rowStep;
+            colIter += colStep;
+        }
+        rowIter += rowStep;
+        colIter += colStep;
+        while (rowIter >= 0 && colIter >= 0 && rowIter < rows && colIter < cols) {
+            Piece pinner = pieces[rowIter][colIter];
+            if (pinner != null) {
+                return pinner.isBlack() != piece.isBlack() && slidesAlong(pinner.getType(), rowStep, colStep);
+            }
+            rowIter += rowStep;
+            colIter += colStep;
+        }
+        return false;
+    }
+
+    /**
+     * isPinned for 8x8 boards: removing the piece from the occupancy uncovers the squares behind it on the line from
+     * the King, and the piece is pinned if an enemy slider of the matching kind stands on them
+     */
+    private boolean isPinnedMagic(int square, int kingSquare, boolean isBlack) {
+        long squareBit = 1L << square;
+        long without = occupiedBitboard & ~squareBit;
+        long enemyQueens = getBitboard(PieceType.QUEEN, !isBlack);
+        long rookView = MagicBitboards.rookAttacks(kingSquare, occupiedBitboard);
+        if ((rookView & squareBit) != 0) {
+            long uncovered = MagicBitboards.rookAttacks(kingSquare, without) & ~rookView;
+            return (uncovered & (getBitboard(PieceType.ROOK, !isBlack) | enemyQueens)) != 0;
+        }
+        long bishopView = MagicBitboards.bishopAttacks(kingSquare, occupiedBitboard);
+        if ((bishopView & squareBit) != 0) {
+            long uncovered = MagicBitboards.bishopAttacks(kingSquare, without) & ~bishopView;
+            return (uncovered & (getBitboard(PieceType.BISHOP, !isBlack) | enemyQueens)) != 0;
+        }
+        return false;
+    }
+
 }
@@ -1,27 +1,49 @@
 package chess;
 
+import chess.engine.Engine;
+import chess.engine.SearchLimits;
+import chess.engine.SearchResult;
+import chess.engine.Tablebases;
+import chess.io.OpeningBook;
 import chess.pieces.*;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.*;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
-public class BoardScreen extends JPanel {
+/**
+ * Swing view of a GameSession. The squares are buttons that submit moves to the session, and the screen redraws itself
+ * and shows dialogs in answer to the session's events. The game state itself (turns, move log, captured pieces, check
+ * and checkmate) lives in the session.
+ */
+public class BoardScreen extends JPanel implements GameSession.Listener {
     private int rows;
     private int columns;
     private JButton[][] squares;
     private ScorePanel scorePanel;
-    private Board board;
+    private GameSession session;
     private final String IMAGE_PATH = "src/chess/PieceImages/";
+    private static final String STANDARD_BOOK_PATH = "standard.book";
+    private static final String CUSTOM_BOOK_PATH = "custom.book";
+    private static final String TABLEBASE_PATH = "tablebases";
     public Map<String, ImageIcon> pieceIconMap = new HashMap<>();
-    public boolean isBlackTurn;
     public Map<String, int[]> clickLog;
-    public Stack<int[]> moveLog;
-    public Stack<Piece> capturedPieces;
-    public Piece capturedPiece;
+
+    /**
+     * Time the computer player may think about each move, in milliseconds
+     */
+    public static final long COMPUTER_MOVE_MILLIS = 1000;
+    private Engine engine;
+    private boolean hasComputer;
+    private boolean isComputerBlack;
+    private int computerMoveId;
+    private CompletableFuture<SearchResult> computerSearch;
 
 
 
@@ -45,14 +67,11 @@ public class BoardScreen extends JPanel {
     public BoardScreen(ScorePanel panel, boolean isCustom, boolean isBlackTurn){
         rows = 8;
         columns = 8;
-        board = new Board(rows, columns, isCustom);
+        session = new GameSession(isCustom, isBlackTurn);
+        session.addListener(this);
         squares = new JButton[rows][columns];
         clickLog = new HashMap<>();
-        moveLog = new Stack<>();
-        this.isBlackTurn = isBlackTurn;
         scorePanel = panel;
-        capturedPiece = null;
-        capturedPieces = new Stack<>();
         importPieces();
 
         for (int rowNum = 0; rowNum < rows; rowNum++) {
@@ -111,6 +130,9 @@ public class BoardScreen extends JPanel {
                 {
                     public void actionPerformed(ActionEvent e)
                     {
+                        if(isComputerTurn()){
+                            return;
+                        }
                         int[] clickPosition = {currentRowCoord, currentColCoord};
                         if(clickLog.get("start") != null){
                             int[] startPosition = clickLog.get("start");
@@ -123,16 +145,14 @@ public class BoardScreen extends JPanel {
                             }
                             Color originalColor = getColor(startPosition);
                             paintButton(originalColor, squares[startPosition[0]][startPosition[1]]);
-                            movePiece(startPosition[0], startPosition[1], currentRowCoord, currentColCoord);
-                            moveLog.push(startPosition);
-                            moveLog.push(clickPosition);
-                            changePlayer();
                             clickLog.clear();
+                            movePiece(startPosition[0], startPosition[1], currentRowCoord, currentColCoord);
+                            playComputerMove();
                         } else {
                             Color originalColor = getColor(clickPosition);
                             paintButton(Color.YELLOW, squares[currentRowCoord][currentColCoord]);
-                            if(board.getPiece(currentRowCoord, currentColCoord) == null
-                                    || board.getPiece(currentRowCoord, currentColCoord).isBlack() != isBlackTurn){
+                            Piece clickedPiece = session.getBoard().getPiece(currentRowCoord, currentColCoord);
+                            if(clickedPiece == null || clickedPiece.isBlack() != session.isBlackTurn()){
                                 paintButton(originalColor, squares[currentRowCoord][currentColCoord]);
                                 JOptionPane.showMessageDialog(null, "Error: Please click on the piece you would like" +
                                         " to move");
@@ -161,60 +181,170 @@ public class BoardScreen extends JPanel {
     }
 
     /**
-     * Changes the player's turn and updates the panel to reflect the proper information
+     * Sets whether one of the players is the computer. If it is already the computer's turn, it starts thinking.
+     * @param hasComputer true to play against the computer, false for two players
+     * @param isComputerBlack color the computer plays
      */
-    private void changePlayer() {
-        isBlackTurn = !isBlackTurn;
-        scorePanel.changePlayers();
+    public void setComputerPlayer(boolean hasComputer, boolean isComputerBlack) {
+        if(hasComputer && engine == null){
+            engine = new Engine();
+            loadOpeningBook(false, STANDARD_BOOK_PATH);
+            loadOpeningBook(true, CUSTOM_BOOK_PATH);
+            loadTablebases();
+        }
+        stopComputer();
+        this.hasComputer = hasComputer;
+        this.isComputerBlack = isComputerBlack;
+        playComputerMove();
+    }
+
+    /**
+     * Gives the computer an opening book for one setup if its file exists, as written by OpeningBook.main
+     */
+    private void loadOpeningBook(boolean isCustom, String path) {
+        if(!Files.exists(Paths.get(path))){
+            return;
+        }
+        try {
+            engine.setOpeningBook(isCustom, OpeningBook.open(Paths.get(path)));
+        } catch (IOException e) {
+            System.err.println("Could not open the opening book " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Gives the computer the endgame tables in the tablebases directory if it exists, as written by
+     * TablebaseGenerator.main
+     */
+    private void loadTablebases() {
+        if(!Files.isDirectory(Paths.get(TABLEBASE_PATH))){
+            return;
+        }
+        try {
+            engine.setTablebases(Tablebases.open(Paths.get(TABLEBASE_PATH)));
+        } catch (IOException e) {
+            System.err.println("Could not open the endgame tables in " + TABLEBASE_PATH + ": " + e.getMessage());
+        }
+    }
+
+    private boolean isComputerTurn() {
+        return hasComputer && session.isBlackTurn() == isComputerBlack;
+    }
+
+    /**
+     * Starts the computer thinking if it is its turn. The search runs on its own thread over a copy of the board, and
+     * its move is played on the event thread unless the game was restarted or a move was undone in the meantime.
+     */
+    private void playComputerMove() {
+        if(!isComputerTurn() || engine.isSearching()){
+            return;
+        }
+        int moveId = ++computerMoveId;
+        computerSearch = engine.start(session.getBoard(), session.isBlackTurn(),
+                SearchLimits.time(COMPUTER_MOVE_MILLIS), null);
+        computerSearch.thenAccept(result ->
+                SwingUtilities.invokeLater(() -> {
+                    if(moveId != computerMoveId || result.getBestMove() == Move.NONE){
+                        return;
+                    }
+                    session.move(result.getBestMove());
+                    playComputerMove();
+                }));
     }
 
     /**
      * Main logic for moving a piece from one square to the other. JButtons from the squares are set up to receive
      * input locations, so actionListeners parse input and once a valid instruction is inputted, calls movePiece to
-     * determine if it is a legal Chess move. This function will use the standard Board and Chess logic to determine
-     * if the attempted move is allowed. Also determines what will happen to the board after the move it is successful.
-     * If the game will end due to a checkmate, then a new game is started and scores updated. If the game loop continues
-     * but an illegal move is attempted, then the appropriate error dialog will be displayed and there will be no changes
-     * to the board
+     * submit the move to the GameSession, which uses the standard Board and Chess logic to determine if the attempted
+     * move is allowed. If an illegal move is attempted, then the appropriate error dialog will be displayed and there
+     * will be no changes to the board. Everything that follows a legal move is handled by the session's events.
      * @param startRow starting row
      * @param startCol starting column
      * @param endRow ending row
      * @param endCol ending column
+     * @return true if the move was made;
+     *         false if the move was illegal
      */
-    private void movePiece(int startRow, int startCol, int endRow, int endCol) {
-        Piece currentPiece = board.getPiece(endRow, endCol);
-        boolean canPieceMove = board.movePiece(startRow, startCol, endRow, endCol, isBlackTurn);
-        if(canPieceMove == false){
+    private boolean movePiece(int startRow, int startCol, int endRow, int endCol) {
+        if(session.move(startRow, startCol, endRow, endCol) == GameSession.MoveResult.ILLEGAL){
             JOptionPane.showMessageDialog(null, "Error: This move is not possible, try again");
-            changePlayer();
-            return;
+            return false;
         }
+        return true;
+    }
 
-        if(board.getCheck(true) || board.getCheck(false)){
-            if(board.getCheckmate(true) || board.getCheckmate(false)){
-                if(board.getCheckmate(true)){
-                    JOptionPane.showMessageDialog(null, "Black is under Checkmate, White wins");
-                    scorePanel.addWhiteWin();
-                    startNewGame(false, true);
-                } else {
-                    JOptionPane.showMessageDialog(null, "White is under Checkmate, Black wins");
-                    scorePanel.addBlackWin();
-                    startNewGame(false, false);
-                }
+    /**
+     * Redraws the board and passes the turn on the ScorePanel after a move, and warns the player who is now under check
+     */
+    @Override
+    public void moveMade(GameSession session, int move, Piece capturedPiece, GameSession.MoveResult result) {
+        showBoard();
+        scorePanel.changePlayers();
+        if(result == GameSession.MoveResult.CHECK){
+            if (session.isBlackTurn()) {
+                JOptionPane.showMessageDialog(null, "Black is under Check!");
             } else {
-                if (board.getCheck(true)) {
-                    JOptionPane.showMessageDialog(null, "Black is under Check!");
-                } else {
-                    JOptionPane.showMessageDialog(null, "White is under Check!");
-                }
+                JOptionPane.showMessageDialog(null, "White is under Check!");
             }
         }
+    }
+
+    /**
+     * Redraws the board and gives the turn back on the ScorePanel after a move is taken back
+     */
+    @Override
+    public void moveUndone(GameSession session, int move) {
+        showBoard();
+        scorePanel.changePlayers();
+    }
 
-        capturedPiece = currentPiece;
-        capturedPieces.push(currentPiece);
+    /**
+     * Shows the board and first player of a new game
+     */
+    @Override
+    public void gameStarted(GameSession session) {
+        clickLog.clear();
+        scorePanel.updateTurn(session.isBlackTurn());
         showBoard();
     }
 
+    /**
+     * Announces a checkmate, adds the win to the ScorePanel, and starts a new standard game with the loser moving first.
+     * A stalemate is announced as a draw, adds no win, and the new game starts with the player who was stalemated. The
+     * announcement and the new game wait until the event has reached every listener, so listeners added after the
+     * screen, such as a GameRecorder, still see the finished game.
+     */
+    @Override
+    public void gameOver(GameSession session, GameSession.Ending ending, boolean isWinnerBlack) {
+        boolean isStalematedBlack = session.isBlackTurn();
+        SwingUtilities.invokeLater(() -> announceGameOver(ending, isWinnerBlack, isStalematedBlack));
+    }
+
+    private void announceGameOver(GameSession.Ending ending, boolean isWinnerBlack, boolean isStalematedBlack) {
+        if(ending == GameSession.Ending.STALEMATE){
+            if(isStalematedBlack){
+                JOptionPane.showMessageDialog(null, "Black has no legal move, Stalemate is a draw");
+            } else {
+                JOptionPane.showMessageDialog(null, "White has no legal move, Stalemate is a draw");
+            }
+            startNewGame(false, isStalematedBlack);
+            return;
+        }
+        if(ending == GameSession.Ending.CHECKMATE){
+            if(isWinnerBlack){
+                JOptionPane.showMessageDialog(null, "White is under Checkmate, Black wins");
+            } else {
+                JOptionPane.showMessageDialog(null, "Black is under Checkmate, White wins");
+            }
+        }
+        if(isWinnerBlack){
+            scorePanel.addBlackWin();
+        } else {
+            scorePanel.addWhiteWin();
+        }
+        startNewGame(false, !isWinnerBlack);
+    }
+
     /**
      * Sets up the Map of ImageIcons which represent the pictures of the pieces that are to be displayed on the screen.
      * The images are imported as new ImageIcons and put into the map where the key is name of the piece ex "white_rook"
@@ -244,63 +374,17 @@ public class BoardScreen extends JPanel {
     /**
      * Displays the pieces on the board. This method will update the chess board with the visuals of the pieces that it
      * receives from the pieceIconMap, and if a piece is at a particular square, the JButton at that square is updated
-     * to show the icon with that piece.
+     * to show the icon with that piece. The icon is looked up by the name of the piece's code (see PieceCode).
      */
     public void showBoard() {
         for (int rowCoord = 0; rowCoord < rows; rowCoord++) {
             for (int colCoord = 0; colCoord < columns; colCoord++) {
-                Piece currentPiece = board.getPiece(rowCoord, colCoord);
-                if(currentPiece instanceof Pawn){
-                    if(currentPiece.isBlack()){
-                        squares[rowCoord][colCoord].setIcon(pieceIconMap.get("black_pawn"));
-                    } else {
-                        squares[rowCoord][colCoord].setIcon(pieceIconMap.get("white_pawn"));
-                    }
-                } else if(currentPiece instanceof Rook){
-                    if(currentPiece.isBlack()){
-                        squares[rowCoord][colCoord].setIcon(pieceIconMap.get("black_rook"));
-                    } else {
-                        squares[rowCoord][colCoord].setIcon(pieceIconMap.get("white_rook"));
-                    }
-                } else if(currentPiece instanceof Knight){
-                    if(currentPiece.isBlack()){
-                        squares[rowCoord][colCoord].setIcon(pieceIconMap.get("black_knight"));
-                    } else {
-                        squares[rowCoord][colCoord].setIcon(pieceIconMap.get("white_knight"));
-                    }
-                } else if(currentPiece instanceof Bishop){
-                    if(currentPiece.isBlack()){
-                        squares[rowCoord][colCoord].setIcon(pieceIconMap.get("black_bishop"));
-                    } else {
-                        squares[rowCoord][colCoord].setIcon(pieceIconMap.get("white_bishop"));
-                    }
-                } else if(currentPiece instanceof King){
-                    if(currentPiece.isBlack()){
-                        squares[rowCoord][colCoord].setIcon(pieceIconMap.get("black_king"));
-                    } else {
-                        squares[rowCoord][colCoord].setIcon(pieceIconMap.get("white_king"));
-                    }
-                } else if(currentPiece instanceof Queen){
-                    if(currentPiece.isBlack()){
-                        squares[rowCoord][colCoord].setIcon(pieceIconMap.get("black_queen"));
-                    } else {
-                        squares[rowCoord][colCoord].setIcon(pieceIconMap.get("white_queen"));
-                    }
-                } else if(currentPiece instanceof Orbit){
-                    if(currentPiece.isBlack()){
-                        squares[rowCoord][colCoord].setIcon(pieceIconMap.get("black_orbit"));
-                    } else {
-                        squares[rowCoord][colCoord].setIcon(pieceIconMap.get("white_orbit"));
-                    }
-                } else if(currentPiece instanceof Tiger){
-                    if(currentPiece.isBlack()){
-                        squares[rowCoord][colCoord].setIcon(pieceIconMap.get("black_tiger"));
-                    } else {
-                        squares[rowCoord][colCoord].setIcon(pieceIconMap.get("white_tiger"));
-                    }
-                }
-                else {
+                Piece currentPiece = session.getBoard().getPiece(rowCoord, colCoord);
+                if(currentPiece == null){
                     squares[rowCoord][colCoord].setIcon(null);
+                } else {
+                    byte code = PieceCode.encode(currentPiece.getType(), currentPiece.isBlack());
+                    squares[rowCoord][colCoord].setIcon(pieceIconMap.get(PieceCode.getName(code)));
                 }
             }
         }
@@ -312,41 +396,56 @@ public class BoardScreen extends JPanel {
      * @param isBlackTurn first player's turn
      */
     public void startNewGame(boolean isCustomGame, boolean isBlackTurn) {
-        board = new Board(isCustomGame);
-        this.isBlackTurn = isBlackTurn;
-        scorePanel.updateTurn(this.isBlackTurn);
-        showBoard();
+        stopComputer();
+        session.startNewGame(isCustomGame, isBlackTurn);
+        playComputerMove();
+    }
 
+    /**
+     * Ends the game with the given player resigning, which counts as a win for the other player and starts a new game
+     * @param isBlack color of the Player resigning
+     */
+    public void resign(boolean isBlack) {
+        stopComputer();
+        session.resign(isBlack);
+    }
+
+    /**
+     * @return GameSession shown by this screen
+     */
+    public GameSession getSession() {
+        return session;
+    }
+
+    /**
+     * Stops the computer thinking and throws away the move it was about to play
+     */
+    private void stopComputer() {
+        computerMoveId++;
+        if(computerSearch != null){
+            engine.stop();
+            computerSearch.join();
+            computerSearch = null;
+        }
     }
 
     /**
      * Used to undo the last recorded move. This method can be used multiple times consecutively to undo the last moves
      * for the Board, alternatives between sides and resets the turn to the original player if the undo button is called
-     * after a player has used their turn. Called by the undo button, will replace the pieces' original positions and
-     * display any captured pieces and restore board to the state it was in before the move.
+     * after a player has used their turn. Called by the undo button, takes the move back with GameSession.undo, which
+     * restores any captured piece, Pawn first moves, and check state to what they were before the move. Against the
+     * computer, its reply is taken back as well so that it is the human player's turn again.
      */
     public void undoMove() {
-        if(moveLog.isEmpty()){
+        if(session.getMoveCount() == 0){
             JOptionPane.showMessageDialog(null, "Error: There is nothing to undo");
             return;
         }
-        int[] newPosition = moveLog.pop();
-        int[] startPosition = moveLog.pop();
-        changePlayer();
-        Piece currentPiece = board.getPiece(newPosition[0], newPosition[1]);
-        board.setPiece(startPosition[0], startPosition[1], currentPiece);
-        board.setPiece(newPosition[0], newPosition[1], null);
-        if(currentPiece instanceof Pawn && (startPosition[0] == 1 || startPosition[0] == board.getRows() - 2)){
-            ((Pawn)currentPiece).setFirstMove(true);
+        stopComputer();
+        session.undo();
+        if(isComputerTurn() && session.getMoveCount() > 0){
+            session.undo();
         }
-
-        Piece lastCaptured = capturedPieces.pop();
-        board.setPiece(newPosition[0], newPosition[1], lastCaptured);
-
-        if(lastCaptured == null){
-            squares[newPosition[0]][newPosition[1]].setIcon(null);
-        }
-
-        showBoard();
+        playComputerMove();
     }
 }
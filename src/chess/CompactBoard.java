@@ -0,0 +1,136 @@
+package chess;
+
+import chess.pieces.PieceCode;
+
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of a Board position stored as one byte per square (see PieceCode), indexed by square index row *
+ * cols + column, together with the side to move. A snapshot of an 8x8 board takes about a hundred bytes instead of a
+ * Board with its Piece objects, bitboards and attack maps, so many positions can be kept at once, for example in game
+ * archives. Snapshots are turned back into a playable Board with toBoard.
+ */
+public final class CompactBoard {
+
+    private final int rows;
+    private final int cols;
+    private final boolean isBlackTurn;
+    private final byte[] squares;
+
+    /**
+     * Takes a snapshot of the position on a board
+     * @param board board to copy, left unchanged
+     * @throws IllegalArgumentException if the board holds an Orbit whose radius does not fit in a piece code
+     */
+    public CompactBoard(Board board) {
+        rows = board.getRows();
+        cols = board.getCols();
+        isBlackTurn = board.isBlackTurn();
+        squares = new byte[rows * cols];
+        for (int rowIter = 0; rowIter < rows; rowIter++) {
+            for (int colIter = 0; colIter < cols; colIter++) {
+                squares[rowIter * cols + colIter] = PieceCode.encode(board.getPiece(rowIter, colIter));
+            }
+        }
+    }
+
+    /**
+     * Creates a snapshot from piece codes
+     * @param rows number of rows
+     * @param cols number of columns
+     * @param squares piece code of every square indexed by row * cols + column, copied
+     * @param isBlackTurn true if it is Black's turn
+     * @throws IllegalArgumentException if the number of codes is not rows * cols
+     */
+    public CompactBoard(int rows, int cols, byte[] squares, boolean isBlackTurn) {
+        if (squares.length != rows * cols) {
+            throw new IllegalArgumentException("Expected " + rows * cols + " squares, got " + squares.length);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.isBlackTurn = isBlackTurn;
+        this.squares = squares.clone();
+    }
+
+    /**
+     * Creates a Board with this position. The Board has no moves to unmake.
+     * @return new Board
+     */
+    public Board toBoard() {
+        Board board = Board.empty(rows, cols);
+        for (int square = 0; square < squares.length; square++) {
+            if (squares[square] != PieceCode.EMPTY) {
+                int rowCoord = square / cols;
+                int colCoord = square % cols;
+                board.setPiece(rowCoord, colCoord, PieceCode.decode(squares[square], rowCoord, colCoord));
+            }
+        }
+        board.setBlackTurn(isBlackTurn);
+        return board;
+    }
+
+    /**
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * @return true if it is Black's turn
+     */
+    public boolean isBlackTurn() {
+        return isBlackTurn;
+    }
+
+    /**
+     * Gets the piece code of a square
+     * @param rowCoord row coordinate, must be on the board
+     * @param colCoord column coordinate, must be on the board
+     * @return byte piece code, PieceCode.EMPTY if the square is empty
+     */
+    public byte getCode(int rowCoord, int colCoord) {
+        return squares[rowCoord * cols + colCoord];
+    }
+
+    /**
+     * Gets the piece codes of every square
+     * @return new byte[] indexed by row * cols + column
+     */
+    public byte[] getCodes() {
+        return squares.clone();
+    }
+
+    /**
+     * Two snapshots are equal if they have the same size, side to move and piece code on every square
+     * @param obj object to compare with
+     * @return true if obj is a CompactBoard of the same position
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CompactBoard)) {
+            return false;
+        }
+        CompactBoard other = (CompactBoard) obj;
+        return rows == other.rows && cols == other.cols && isBlackTurn == other.isBlackTurn
+                && Arrays.equals(squares, other.squares);
+    }
+
+    /**
+     * @return hash code of the size, side to move and piece codes, consistent with equals
+     */
+    @Override
+    public int hashCode() {
+        return (Arrays.hashCode(squares) * 31 + rows * 257 + cols) * 2 + (isBlackTurn ? 1 : 0);
+    }
+}
@@ -1,11 +1,24 @@
 package chess;
 
+import chess.io.GameArchive;
+import chess.io.GameRecorder;
+import chess.io.GameStore;
+import chess.io.Pgn;
+
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 public class Display extends JPanel {
+    private static final Path GAME_STORE_PATH = Paths.get("games.cgs");
     private JPanel rootPanel;
     private BoardScreen boardScr;
     private boolean isBlackTurn;
@@ -55,15 +68,35 @@ public class Display extends JPanel {
         helpBtn.setPreferredSize(new Dimension(100,35));
         commandPanel.add(helpBtn);
 
+        JButton exportBtn = new JButton("Export");
+        exportBtn.setFont(new Font("Calibri", Font.PLAIN, 16));
+        exportBtn.setPreferredSize(new Dimension(100,35));
+        commandPanel.add(exportBtn);
+
         boardScr = new BoardScreen(scorePanel, false, isBlackTurn);
         rootPanel.add(boardScr, BorderLayout.CENTER);
 
+        // finished games are appended to the game store so they outlive the window
+        try {
+            boardScr.getSession().addListener(new GameRecorder(GameStore.open(GAME_STORE_PATH)));
+        } catch (IOException e) {
+            System.err.println("Finished games will not be saved: " + e.getMessage());
+        }
+
         startBtn.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent actionEvent) {
                 Object[] options = {"Standard Game", "Custom Game", "Cancel"};
                 int gameType = JOptionPane.showOptionDialog(null, "What type of game would you like to play?", "Start Game",
                         JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE, null, options, null);
+                if(gameType == JOptionPane.CANCEL_OPTION || gameType == JOptionPane.CLOSED_OPTION){
+                    return;
+                }
+                Object[] opponents = {"Two Players", "Computer plays Black", "Computer plays White"};
+                int opponent = JOptionPane.showOptionDialog(null, "Who would you like to play against?", "Start Game",
+                        JOptionPane.YES_NO_CANCEL_OPTION, JOptionPane.QUESTION_MESSAGE, null, opponents, null);
+                boardScr.setComputerPlayer(opponent == JOptionPane.NO_OPTION || opponent == JOptionPane.CANCEL_OPTION,
+                        opponent == JOptionPane.NO_OPTION);
                 if(gameType == JOptionPane.YES_OPTION){
                     boardScr.startNewGame(false, false);
                     isBlackTurn = false;
@@ -84,15 +117,13 @@ public class Display extends JPanel {
                 if(quitOption == JOptionPane.YES_OPTION){
                     int quitConfirm = JOptionPane.showConfirmDialog(null, "Are You Sure White wants to quit?");
                     if (quitConfirm == JOptionPane.YES_OPTION){
-                        scorePanel.addBlackWin();
-                        boardScr.startNewGame(false, false);
+                        boardScr.resign(false);
                         isBlackTurn = false;
                     }
                 } else if (quitOption == JOptionPane.NO_OPTION){
                     int quitConfirm = JOptionPane.showConfirmDialog(null, "Are You Sure Black wants to quit?");
                     if (quitConfirm == JOptionPane.YES_OPTION){
-                        scorePanel.addWhiteWin();
-                        boardScr.startNewGame(false, true);
+                        boardScr.resign(true);
                         isBlackTurn = true;
                     }
                 }
@@ -124,7 +155,35 @@ public class Display extends JPanel {
                         " would like to move, then the square you would like to move it to.");
             }
         });
+        exportBtn.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent actionEvent) {
+                exportGames();
+            }
+        });
+
+    }
 
+    /**
+     * Writes every finished game in the game store to a PGN file chosen by the user
+     */
+    private void exportGames() {
+        if(!Files.exists(GAME_STORE_PATH)){
+            JOptionPane.showMessageDialog(null, "No finished games to export yet");
+            return;
+        }
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("games.pgn"));
+        if(chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION){
+            return;
+        }
+        try (GameArchive archive = GameArchive.open(GAME_STORE_PATH);
+             Writer out = Files.newBufferedWriter(chooser.getSelectedFile().toPath(), StandardCharsets.UTF_8)) {
+            long count = Pgn.export(archive, out);
+            JOptionPane.showMessageDialog(null, "Exported " + count + " games");
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(null, "Export failed: " + e.getMessage());
+        }
     }
 
     private Container getRootPanel() {
@@ -0,0 +1,282 @@
+package chess;
+
+import chess.pieces.Orbit;
+import chess.pieces.Piece;
+import chess.pieces.PieceType;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Weights of the evaluation terms a Board keeps up to date as pieces are placed and removed: the material value of
+ * each piece type and a bonus for the square it stands on, both in a middlegame and an endgame version, and a phase
+ * weight per type. The square bonus of a type is made of two parts that suit every board size: a weight per step
+ * away from the nearest corner towards the centre, and a weight per row advanced from the player's own back row.
+ * <p>
+ * The middlegame and endgame sums are blended by the phase, the sum of the phase weights of the pieces on the board:
+ * at getFullPhase (the phase of the standard setup) or above the middlegame sum counts alone, at 0 the endgame sum.
+ * <p>
+ * Weights are immutable; the with methods return changed copies. The values of the Tiger and the Orbit, which has a
+ * value per step of radius on top of its base value, are set the same way as those of the standard pieces. Material
+ * plus square bonus of every type, color and square is kept in a table shared by all boards of one size.
+ */
+public final class EvalWeights {
+
+    /**
+     * Weights used by every new Board
+     */
+    public static final EvalWeights DEFAULT = new EvalWeights();
+
+    /**
+     * Boards with more squares than this compute square values on demand instead of keeping a table
+     */
+    private static final int MAX_TABLE_SQUARES = 4096;
+
+    private final int[] middlegameValues = new int[PieceType.COUNT];
+    private final int[] endgameValues = new int[PieceType.COUNT];
+    private final int[] middlegameCentreBonuses = new int[PieceType.COUNT];
+    private final int[] endgameCentreBonuses = new int[PieceType.COUNT];
+    private final int[] middlegameAdvanceBonuses = new int[PieceType.COUNT];
+    private final int[] endgameAdvanceBonuses = new int[PieceType.COUNT];
+    private final int[] phaseWeights = new int[PieceType.COUNT];
+    private int orbitRadiusMiddlegameValue;
+    private int orbitRadiusEndgameValue;
+    private final ConcurrentHashMap<Integer, int[]> tables = new ConcurrentHashMap<>();
+
+    private EvalWeights() {
+        setValue(PieceType.PAWN, 100, 120);
+        setValue(PieceType.KNIGHT, 320, 300);
+        setValue(PieceType.BISHOP, 330, 330);
+        setValue(PieceType.ROOK, 500, 520);
+        setValue(PieceType.QUEEN, 900, 920);
+        setValue(PieceType.KING, 0, 0);
+        setValue(PieceType.TIGER, 300, 280);
+        setValue(PieceType.ORBIT, 150, 150);
+        orbitRadiusMiddlegameValue = 120;
+        orbitRadiusEndgameValue = 120;
+
+        setSquareBonus(PieceType.PAWN, 2, 0, 5, 12);
+        setSquareBonus(PieceType.KNIGHT, 6, 5, 0, 0);
+        setSquareBonus(PieceType.BISHOP, 3, 3, 0, 0);
+        setSquareBonus(PieceType.ROOK, 1, 1, 2, 0);
+        setSquareBonus(PieceType.QUEEN, 1, 4, 0, 0);
+        setSquareBonus(PieceType.KING, -4, 8, -10, 0);
+        setSquareBonus(PieceType.TIGER, 4, 4, 0, 0);
+        setSquareBonus(PieceType.ORBIT, 3, 3, 0, 0);
+
+        phaseWeights[PieceType.KNIGHT.ordinal()] = 1;
+        phaseWeights[PieceType.BISHOP.ordinal()] = 1;
+        phaseWeights[PieceType.ROOK.ordinal()] = 2;
+        phaseWeights[PieceType.QUEEN.ordinal()] = 4;
+        phaseWeights[PieceType.TIGER.ordinal()] = 1;
+        phaseWeights[PieceType.ORBIT.ordinal()] = 2;
+    }
+
+    private EvalWeights(EvalWeights other) {
+        System.arraycopy(other.middlegameValues, 0, middlegameValues, 0, PieceType.COUNT);
+        System.arraycopy(other.endgameValues, 0, endgameValues, 0, PieceType.COUNT);
+        System.arraycopy(other.middlegameCentreBonuses, 0, middlegameCentreBonuses, 0, PieceType.COUNT);
+        System.arraycopy(other.endgameCentreBonuses, 0, endgameCentreBonuses, 0, PieceType.COUNT);
+        System.arraycopy(other.middlegameAdvanceBonuses, 0, middlegameAdvanceBonuses, 0, PieceType.COUNT);
+        System.arraycopy(other.endgameAdvanceBonuses, 0, endgameAdvanceBonuses, 0, PieceType.COUNT);
+        System.arraycopy(other.phaseWeights, 0, phaseWeights, 0, PieceType.COUNT);
+        orbitRadiusMiddlegameValue = other.orbitRadiusMiddlegameValue;
+        orbitRadiusEndgameValue = other.orbitRadiusEndgameValue;
+    }
+
+    /**
+     * Copies the weights with a new material value for one piece type. For an Orbit this is its base value.
+     * @param type type of piece
+     * @param middlegame value in centipawns in the middlegame
+     * @param endgame value in centipawns in the endgame
+     * @return new EvalWeights
+     */
+    public EvalWeights withValue(PieceType type, int middlegame, int endgame) {
+        EvalWeights weights = new EvalWeights(this);
+        weights.setValue(type, middlegame, endgame);
+        return weights;
+    }
+
+    /**
+     * Copies the weights with a new value per step of an Orbit's radius, added to its base value
+     * @param middlegame value in centipawns per step of radius in the middlegame
+     * @param endgame value in centipawns per step of radius in the endgame
+     * @return new EvalWeights
+     */
+    public EvalWeights withOrbitRadiusValue(int middlegame, int endgame) {
+        EvalWeights weights = new EvalWeights(this);
+        weights.orbitRadiusMiddlegameValue = middlegame;
+        weights.orbitRadiusEndgameValue = endgame;
+        return weights;
+    }
+
+    /**
+     * Copies the weights with a new square bonus for one piece type
+     * @param type type of piece
+     * @param middlegameCentre middlegame bonus per step from the nearest corner towards the centre
+     * @param endgameCentre endgame bonus per step towards the centre
+     * @param middlegameAdvance middlegame bonus per row advanced from the player's own back row
+     * @param endgameAdvance endgame bonus per row advanced
+     * @return new EvalWeights
+     */
+    public EvalWeights withSquareBonus(PieceType type, int middlegameCentre, int endgameCentre, int middlegameAdvance,
+                                       int endgameAdvance) {
+        EvalWeights weights = new EvalWeights(this);
+        weights.setSquareBonus(type, middlegameCentre, endgameCentre, middlegameAdvance, endgameAdvance);
+        return weights;
+    }
+
+    /**
+     * Copies the weights with a new phase weight for one piece type
+     * @param type type of piece
+     * @param weight how much a piece of the type counts towards the middlegame, 0 or more
+     * @return new EvalWeights
+     */
+    public EvalWeights withPhaseWeight(PieceType type, int weight) {
+        if (weight < 0) {
+            throw new IllegalArgumentException("Phase weights cannot be negative");
+        }
+        EvalWeights weights = new EvalWeights(this);
+        weights.phaseWeights[type.ordinal()] = weight;
+        return weights;
+    }
+
+    /**
+     * @param type type of piece
+     * @return middlegame material value in centipawns, the base value for an Orbit
+     */
+    public int getMiddlegameValue(PieceType type) {
+        return middlegameValues[type.ordinal()];
+    }
+
+    /**
+     * @param type type of piece
+     * @return endgame material value in centipawns, the base value for an Orbit
+     */
+    public int getEndgameValue(PieceType type) {
+        return endgameValues[type.ordinal()];
+    }
+
+    /**
+     * Gets the middlegame material value of a piece, counting an Orbit's radius
+     * @param piece piece to value
+     * @return value in centipawns
+     */
+    public int getMiddlegameValue(Piece piece) {
+        int value = middlegameValues[piece.getType().ordinal()];
+        if (piece.getType() == PieceType.ORBIT) {
+            value += orbitRadiusMiddlegameValue * ((Orbit) piece).getRadius();
+        }
+        return value;
+    }
+
+    /**
+     * Gets the endgame material value of a piece, counting an Orbit's radius
+     * @param piece piece to value
+     * @return value in centipawns
+     */
+    public int getEndgameValue(Piece piece) {
+        int value = endgameValues[piece.getType().ordinal()];
+        if (piece.getType() == PieceType.ORBIT) {
+            value += orbitRadiusEndgameValue * ((Orbit) piece).getRadius();
+        }
+        return value;
+    }
+
+    /**
+     * @return middlegame value in centipawns per step of an Orbit's radius
+     */
+    public int getOrbitRadiusMiddlegameValue() {
+        return orbitRadiusMiddlegameValue;
+    }
+
+    /**
+     * @return endgame value in centipawns per step of an Orbit's radius
+     */
+    public int getOrbitRadiusEndgameValue() {
+        return orbitRadiusEndgameValue;
+    }
+
+    /**
+     * @param type type of piece
+     * @return how much a piece of the type counts towards the middlegame
+     */
+    public int getPhaseWeight(PieceType type) {
+        return phaseWeights[type.ordinal()];
+    }
+
+    /**
+     * @return phase of the standard setup, at or above which the middlegame sum counts alone; at least 1
+     */
+    public int getFullPhase() {
+        int phase = 4 * phaseWeights[PieceType.KNIGHT.ordinal()] + 4 * phaseWeights[PieceType.BISHOP.ordinal()]
+                + 4 * phaseWeights[PieceType.ROOK.ordinal()] + 2 * phaseWeights[PieceType.QUEEN.ordinal()];
+        return Math.max(phase, 1);
+    }
+
+    /**
+     * Gets the material value plus square bonus of a piece of one type and color on a square, not counting an Orbit's
+     * radius
+     * @param type type of piece
+     * @param isBlack color of piece
+     * @param rowCoord row of the square
+     * @param colCoord column of the square
+     * @param rows number of rows of the board
+     * @param cols number of columns of the board
+     * @param isEndgame true for the endgame value, false for the middlegame value
+     * @return value in centipawns for the piece's own player
+     */
+    public int getSquareValue(PieceType type, boolean isBlack, int rowCoord, int colCoord, int rows, int cols,
+                              boolean isEndgame) {
+        int centre = (rows - 1 + cols - 1 - Math.abs(2 * rowCoord - rows + 1) - Math.abs(2 * colCoord - cols + 1)) / 2;
+        int advance = isBlack ? rowCoord : rows - 1 - rowCoord;
+        int index = type.ordinal();
+        if (isEndgame) {
+            return endgameValues[index] + endgameCentreBonuses[index] * centre + endgameAdvanceBonuses[index] * advance;
+        }
+        return middlegameValues[index] + middlegameCentreBonuses[index] * centre
+                + middlegameAdvanceBonuses[index] * advance;
+    }
+
+    /**
+     * Gets the shared square value table for boards of one size, or null if the board is too large to keep one. The
+     * middlegame value of a type and color on a square is at 2 * ((type ordinal * 2 + color) * rows * cols + square
+     * index), color being 1 for Black, and the endgame value right after it.
+     * @param rows number of rows of the board
+     * @param cols number of columns of the board
+     * @return int[] table, or null
+     */
+    int[] getTable(int rows, int cols) {
+        int squareCount = rows * cols;
+        if (squareCount > MAX_TABLE_SQUARES) {
+            return null;
+        }
+        return tables.computeIfAbsent(rows << 16 | cols, unused -> {
+            int[] table = new int[2 * 2 * PieceType.COUNT * squareCount];
+            for (PieceType type : PieceType.values()) {
+                for (int color = 0; color < 2; color++) {
+                    for (int square = 0; square < squareCount; square++) {
+                        int index = 2 * ((type.ordinal() * 2 + color) * squareCount + square);
+                        table[index] = getSquareValue(type, color == 1, square / cols, square % cols, rows, cols,
+                                false);
+                        table[index + 1] = getSquareValue(type, color == 1, square / cols, square % cols, rows, cols,
+                                true);
+                    }
+                }
+            }
+            return table;
+        });
+    }
+
+    private void setValue(PieceType type, int middlegame, int endgame) {
+        middlegameValues[type.ordinal()] = middlegame;
+        endgameValues[type.ordinal()] = endgame;
+    }
+
+    private void setSquareBonus(PieceType type, int middlegameCentre, int endgameCentre, int middlegameAdvance,
+                                int endgameAdvance) {
+        middlegameCentreBonuses[type.ordinal()] = middlegameCentre;
+        endgameCentreBonuses[type.ordinal()] = endgameCentre;
+        middlegameAdvanceBonuses[type.ordinal()] = middlegameAdvance;
+        endgameAdvanceBonuses[type.ordinal()] = endgameAdvance;
+    }
+}
@@ -0,0 +1,323 @@
+package chess;
+
+import chess.pieces.Piece;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * One game of Chess without any user interface: the Board, whose turn it is, the log of moves made and pieces
+ * captured, check, checkmate and stalemate, resignation, undo and restarts. Views and other clients submit moves and listen for
+ * the resulting events, so games can be played headless, for example many at once in a server.
+ * <p>
+ * A GameSession is not thread safe; each session must only be used by one thread at a time.
+ */
+public class GameSession {
+
+    /**
+     * Outcome of submitting a move
+     */
+    public enum MoveResult {
+        /** the move is not legal, nothing changed */
+        ILLEGAL,
+        /** the move was made */
+        MOVED,
+        /** the move was made and puts the other player under check */
+        CHECK,
+        /** the move was made and checkmates the other player, ending the game */
+        CHECKMATE,
+        /** the move was made and leaves the other player without a legal move while not under check, a draw */
+        STALEMATE
+    }
+
+    /**
+     * How a game ended
+     */
+    public enum Ending {
+        CHECKMATE,
+        RESIGNATION,
+        STALEMATE
+    }
+
+    /**
+     * Receives the events of a session. Every method does nothing by default, so listeners only override the events
+     * they need. Events are delivered on the thread that caused them.
+     */
+    public interface Listener {
+
+        /**
+         * A new game was set up
+         * @param session session of the game
+         */
+        default void gameStarted(GameSession session) {
+        }
+
+        /**
+         * A move was made. The turn has already passed to the other player.
+         * @param session session of the game
+         * @param move packed move (see Move)
+         * @param capturedPiece piece captured by the move, or null
+         * @param result MOVED, CHECK, CHECKMATE or STALEMATE
+         */
+        default void moveMade(GameSession session, int move, Piece capturedPiece, MoveResult result) {
+        }
+
+        /**
+         * The last move was taken back. The turn has already returned to the player who made it.
+         * @param session session of the game
+         * @param move packed move that was taken back
+         */
+        default void moveUndone(GameSession session, int move) {
+        }
+
+        /**
+         * The game ended
+         * @param session session of the game
+         * @param ending how the game ended
+         * @param isWinnerBlack true if Black won; meaningless for a STALEMATE, which is a draw
+         */
+        default void gameOver(GameSession session, Ending ending, boolean isWinnerBlack) {
+        }
+    }
+
+    private Board board;
+    private boolean isCustom;
+    private boolean isBlackTurn;
+    private int[] moveLog = new int[64];
+    private final List<Piece> capturedPieces = new ArrayList<>();
+    private int moveCount;
+    private boolean isGameOver;
+    private boolean isWinnerBlack;
+    private Ending ending;
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a session with a new game where White moves first
+     * @param isCustom true for the custom setup with Tigers and Orbits
+     */
+    public GameSession(boolean isCustom) {
+        this(isCustom, false);
+    }
+
+    /**
+     * Creates a session with a new game
+     * @param isCustom true for the custom setup with Tigers and Orbits
+     * @param isBlackTurn true if Black moves first
+     */
+    public GameSession(boolean isCustom, boolean isBlackTurn) {
+        setUpGame(isCustom, isBlackTurn);
+    }
+
+    /**
+     * Adds a listener for the events of this session
+     * @param listener listener to add
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener added with addListener
+     * @param listener listener to remove
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Throws away the current game and sets up a new one
+     * @param isCustom true for the custom setup with Tigers and Orbits
+     * @param isBlackTurn true if Black moves first
+     */
+    public void startNewGame(boolean isCustom, boolean isBlackTurn) {
+        setUpGame(isCustom, isBlackTurn);
+        for (Listener listener : listeners) {
+            listener.gameStarted(this);
+        }
+    }
+
+    private void setUpGame(boolean isCustom, boolean isBlackTurn) {
+        this.board = new Board(isCustom);
+        this.board.setBlackTurn(isBlackTurn);
+        this.isCustom = isCustom;
+        this.isBlackTurn = isBlackTurn;
+        moveCount = 0;
+        capturedPieces.clear();
+        isGameOver = false;
+        ending = null;
+    }
+
+    /**
+     * Makes a move for the player whose turn it is, if it is legal and the game is not over
+     * @param rowCoord starting row coordinate
+     * @param colCoord starting column coordinate
+     * @param newRow ending row coordinate
+     * @param newCol ending column coordinate
+     * @return MoveResult of the move, ILLEGAL if nothing changed
+     */
+    public MoveResult move(int rowCoord, int colCoord, int newRow, int newCol) {
+        if (isGameOver) {
+            return MoveResult.ILLEGAL;
+        }
+        boolean isMoverBlack = isBlackTurn;
+        Piece capturedPiece = board.getPiece(newRow, newCol);
+        if (!board.movePiece(rowCoord, colCoord, newRow, newCol, isMoverBlack)) {
+            return MoveResult.ILLEGAL;
+        }
+        int move = Move.encode(rowCoord, colCoord, newRow, newCol);
+        if (moveCount == moveLog.length) {
+            moveLog = Arrays.copyOf(moveLog, moveCount * 2);
+        }
+        moveLog[moveCount++] = move;
+        capturedPieces.add(capturedPiece);
+        isBlackTurn = !isMoverBlack;
+
+        MoveResult result = MoveResult.MOVED;
+        if (board.getCheckmate(!isMoverBlack)) {
+            result = MoveResult.CHECKMATE;
+            isGameOver = true;
+            isWinnerBlack = isMoverBlack;
+            ending = Ending.CHECKMATE;
+        } else if (board.isInCheck(!isMoverBlack)) {
+            result = MoveResult.CHECK;
+        } else if (!board.hasLegalMove(!isMoverBlack)) {
+            result = MoveResult.STALEMATE;
+            isGameOver = true;
+            ending = Ending.STALEMATE;
+        }
+        for (Listener listener : listeners) {
+            listener.moveMade(this, move, capturedPiece, result);
+        }
+        if (isGameOver) {
+            fireGameOver(ending);
+        }
+        return result;
+    }
+
+    /**
+     * Makes a packed move for the player whose turn it is (see move(int, int, int, int))
+     * @param move packed move (see Move)
+     * @return MoveResult of the move, ILLEGAL if nothing changed
+     */
+    public MoveResult move(int move) {
+        return move(Move.getFromRow(move), Move.getFromCol(move), Move.getToRow(move), Move.getToCol(move));
+    }
+
+    /**
+     * Takes back the last move, giving the turn back to the player who made it. Taking back a checkmating or
+     * stalemating move reopens the game. A game ended by resignation stays over, and nothing is taken back.
+     * @return true if a move was taken back, false if no move has been made or a player has resigned
+     */
+    public boolean undo() {
+        if (moveCount == 0 || board.getMadeMoveCount() == 0 || ending == Ending.RESIGNATION) {
+            return false;
+        }
+        int move = moveLog[--moveCount];
+        board.unmakeMove();
+        capturedPieces.remove(capturedPieces.size() - 1);
+        isBlackTurn = !isBlackTurn;
+        isGameOver = false;
+        ending = null;
+        for (Listener listener : listeners) {
+            listener.moveUndone(this, move);
+        }
+        return true;
+    }
+
+    /**
+     * Ends the game with the given player resigning
+     * @param isBlack color of the Player resigning
+     */
+    public void resign(boolean isBlack) {
+        if (isGameOver) {
+            return;
+        }
+        isGameOver = true;
+        isWinnerBlack = !isBlack;
+        ending = Ending.RESIGNATION;
+        fireGameOver(ending);
+    }
+
+    private void fireGameOver(Ending ending) {
+        for (Listener listener : listeners) {
+            listener.gameOver(this, ending, isWinnerBlack);
+        }
+    }
+
+    /**
+     * Gets the board of the game. Views may read it, but every change must go through the session.
+     * @return Board of the game
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * @return true if the game uses the custom setup with Tigers and Orbits
+     */
+    public boolean isCustom() {
+        return isCustom;
+    }
+
+    /**
+     * @return true if it is Black's turn
+     */
+    public boolean isBlackTurn() {
+        return isBlackTurn;
+    }
+
+    /**
+     * @return true if the game has ended by checkmate, stalemate or resignation
+     */
+    public boolean isGameOver() {
+        return isGameOver;
+    }
+
+    /**
+     * @return how the game ended, or null while it is still going on
+     */
+    public Ending getEnding() {
+        return ending;
+    }
+
+    /**
+     * @return true if Black won the game; only meaningful once isGameOver is true and the game did not end in a
+     *         STALEMATE
+     */
+    public boolean isWinnerBlack() {
+        return isWinnerBlack;
+    }
+
+    /**
+     * @return number of moves made that can be taken back
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Gets the moves made so far, first move first
+     * @return int[] of packed moves
+     */
+    public int[] getMoves() {
+        return Arrays.copyOf(moveLog, moveCount);
+    }
+
+    /**
+     * Gets the piece captured by each move made so far, null for moves that captured nothing
+     * @return unmodifiable List of captured pieces, first move first
+     */
+    public List<Piece> getCapturedPieces() {
+        return Collections.unmodifiableList(capturedPieces);
+    }
+
+    /**
+     * @return piece captured by the last move, or null if it captured nothing or no move has been made
+     */
+    public Piece getLastCapturedPiece() {
+        return capturedPieces.isEmpty() ? null : capturedPieces.get(capturedPieces.size() - 1);
+    }
+}
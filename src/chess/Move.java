@@ -0,0 +1,76 @@
+package chess;
+
+/**
+ * Static helpers to pack a move into a single int so moves can be stored without allocating objects. Each of the
+ * start row, start column, end row and end column takes 8 bits, so boards of up to MAX_SIDE (256) rows and columns
+ * are supported, and Board rejects larger sizes.
+ * A packed move is never 0 because a move always changes the square.
+ */
+public final class Move {
+
+    /**
+     * Value used where no move is available
+     */
+    public static final int NONE = 0;
+
+    /**
+     * Largest number of rows or columns a packed move can address
+     */
+    public static final int MAX_SIDE = 256;
+
+    private Move() {
+    }
+
+    /**
+     * Packs the start and end coordinates of a move into an int
+     * @param fromRow starting row
+     * @param fromCol starting column
+     * @param toRow ending row
+     * @param toCol ending column
+     * @return int packed move
+     */
+    public static int encode(int fromRow, int fromCol, int toRow, int toCol) {
+        return (fromRow << 24) | (fromCol << 16) | (toRow << 8) | toCol;
+    }
+
+    /**
+     * @param move packed move
+     * @return starting row of the move
+     */
+    public static int getFromRow(int move) {
+        return move >>> 24;
+    }
+
+    /**
+     * @param move packed move
+     * @return starting column of the move
+     */
+    public static int getFromCol(int move) {
+        return (move >>> 16) & 0xFF;
+    }
+
+    /**
+     * @param move packed move
+     * @return ending row of the move
+     */
+    public static int getToRow(int move) {
+        return (move >>> 8) & 0xFF;
+    }
+
+    /**
+     * @param move packed move
+     * @return ending column of the move
+     */
+    public static int getToCol(int move) {
+        return move & 0xFF;
+    }
+
+    /**
+     * Prints a packed move in the form (fromRow,fromCol)->(toRow,toCol)
+     * @param move packed move
+     * @return String representation of the move
+     */
+    public static String toString(int move) {
+        return "(" + getFromRow(move) + "," + getFromCol(move) + ")->(" + getToRow(move) + "," + getToCol(move) + ")";
+    }
+}
@@ -0,0 +1,101 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Reusable list of packed int moves (see Move). The backing array only grows when a position has more moves than any
+ * position seen before, so filling the same list over and over does not allocate.
+ */
+public class MoveList {
+
+    private int[] moves;
+    private int size;
+
+    /**
+     * Creates a list with room for 256 moves, enough for any position on a standard sized board
+     */
+    public MoveList() {
+        this(256);
+    }
+
+    /**
+     * Creates a list with room for the given number of moves before it has to grow
+     * @param capacity initial capacity
+     */
+    public MoveList(int capacity) {
+        moves = new int[Math.max(capacity, 16)];
+        size = 0;
+    }
+
+    /**
+     * Appends a packed move to the end of the list
+     * @param move packed move
+     */
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[size++] = move;
+    }
+
+    /**
+     * Gets the packed move at the given index
+     * @param index index of move, must be less than size()
+     * @return int packed move
+     */
+    public int get(int index) {
+        return moves[index];
+    }
+
+    /**
+     * Replaces the packed move at the given index
+     * @param index index of move, must be less than size()
+     * @param move packed move
+     */
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    /**
+     * @return number of moves in the list
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the list has no moves
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every move from the list, keeping the backing array for reuse
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Checks if the list contains the given packed move
+     * @param move packed move
+     * @return true if the move is in the list
+     */
+    public boolean contains(int move) {
+        for (int index = 0; index < size; index++) {
+            if (moves[index] == move) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes every move at or after the given index, used to drop moves that were added and then rejected
+     * @param newSize number of moves to keep
+     */
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+}
@@ -0,0 +1,203 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * Occupancy index for boards too large for bitboards, whose cost follows the number of pieces instead of the number of
+ * squares. It keeps a list of the occupied squares, and for every row, column, diagonal and anti-diagonal the sorted
+ * positions of the pieces on it, so the first piece in any direction from a square is found with a binary search.
+ * The arrays of a line are only allocated once a piece stands on it, and each square remembers its slot in the list so
+ * a piece is removed without searching for it.
+ * <p>
+ * Rows are indexed by row and hold columns; columns are indexed by column and hold rows; diagonals (row - col
+ * constant) are indexed by row - col + cols - 1 and anti-diagonals (row + col constant) by row + col, and both hold
+ * rows.
+ * <p>
+ * The index itself works for any size, but boards have at most Move.MAX_SIDE (256) rows and columns because packed
+ * moves address each coordinate in 8 bits, so the largest board it serves is 256x256.
+ */
+final class SparseIndex {
+
+    private static final int ROW = 0;
+    private static final int COLUMN = 1;
+    private static final int DIAGONAL = 2;
+    private static final int ANTI_DIAGONAL = 3;
+
+    private final int rows;
+    private final int cols;
+    private int[] squares = new int[32];
+    private int squareCount;
+    private final int[] slots;
+    private final int[][][] lines = new int[4][][];
+    private final int[][] lineSizes = new int[4][];
+
+    /**
+     * Creates an empty index
+     * @param rows number of rows of the board
+     * @param cols number of columns of the board
+     */
+    SparseIndex(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        slots = new int[rows * cols];
+        lines[ROW] = new int[rows][];
+        lines[COLUMN] = new int[cols][];
+        lines[DIAGONAL] = new int[rows + cols - 1][];
+        lines[ANTI_DIAGONAL] = new int[rows + cols - 1][];
+        for (int kind = 0; kind < 4; kind++) {
+            lineSizes[kind] = new int[lines[kind].length];
+        }
+    }
+
+    /**
+     * Creates an independent copy of another index
+     * @param other index to copy
+     */
+    SparseIndex(SparseIndex other) {
+        rows = other.rows;
+        cols = other.cols;
+        squares = other.squares.clone();
+        squareCount = other.squareCount;
+        slots = other.slots.clone();
+        for (int kind = 0; kind < 4; kind++) {
+            lines[kind] = new int[other.lines[kind].length][];
+            for (int line = 0; line < lines[kind].length; line++) {
+                if (other.lines[kind][line] != null) {
+                    lines[kind][line] = other.lines[kind][line].clone();
+                }
+            }
+            lineSizes[kind] = other.lineSizes[kind].clone();
+        }
+    }
+
+    /**
+     * @return number of occupied squares
+     */
+    int size() {
+        return squareCount;
+    }
+
+    /**
+     * Gets an occupied square. The order changes as squares are added and removed.
+     * @param index index from 0 to size() - 1
+     * @return square index (row * cols + column)
+     */
+    int getSquare(int index) {
+        return squares[index];
+    }
+
+    /**
+     * Records that a square became occupied
+     * @param rowCoord row coordinate of the square
+     * @param colCoord column coordinate of the square
+     */
+    void add(int rowCoord, int colCoord) {
+        if (squareCount == squares.length) {
+            squares = Arrays.copyOf(squares, squareCount * 2);
+        }
+        int square = rowCoord * cols + colCoord;
+        slots[square] = squareCount;
+        squares[squareCount++] = square;
+        insert(ROW, rowCoord, colCoord);
+        insert(COLUMN, colCoord, rowCoord);
+        insert(DIAGONAL, rowCoord - colCoord + cols - 1, rowCoord);
+        insert(ANTI_DIAGONAL, rowCoord + colCoord, rowCoord);
+    }
+
+    /**
+     * Records that a square became empty
+     * @param rowCoord row coordinate of the square
+     * @param colCoord column coordinate of the square
+     */
+    void remove(int rowCoord, int colCoord) {
+        int slot = slots[rowCoord * cols + colCoord];
+        int moved = squares[--squareCount];
+        squares[slot] = moved;
+        slots[moved] = slot;
+        delete(ROW, rowCoord, colCoord);
+        delete(COLUMN, colCoord, rowCoord);
+        delete(DIAGONAL, rowCoord - colCoord + cols - 1, rowCoord);
+        delete(ANTI_DIAGONAL, rowCoord + colCoord, rowCoord);
+    }
+
+    /**
+     * Empties the index, touching only the lines that hold pieces
+     */
+    void clear() {
+        for (int index = 0; index < squareCount; index++) {
+            int rowCoord = squares[index] / cols;
+            int colCoord = squares[index] % cols;
+            lineSizes[ROW][rowCoord] = 0;
+            lineSizes[COLUMN][colCoord] = 0;
+            lineSizes[DIAGONAL][rowCoord - colCoord + cols - 1] = 0;
+            lineSizes[ANTI_DIAGONAL][rowCoord + colCoord] = 0;
+        }
+        squareCount = 0;
+    }
+
+    /**
+     * Finds the last square a sliding piece on the given square covers in a direction: the first occupied square, or
+     * the square on the edge if the line is empty
+     * @param rowCoord row coordinate of the piece
+     * @param colCoord column coordinate of the piece
+     * @param rowStep row direction, -1, 0, or 1
+     * @param colStep column direction, -1, 0, or 1
+     * @return square index of the last square, or -1 if the piece stands on the edge in that direction
+     */
+    int lastSquare(int rowCoord, int colCoord, int rowStep, int colStep) {
+        int kind;
+        int line;
+        int position;
+        int positionStep;
+        if (rowStep == 0) {
+            kind = ROW;
+            line = rowCoord;
+            position = colCoord;
+            positionStep = colStep;
+        } else {
+            kind = colStep == 0 ? COLUMN : colStep == rowStep ? DIAGONAL : ANTI_DIAGONAL;
+            line = kind == COLUMN ? colCoord : kind == DIAGONAL ? rowCoord - colCoord + cols - 1 : rowCoord + colCoord;
+            position = rowCoord;
+            positionStep = rowStep;
+        }
+        int[] occupied = lines[kind][line];
+        int size = lineSizes[kind][line];
+        int found = occupied == null ? -1 : Arrays.binarySearch(occupied, 0, size, position);
+        int next = found >= 0 ? found + positionStep : (positionStep > 0 ? -found - 1 : -found - 2);
+        if (next >= 0 && next < size) {
+            int distance = Math.abs(occupied[next] - position);
+            return (rowCoord + distance * rowStep) * cols + colCoord + distance * colStep;
+        }
+        int distance = Integer.MAX_VALUE;
+        if (rowStep != 0) {
+            distance = rowStep > 0 ? rows - 1 - rowCoord : rowCoord;
+        }
+        if (colStep != 0) {
+            distance = Math.min(distance, colStep > 0 ? cols - 1 - colCoord : colCoord);
+        }
+        return distance == 0 ? -1 : (rowCoord + distance * rowStep) * cols + colCoord + distance * colStep;
+    }
+
+    private void insert(int kind, int line, int position) {
+        int[] occupied = lines[kind][line];
+        int size = lineSizes[kind][line];
+        if (occupied == null) {
+            occupied = new int[4];
+        } else if (size == occupied.length) {
+            occupied = Arrays.copyOf(occupied, size * 2);
+        }
+        int index = -Arrays.binarySearch(occupied, 0, size, position) - 1;
+        System.arraycopy(occupied, index, occupied, index + 1, size - index);
+        occupied[index] = position;
+        lines[kind][line] = occupied;
+        lineSizes[kind][line] = size + 1;
+    }
+
+    private void delete(int kind, int line, int position) {
+        int[] occupied = lines[kind][line];
+        int size = lineSizes[kind][line];
+        int index = Arrays.binarySearch(occupied, 0, size, position);
+        System.arraycopy(occupied, index + 1, occupied, index, size - index - 1);
+        lineSizes[kind][line] = size - 1;
+    }
+}
@@ -153,4 +153,314 @@ public class BoardTest {
         assertTrue(testBoard.movePiece(3, 3, 2, 4, false));
 
     }
-}
\ No newline at end of file
+
+    @Test
+    public void bitboardViews() {
+        Board testBoard = new Board();
+        assertTrue(testBoard.isBitboardBacked());
+        assertEquals(Long.bitCount(testBoard.getOccupancy()), 32);
+        assertEquals(Long.bitCount(testBoard.getBitboard(PieceType.PAWN, true)), 8);
+        assertEquals(testBoard.getBitboard(PieceType.KING, false), 1L << testBoard.getSquareIndex(7, 4));
+        testBoard.removePiece(1, 0);
+        assertTrue(testBoard.isEmpty(1, 0));
+        assertEquals(Long.bitCount(testBoard.getOccupancy(true)), 15);
+        testBoard.setPiece(4, 4, new Queen(0, 0, true));
+        assertFalse(testBoard.isEmpty(4, 4));
+        assertEquals(testBoard.getBitboard(PieceType.QUEEN, true) & (1L << testBoard.getSquareIndex(4, 4)),
+                1L << testBoard.getSquareIndex(4, 4));
+        testBoard.clearBoard();
+        assertEquals(testBoard.getOccupancy(), 0L);
+
+        Board largeBoard = new Board(12, 12, false);
+        assertFalse(largeBoard.isBitboardBacked());
+        assertTrue(largeBoard.isEmpty(5, 5));
+    }
+
+    @Test
+    public void copyBoard() {
+        Board testBoard = new Board(true);
+        Board copyBoard = new Board(testBoard);
+        assertEquals(copyBoard.getOccupancy(), testBoard.getOccupancy());
+        assertNotSame(copyBoard.getPiece(1, 0), testBoard.getPiece(1, 0));
+        assertTrue(copyBoard.getPiece(1, 7) instanceof Orbit);
+        assertTrue(copyBoard.movePiece(1, 0, 3, 0, true));
+        assertTrue(testBoard.getPiece(1, 0) instanceof Tiger);
+        assertNull(testBoard.getPiece(3, 0));
+    }
+
+    @Test
+    public void generateLegalMoves() {
+        Board testBoard = new Board();
+        MoveList moves = new MoveList();
+        testBoard.generateLegalMoves(false, moves);
+        assertEquals(moves.size(), 20);
+        assertTrue(moves.contains(Move.encode(6, 4, 4, 4)));
+        assertTrue(moves.contains(Move.encode(7, 1, 5, 2)));
+        assertFalse(moves.contains(Move.encode(7, 0, 6, 0)));
+
+        testBoard.clearBoard();
+        testBoard.setPiece(0, 4, new King(0, 4, true));
+        testBoard.setPiece(1, 4, new Rook(1, 4, true));
+        testBoard.setPiece(7, 4, new Rook(7, 4, false));
+        testBoard.setPiece(7, 0, new King(7, 0, false));
+        testBoard.generateLegalMoves(true, moves);
+        assertTrue(moves.contains(Move.encode(1, 4, 5, 4)));
+        assertTrue(moves.contains(Move.encode(1, 4, 7, 4)));
+        assertFalse(moves.contains(Move.encode(1, 4, 1, 0)));
+        assertFalse(moves.contains(Move.encode(0, 4, 1, 4)));
+        assertTrue(testBoard.isSquareAttacked(2, 4, true));
+        assertTrue(testBoard.isSquareAttacked(2, 4, false));
+        assertFalse(testBoard.isSquareAttacked(0, 0, false));
+
+        Board largestBoard = new Board(Move.MAX_SIDE, Move.MAX_SIDE, false);
+        largestBoard.generateLegalMoves(false, moves);
+        assertFalse(moves.isEmpty());
+        for (int index = 0; index < moves.size(); index++) {
+            Piece piece = largestBoard.getPiece(Move.getFromRow(moves.get(index)), Move.getFromCol(moves.get(index)));
+            assertFalse(piece.isBlack());
+        }
+        assertThrows(IllegalArgumentException.class, () -> new Board(300, 300, false));
+        assertThrows(IllegalArgumentException.class, () -> new Board(8, Move.MAX_SIDE + 1, false));
+        assertThrows(IllegalArgumentException.class, () -> Board.empty(Move.MAX_SIDE + 1, 1));
+    }
+
+    @Test
+    public void makeAndUnmakeMove() {
+        Board testBoard = new Board(true);
+        long startOccupancy = testBoard.getOccupancy();
+        Piece blackPawn = testBoard.getPiece(1, 3);
+        testBoard.makeMove(Move.encode(1, 3, 3, 3));
+        assertFalse(((Pawn) blackPawn).getIsFirstMove());
+        testBoard.makeMove(Move.encode(6, 4, 4, 4));
+        Piece whitePawn = testBoard.getPiece(4, 4);
+        testBoard.makeMove(Move.encode(3, 3, 4, 4));
+        assertSame(testBoard.getPiece(4, 4), blackPawn);
+        assertEquals(testBoard.getMadeMoveCount(), 3);
+
+        assertEquals(testBoard.unmakeMove(), Move.encode(3, 3, 4, 4));
+        assertSame(testBoard.getPiece(4, 4), whitePawn);
+        assertSame(testBoard.getPiece(3, 3), blackPawn);
+        assertEquals(testBoard.unmakeMove(), Move.encode(6, 4, 4, 4));
+        assertEquals(testBoard.unmakeMove(), Move.encode(1, 3, 3, 3));
+        assertTrue(((Pawn) blackPawn).getIsFirstMove());
+        assertEquals(blackPawn.getRowCoord(), 1);
+        assertEquals(testBoard.getOccupancy(), startOccupancy);
+        assertEquals(testBoard.unmakeMove(), Move.NONE);
+
+        int side = Move.MAX_SIDE;
+        Board largestBoard = new Board(side, side, false);
+        Piece edgePawn = largestBoard.getPiece(side - 2, 0);
+        assertTrue(largestBoard.movePiece(side - 2, 0, side - 3, 0, false));
+        assertSame(largestBoard.getPiece(side - 3, 0), edgePawn);
+        assertTrue(largestBoard.movePiece(1, side - 1, 3, side - 1, true));
+        assertEquals(largestBoard.unmakeMove(), Move.encode(1, side - 1, 3, side - 1));
+        assertEquals(largestBoard.unmakeMove(), Move.encode(side - 2, 0, side - 3, 0));
+        assertSame(largestBoard.getPiece(side - 2, 0), edgePawn);
+    }
+
+    @Test
+    public void isLegalMoveHasNoSideEffects() {
+        Board testBoard = new Board();
+        Pawn testPawn = (Pawn) testBoard.getPiece(1, 2);
+        assertTrue(testBoard.isLegalMove(1, 2, 3, 2, true));
+        assertTrue(testPawn.getIsFirstMove());
+        assertFalse(testBoard.isLegalMove(1, 2, 3, 2, false));
+        assertFalse(testBoard.isLegalMove(0, 2, 2, 4, true));
+        assertFalse(testBoard.canCheckOwnKing(true));
+        assertTrue(testPawn.getIsFirstMove());
+        assertEquals(testBoard.getMadeMoveCount(), 0);
+    }
+
+    @Test
+    public void kingTracking() {
+        Board largeBoard = new Board(12, 12, false);
+        assertArrayEquals(largeBoard.getKing(false), new int[]{11, 4});
+        assertArrayEquals(largeBoard.getKing(true), new int[]{0, 4});
+        largeBoard.removePiece(1, 4);
+        assertTrue(largeBoard.movePiece(0, 4, 1, 4, true));
+        assertArrayEquals(largeBoard.getKing(true), new int[]{1, 4});
+        largeBoard.unmakeMove();
+        assertArrayEquals(largeBoard.getKing(true), new int[]{0, 4});
+        largeBoard.setPiece(5, 5, new King(0, 0, false));
+        largeBoard.removePiece(11, 4);
+        assertArrayEquals(largeBoard.getKing(false), new int[]{5, 5});
+        largeBoard.clearBoard();
+        assertFalse(largeBoard.canCheckOwnKing(false));
+    }
+
+    @Test
+    public void attackMaps() {
+        Board testBoard = new Board();
+        assertEquals(testBoard.getAttackCount(5, 2, false), 3);
+        assertEquals(testBoard.getAttackCount(4, 4, false), 1);
+        assertEquals(testBoard.getAttackCount(3, 4, false), 0);
+        assertFalse(testBoard.isInCheck(true));
+
+        testBoard.clearBoard();
+        testBoard.setPiece(0, 4, new King(0, 4, true));
+        testBoard.setPiece(2, 4, new Knight(2, 4, true));
+        testBoard.setPiece(6, 4, new Queen(6, 4, false));
+        testBoard.setPiece(7, 7, new King(7, 7, false));
+        assertTrue(testBoard.isPinned(2, 4));
+        assertFalse(testBoard.isInCheck(true));
+        assertTrue(testBoard.isSquareAttacked(3, 4, false));
+        assertFalse(testBoard.isSquareAttacked(1, 4, false));
+        testBoard.makeMove(Move.encode(2, 4, 4, 3));
+        assertTrue(testBoard.isInCheck(true));
+        assertEquals(testBoard.getAttackCount(1, 4, false), 1);
+        testBoard.unmakeMove();
+        assertFalse(testBoard.isInCheck(true));
+        assertFalse(testBoard.isPinned(6, 4));
+    }
+
+    @Test
+    public void zobristKeys() {
+        Board testBoard = new Board();
+        Board otherBoard = new Board();
+        long startKey = testBoard.getZobristKey();
+        assertEquals(testBoard, otherBoard);
+        assertEquals(testBoard.hashCode(), otherBoard.hashCode());
+        assertNotEquals(startKey, new Board(true).getZobristKey());
+
+        testBoard.makeMove(Move.encode(6, 4, 4, 4));
+        assertTrue(testBoard.isBlackTurn());
+        assertNotEquals(startKey, testBoard.getZobristKey());
+        testBoard.unmakeMove();
+        assertFalse(testBoard.isBlackTurn());
+        assertEquals(startKey, testBoard.getZobristKey());
+
+        testBoard.makeMove(Move.encode(7, 1, 5, 2));
+        testBoard.makeMove(Move.encode(0, 1, 2, 2));
+        testBoard.makeMove(Move.encode(7, 6, 5, 5));
+        otherBoard.makeMove(Move.encode(7, 6, 5, 5));
+        otherBoard.makeMove(Move.encode(0, 1, 2, 2));
+        otherBoard.makeMove(Move.encode(7, 1, 5, 2));
+        assertEquals(testBoard.getZobristKey(), otherBoard.getZobristKey());
+        assertEquals(testBoard, otherBoard);
+        assertEquals(testBoard.getZobristKey(), new Board(testBoard).getZobristKey());
+
+        otherBoard.setBlackTurn(false);
+        assertNotEquals(testBoard, otherBoard);
+        otherBoard.setBlackTurn(true);
+        otherBoard.setPiece(4, 0, new Pawn(4, 0, false));
+        assertNotEquals(testBoard.getZobristKey(), otherBoard.getZobristKey());
+        Pawn movedPawn = new Pawn(4, 0, false);
+        movedPawn.setFirstMove(false);
+        testBoard.setPiece(4, 0, movedPawn);
+        assertNotEquals(testBoard.getZobristKey(), otherBoard.getZobristKey());
+        assertNotEquals(testBoard, otherBoard);
+    }
+
+    @Test
+    public void wideBitboards() {
+        assertNull(new Board().getWideLayout());
+        assertNull(new Board(17, 16, false).getWideLayout());
+        Board largeBoard = new Board(16, 16, true);
+        WideBitboard layout = largeBoard.getWideLayout();
+        assertEquals(layout.getWords(), 4);
+        assertTrue(WideBitboard.test(largeBoard.getWideBitboard(PieceType.KING, true), largeBoard.getSquareIndex(0, 4)));
+        assertTrue(WideBitboard.test(largeBoard.getWideOccupancy(false), largeBoard.getSquareIndex(14, 3)));
+        assertTrue(largeBoard.movePiece(14, 3, 12, 3, false));
+        assertFalse(WideBitboard.test(largeBoard.getWideOccupancy(), largeBoard.getSquareIndex(14, 3)));
+        assertTrue(WideBitboard.test(largeBoard.getWideOccupancy(false), largeBoard.getSquareIndex(12, 3)));
+        assertTrue(largeBoard.getPiece(15, 3).canMove(largeBoard, 13, 3));
+        assertFalse(largeBoard.getPiece(15, 3).canMove(largeBoard, 11, 3));
+        long[] bits = layout.newBitboard();
+        WideBitboard.set(bits, largeBoard.getSquareIndex(3, 15));
+        layout.shift(bits, 1, 1, bits);
+        assertTrue(WideBitboard.isEmpty(bits));
+        WideBitboard.set(bits, largeBoard.getSquareIndex(3, 15));
+        layout.shift(bits, 1, -1, bits);
+        assertTrue(WideBitboard.test(bits, largeBoard.getSquareIndex(4, 14)));
+        int last = layout.lastSquare(largeBoard.getSquareIndex(15, 3), WideBitboard.direction(-1, 0),
+                largeBoard.getWideOccupancy());
+        assertEquals(last, largeBoard.getSquareIndex(12, 3));
+    }
+
+    @Test
+    public void sparseIndex() {
+        assertFalse(new Board().isLineIndexed());
+        Board largeBoard = new Board(40, 30, false);
+        assertTrue(largeBoard.isLineIndexed());
+        assertNull(largeBoard.getWideLayout());
+        assertEquals(largeBoard.getLineEnd(38, 3, -1, 0), largeBoard.getSquareIndex(1, 3));
+        assertEquals(largeBoard.getLineEnd(39, 29, 0, 1), -1);
+        assertTrue(largeBoard.movePiece(38, 4, 36, 4, false));
+        assertEquals(largeBoard.getLineEnd(39, 3, -1, 1), largeBoard.getSquareIndex(13, 29));
+        assertEquals(largeBoard.getLineEnd(37, 10, 0, -1), largeBoard.getSquareIndex(37, 0));
+        assertTrue(largeBoard.getPiece(39, 3).canMove(largeBoard, 36, 6));
+        assertFalse(largeBoard.getPiece(39, 3).canMove(largeBoard, 37, 3));
+        assertEquals(largeBoard.getAttackCount(36, 6, false), 2);
+        Board copy = new Board(largeBoard);
+        assertEquals(copy, largeBoard);
+        copy.clearBoard();
+        assertEquals(copy.getAttackCount(36, 6, false), 0);
+        assertNull(copy.getPiece(39, 3));
+        assertNotNull(largeBoard.getPiece(39, 3));
+        assertFalse(copy.isInCheck(false));
+
+        Board largestBoard = new Board(Move.MAX_SIDE, Move.MAX_SIDE, true);
+        assertTrue(largestBoard.isLineIndexed());
+        int last = Move.MAX_SIDE - 1;
+        assertEquals(largestBoard.getLineEnd(last - 1, 3, -1, 0), largestBoard.getSquareIndex(1, 3));
+        assertTrue(largestBoard.movePiece(last - 1, 4, last - 3, 4, false));
+        assertEquals(largestBoard.getLineEnd(last, 3, -1, 1), largestBoard.getSquareIndex(3, last));
+        assertTrue(largestBoard.getPiece(last, 3).canMove(largestBoard, last - 3, 6));
+    }
+
+    @Test
+    public void checkmateAndStalemate() {
+        Board testBoard = new Board();
+        testBoard.clearBoard();
+        testBoard.setPiece(0, 0, new King(0, 0, true));
+        testBoard.setPiece(7, 7, new King(7, 7, false));
+        testBoard.setPiece(1, 6, new Rook(1, 6, false));
+        testBoard.setPiece(4, 7, new Rook(4, 7, false));
+        testBoard.setPiece(5, 3, new Rook(5, 3, true));
+        assertTrue(testBoard.movePiece(4, 7, 0, 7, false));
+        assertTrue(testBoard.isInCheck(true));
+        assertFalse(testBoard.getCheckmate(true));
+        assertTrue(testBoard.hasLegalMove(true));
+        assertTrue(testBoard.isLegalMove(5, 3, 0, 3, true));
+        assertFalse(testBoard.isLegalMove(5, 3, 5, 0, true));
+
+        testBoard.removePiece(5, 3);
+        assertTrue(testBoard.isCheckmate(true));
+        testBoard.setPiece(3, 4, new Bishop(3, 4, true));
+        assertFalse(testBoard.isCheckmate(true));
+        testBoard.setPiece(4, 4, new Bishop(4, 4, false));
+        assertEquals(testBoard.getAttackCount(0, 0, false), 2);
+        assertTrue(testBoard.isCheckmate(true));
+
+        testBoard.clearBoard();
+        testBoard.setPiece(0, 0, new King(0, 0, true));
+        testBoard.setPiece(7, 7, new King(7, 7, false));
+        testBoard.setPiece(2, 1, new Queen(2, 1, false));
+        assertTrue(testBoard.isStalemate(true));
+        assertFalse(testBoard.isCheckmate(true));
+        assertFalse(testBoard.isStalemate(false));
+    }
+
+    @Test
+    public void compactBoard() {
+        Board testBoard = new Board(true);
+        assertTrue(testBoard.movePiece(6, 4, 4, 4, false));
+        CompactBoard compact = new CompactBoard(testBoard);
+        assertEquals(compact.getRows(), 8);
+        assertTrue(compact.isBlackTurn());
+        assertEquals(PieceCode.getType(compact.getCode(0, 3)), PieceType.QUEEN);
+        assertTrue(PieceCode.isBlack(compact.getCode(0, 3)));
+        assertEquals(PieceCode.getPayload(compact.getCode(1, 7)), 3);
+        assertEquals(PieceCode.getPayload(compact.getCode(6, 3)), 1);
+        assertEquals(PieceCode.getPayload(compact.getCode(4, 4)), 0);
+        assertEquals(compact.getCode(5, 5), PieceCode.EMPTY);
+        assertEquals(PieceCode.getName(compact.getCode(6, 0)), "white_tiger");
+
+        Board restored = compact.toBoard();
+        assertEquals(restored, testBoard);
+        assertEquals(restored.getZobristKey(), testBoard.getZobristKey());
+        assertEquals(new CompactBoard(restored), compact);
+        assertEquals(new CompactBoard(8, 8, compact.getCodes(), true).hashCode(), compact.hashCode());
+        assertNotEquals(new CompactBoard(new Board(true)), compact);
+    }
+}
@@ -0,0 +1,89 @@
+package chess.Tests;
+
+import chess.*;
+import chess.engine.*;
+import chess.pieces.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineTest {
+
+    @Test
+    void findsMateInOne() {
+        Board testBoard = new Board();
+        testBoard.clearBoard();
+        testBoard.setPiece(0, 4, new King(0, 4, true));
+        testBoard.setPiece(1, 0, new Rook(1, 0, false));
+        testBoard.setPiece(5, 7, new Rook(5, 7, false));
+        testBoard.setPiece(7, 7, new King(7, 7, false));
+        SearchResult result = new Engine().search(testBoard, false, SearchLimits.depth(4));
+        assertEquals(result.getBestMove(), Move.encode(5, 7, 0, 7));
+        assertTrue(result.isMateScore());
+        assertTrue(result.getScore() > 0);
+        assertEquals(testBoard.getPiece(5, 7).getType(), PieceType.ROOK);
+    }
+
+    @Test
+    void capturesHangingPiece() {
+        Board testBoard = new Board(true);
+        testBoard.setPiece(4, 3, new Rook(4, 3, true));
+        SearchResult result = new Engine().search(testBoard, false, SearchLimits.depth(3));
+        assertEquals(Move.getToRow(result.getBestMove()), 4);
+        assertEquals(Move.getToCol(result.getBestMove()), 3);
+        assertEquals(result.getPrincipalVariation()[0], result.getBestMove());
+    }
+
+    @Test
+    void respectsBudgets() {
+        Board testBoard = new Board();
+        Engine engine = new Engine(new TranspositionTable(1 << 20));
+        SearchResult result = engine.search(testBoard, true, SearchLimits.nodes(5000));
+        assertTrue(result.getNodes() < 5000 + 1024);
+        assertTrue(testBoard.isLegalMove(Move.getFromRow(result.getBestMove()),
+                Move.getFromCol(result.getBestMove()), Move.getToRow(result.getBestMove()),
+                Move.getToCol(result.getBestMove()), true));
+
+        CompletableFuture<SearchResult> search = engine.start(testBoard, false, SearchLimits.time(60000), null);
+        assertThrows(IllegalStateException.class, () -> engine.start(testBoard, false, SearchLimits.depth(1), null));
+        engine.stop();
+        assertNotEquals(search.join().getBestMove(), Move.NONE);
+        assertFalse(engine.isSearching());
+    }
+
+    @Test
+    void noLegalMoves() {
+        Board testBoard = new Board();
+        testBoard.clearBoard();
+        testBoard.setPiece(0, 0, new King(0, 0, true));
+        testBoard.setPiece(2, 1, new Queen(2, 1, false));
+        testBoard.setPiece(7, 7, new King(7, 7, false));
+        SearchResult result = new Engine().search(testBoard, true, SearchLimits.depth(3));
+        assertEquals(result.getBestMove(), Move.NONE);
+        assertEquals(result.getScore(), 0);
+    }
+
+    @Test
+    void lazySmpSearch() {
+        Board testBoard = new Board();
+        testBoard.clearBoard();
+        testBoard.setPiece(0, 4, new King(0, 4, true));
+        testBoard.setPiece(1, 0, new Rook(1, 0, false));
+        testBoard.setPiece(5, 7, new Rook(5, 7, false));
+        testBoard.setPiece(7, 7, new King(7, 7, false));
+        Engine engine = new Engine(new TranspositionTable(1 << 20), 3);
+        assertEquals(engine.getThreadCount(), 3);
+        SearchResult result = engine.search(testBoard, false, SearchLimits.depth(4));
+        assertEquals(result.getBestMove(), Move.encode(5, 7, 0, 7));
+        assertTrue(result.isMateScore());
+
+        result = engine.search(new Board(true), false, SearchLimits.nodes(20000));
+        assertTrue(new Board(true).isLegalMove(Move.getFromRow(result.getBestMove()),
+                Move.getFromCol(result.getBestMove()), Move.getToRow(result.getBestMove()),
+                Move.getToCol(result.getBestMove()), false));
+        assertTrue(result.getNodes() < 20000 + 3 * 1024);
+        assertThrows(IllegalArgumentException.class, () -> new Engine(new TranspositionTable(1 << 20), 0));
+    }
+}
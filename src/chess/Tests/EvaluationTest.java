@@ -0,0 +1,100 @@
+package chess.Tests;
+
+import chess.*;
+import chess.engine.*;
+import chess.pieces.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvaluationTest {
+
+    /**
+     * Checks the incrementally kept terms against terms recomputed from every piece
+     */
+    private static void assertTermsRecomputed(Board board) {
+        Board recomputed = new Board(board);
+        recomputed.setEvalWeights(board.getEvalWeights());
+        assertEquals(board.getMiddlegameScore(), recomputed.getMiddlegameScore());
+        assertEquals(board.getEndgameScore(), recomputed.getEndgameScore());
+        assertEquals(board.getPhase(), recomputed.getPhase());
+    }
+
+    @Test
+    void termsFollowMakeAndUnmake() {
+        Random random = new Random(5);
+        Board[] boards = {new Board(), new Board(true), new Board(12, 12, true), new Board(70, 70, true)};
+        for (Board board : boards) {
+            int middlegame = board.getMiddlegameScore();
+            int endgame = board.getEndgameScore();
+            boolean isBlack = false;
+            MoveList moves = new MoveList();
+            for (int ply = 0; ply < 60; ply++) {
+                moves.clear();
+                board.generateLegalMoves(isBlack, moves);
+                if (moves.isEmpty()) {
+                    break;
+                }
+                board.makeMove(moves.get(random.nextInt(moves.size())));
+                isBlack = !isBlack;
+                assertTermsRecomputed(board);
+            }
+            while (board.getMadeMoveCount() > 0) {
+                board.unmakeMove();
+            }
+            assertEquals(board.getMiddlegameScore(), middlegame);
+            assertEquals(board.getEndgameScore(), endgame);
+            assertTermsRecomputed(board);
+        }
+    }
+
+    @Test
+    void taperedBySymmetryAndPhase() {
+        assertEquals(Evaluator.evaluate(new Board(), false), 0);
+        assertEquals(Evaluator.evaluate(new Board(true), true), 0);
+        assertEquals(new Board().getPhase(), EvalWeights.DEFAULT.getFullPhase());
+
+        Board board = new Board();
+        board.clearBoard();
+        board.setPiece(7, 4, new King(7, 4, false));
+        board.setPiece(0, 4, new King(0, 4, true));
+        board.setPiece(3, 3, new Pawn(3, 3, false));
+        assertEquals(board.getPhase(), 0);
+        assertEquals(Evaluator.evaluate(board, false), board.getEndgameScore());
+        assertEquals(Evaluator.evaluate(board, true), -board.getEndgameScore());
+
+        // a centralised King is worth more in the endgame and less in the middlegame
+        Board central = new Board(board);
+        central.removePiece(7, 4);
+        central.setPiece(4, 4, new King(4, 4, false));
+        assertTrue(central.getEndgameScore() > board.getEndgameScore());
+        assertTrue(central.getMiddlegameScore() < board.getMiddlegameScore());
+    }
+
+    @Test
+    void tigerAndOrbitValuesAreConfigurable() {
+        Board board = new Board(true);
+        board.removePiece(1, 0);
+        int defaultScore = Evaluator.evaluate(board, false);
+        assertTrue(defaultScore > 0);
+
+        EvalWeights weights = EvalWeights.DEFAULT.withValue(PieceType.TIGER, 600, 600);
+        assertEquals(weights.getMiddlegameValue(PieceType.TIGER), 600);
+        assertEquals(EvalWeights.DEFAULT.getMiddlegameValue(PieceType.TIGER), 300);
+        board.setEvalWeights(weights);
+        assertEquals(Evaluator.evaluate(board, false), defaultScore + 300);
+        assertTermsRecomputed(board);
+
+        Board orbits = new Board(true);
+        orbits.removePiece(orbits.getRows() - 2, orbits.getCols() - 1);
+        int orbitScore = Evaluator.evaluate(orbits, false);
+        orbits.setEvalWeights(EvalWeights.DEFAULT.withOrbitRadiusValue(220, 220));
+        assertEquals(Evaluator.evaluate(orbits, false), orbitScore - 3 * 100);
+
+        Engine engine = new Engine(new TranspositionTable(1 << 20));
+        engine.setEvalWeights(weights);
+        assertTrue(engine.search(new Board(true), false, SearchLimits.depth(2)).getNodes() > 0);
+    }
+}
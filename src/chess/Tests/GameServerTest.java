@@ -0,0 +1,64 @@
+package chess.Tests;
+
+import chess.server.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+
+    @Test
+    void commands() throws Exception {
+        try (GameServer server = new GameServer(2, 0)) {
+            String first = server.execute("NEW").substring(3);
+            String second = server.execute("NEW custom").substring(3);
+            assertEquals(server.execute("NEW"), "ERR server full");
+            assertEquals(server.getSessionCount(), 2);
+
+            assertEquals(server.execute("MOVE " + first + " 6 4 4 4"), "OK MOVED");
+            assertEquals(server.execute("MOVE " + first + " 6 3 4 3"), "ERR illegal move");
+            assertEquals(server.execute("MOVE " + first + " 9 9 9"), "ERR bad command");
+            assertTrue(server.execute("BOARD " + first).endsWith("/PPPP.PPP/RNBQKBNR b"));
+            assertEquals(server.execute("BOARD " + second), "OK rnbqkbnr/tppppppo/......../......../"
+                    + "......../......../TPPPPPPO/RNBQKBNR w");
+            assertTrue(server.execute("MOVES " + second).startsWith("OK ("));
+            assertEquals(server.execute("UNDO " + first), "OK");
+            assertEquals(server.execute("UNDO " + first), "ERR nothing to undo");
+            assertEquals(server.execute("RESIGN " + second + " foo"), "ERR bad command");
+            assertEquals(server.execute("MOVE " + second + " 6 4 4 4"), "OK MOVED");
+            assertEquals(server.execute("RESIGN " + second + " white"), "OK");
+            assertEquals(server.execute("UNDO " + second), "ERR game over");
+            assertEquals(server.execute("MOVE " + second + " 1 4 3 4"), "ERR illegal move");
+
+            assertEquals(server.execute("CLOSE " + first), "OK");
+            assertEquals(server.execute("BOARD " + first), "ERR unknown game");
+            assertEquals(server.execute("FOO 1"), "ERR bad command");
+            assertEquals(server.getSessionCount(), 1);
+        }
+    }
+
+    @Test
+    void socketProtocol() throws Exception {
+        try (GameServer server = new GameServer(10, 0)) {
+            server.start(0);
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+                 BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                 PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+                out.println("NEW");
+                String id = in.readLine().substring(3);
+                out.println("MOVE " + id + " 6 4 4 4");
+                assertEquals(in.readLine(), "OK MOVED");
+                out.println("MOVE " + id + " 1 4 3 4");
+                assertEquals(in.readLine(), "OK MOVED");
+                out.println("QUIT");
+                assertNull(in.readLine());
+            }
+        }
+    }
+}
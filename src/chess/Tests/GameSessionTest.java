@@ -0,0 +1,120 @@
+package chess.Tests;
+
+import chess.*;
+import chess.pieces.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSessionTest {
+
+    @Test
+    void movesAndUndo() {
+        GameSession session = new GameSession(false);
+        List<String> events = new ArrayList<>();
+        session.addListener(new GameSession.Listener() {
+            @Override
+            public void moveMade(GameSession session, int move, Piece capturedPiece, GameSession.MoveResult result) {
+                events.add("move " + Move.toString(move) + " " + result);
+            }
+
+            @Override
+            public void moveUndone(GameSession session, int move) {
+                events.add("undo " + Move.toString(move));
+            }
+        });
+        assertFalse(session.isBlackTurn());
+        assertEquals(session.move(1, 4, 3, 4), GameSession.MoveResult.ILLEGAL);
+        assertEquals(session.move(6, 4, 4, 4), GameSession.MoveResult.MOVED);
+        assertTrue(session.isBlackTurn());
+        assertEquals(session.move(1, 3, 3, 3), GameSession.MoveResult.MOVED);
+        assertEquals(session.move(Move.encode(4, 4, 3, 3)), GameSession.MoveResult.MOVED);
+        assertEquals(session.getLastCapturedPiece().getType(), PieceType.PAWN);
+        assertEquals(session.getMoveCount(), 3);
+        assertArrayEquals(session.getMoves(), new int[] {Move.encode(6, 4, 4, 4), Move.encode(1, 3, 3, 3),
+                Move.encode(4, 4, 3, 3)});
+
+        assertTrue(session.undo());
+        assertFalse(session.isBlackTurn());
+        assertNull(session.getLastCapturedPiece());
+        assertTrue(session.getBoard().getPiece(3, 3).isBlack());
+        assertEquals(events.size(), 4);
+        assertEquals(events.get(3), "undo (4,4)->(3,3)");
+        assertTrue(session.undo());
+        assertTrue(session.undo());
+        assertFalse(session.undo());
+        assertEquals(session.getBoard(), new Board());
+    }
+
+    @Test
+    void gameOverAndRestart() {
+        GameSession session = new GameSession(false);
+        int[] gameOvers = new int[2];
+        session.addListener(new GameSession.Listener() {
+            @Override
+            public void gameStarted(GameSession session) {
+                gameOvers[1]++;
+            }
+
+            @Override
+            public void gameOver(GameSession session, GameSession.Ending ending, boolean isWinnerBlack) {
+                gameOvers[0]++;
+            }
+        });
+        Board board = session.getBoard();
+        board.clearBoard();
+        board.setPiece(0, 4, new King(0, 4, true));
+        board.setPiece(1, 0, new Rook(1, 0, false));
+        board.setPiece(5, 7, new Rook(5, 7, false));
+        board.setPiece(7, 7, new King(7, 7, false));
+        assertEquals(session.move(5, 7, 0, 7), GameSession.MoveResult.CHECKMATE);
+        assertTrue(session.isGameOver());
+        assertFalse(session.isWinnerBlack());
+        assertEquals(gameOvers[0], 1);
+        assertEquals(session.move(0, 4, 1, 4), GameSession.MoveResult.ILLEGAL);
+        assertTrue(session.undo());
+        assertFalse(session.isGameOver());
+
+        assertEquals(session.move(5, 7, 4, 7), GameSession.MoveResult.MOVED);
+        session.resign(false);
+        assertTrue(session.isGameOver());
+        assertTrue(session.isWinnerBlack());
+        assertFalse(session.undo());
+        assertTrue(session.isGameOver());
+        assertEquals(session.getEnding(), GameSession.Ending.RESIGNATION);
+        assertEquals(session.getMoveCount(), 1);
+        session.startNewGame(true, true);
+        assertFalse(session.isGameOver());
+        assertTrue(session.isCustom());
+        assertTrue(session.isBlackTurn());
+        assertEquals(session.getMoveCount(), 0);
+        assertEquals(gameOvers[1], 1);
+    }
+
+    @Test
+    void stalemate() {
+        GameSession session = new GameSession(false);
+        GameSession.Ending[] endings = new GameSession.Ending[1];
+        session.addListener(new GameSession.Listener() {
+            @Override
+            public void gameOver(GameSession session, GameSession.Ending ending, boolean isWinnerBlack) {
+                endings[0] = ending;
+            }
+        });
+        Board board = session.getBoard();
+        board.clearBoard();
+        board.setPiece(0, 0, new King(0, 0, true));
+        board.setPiece(3, 1, new Queen(3, 1, false));
+        board.setPiece(7, 7, new King(7, 7, false));
+        assertEquals(session.move(3, 1, 2, 1), GameSession.MoveResult.STALEMATE);
+        assertTrue(session.isGameOver());
+        assertEquals(session.getEnding(), GameSession.Ending.STALEMATE);
+        assertEquals(endings[0], GameSession.Ending.STALEMATE);
+        assertTrue(session.undo());
+        assertNull(session.getEnding());
+        assertEquals(session.move(3, 1, 1, 1), GameSession.MoveResult.CHECK);
+    }
+}
@@ -0,0 +1,136 @@
+package chess.Tests;
+
+import chess.*;
+import chess.io.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameStoreTest {
+
+    @TempDir
+    Path folder;
+
+    private static GameSession queenMate() {
+        GameSession session = new GameSession(false);
+        assertEquals(session.move(6, 4, 5, 4), GameSession.MoveResult.MOVED);
+        assertEquals(session.move(1, 4, 3, 4), GameSession.MoveResult.MOVED);
+        assertEquals(session.move(7, 3, 3, 7), GameSession.MoveResult.MOVED);
+        assertEquals(session.move(0, 4, 1, 4), GameSession.MoveResult.MOVED);
+        assertEquals(session.move(3, 7, 3, 4), GameSession.MoveResult.CHECKMATE);
+        return session;
+    }
+
+    @Test
+    void recordAndReplay() throws IOException {
+        Path path = folder.resolve("games.cgs");
+        GameSession session = new GameSession(true, true);
+        try (GameStore store = GameStore.open(path)) {
+            session.addListener(new GameRecorder(store));
+            assertEquals(session.move(1, 4, 3, 4), GameSession.MoveResult.MOVED);
+            assertEquals(session.move(6, 3, 4, 3), GameSession.MoveResult.MOVED);
+            session.resign(false);
+            GameSession mate = queenMate();
+            store.append(GameRecord.of(mate));
+        }
+        try (GameArchive archive = GameArchive.open(path)) {
+            assertEquals(archive.countGames(), 2);
+            GameArchive.Cursor cursor = archive.cursor();
+            assertTrue(cursor.next());
+            assertTrue(cursor.isCustom());
+            assertTrue(cursor.isBlackFirst());
+            assertEquals(cursor.getEnding(), GameSession.Ending.RESIGNATION);
+            assertTrue(cursor.isWinnerBlack());
+            assertEquals(cursor.getMoveCount(), 2);
+            assertEquals(cursor.getMove(1), Move.encode(6, 3, 4, 3));
+            assertEquals(cursor.replay(2), session.getBoard());
+
+            assertTrue(cursor.next());
+            GameRecord mate = GameRecord.copyOf(cursor);
+            assertEquals(mate, GameRecord.of(queenMate()));
+            assertTrue(mate.replay(mate.getMoveCount()).isCheckmate(true));
+            assertFalse(cursor.next());
+            assertThrows(IndexOutOfBoundsException.class, () -> cursor.getMove(5));
+        }
+    }
+
+    @Test
+    void smallWindowsAndTruncatedTail() throws IOException {
+        Path path = folder.resolve("many.cgs");
+        GameRecord mate = GameRecord.of(queenMate());
+        long[] offsets = new long[100];
+        try (GameStore store = GameStore.open(path)) {
+            for (int index = 0; index < offsets.length; index++) {
+                offsets[index] = store.append(mate);
+            }
+        }
+        try (GameArchive archive = GameArchive.open(path, 10)) {
+            GameArchive.Cursor cursor = archive.cursor();
+            int count = 0;
+            while (cursor.next()) {
+                assertEquals(cursor.getOffset(), offsets[count++]);
+                assertEquals(GameRecord.copyOf(cursor), mate);
+            }
+            assertEquals(count, 100);
+            GameArchive.Cursor seek = archive.cursor(offsets[57]);
+            assertTrue(seek.next());
+            assertEquals(seek.getOffset(), offsets[57]);
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.truncate(Files.size(path) - 3);
+        }
+        try (GameArchive archive = GameArchive.open(path)) {
+            assertEquals(archive.countGames(), 99);
+        }
+        try (GameStore store = GameStore.open(path)) {
+            assertEquals(store.size(), offsets[99]);
+            store.append(mate);
+        }
+        try (GameArchive archive = GameArchive.open(path)) {
+            assertEquals(archive.countGames(), 100);
+        }
+
+        Path other = folder.resolve("other.txt");
+        Files.write(other, new byte[] {1, 2, 3, 4, 5});
+        assertThrows(IOException.class, () -> GameStore.open(other));
+    }
+
+    @Test
+    void pgnExport() throws IOException {
+        StringBuilder pgn = new StringBuilder();
+        Pgn.write(GameRecord.of(queenMate()), pgn);
+        String text = pgn.toString();
+        assertTrue(text.startsWith("[Event \"Casual Game\"]\n"));
+        assertTrue(text.contains("[Result \"1-0\"]\n"));
+        assertFalse(text.contains("[FEN"));
+        assertTrue(text.endsWith("\n\n1. e3 e5 2. Qh5 Ke7 3. Qxe5# 1-0\n\n"));
+
+        GameSession session = new GameSession(true, true);
+        assertEquals(session.move(1, 4, 3, 4), GameSession.MoveResult.MOVED);
+        pgn.setLength(0);
+        Pgn.write(GameRecord.of(session), pgn);
+        text = pgn.toString();
+        assertTrue(text.contains("[Variant \"Tigers and Orbits\"]\n[SetUp \"1\"]\n[FEN \""));
+        assertTrue(text.contains(" b - - 0 1\"]\n"));
+        assertTrue(text.endsWith("\n\n1... e5 *\n\n"));
+
+        Path path = folder.resolve("export.cgs");
+        try (GameStore store = GameStore.open(path)) {
+            store.append(GameRecord.of(queenMate()));
+            store.append(GameRecord.of(session));
+        }
+        pgn.setLength(0);
+        try (GameArchive archive = GameArchive.open(path)) {
+            assertEquals(Pgn.export(archive, pgn), 2);
+        }
+        assertTrue(pgn.toString().contains("Qxe5# 1-0\n\n[Event"));
+    }
+}
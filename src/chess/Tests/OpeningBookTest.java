@@ -0,0 +1,100 @@
+package chess.Tests;
+
+import chess.*;
+import chess.engine.*;
+import chess.io.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OpeningBookTest {
+
+    @TempDir
+    Path folder;
+
+    private static final int E4 = Move.encode(6, 4, 4, 4);
+    private static final int D4 = Move.encode(6, 3, 4, 3);
+    private static final int E5 = Move.encode(1, 4, 3, 4);
+    private static final int C5 = Move.encode(1, 2, 3, 2);
+
+    private Path buildArchive() throws IOException {
+        Path storePath = folder.resolve("games.cgs");
+        try (GameStore store = GameStore.open(storePath)) {
+            for (int index = 0; index < 3; index++) {
+                store.append(new GameRecord(false, false, new int[] {E4, E5}, GameSession.Ending.RESIGNATION, false));
+            }
+            store.append(new GameRecord(false, false, new int[] {E4, C5}, GameSession.Ending.RESIGNATION, true));
+            store.append(new GameRecord(false, false, new int[] {D4, E5}, GameSession.Ending.STALEMATE, false));
+            store.append(new GameRecord(false, false, new int[] {D4}, GameSession.Ending.RESIGNATION, true));
+            store.append(new GameRecord(true, false, new int[] {D4}, GameSession.Ending.RESIGNATION, false));
+        }
+        return storePath;
+    }
+
+    @Test
+    void buildAndLookUp() throws IOException {
+        Path bookPath = folder.resolve("standard.book");
+        try (GameArchive archive = GameArchive.open(buildArchive())) {
+            assertEquals(OpeningBook.build(archive, false, OpeningBook.DEFAULT_MAX_PLY, 1, bookPath), 4);
+        }
+        try (OpeningBook book = OpeningBook.open(bookPath)) {
+            assertEquals(book.size(), 4);
+            Board board = new Board();
+            long startKey = board.getZobristKey();
+            assertArrayEquals(book.getMoves(startKey), new int[] {E4, D4});
+            assertEquals(book.getWeight(startKey, E4), 6);
+            assertEquals(book.getWeight(startKey, D4), 1);
+            board.makeMove(E4);
+            assertArrayEquals(book.getMoves(board.getZobristKey()), new int[] {C5});
+            assertEquals(book.getMoves(new Board(true).getZobristKey()).length, 0);
+
+            Random random = new Random(7);
+            int e4Count = 0;
+            Board start = new Board();
+            for (int index = 0; index < 700; index++) {
+                int move = book.pickMove(start, random);
+                assertTrue(move == E4 || move == D4);
+                e4Count += move == E4 ? 1 : 0;
+            }
+            assertTrue(e4Count > 500 && e4Count < 700);
+            board.makeMove(C5);
+            assertEquals(book.pickMove(board, random), Move.NONE);
+        }
+
+        Path customPath = folder.resolve("custom.book");
+        try (GameArchive archive = GameArchive.open(folder.resolve("games.cgs"))) {
+            assertEquals(OpeningBook.build(archive, true, 1, 1, customPath), 1);
+        }
+        try (OpeningBook book = OpeningBook.open(customPath)) {
+            assertArrayEquals(book.getMoves(new Board(true).getZobristKey()), new int[] {D4});
+            assertEquals(book.getMoves(new Board().getZobristKey()).length, 0);
+        }
+    }
+
+    @Test
+    void engineAnswersFromBook() throws IOException {
+        Path bookPath = folder.resolve("standard.book");
+        try (GameArchive archive = GameArchive.open(buildArchive())) {
+            OpeningBook.build(archive, false, OpeningBook.DEFAULT_MAX_PLY, 2, bookPath);
+        }
+        try (OpeningBook book = OpeningBook.open(bookPath)) {
+            Engine engine = new Engine(new TranspositionTable(1 << 20));
+            engine.setOpeningBook(false, book);
+            SearchResult result = engine.search(new Board(), false, SearchLimits.depth(4));
+            assertEquals(result.getBestMove(), E4);
+            assertEquals(result.getNodes(), 0);
+
+            Board board = new Board();
+            board.makeMove(D4);
+            result = engine.search(board, true, SearchLimits.depth(2));
+            assertTrue(result.getNodes() > 0);
+            engine.setOpeningBook(false, null);
+            assertTrue(engine.search(new Board(), false, SearchLimits.depth(2)).getNodes() > 0);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package chess.Tests;
+
+import chess.*;
+import chess.engine.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerftTest {
+
+    @Test
+    void standardPerft() {
+        Board testBoard = new Board();
+        Perft perft = new Perft();
+        assertEquals(perft.perft(testBoard, 1, false), 20);
+        assertEquals(perft.perft(testBoard, 2, false), 400);
+        assertEquals(perft.perft(testBoard, 3, false), 9382);
+        assertEquals(testBoard.getMadeMoveCount(), 0);
+    }
+
+    @Test
+    void customPerft() {
+        Board testBoard = new Board(true);
+        assertEquals(new Perft().perft(testBoard, 3, false), 17695);
+    }
+
+    @Test
+    void divideMatchesPerft() {
+        Board testBoard = new Board(true);
+        Perft perft = new Perft();
+        Perft.Result result = perft.divide(testBoard, 3, false);
+        assertEquals(result.getNodes(), 17695);
+        long total = 0;
+        for (long count : result.getDivide().values()) {
+            total += count;
+        }
+        assertEquals(total, 17695);
+        assertEquals(result.getDivide().size(), perft.perft(testBoard, 1, false));
+        assertThrows(IllegalArgumentException.class, () -> perft.divide(testBoard, 0, false));
+    }
+
+    @Test
+    void hashTableGivesSameCounts() {
+        Board testBoard = new Board();
+        Perft hashedPerft = new Perft(ForkJoinPool.commonPool(), 1 << 16);
+        assertEquals(hashedPerft.perft(testBoard, 4, false), 219597);
+        assertEquals(hashedPerft.divide(testBoard, 4, false).getNodes(), 219597);
+    }
+}
@@ -143,6 +143,10 @@ class PieceTest {
         Piece testPawn2 = new Pawn(0, 0, false);
         testBoard.setPiece(2, 1, testPawn2);
         assertTrue(testBoard.movePiece(1, 0, 2, 1, true));
+        Pawn testPawn3 = (Pawn) testBoard.getPiece(1, 5);
+        assertTrue(testPawn3.canMove(testBoard, 3, 5));
+        assertTrue(testPawn3.canMove(testBoard, 3, 5));
+        assertTrue(testPawn3.getIsFirstMove());
     }
     @Test
     void checkKnightMoves(){
@@ -201,6 +205,77 @@ class PieceTest {
         assertTrue(testBoard.movePiece(5, 2, 6, 2, true));
     }
 
+    @Test
+    void checkLeapTables() {
+        Board smallBoard = new Board(8, 8, false);
+        Board largeBoard = new Board(70, 70, false);
+        assertTrue(smallBoard.getLeapTable(PieceType.ORBIT, 3).hasMasks());
+        assertFalse(new Board(12, 12, false).getLeapTable(PieceType.KNIGHT, 0).hasMasks());
+        assertNull(largeBoard.getLeapTable(PieceType.KNIGHT, 0));
+        assertSame(smallBoard.getLeapTable(PieceType.KING, 0), new Board().getLeapTable(PieceType.KING, 0));
+        smallBoard.clearBoard();
+        largeBoard.clearBoard();
+        Piece[] smallPieces = {new Knight(3, 3), new King(3, 3), new Tiger(3, 3), new Orbit(3, 3, 2)};
+        Piece[] largePieces = {new Knight(3, 3), new King(3, 3), new Tiger(3, 3), new Orbit(3, 3, 2)};
+        for (int index = 0; index < smallPieces.length; index++) {
+            smallBoard.setPiece(3, 3, smallPieces[index]);
+            largeBoard.setPiece(3, 3, largePieces[index]);
+            smallBoard.setPiece(4, 4, new Pawn(4, 4, false));
+            largeBoard.setPiece(4, 4, new Pawn(4, 4, false));
+            for (int rowIter = 0; rowIter < 8; rowIter++) {
+                for (int colIter = 0; colIter < 8; colIter++) {
+                    assertEquals(largePieces[index].canMove(largeBoard, rowIter, colIter),
+                            smallPieces[index].canMove(smallBoard, rowIter, colIter));
+                }
+            }
+        }
+        assertTrue(smallPieces[3].canMove(smallBoard, 5, 3));
+        assertFalse(smallPieces[3].canMove(smallBoard, 5, 5));
+    }
+
+    @Test
+    void checkHugeOrbitRadius() {
+        assertEquals(LeapTable.clampRadius(1000, 8, 8), 10);
+        assertEquals(LeapTable.clampRadius(-4, 8, 8), 0);
+        assertEquals(LeapTable.clampRadius(Integer.MAX_VALUE, 70, 70), 98);
+        Board smallBoard = Board.empty(8, 8);
+        Board largeBoard = Board.empty(70, 70);
+        assertSame(smallBoard.getLeapTable(PieceType.ORBIT, 1000), smallBoard.getLeapTable(PieceType.ORBIT, 10));
+        assertNotSame(smallBoard.getLeapTable(PieceType.ORBIT, 65546), smallBoard.getLeapTable(PieceType.ORBIT, 9));
+        Orbit small = new Orbit(3, 3, true, 1000);
+        Orbit large = new Orbit(3, 3, true, Integer.MAX_VALUE);
+        smallBoard.setPiece(3, 3, small);
+        largeBoard.setPiece(3, 3, large);
+        assertTrue(small.canMove(smallBoard, 7, 7));
+        assertTrue(large.canMove(largeBoard, 69, 69));
+        MoveList moves = new MoveList();
+        small.generateMoves(smallBoard, moves);
+        assertEquals(moves.size(), 63);
+        moves.clear();
+        large.generateMoves(largeBoard, moves);
+        assertEquals(moves.size(), 70 * 70 - 1);
+        assertEquals(largeBoard.getAttackCount(69, 0, true), 1);
+    }
+
+    @Test
+    void checkMagicBitboards() {
+        assertEquals(MagicBitboards.rookAttacks(0, 0L), 0x01010101010101FEL);
+        assertEquals(MagicBitboards.rookAttacks(0, 1L << 3 | 1L << 16 | 1L << 63), 0x1010EL);
+        assertEquals(MagicBitboards.bishopAttacks(0, 1L << 18), 1L << 9 | 1L << 18);
+        assertEquals(MagicBitboards.attacks(PieceType.QUEEN, 27, 0L),
+                MagicBitboards.rookAttacks(27, 0L) | MagicBitboards.bishopAttacks(27, 0L));
+        Board testBoard = new Board();
+        MoveList moves = new MoveList();
+        testBoard.getPiece(7, 3).generateMoves(testBoard, moves);
+        assertTrue(moves.isEmpty());
+        testBoard.removePiece(6, 4);
+        testBoard.getPiece(7, 3).generateMoves(testBoard, moves);
+        assertEquals(moves.size(), 4);
+        assertTrue(moves.contains(Move.encode(7, 3, 3, 7)));
+        assertTrue(testBoard.getPiece(7, 3).canMove(testBoard, 3, 7));
+        assertFalse(testBoard.getPiece(7, 3).canMove(testBoard, 6, 3));
+    }
+
     @Test
     void checkToString() {
         Pawn testWhitePawn = new Pawn(0, 4, false);
@@ -0,0 +1,151 @@
+package chess.Tests;
+
+import chess.*;
+import chess.io.Fen;
+import chess.io.PackedPosition;
+import chess.io.PositionReader;
+import chess.io.PositionWriter;
+import chess.pieces.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionIOTest {
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+
+    @Test
+    void fenRoundTrip() {
+        Board board = new Board();
+        assertEquals(Fen.toFen(board), START);
+        assertEquals(Fen.toBoard(START), board);
+
+        Board custom = new Board(true);
+        assertTrue(custom.movePiece(6, 4, 4, 4, false));
+        String fen = Fen.toFen(custom);
+        assertTrue(fen.endsWith(" b - - 0 1"));
+        Board restored = Fen.toBoard(fen);
+        assertEquals(restored, custom);
+        assertEquals(restored.getZobristKey(), custom.getZobristKey());
+    }
+
+    @Test
+    void fenSizesAndStates() {
+        CompactBoard position = Fen.parse("k11/12/o[5]11/4P[u]7/4P[m]7/9p[u]1K b");
+        assertEquals(position.getRows(), 6);
+        assertEquals(position.getCols(), 12);
+        assertTrue(position.isBlackTurn());
+        assertEquals(PieceCode.getPayload(position.getCode(2, 0)), 5);
+        assertEquals(PieceCode.getPayload(position.getCode(4, 4)), 0);
+        assertEquals(PieceCode.getPayload(position.getCode(3, 4)), 1);
+        assertEquals(PieceCode.getPayload(position.getCode(5, 9)), 1);
+        assertEquals(Fen.toFen(position), "k11/12/o[5]11/4P[u]7/4P[m]7/9p[u]1K b - - 0 1");
+
+        Board board = position.toBoard();
+        assertEquals(((Orbit) board.getPiece(2, 0)).getRadius(), 5);
+        assertFalse(((Pawn) board.getPiece(4, 4)).getIsFirstMove());
+        assertEquals(Fen.parse(Fen.toFen(board)), position);
+
+        assertEquals(Fen.parse("200/k198K w").getCols(), 200);
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/7 w"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/7x w"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("8/8 x"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("n[m]7/8 w"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("o[8]7/8 w"));
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse("257 w"));
+    }
+
+    @Test
+    void smallBoardsRoundTrip() {
+        String[] fens = {"kK w - - 0 1", "k/K b - - 0 1", "k3/4/1P[m]2/K3 w - - 0 1", "t1o[1]1/4/4/3K b - - 0 1"};
+        for (String fen : fens) {
+            Board board = Fen.toBoard(fen);
+            assertEquals(Fen.toFen(board), fen);
+            CompactBoard position = new CompactBoard(board);
+            CompactBoard decoded = PackedPosition.decode(PackedPosition.encode(position));
+            assertEquals(decoded, position);
+            assertEquals(decoded.toBoard(), board);
+            assertEquals(decoded.toBoard().getZobristKey(), board.getZobristKey());
+        }
+        assertEquals(Fen.toBoard("kK w").getCols(), 2);
+        assertEquals(Fen.toBoard("k/K w").getRows(), 2);
+    }
+
+    @Test
+    void fenOrbitRadii() {
+        Board orbits = Board.empty(16, 16);
+        orbits.setPiece(8, 8, new Orbit(8, 8, false, 8));
+        orbits.setPiece(2, 3, new Orbit(2, 3, true, 1000));
+        orbits.setPiece(0, 0, new King(0, 0, true));
+        orbits.setPiece(15, 15, new King(15, 15, false));
+        String orbitFen = Fen.toFen(orbits);
+        assertEquals(orbitFen, "k15/16/3o[1000]12/16/16/16/16/16/8O[8]7/16/16/16/16/16/16/15K w - - 0 1");
+        Board restored = Fen.toBoard(orbitFen);
+        assertEquals(restored, orbits);
+        assertEquals(((Orbit) restored.getPiece(8, 8)).getRadius(), 8);
+        assertEquals(((Orbit) restored.getPiece(2, 3)).getRadius(), 1000);
+        assertThrows(IllegalArgumentException.class, () -> Fen.parse(orbitFen));
+        assertThrows(IllegalArgumentException.class, () -> Fen.toBoard("o[99999999999]7/8 w"));
+    }
+
+    @Test
+    void packedRecords() {
+        CompactBoard start = new CompactBoard(new Board());
+        byte[] record = PackedPosition.encode(start);
+        assertEquals(record.length, 25);
+        assertEquals(PackedPosition.decode(record), start);
+
+        Board custom = new Board(true);
+        assertTrue(custom.movePiece(6, 4, 4, 4, false));
+        CompactBoard customPosition = new CompactBoard(custom);
+        assertTrue(PackedPosition.encode(customPosition).length <= 32);
+        assertEquals(PackedPosition.decode(PackedPosition.encode(customPosition)), customPosition);
+
+        CompactBoard states = Fen.parse("k11/12/o[5]11/4P[u]7/4P[m]7/9p[u]1K b");
+        assertEquals(PackedPosition.decode(PackedPosition.encode(states)), states);
+
+        assertThrows(IllegalArgumentException.class, () -> PackedPosition.decode(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> PackedPosition.decode(Arrays.copyOf(record, 24)));
+        assertThrows(IllegalArgumentException.class, () -> PackedPosition.decode(Arrays.copyOf(record, 26)));
+        assertThrows(IllegalArgumentException.class, () -> PackedPosition.decode(new byte[] {(byte) 0x80}));
+    }
+
+    @Test
+    void streams() throws IOException {
+        Board board = new Board();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CompactBoard[] written = new CompactBoard[20];
+        try (PositionWriter writer = new PositionWriter(bytes)) {
+            for (int index = 0; index < written.length; index++) {
+                written[index] = new CompactBoard(board);
+                writer.write(board);
+                MoveList moves = new MoveList();
+                board.generateLegalMoves(board.isBlackTurn(), moves);
+                int move = moves.get(index % moves.size());
+                board.makeMove(move);
+            }
+            assertEquals(writer.getCount(), 20);
+        }
+        try (PositionReader reader = new PositionReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            for (CompactBoard position : written) {
+                assertEquals(reader.read(), position);
+            }
+            assertNull(reader.read());
+            assertEquals(reader.getCount(), 20);
+        }
+
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 1);
+        try (PositionReader reader = new PositionReader(new ByteArrayInputStream(truncated))) {
+            for (int index = 0; index < written.length - 1; index++) {
+                assertNotNull(reader.read());
+            }
+            assertThrows(EOFException.class, reader::read);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package chess.Tests;
+
+import chess.*;
+import chess.io.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionIndexTest {
+
+    @TempDir
+    Path folder;
+
+    private static final int E3 = Move.encode(6, 4, 5, 4);
+    private static final int E4 = Move.encode(6, 4, 4, 4);
+    private static final int E5 = Move.encode(1, 4, 3, 4);
+    private static final int D5 = Move.encode(1, 3, 3, 3);
+
+    private static GameRecord game(GameSession.Ending ending, boolean isWinnerBlack, int... moves) {
+        return new GameRecord(false, false, moves, ending, isWinnerBlack);
+    }
+
+    @Test
+    void findAndExplore() throws IOException {
+        Path storePath = folder.resolve("games.cgs");
+        Path indexPath = folder.resolve("games.idx");
+        long[] offsets = new long[4];
+        try (GameStore store = GameStore.open(storePath)) {
+            offsets[0] = store.append(game(GameSession.Ending.RESIGNATION, false, E4, E5));
+            offsets[1] = store.append(game(GameSession.Ending.RESIGNATION, true, E4, D5));
+            offsets[2] = store.append(game(GameSession.Ending.STALEMATE, false, E4, E5));
+            offsets[3] = store.append(game(null, false, E3));
+        }
+        try (GameArchive archive = GameArchive.open(storePath); PositionIndex index = PositionIndex.open(indexPath)) {
+            assertEquals(index.update(archive), 4);
+            assertEquals(index.getIndexedLength(), archive.size());
+            assertEquals(index.getEntryCount(), 3 + 3 + 3 + 2);
+            assertEquals(index.update(archive), 0);
+
+            Board board = new Board();
+            assertArrayEquals(index.findGames(board), offsets);
+            OpeningExplorer explorer = new OpeningExplorer(index, archive);
+            List<OpeningExplorer.MoveStats> moves = explorer.explore(board);
+            assertEquals(moves.size(), 2);
+            assertEquals(moves.get(0).getMove(), E4);
+            assertEquals(moves.get(0).getGames(), 3);
+            assertEquals(moves.get(0).getWhiteWins(), 1);
+            assertEquals(moves.get(0).getBlackWins(), 1);
+            assertEquals(moves.get(0).getDraws(), 1);
+            assertEquals(moves.get(0).getWinRate(false), 0.5, 1e-9);
+            assertEquals(moves.get(1).getMove(), E3);
+            assertEquals(moves.get(1).getWinRate(true), 0, 1e-9);
+
+            board.makeMove(E4);
+            assertEquals(explorer.getGameCount(board), 3);
+            moves = explorer.explore(board);
+            assertEquals(moves.get(0).getMove(), E5);
+            assertEquals(moves.get(0).getGames(), 2);
+            board.makeMove(E5);
+            assertArrayEquals(index.findGames(board), new long[] {offsets[0], offsets[2]});
+            assertTrue(explorer.explore(board).isEmpty());
+            assertEquals(index.findGames(12345L).length, 0);
+        }
+    }
+
+    @Test
+    void incrementalUpdatesAndMerges() throws IOException {
+        Path storePath = folder.resolve("games.cgs");
+        Path indexPath = folder.resolve("games.idx");
+        int[][] openings = {{E4, E5}, {E4, D5}, {E3, E5}, {E3}};
+        try (GameStore store = GameStore.open(storePath)) {
+            for (int[] moves : openings) {
+                store.append(game(GameSession.Ending.RESIGNATION, false, moves));
+            }
+        }
+        try (GameArchive archive = GameArchive.open(storePath); PositionIndex index = PositionIndex.open(indexPath, 8)) {
+            index.update(archive);
+        }
+        for (int round = 0; round < 5; round++) {
+            try (GameStore store = GameStore.open(storePath)) {
+                for (int[] moves : openings) {
+                    store.append(game(GameSession.Ending.RESIGNATION, true, moves));
+                }
+            }
+            try (GameArchive archive = GameArchive.open(storePath);
+                 PositionIndex index = PositionIndex.open(indexPath, 8)) {
+                assertEquals(index.update(archive), 4);
+                assertEquals(index.getIndexedLength(), archive.size());
+            }
+        }
+        try (GameArchive archive = GameArchive.open(storePath); PositionIndex index = PositionIndex.open(indexPath, 8)) {
+            assertEquals(index.getEntryCount(), 6 * (3 + 3 + 3 + 2));
+            Board board = new Board();
+            assertEquals(index.findGames(board).length, 24);
+            board.makeMove(E3);
+            List<OpeningExplorer.MoveStats> moves = new OpeningExplorer(index, archive).explore(board);
+            assertEquals(moves.size(), 1);
+            assertEquals(moves.get(0).getGames(), 6);
+            assertEquals(moves.get(0).getBlackWins(), 5);
+            index.compact();
+            assertEquals(index.findGames(board).length, 12);
+        }
+        try (PositionIndex index = PositionIndex.open(indexPath)) {
+            assertEquals(index.getEntryCount(), 6 * (3 + 3 + 3 + 2));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package chess.Tests;
+
+import chess.*;
+import chess.engine.*;
+import chess.pieces.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TablebaseTest {
+
+    @TempDir
+    Path folder;
+
+    private static final int MATE = 30000;
+
+    private static Board emptyBoard() {
+        Board board = new Board(5, 5, false);
+        board.clearBoard();
+        return board;
+    }
+
+    private static void place(Board board, Piece piece) {
+        board.setPiece(piece.getRowCoord(), piece.getColCoord(), piece);
+    }
+
+    @Test
+    void generateAndProbe() throws IOException {
+        Path path = new TablebaseGenerator(folder, 5, 5, 2).generate("KvKQ");
+        assertEquals(path.getFileName().toString(), "KQvK-5x5.ctb");
+        assertTrue(Files.exists(folder.resolve("KvK-5x5.ctb")));
+        try (Tablebases tablebases = Tablebases.open(folder)) {
+            assertEquals(tablebases.size(), 2);
+            assertEquals(tablebases.getMaxMen(), 3);
+
+            Board board = emptyBoard();
+            place(board, new King(0, 0, true));
+            place(board, new Queen(1, 1, false));
+            place(board, new King(2, 2, false));
+            assertTrue(board.isCheckmate(true));
+            assertEquals(tablebases.probe(board, true), -MATE);
+            assertEquals(tablebases.probe(board, false), Tablebases.NOT_FOUND);
+
+            board.removePiece(1, 1);
+            place(board, new Queen(1, 4, false));
+            assertEquals(tablebases.probe(board, false), MATE - 1);
+            assertEquals(tablebases.probe(board, true), -(MATE - 2));
+
+            Board swapped = emptyBoard();
+            place(swapped, new King(0, 0, false));
+            place(swapped, new Queen(1, 4, true));
+            place(swapped, new King(2, 2, true));
+            assertEquals(tablebases.probe(swapped, true), MATE - 1);
+
+            place(board, new Rook(4, 4, true));
+            assertEquals(tablebases.probe(board, false), Tablebases.NOT_FOUND);
+            assertEquals(tablebases.probe(new Board(), false), Tablebases.NOT_FOUND);
+        }
+    }
+
+    @Test
+    void agreesWithBoardMoves() throws IOException {
+        TablebaseGenerator generator = new TablebaseGenerator(folder, 5, 5, 3);
+        generator.generate("KTvKO2");
+        generator.generate("KRvKN");
+        try (Tablebases tablebases = Tablebases.open(folder)) {
+            Random random = new Random(11);
+            checkRandomPositions(tablebases, random, new Tiger(0, 0, false), new Orbit(0, 0, true, 2));
+            checkRandomPositions(tablebases, random, new Rook(0, 0, false), new Knight(0, 0, true));
+        }
+    }
+
+    /**
+     * Checks that the tables score random positions of two Kings and two other pieces as the best of the positions
+     * after each legal move, one ply further from the mate
+     */
+    private static void checkRandomPositions(Tablebases tablebases, Random random, Piece white, Piece black) {
+        int decided = 0;
+        for (int checked = 0; checked < 400; ) {
+            Board board = emptyBoard();
+            Piece[] pieces = {new King(0, 0, false), new King(0, 0, true), white.copy(), black.copy()};
+            boolean isPlaced = true;
+            for (Piece piece : pieces) {
+                int row = random.nextInt(5);
+                int col = random.nextInt(5);
+                if (!board.isEmpty(row, col)) {
+                    isPlaced = false;
+                    break;
+                }
+                piece.setRowCoord(row);
+                piece.setColCoord(col);
+                place(board, piece);
+            }
+            boolean isBlack = random.nextBoolean();
+            if (!isPlaced || board.isInCheck(!isBlack)) {
+                continue;
+            }
+            checked++;
+            int score = tablebases.probe(board, isBlack);
+            MoveList moves = new MoveList();
+            board.generateLegalMoves(isBlack, moves);
+            int expected = board.isInCheck(isBlack) ? -MATE : 0;
+            if (!moves.isEmpty()) {
+                expected = Integer.MIN_VALUE;
+                for (int index = 0; index < moves.size(); index++) {
+                    board.makeMove(moves.get(index));
+                    int childScore = tablebases.probe(board, !isBlack);
+                    board.unmakeMove();
+                    assertNotEquals(childScore, Tablebases.NOT_FOUND);
+                    expected = Math.max(expected, childScore > 0 ? -childScore + 1
+                            : childScore < 0 ? -childScore - 1 : 0);
+                }
+            }
+            assertEquals(score, expected);
+            decided += score != 0 ? 1 : 0;
+        }
+        assertTrue(decided > 0);
+    }
+
+    @Test
+    void enginePlaysFromTables() throws IOException {
+        new TablebaseGenerator(folder, 5, 5, 2).generate("KQvK");
+        try (Tablebases tablebases = Tablebases.open(folder)) {
+            Board board = emptyBoard();
+            place(board, new King(4, 4, false));
+            place(board, new Queen(3, 1, false));
+            place(board, new King(1, 2, true));
+            int score = tablebases.probe(board, false);
+            assertTrue(score > 0);
+
+            Engine engine = new Engine(new TranspositionTable(1 << 20));
+            engine.setTablebases(tablebases);
+            boolean isBlack = false;
+            int plies = 0;
+            while (!board.isCheckmate(isBlack)) {
+                SearchResult result = engine.search(board, isBlack, SearchLimits.depth(3));
+                assertEquals(result.getNodes(), 0);
+                board.makeMove(result.getBestMove());
+                isBlack = !isBlack;
+                plies++;
+            }
+            assertTrue(isBlack);
+            assertEquals(plies, MATE - score);
+
+            engine.setTablebases(null);
+            Board searched = emptyBoard();
+            place(searched, new King(4, 4, false));
+            place(searched, new Queen(3, 1, false));
+            place(searched, new King(1, 2, true));
+            assertTrue(engine.search(searched, false, SearchLimits.depth(2)).getNodes() > 0);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package chess.Tests;
+
+import chess.*;
+import chess.engine.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTest {
+
+    @Test
+    void storeAndProbe() {
+        TranspositionTable table = new TranspositionTable(1 << 16);
+        assertEquals(table.getCapacity(), 4096);
+        long key = new Board().getZobristKey();
+        int move = Move.encode(6, 4, 4, 4);
+        assertEquals(table.probe(key), 0);
+        table.store(key, move, -250, 7, TranspositionTable.LOWER);
+        long data = table.probe(key);
+        assertEquals(TranspositionTable.getMove(data), move);
+        assertEquals(TranspositionTable.getScore(data), -250);
+        assertEquals(TranspositionTable.getDepth(data), 7);
+        assertEquals(TranspositionTable.getBound(data), TranspositionTable.LOWER);
+        assertEquals(table.probe(key ^ (1L << 40)), 0);
+
+        table.store(key, Move.NONE, 10, 3, TranspositionTable.UPPER);
+        assertEquals(TranspositionTable.getDepth(table.probe(key)), 7);
+        table.store(key, Move.NONE, 10, 9, TranspositionTable.EXACT);
+        data = table.probe(key);
+        assertEquals(TranspositionTable.getMove(data), move);
+        assertEquals(TranspositionTable.getScore(data), 10);
+
+        table.clear();
+        assertEquals(table.probe(key), 0);
+    }
+
+    @Test
+    void replacementPrefersDepthAndAge() {
+        TranspositionTable table = new TranspositionTable(64);
+        for (int depth = 1; depth <= 4; depth++) {
+            table.store(depth << 8, Move.NONE, 0, depth * 10, TranspositionTable.EXACT);
+        }
+        table.store(5 << 8, Move.NONE, 0, 1, TranspositionTable.EXACT);
+        assertEquals(table.probe(1 << 8), 0);
+        assertNotEquals(table.probe(4 << 8), 0);
+
+        table.newSearch();
+        table.store(6 << 8, Move.NONE, 0, 15, TranspositionTable.EXACT);
+        assertEquals(table.probe(5 << 8), 0);
+        table.store(7 << 8, Move.NONE, 0, 15, TranspositionTable.EXACT);
+        assertEquals(table.probe(2 << 8), 0);
+        assertNotEquals(table.probe(6 << 8), 0);
+    }
+}
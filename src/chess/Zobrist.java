@@ -0,0 +1,105 @@
+package chess;
+
+import chess.pieces.Orbit;
+import chess.pieces.Pawn;
+import chess.pieces.Piece;
+import chess.pieces.PieceType;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Random 64 bit keys used to hash Board positions. The key of a position is the XOR of one key per occupied square,
+ * chosen by the piece's type, color and state (a Pawn that still has its first move, an Orbit's radius), together with
+ * keys for the board's dimensions and the side to move. Every key is derived from a fixed seed, so the same position
+ * always hashes to the same value, in every run.
+ */
+public final class Zobrist {
+
+    /**
+     * Number of distinct piece codes: two colors of every type, plus two for Pawns that have not moved yet
+     */
+    static final int PIECE_CODES = 2 * PieceType.COUNT + 2;
+
+    /**
+     * Boards with more squares than this compute keys on demand instead of keeping a table
+     */
+    private static final int MAX_TABLE_SQUARES = 4096;
+
+    private static final long SEED = 0x5DEECE66DL;
+    private static final long SIDE_KEY = mix(SEED ^ 0x0123456789ABCDEFL);
+    private static final ConcurrentHashMap<Integer, long[]> TABLES = new ConcurrentHashMap<>();
+
+    private Zobrist() {
+    }
+
+    /**
+     * Gets the shared key table for boards with the given number of squares, or null if the board is too large to
+     * keep one. The table is indexed by code * squareCount + square index.
+     * @param squareCount rows * columns of the board
+     * @return long[] key table, or null
+     */
+    static long[] getTable(int squareCount) {
+        if (squareCount > MAX_TABLE_SQUARES) {
+            return null;
+        }
+        return TABLES.computeIfAbsent(squareCount, count -> {
+            long[] table = new long[PIECE_CODES * count];
+            for (int code = 0; code < PIECE_CODES; code++) {
+                for (int square = 0; square < count; square++) {
+                    table[code * count + square] = squareKey(code, square);
+                }
+            }
+            return table;
+        });
+    }
+
+    /**
+     * Gets the key of a piece standing on a square
+     * @param piece piece on the square
+     * @param square square index
+     * @param table key table from getTable, or null to compute the key
+     * @param squareCount rows * columns of the board
+     * @return long key
+     */
+    static long pieceKey(Piece piece, int square, long[] table, int squareCount) {
+        int code = piece.getType().ordinal() * 2 + (piece.isBlack() ? 1 : 0);
+        long radiusKey = 0;
+        if (piece.getType() == PieceType.PAWN && ((Pawn) piece).getIsFirstMove()) {
+            code = 2 * PieceType.COUNT + (piece.isBlack() ? 1 : 0);
+        } else if (piece.getType() == PieceType.ORBIT) {
+            radiusKey = mix(SEED + 0x632BE59BD9B4E019L * (((Orbit) piece).getRadius() + 1));
+        }
+        long key = table != null ? table[code * squareCount + square] : squareKey(code, square);
+        return key ^ radiusKey;
+    }
+
+    /**
+     * @return key XORed in when it is Black's turn
+     */
+    static long sideKey() {
+        return SIDE_KEY;
+    }
+
+    /**
+     * Gets the key of an empty board of the given size, so equal layouts on boards of different sizes hash apart
+     * @param rows number of rows
+     * @param cols number of columns
+     * @return long key
+     */
+    static long dimensionKey(int rows, int cols) {
+        return mix(SEED ^ ((long) rows << 32 | cols));
+    }
+
+    private static long squareKey(int code, int square) {
+        return mix(SEED + 0x9E3779B97F4A7C15L * ((long) square * PIECE_CODES + code + 1));
+    }
+
+    /**
+     * SplitMix64 finalizer, spreads the bits of the input over the whole output
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,299 @@
+package chess.engine;
+
+import chess.Board;
+import chess.EvalWeights;
+import chess.Move;
+import chess.MoveList;
+import chess.io.OpeningBook;
+
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Computer player for the standard and custom games. A search runs on its own thread over a private copy of the Board,
+ * so the caller's board is never touched and the caller (the GUI event thread, or a headless game loop) is never
+ * blocked. The transposition table is kept between searches, so later moves of a game reuse earlier work.
+ * <p>
+ * With more than one thread the search is Lazy SMP: every thread searches the whole position on its own copy of the
+ * board with its own killer and history tables, and the threads share only the transposition table, the stop flag and
+ * the node count. Every other helper thread starts one iteration deeper than the main thread, so the threads are spread
+ * over neighbouring depths, and the main thread's answer is the engine's answer.
+ * <p>
+ * With opening books set, a position found in a book is answered at once with a book move and no search. There is one
+ * book per setup; the keys of positions from the two setups differ, so both books are probed.
+ * <p>
+ * With endgame tables set, a position the tables cover is answered with the move that wins fastest, or holds out
+ * longest when lost, and the searches score every position the tables cover from the tables instead of searching it.
+ */
+public class Engine {
+
+    /**
+     * Size of the transposition table created by the default constructor
+     */
+    public static final long DEFAULT_TABLE_BYTES = 64L << 20;
+
+    private final TranspositionTable table;
+    private final int threadCount;
+    private final AtomicBoolean stopFlag = new AtomicBoolean();
+    private volatile CompletableFuture<SearchResult> currentSearch;
+    private final OpeningBook[] books = new OpeningBook[2];
+    private final Random bookRandom = new Random();
+    private Tablebases tablebases;
+    private EvalWeights evalWeights;
+
+    /**
+     * Creates an engine with a transposition table of DEFAULT_TABLE_BYTES
+     */
+    public Engine() {
+        this(new TranspositionTable(DEFAULT_TABLE_BYTES));
+    }
+
+    /**
+     * Creates a single threaded engine using the given transposition table
+     * @param table transposition table to search with
+     */
+    public Engine(TranspositionTable table) {
+        this(table, 1);
+    }
+
+    /**
+     * Creates an engine searching with several threads
+     * @param table transposition table shared by the threads
+     * @param threadCount number of search threads, at least 1
+     */
+    public Engine(TranspositionTable table, int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("An engine needs at least one search thread");
+        }
+        this.table = table;
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Starts searching for the best move of the isBlack player on a new thread. Only one search may run at a time.
+     * @param board position to search, copied before the call returns
+     * @param isBlack color of the Player to move
+     * @param limits search budget
+     * @param listener called on the search thread with the result of every finished iteration, or null
+     * @return future completed with the SearchResult when the search ends
+     * @throws IllegalStateException if a search is already running
+     */
+    public synchronized CompletableFuture<SearchResult> start(Board board, boolean isBlack, SearchLimits limits,
+                                                              Consumer<SearchResult> listener) {
+        if (isSearching()) {
+            throw new IllegalStateException("A search is already running");
+        }
+        Board searchBoard = new Board(board);
+        searchBoard.setBlackTurn(isBlack);
+        if (evalWeights != null) {
+            searchBoard.setEvalWeights(evalWeights);
+        }
+        int bookMove = probeBooks(searchBoard);
+        if (bookMove != Move.NONE) {
+            currentSearch = CompletableFuture.completedFuture(new SearchResult(bookMove, 0, 0, 0, 0,
+                    new int[] {bookMove}));
+            return currentSearch;
+        }
+        SearchResult tablebaseResult = probeTablebases(searchBoard, isBlack);
+        if (tablebaseResult != null) {
+            currentSearch = CompletableFuture.completedFuture(tablebaseResult);
+            return currentSearch;
+        }
+        table.newSearch();
+        stopFlag.set(false);
+        AtomicLong sharedNodes = new AtomicLong();
+        Search[] searches = new Search[threadCount];
+        for (int index = 0; index < threadCount; index++) {
+            searches[index] = new Search(index == 0 ? searchBoard : new Board(searchBoard), table, stopFlag, sharedNodes);
+            searches[index].setTablebases(tablebases);
+        }
+        CompletableFuture<SearchResult> future = new CompletableFuture<>();
+        Thread thread = new Thread(() -> {
+            try {
+                future.complete(runSearches(searches, isBlack, limits, listener));
+            } catch (Throwable e) {
+                stopFlag.set(true);
+                future.completeExceptionally(e);
+            }
+        }, "chess-search");
+        thread.setDaemon(true);
+        currentSearch = future;
+        thread.start();
+        return future;
+    }
+
+    /**
+     * Sets the opening book of one setup. The engine does not close the book.
+     * @param isCustom true for the book of the custom setup with Tigers and Orbits, false for the standard setup
+     * @param book book to play from, or null to search every position
+     */
+    public synchronized void setOpeningBook(boolean isCustom, OpeningBook book) {
+        books[isCustom ? 1 : 0] = book;
+    }
+
+    /**
+     * @return weighted random book move for the side to move on the board, or Move.NONE if no book has the position
+     */
+    private int probeBooks(Board board) {
+        for (OpeningBook book : books) {
+            if (book != null) {
+                int move = book.pickMove(board, bookRandom);
+                if (move != Move.NONE) {
+                    return move;
+                }
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Sets the endgame tables. The engine does not close them.
+     * @param tablebases tables to play and search with, or null for none
+     */
+    public synchronized void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    /**
+     * Sets the evaluation weights the searches use, for instance to change the values of Tigers and Orbits
+     * @param evalWeights weights to search with, or null to keep the weights of each searched board
+     */
+    public synchronized void setEvalWeights(EvalWeights evalWeights) {
+        this.evalWeights = evalWeights;
+    }
+
+    /**
+     * Picks the move of a position the tables cover by probing the position after each legal move
+     * @return SearchResult with the best move and its score, or null if the tables do not cover the position or one
+     *         of the positions after a move
+     */
+    private SearchResult probeTablebases(Board board, boolean isBlack) {
+        if (tablebases == null || tablebases.probe(board, isBlack) == Tablebases.NOT_FOUND) {
+            return null;
+        }
+        MoveList moves = new MoveList();
+        board.generateLegalMoves(isBlack, moves);
+        int bestMove = Move.NONE;
+        int bestScore = Integer.MIN_VALUE;
+        for (int index = 0; index < moves.size(); index++) {
+            int move = moves.get(index);
+            board.makeMove(move);
+            int score = tablebases.probe(board, !isBlack);
+            board.unmakeMove();
+            if (score == Tablebases.NOT_FOUND) {
+                return null;
+            }
+            // one ply further from the mate, seen from the other side
+            score = score > 0 ? -score + 1 : score < 0 ? -score - 1 : 0;
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+            }
+        }
+        if (bestMove == Move.NONE) {
+            return null;
+        }
+        return new SearchResult(bestMove, bestScore, 0, 0, 0, new int[] {bestMove});
+    }
+
+    /**
+     * Runs the main search on the calling thread and the helper searches on threads of their own, then stops the
+     * helpers once the main search is done
+     */
+    private SearchResult runSearches(Search[] searches, boolean isBlack, SearchLimits limits,
+                                     Consumer<SearchResult> listener) throws InterruptedException {
+        Thread[] helpers = new Thread[searches.length - 1];
+        for (int index = 0; index < helpers.length; index++) {
+            Search helper = searches[index + 1];
+            int firstDepth = 1 + (index + 1) % 2;
+            helpers[index] = new Thread(() -> helper.run(isBlack, limits, null, firstDepth),
+                    "chess-search-" + (index + 1));
+            helpers[index].setDaemon(true);
+            helpers[index].start();
+        }
+        SearchResult result = searches[0].run(isBlack, limits, listener, 1);
+        stopFlag.set(true);
+        long nodes = 0;
+        for (int index = 0; index < searches.length; index++) {
+            if (index > 0) {
+                helpers[index - 1].join();
+            }
+            nodes += searches[index].getNodes();
+        }
+        return new SearchResult(result.getBestMove(), result.getScore(), result.getDepth(), nodes, result.getNanos(),
+                result.getPrincipalVariation());
+    }
+
+    /**
+     * Searches for the best move and waits for the answer
+     * @param board position to search, unchanged after the call
+     * @param isBlack color of the Player to move
+     * @param limits search budget
+     * @return SearchResult with the best move and principal variation
+     */
+    public SearchResult search(Board board, boolean isBlack, SearchLimits limits) {
+        return start(board, isBlack, limits, null).join();
+    }
+
+    /**
+     * Asks the running search to stop. Its future is still completed, with the best move found so far.
+     */
+    public void stop() {
+        stopFlag.set(true);
+    }
+
+    /**
+     * @return true if a search is running
+     */
+    public boolean isSearching() {
+        CompletableFuture<SearchResult> search = currentSearch;
+        return search != null && !search.isDone();
+    }
+
+    /**
+     * @return number of search threads
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * @return transposition table used by the searches
+     */
+    public TranspositionTable getTranspositionTable() {
+        return table;
+    }
+
+    /**
+     * Plays a game of the engine against itself and prints every move. Arguments: milliseconds per move (default
+     * 1000), "custom" for the Tiger and Orbit setup, the most moves to play (default 200), and the number of search
+     * threads (default 1)
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        long moveMillis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        boolean isCustom = args.length > 1 && args[1].equals("custom");
+        int maxMoves = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        Board board = new Board(isCustom);
+        Engine engine = new Engine(new TranspositionTable(DEFAULT_TABLE_BYTES), threads);
+        MoveList legalMoves = new MoveList();
+        boolean isBlack = false;
+        for (int moveCount = 0; moveCount < maxMoves; moveCount++) {
+            board.generateLegalMoves(isBlack, legalMoves);
+            if (legalMoves.isEmpty()) {
+                System.out.println(board.isInCheck(isBlack) ? (isBlack ? "White" : "Black") + " wins by checkmate"
+                        : "Stalemate");
+                return;
+            }
+            SearchResult result = engine.search(board, isBlack, SearchLimits.time(moveMillis));
+            System.out.println((isBlack ? "Black " : "White ") + Move.toString(result.getBestMove()) + "  " + result);
+            board.makeMove(result.getBestMove());
+            isBlack = !isBlack;
+        }
+        System.out.println("No result after " + maxMoves + " moves");
+    }
+}
@@ -0,0 +1,39 @@
+package chess.engine;
+
+import chess.Board;
+import chess.EvalWeights;
+import chess.pieces.Piece;
+
+/**
+ * Static evaluation of a Board position for the search: material plus piece-square bonuses, tapered between their
+ * middlegame and endgame values by the phase. The Board keeps the terms up to date as moves are made and unmade (see
+ * EvalWeights), so an evaluation never scans the board.
+ */
+public final class Evaluator {
+
+    private Evaluator() {
+    }
+
+    /**
+     * Gets the default middlegame material value of a piece in centipawns. An Orbit is worth more the larger its
+     * radius.
+     * @param piece piece to value
+     * @return int value, 0 for a King
+     */
+    public static int pieceValue(Piece piece) {
+        return EvalWeights.DEFAULT.getMiddlegameValue(piece);
+    }
+
+    /**
+     * Evaluates the position for one player with the Board's EvalWeights
+     * @param board position to evaluate
+     * @param isBlack color of the Player the score is for
+     * @return score in centipawns, positive if the position is better for the player
+     */
+    public static int evaluate(Board board, boolean isBlack) {
+        int fullPhase = board.getEvalWeights().getFullPhase();
+        int phase = Math.min(board.getPhase(), fullPhase);
+        int score = (board.getMiddlegameScore() * phase + board.getEndgameScore() * (fullPhase - phase)) / fullPhase;
+        return isBlack ? -score : score;
+    }
+}
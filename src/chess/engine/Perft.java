@@ -0,0 +1,254 @@
+package chess.engine;
+
+import chess.Board;
+import chess.Move;
+import chess.MoveList;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Perft (performance test) counts the leaf nodes of the legal move tree from a Board position to a fixed depth. The
+ * counts prove the move generator correct against known values, and the time taken measures its speed. The divide
+ * mode reports the count below every root move, computing the root moves in parallel on a ForkJoinPool, each on its
+ * own copy of the board. An optional hash table lets repeated subtrees be counted once.
+ */
+public class Perft {
+
+    private final ForkJoinPool pool;
+    private final HashTable hashTable;
+
+    /**
+     * Creates a Perft runner using the common ForkJoinPool and no hash table
+     */
+    public Perft() {
+        this(ForkJoinPool.commonPool(), 0);
+    }
+
+    /**
+     * Creates a Perft runner
+     * @param pool pool that the root moves are split across
+     * @param hashTableEntries number of entries in the subtree hash table, rounded down to a power of two;
+     *                         0 to count without a hash table
+     */
+    public Perft(ForkJoinPool pool, int hashTableEntries) {
+        this.pool = pool;
+        this.hashTable = hashTableEntries > 0 ? new HashTable(hashTableEntries) : null;
+    }
+
+    /**
+     * Counts the leaf nodes of the legal move tree on the calling thread
+     * @param board position to start from, unchanged after the call
+     * @param depth number of plies to search
+     * @param isBlack color of the Player to move
+     * @return number of leaf nodes
+     */
+    public long perft(Board board, int depth, boolean isBlack) {
+        MoveList[] moveLists = new MoveList[Math.max(depth, 1)];
+        for (int ply = 0; ply < moveLists.length; ply++) {
+            moveLists[ply] = new MoveList();
+        }
+        return count(board, depth, isBlack, moveLists);
+    }
+
+    /**
+     * Counts the leaf nodes below every legal root move, splitting the root moves across the pool
+     * @param board position to start from, unchanged after the call
+     * @param depth number of plies to search, at least 1
+     * @param isBlack color of the Player to move
+     * @return Result with the total, the count for each root move, and the time taken
+     * @throws IllegalArgumentException if depth is less than 1
+     */
+    public Result divide(Board board, int depth, boolean isBlack) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Divide needs a depth of at least 1");
+        }
+        long startTime = System.nanoTime();
+        MoveList rootMoves = new MoveList();
+        board.generateLegalMoves(isBlack, rootMoves);
+        RootTask[] tasks = new RootTask[rootMoves.size()];
+        for (int index = 0; index < tasks.length; index++) {
+            tasks[index] = new RootTask(board, rootMoves.get(index), depth - 1, !isBlack);
+        }
+        Map<Integer, Long> divide = new LinkedHashMap<>();
+        long nodes = pool.invoke(new RecursiveTask<Long>() {
+            @Override
+            protected Long compute() {
+                invokeAll(tasks);
+                long total = 0;
+                for (RootTask task : tasks) {
+                    total += task.join();
+                }
+                return total;
+            }
+        });
+        for (int index = 0; index < tasks.length; index++) {
+            divide.put(rootMoves.get(index), tasks[index].join());
+        }
+        return new Result(nodes, System.nanoTime() - startTime, divide);
+    }
+
+    private long count(Board board, int depth, boolean isBlack, MoveList[] moveLists) {
+        if (depth == 0) {
+            return 1;
+        }
+        MoveList moves = moveLists[depth - 1];
+        board.generateLegalMoves(isBlack, moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long key = 0;
+        if (hashTable != null) {
+            key = positionKey(board, isBlack, depth);
+            long stored = hashTable.probe(key);
+            if (stored >= 0) {
+                return stored;
+            }
+        }
+        long nodes = 0;
+        for (int index = 0; index < moves.size(); index++) {
+            board.makeMove(moves.get(index));
+            nodes += count(board, depth - 1, !isBlack, moveLists);
+            board.unmakeMove();
+        }
+        if (hashTable != null) {
+            hashTable.store(key, nodes);
+        }
+        return nodes;
+    }
+
+    /**
+     * Combines the board's Zobrist key with the side to move and remaining depth for the hash table
+     */
+    private static long positionKey(Board board, boolean isBlack, int depth) {
+        long key = board.getZobristKey() ^ (isBlack ? 0x9E3779B97F4A7C15L : 0L);
+        return key ^ depth * 0xC2B2AE3D27D4EB4FL;
+    }
+
+    /**
+     * Counts the subtree below one root move on a private copy of the board
+     */
+    private class RootTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final int depth;
+        private final boolean isBlack;
+
+        RootTask(Board rootBoard, int move, int depth, boolean isBlack) {
+            this.board = new Board(rootBoard);
+            this.board.makeMove(move);
+            this.depth = depth;
+            this.isBlack = isBlack;
+        }
+
+        @Override
+        protected Long compute() {
+            return perft(board, depth, isBlack);
+        }
+    }
+
+    /**
+     * Fixed size table of subtree counts shared by all threads. Each entry is stored as the pair (key ^ count, count)
+     * so a torn write from two threads fails the key check on the next read instead of returning a wrong count.
+     */
+    private static class HashTable {
+        private final AtomicLongArray entries;
+        private final int mask;
+
+        HashTable(int size) {
+            int entryCount = Integer.highestOneBit(size);
+            entries = new AtomicLongArray(entryCount * 2);
+            mask = entryCount - 1;
+        }
+
+        long probe(long key) {
+            int index = ((int) key & mask) * 2;
+            long count = entries.getPlain(index + 1);
+            long check = entries.getPlain(index);
+            return (check ^ count) == key && check != 0 ? count : -1;
+        }
+
+        void store(long key, long count) {
+            int index = ((int) key & mask) * 2;
+            entries.setPlain(index, key ^ count);
+            entries.setPlain(index + 1, count);
+        }
+    }
+
+    /**
+     * Result of a divide run: total leaf nodes, the count below each root move, and the time taken
+     */
+    public static class Result {
+        private final long nodes;
+        private final long nanos;
+        private final Map<Integer, Long> divide;
+
+        Result(long nodes, long nanos, Map<Integer, Long> divide) {
+            this.nodes = nodes;
+            this.nanos = nanos;
+            this.divide = Collections.unmodifiableMap(divide);
+        }
+
+        /**
+         * @return total number of leaf nodes
+         */
+        public long getNodes() {
+            return nodes;
+        }
+
+        /**
+         * @return wall clock time of the run in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        /**
+         * @return leaf nodes counted per second of wall clock time
+         */
+        public long getNodesPerSecond() {
+            return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+        }
+
+        /**
+         * @return map from each packed root move to the number of leaf nodes below it, in generation order
+         */
+        public Map<Integer, Long> getDivide() {
+            return divide;
+        }
+
+        /**
+         * Prints one line per root move followed by the totals
+         * @return String report of the run
+         */
+        @Override
+        public String toString() {
+            StringBuilder report = new StringBuilder();
+            for (Map.Entry<Integer, Long> entry : divide.entrySet()) {
+                report.append(Move.toString(entry.getKey())).append(": ").append(entry.getValue()).append('\n');
+            }
+            report.append("Nodes: ").append(nodes).append('\n');
+            report.append("Time: ").append(nanos / 1_000_000).append(" ms\n");
+            report.append("Nodes per second: ").append(getNodesPerSecond()).append('\n');
+            return report.toString();
+        }
+    }
+
+    /**
+     * Runs divide from the starting position and prints the report.
+     * Arguments: depth (default 4), "custom" for the Tiger and Orbit setup, and hash table entries (default 0)
+     * @param args command line arguments
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        boolean isCustom = args.length > 1 && args[1].equals("custom");
+        int hashEntries = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        Perft perft = new Perft(ForkJoinPool.commonPool(), hashEntries);
+        System.out.print(perft.divide(new Board(isCustom), depth, false));
+    }
+}
@@ -0,0 +1,437 @@
+package chess.engine;
+
+import chess.Board;
+import chess.EvalWeights;
+import chess.Move;
+import chess.MoveList;
+import chess.pieces.Piece;
+import chess.pieces.PieceType;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * One search over its own Board: negamax alpha-beta with iterative deepening and principal variation search, a
+ * quiescence search over captures, and move ordering from the transposition table, killer moves and a history table.
+ * Check extensions make sure forced mates along checking lines are seen. The search stops when its SearchLimits are
+ * reached or the shared stop flag is raised, and always answers with the best move of the deepest finished iteration.
+ * <p>
+ * Several searches may run at once over copies of the same position, sharing the transposition table, the stop flag
+ * and the node count (Lazy SMP). Each keeps its own board, killer moves and history table, so the threads need no
+ * locks and only cooperate through the entries they leave in the table.
+ */
+class Search {
+
+    static final int MAX_PLY = 128;
+    static final int MATE_SCORE = 30000;
+    private static final int INFINITY = MATE_SCORE + 1;
+
+    private static final int TABLE_MOVE_ORDER = 2_000_000;
+    private static final int CAPTURE_ORDER = 1_000_000;
+    private static final int FIRST_KILLER_ORDER = 900_000;
+    private static final int SECOND_KILLER_ORDER = 800_000;
+    private static final int MAX_HISTORY = 700_000;
+
+    private final Board board;
+    private final TranspositionTable table;
+    private final AtomicBoolean stopFlag;
+    private final AtomicLong sharedNodes;
+    private final int squareCount;
+
+    private final MoveList[] moveLists = new MoveList[MAX_PLY];
+    private final int[][] moveOrders = new int[MAX_PLY][];
+    private final int[][] killers = new int[MAX_PLY][2];
+    private final int[] history;
+    private final int[][] principalVariation = new int[MAX_PLY][MAX_PLY];
+    private final int[] principalVariationLength = new int[MAX_PLY];
+    private final long[] keys = new long[MAX_PLY];
+
+    private Tablebases tablebases;
+    private long nodes;
+    private long maxNodes;
+    private long deadline;
+    private boolean isStopped;
+
+    /**
+     * Creates a search over the given board
+     * @param board board to search, owned by this search and left as it was after every search
+     * @param table transposition table, which may be shared with other searches
+     * @param stopFlag flag that stops the search when set
+     * @param sharedNodes node count of all the searches running together, checked against the node budget
+     */
+    Search(Board board, TranspositionTable table, AtomicBoolean stopFlag, AtomicLong sharedNodes) {
+        this.board = board;
+        this.table = table;
+        this.stopFlag = stopFlag;
+        this.sharedNodes = sharedNodes;
+        squareCount = board.getRows() * board.getCols();
+        history = new int[2 * PieceType.COUNT * squareCount];
+        for (int ply = 0; ply < MAX_PLY; ply++) {
+            moveLists[ply] = new MoveList();
+            moveOrders[ply] = new int[64];
+        }
+    }
+
+    /**
+     * Searches the position with iterative deepening until a limit is reached
+     * @param isBlack color of the Player to move
+     * @param limits search budget
+     * @param listener called with the result of every finished iteration, or null
+     * @param firstDepth depth of the first iteration; half the helper threads start one deeper than the main thread
+     *                   so that the threads spread over two depths instead of all searching the same tree
+     * @return SearchResult of the deepest finished iteration
+     */
+    SearchResult run(boolean isBlack, SearchLimits limits, Consumer<SearchResult> listener, int firstDepth) {
+        long startTime = System.nanoTime();
+        deadline = limits.getTimeMillis() > 0 ? startTime + limits.getTimeMillis() * 1_000_000 : 0;
+        maxNodes = limits.getMaxNodes();
+        nodes = 0;
+        isStopped = false;
+        int maxDepth = limits.getMaxDepth() > 0 ? Math.min(limits.getMaxDepth(), MAX_PLY - 1) : MAX_PLY - 1;
+
+        SearchResult result = null;
+        for (int depth = Math.min(firstDepth, maxDepth); depth <= maxDepth; depth++) {
+            int score = negamax(depth, 0, -INFINITY, INFINITY, isBlack);
+            if (isStopped) {
+                // root moves searched to the end before the stop still beat the previous iteration's best move
+                if (principalVariationLength[0] > 0 && result != null
+                        && principalVariation[0][0] != result.getBestMove()) {
+                    result = new SearchResult(principalVariation[0][0], result.getScore(), result.getDepth(),
+                            sharedNodes.get(), System.nanoTime() - startTime, new int[] {principalVariation[0][0]});
+                }
+                break;
+            }
+            int[] line = new int[principalVariationLength[0]];
+            System.arraycopy(principalVariation[0], 0, line, 0, line.length);
+            result = new SearchResult(line.length > 0 ? line[0] : Move.NONE, score, depth, sharedNodes.get(),
+                    System.nanoTime() - startTime, line);
+            if (listener != null) {
+                listener.accept(result);
+            }
+            if (line.length == 0 || (Math.abs(score) >= MATE_SCORE - MAX_PLY && MATE_SCORE - Math.abs(score) <= depth)) {
+                break;
+            }
+            // the next iteration takes longer than all the previous ones together, so it would not finish
+            if (deadline != 0 && System.nanoTime() - startTime > limits.getTimeMillis() * 500_000) {
+                break;
+            }
+        }
+        if (result == null) {
+            MoveList moves = moveLists[0];
+            board.generateLegalMoves(isBlack, moves);
+            int move = moves.isEmpty() ? Move.NONE : moves.get(0);
+            result = new SearchResult(move, 0, 0, sharedNodes.get(), System.nanoTime() - startTime,
+                    move == Move.NONE ? new int[0] : new int[] {move});
+        }
+        return result;
+    }
+
+    /**
+     * Sets the endgame tables the search probes below the root
+     * @param tablebases tables to probe, or null to search every position
+     */
+    void setTablebases(Tablebases tablebases) {
+        this.tablebases = tablebases;
+    }
+
+    /**
+     * @return number of positions this search has visited, not counting the other threads
+     */
+    long getNodes() {
+        return nodes;
+    }
+
+    private int negamax(int depth, int ply, int alpha, int beta, boolean isBlack) {
+        principalVariationLength[ply] = 0;
+        long key = board.getZobristKey();
+        keys[ply] = key;
+        if (ply > 0 && isRepetition(ply)) {
+            return 0;
+        }
+        if (ply > 0 && tablebases != null) {
+            int score = tablebases.probe(board, isBlack);
+            if (score != Tablebases.NOT_FOUND) {
+                return tablebaseScore(score, ply);
+            }
+        }
+        boolean isInCheck = board.isInCheck(isBlack);
+        if (isInCheck) {
+            depth++;
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiesce(ply, alpha, beta, isBlack);
+        }
+        countNode();
+        if (isStopped) {
+            return 0;
+        }
+
+        int tableMove = Move.NONE;
+        long entry = table.probe(key);
+        if (entry != 0) {
+            tableMove = TranspositionTable.getMove(entry);
+            if (ply > 0 && beta - alpha == 1 && TranspositionTable.getDepth(entry) >= depth) {
+                int score = scoreFromTable(TranspositionTable.getScore(entry), ply);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.EXACT
+                        || (bound == TranspositionTable.LOWER && score >= beta)
+                        || (bound == TranspositionTable.UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        board.generateLegalMoves(isBlack, moves);
+        if (moves.isEmpty()) {
+            return isInCheck ? -MATE_SCORE + ply : 0;
+        }
+        orderMoves(ply, moves, tableMove, isBlack, false);
+
+        int originalAlpha = alpha;
+        int bestScore = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int index = 0; index < moves.size(); index++) {
+            int move = pickMove(ply, moves, index);
+            boolean isCapture = !board.isEmpty(Move.getToRow(move), Move.getToCol(move));
+            board.makeMove(move);
+            int score;
+            if (index == 0) {
+                score = -negamax(depth - 1, ply + 1, -beta, -alpha, !isBlack);
+            } else {
+                score = -negamax(depth - 1, ply + 1, -alpha - 1, -alpha, !isBlack);
+                if (score > alpha && score < beta) {
+                    score = -negamax(depth - 1, ply + 1, -beta, -alpha, !isBlack);
+                }
+            }
+            board.unmakeMove();
+            if (isStopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (alpha >= beta) {
+                        if (!isCapture) {
+                            rememberQuietCutoff(ply, move, depth, isBlack);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = bestScore >= beta ? TranspositionTable.LOWER
+                : bestScore > originalAlpha ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+        table.store(key, bestMove, scoreToTable(bestScore, ply), depth, bound);
+        return bestScore;
+    }
+
+    /**
+     * Searches captures only, so the static evaluation is never taken in the middle of an exchange. A player in check
+     * searches every move instead, so checkmates at the end of a capture sequence are found.
+     */
+    private int quiesce(int ply, int alpha, int beta, boolean isBlack) {
+        principalVariationLength[ply] = 0;
+        countNode();
+        if (isStopped) {
+            return 0;
+        }
+        boolean isInCheck = board.isInCheck(isBlack);
+        if (ply >= MAX_PLY - 1) {
+            return Evaluator.evaluate(board, isBlack);
+        }
+        int bestScore = -INFINITY;
+        if (!isInCheck) {
+            bestScore = Evaluator.evaluate(board, isBlack);
+            if (bestScore >= beta) {
+                return bestScore;
+            }
+            alpha = Math.max(alpha, bestScore);
+        }
+
+        MoveList moves = moveLists[ply];
+        board.generateLegalMoves(isBlack, moves);
+        if (moves.isEmpty()) {
+            return isInCheck ? -MATE_SCORE + ply : 0;
+        }
+        int searchCount = orderMoves(ply, moves, Move.NONE, isBlack, !isInCheck);
+        for (int index = 0; index < searchCount; index++) {
+            int move = pickMove(ply, moves, index);
+            board.makeMove(move);
+            int score = -quiesce(ply + 1, -beta, -alpha, !isBlack);
+            board.unmakeMove();
+            if (isStopped) {
+                return 0;
+            }
+            if (score > bestScore) {
+                bestScore = score;
+                if (score > alpha) {
+                    alpha = score;
+                    updatePrincipalVariation(ply, move);
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        return bestScore;
+    }
+
+    /**
+     * Gives every move an ordering value: the table move first, then captures by most valuable victim and least
+     * valuable attacker, then killer moves, then quiet moves by their history value
+     * @return number of moves worth searching: every move, or only the captures if capturesOnly is set
+     */
+    private int orderMoves(int ply, MoveList moves, int tableMove, boolean isBlack, boolean capturesOnly) {
+        if (moveOrders[ply].length < moves.size()) {
+            moveOrders[ply] = new int[moves.size() * 2];
+        }
+        int[] orders = moveOrders[ply];
+        EvalWeights weights = board.getEvalWeights();
+        int captureCount = 0;
+        for (int index = 0; index < moves.size(); index++) {
+            int move = moves.get(index);
+            Piece captured = board.getPiece(Move.getToRow(move), Move.getToCol(move));
+            int order;
+            if (move == tableMove) {
+                order = TABLE_MOVE_ORDER;
+            } else if (captured != null) {
+                Piece attacker = board.getPiece(Move.getFromRow(move), Move.getFromCol(move));
+                order = CAPTURE_ORDER + 16 * weights.getMiddlegameValue(captured)
+                        - weights.getMiddlegameValue(attacker) / 16;
+            } else if (move == killers[ply][0]) {
+                order = FIRST_KILLER_ORDER;
+            } else if (move == killers[ply][1]) {
+                order = SECOND_KILLER_ORDER;
+            } else {
+                order = capturesOnly ? Integer.MIN_VALUE : history[historyIndex(move, isBlack)];
+            }
+            if (captured != null) {
+                captureCount++;
+            }
+            orders[index] = order;
+        }
+        return capturesOnly ? captureCount : moves.size();
+    }
+
+    /**
+     * Moves the best ordered move from index onwards to index, so moves are sorted only as far as they are searched
+     */
+    private int pickMove(int ply, MoveList moves, int index) {
+        int[] orders = moveOrders[ply];
+        int bestIndex = index;
+        for (int other = index + 1; other < moves.size(); other++) {
+            if (orders[other] > orders[bestIndex]) {
+                bestIndex = other;
+            }
+        }
+        int move = moves.get(bestIndex);
+        if (bestIndex != index) {
+            moves.set(bestIndex, moves.get(index));
+            moves.set(index, move);
+            int order = orders[bestIndex];
+            orders[bestIndex] = orders[index];
+            orders[index] = order;
+        }
+        return move;
+    }
+
+    private void rememberQuietCutoff(int ply, int move, int depth, boolean isBlack) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int index = historyIndex(move, isBlack);
+        history[index] += depth * depth;
+        if (history[index] > MAX_HISTORY) {
+            for (int other = 0; other < history.length; other++) {
+                history[other] /= 2;
+            }
+        }
+    }
+
+    /**
+     * Indexes the history table by the moving piece's color and type and the end square. Called before the move is
+     * made, while the piece is still on its start square.
+     */
+    private int historyIndex(int move, boolean isBlack) {
+        Piece piece = board.getPiece(Move.getFromRow(move), Move.getFromCol(move));
+        int pieceIndex = (isBlack ? PieceType.COUNT : 0) + piece.getType().ordinal();
+        return pieceIndex * squareCount + board.getSquareIndex(Move.getToRow(move), Move.getToCol(move));
+    }
+
+    private void updatePrincipalVariation(int ply, int move) {
+        principalVariation[ply][0] = move;
+        int childLength = ply + 1 < MAX_PLY ? principalVariationLength[ply + 1] : 0;
+        System.arraycopy(principalVariation[ply + 1], 0, principalVariation[ply], 1, childLength);
+        principalVariationLength[ply] = childLength + 1;
+    }
+
+    /**
+     * A position that repeats one reached earlier in the line with the same player to move is scored as a draw
+     */
+    private boolean isRepetition(int ply) {
+        for (int earlier = ply - 2; earlier >= 0; earlier -= 2) {
+            if (keys[earlier] == keys[ply]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts a node, and every 1024 nodes adds them to the shared count and checks the stop flag and the budget
+     */
+    private void countNode() {
+        nodes++;
+        if ((nodes & 1023) == 0) {
+            long totalNodes = sharedNodes.addAndGet(1024);
+            if (stopFlag.get() || (maxNodes > 0 && totalNodes >= maxNodes)
+                    || (deadline != 0 && System.nanoTime() >= deadline)) {
+                isStopped = true;
+            }
+        }
+    }
+
+    /**
+     * Turns a table score, counted from the probed position, into a score counted from the root. Mates too far off
+     * for the mate scores of the search score just below them, as sure wins and losses of unknown length.
+     */
+    private static int tablebaseScore(int score, int ply) {
+        if (score == 0) {
+            return 0;
+        }
+        int distance = ply + MATE_SCORE - Math.abs(score);
+        int bounded = distance < MAX_PLY ? MATE_SCORE - distance : MATE_SCORE - MAX_PLY - 1;
+        return score > 0 ? bounded : -bounded;
+    }
+
+    /**
+     * Mate scores are stored relative to the position rather than the root, so they stay right when the position is
+     * reached again at another ply
+     */
+    private static int scoreToTable(int score, int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) {
+            return score + ply;
+        }
+        if (score <= -MATE_SCORE + MAX_PLY) {
+            return score - ply;
+        }
+        return score;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= MATE_SCORE - MAX_PLY) {
+            return score - ply;
+        }
+        if (score <= -MATE_SCORE + MAX_PLY) {
+            return score + ply;
+        }
+        return score;
+    }
+}
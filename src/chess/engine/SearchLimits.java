@@ -0,0 +1,69 @@
+package chess.engine;
+
+/**
+ * Budget for one search: the deepest iteration to finish, the time allowed, and the number of nodes allowed. The
+ * search stops as soon as any limit is reached, and a limit of 0 means no limit of that kind.
+ */
+public class SearchLimits {
+
+    private final int maxDepth;
+    private final long timeMillis;
+    private final long maxNodes;
+
+    /**
+     * Creates a search budget
+     * @param maxDepth deepest iteration, 0 for no limit
+     * @param timeMillis time allowed in milliseconds, 0 for no limit
+     * @param maxNodes number of nodes allowed, 0 for no limit
+     */
+    public SearchLimits(int maxDepth, long timeMillis, long maxNodes) {
+        this.maxDepth = maxDepth;
+        this.timeMillis = timeMillis;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * @param maxDepth deepest iteration
+     * @return limits that only bound the depth
+     */
+    public static SearchLimits depth(int maxDepth) {
+        return new SearchLimits(maxDepth, 0, 0);
+    }
+
+    /**
+     * @param timeMillis time allowed in milliseconds
+     * @return limits that only bound the time
+     */
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(0, timeMillis, 0);
+    }
+
+    /**
+     * @param maxNodes number of nodes allowed
+     * @return limits that only bound the number of nodes
+     */
+    public static SearchLimits nodes(long maxNodes) {
+        return new SearchLimits(0, 0, maxNodes);
+    }
+
+    /**
+     * @return deepest iteration, 0 for no limit
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * @return time allowed in milliseconds, 0 for no limit
+     */
+    public long getTimeMillis() {
+        return timeMillis;
+    }
+
+    /**
+     * @return number of nodes allowed, 0 for no limit
+     */
+    public long getMaxNodes() {
+        return maxNodes;
+    }
+}
@@ -0,0 +1,104 @@
+package chess.engine;
+
+import chess.Move;
+
+/**
+ * Outcome of a search, or of one finished iteration of it: the best move with its score, the principal variation
+ * (the line both players are expected to play, starting with the best move), and the work done.
+ */
+public class SearchResult {
+
+    private final int bestMove;
+    private final int score;
+    private final int depth;
+    private final long nodes;
+    private final long nanos;
+    private final int[] principalVariation;
+
+    /**
+     * Creates a search result
+     * @param bestMove packed best move, or Move.NONE if the side to move has no legal move
+     * @param score score for the side to move in centipawns, or a mate score (see isMateScore)
+     * @param depth depth of the last finished iteration
+     * @param nodes number of positions searched
+     * @param nanos time taken in nanoseconds
+     * @param principalVariation packed moves of the expected line
+     */
+    public SearchResult(int bestMove, int score, int depth, long nodes, long nanos, int[] principalVariation) {
+        this.bestMove = bestMove;
+        this.score = score;
+        this.depth = depth;
+        this.nodes = nodes;
+        this.nanos = nanos;
+        this.principalVariation = principalVariation;
+    }
+
+    /**
+     * @return packed best move, or Move.NONE if the side to move has no legal move
+     */
+    public int getBestMove() {
+        return bestMove;
+    }
+
+    /**
+     * @return score for the side to move
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * @return depth of the last finished iteration
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return number of positions searched
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * @return time taken in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return packed moves of the principal variation, starting with the best move
+     */
+    public int[] getPrincipalVariation() {
+        return principalVariation.clone();
+    }
+
+    /**
+     * @return true if the score means one side can force checkmate
+     */
+    public boolean isMateScore() {
+        return Math.abs(score) >= Search.MATE_SCORE - Search.MAX_PLY;
+    }
+
+    /**
+     * Prints the result in the form "depth 6 score 35 nodes 123456 time 512 ms pv (6,4)->(4,4) (1,4)->(3,4)"
+     */
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        str.append("depth ").append(depth);
+        if (isMateScore()) {
+            int plies = Search.MATE_SCORE - Math.abs(score);
+            str.append(" mate ").append(score > 0 ? (plies + 1) / 2 : -(plies + 1) / 2);
+        } else {
+            str.append(" score ").append(score);
+        }
+        str.append(" nodes ").append(nodes).append(" time ").append(nanos / 1_000_000).append(" ms pv");
+        for (int move : principalVariation) {
+            str.append(' ').append(Move.toString(move));
+        }
+        return str.toString();
+    }
+}
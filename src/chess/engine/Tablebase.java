@@ -0,0 +1,241 @@
+package chess.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.LongToIntFunction;
+
+/**
+ * One endgame table file: the value of every placement of one set of pieces on one board size, with either side to
+ * move, read through a memory mapping. The file is a 64 byte header followed by the values, bitsPerValue bits each,
+ * packed little endian so that value i starts at bit i * bitsPerValue of the data. A value is one of
+ * <pre>
+ * 0        draw, or the position cannot be won by either side
+ * 1        illegal: two pieces on one square, or the side to move could capture the King
+ * 2 + d    the game ends in checkmate after d plies of best play: the side to move wins if d is odd, and loses if d is
+ *          even (d = 0 is a side to move that is already checkmated)
+ * </pre>
+ * The header holds, big endian:
+ * <pre>
+ * 0   magic "CTB1"
+ * 4   rows, columns, number of pieces and bitsPerValue, a byte each
+ * 8   up to 8 piece codes of a byte each (see Tablebases), in table order
+ * 16  longest distance to mate in plies, 2 bytes
+ * 24  number of positions, 8 bytes
+ * </pre>
+ * The positions are numbered by Tablebases.index. Reading a value is one unaligned long read, so a probe costs the
+ * same whatever the size of the table.
+ */
+final class Tablebase implements Closeable {
+
+    static final int ILLEGAL = 1;
+    static final int DECIDED = 2;
+    static final int HEADER = 64;
+    static final int MAX_PIECES = 8;
+
+    private static final byte[] MAGIC = {'C', 'T', 'B', '1'};
+    private static final int PAGE_BITS = 30;
+    private static final long PAGE_MASK = (1L << PAGE_BITS) - 1;
+    private static final int WRITE_BUFFER = 1 << 16;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] pages;
+    private final int rows;
+    private final int cols;
+    private final int[] codes;
+    private final int bitsPerValue;
+    private final long valueMask;
+    private final int maxDistance;
+    private final long positionCount;
+
+    private Tablebase(FileChannel channel) throws IOException {
+        this.channel = channel;
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Not an endgame table file");
+            }
+        }
+        header.flip();
+        byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new IOException("Not an endgame table file");
+        }
+        rows = header.get(4);
+        cols = header.get(5);
+        int pieceCount = header.get(6);
+        bitsPerValue = header.get(7);
+        if (pieceCount < 2 || pieceCount > MAX_PIECES || bitsPerValue < 1 || bitsPerValue > 16) {
+            throw new IOException("Corrupt endgame table header");
+        }
+        codes = new int[pieceCount];
+        for (int index = 0; index < pieceCount; index++) {
+            codes[index] = header.get(8 + index) & 0xFF;
+        }
+        maxDistance = header.getShort(16) & 0xFFFF;
+        positionCount = header.getLong(24);
+        valueMask = (1L << bitsPerValue) - 1;
+        long size = channel.size();
+        if (size < dataBytes(positionCount, bitsPerValue)) {
+            throw new IOException("Endgame table file is truncated");
+        }
+        long dataSize = size - HEADER;
+        pages = new MappedByteBuffer[(int) ((dataSize + PAGE_MASK) >>> PAGE_BITS)];
+        for (int page = 0; page < pages.length; page++) {
+            long start = (long) page << PAGE_BITS;
+            // pages overlap by a long, so a value at the end of one page is read in one piece
+            long length = Math.min(dataSize - start, (1L << PAGE_BITS) + Long.BYTES);
+            pages[page] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + start, length);
+            pages[page].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Opens a table file
+     * @param path table file
+     * @return new Tablebase
+     * @throws IOException if the file cannot be opened or is not a table
+     */
+    static Tablebase open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new Tablebase(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a table file. The file is written next to path and moved into place once complete.
+     * @param path file to write
+     * @param rows number of rows of the board
+     * @param cols number of columns of the board
+     * @param codes piece codes in table order
+     * @param maxDistance longest distance to mate in the table
+     * @param positionCount number of positions
+     * @param values value of each position number
+     * @throws IOException if writing fails
+     */
+    static void write(Path path, int rows, int cols, int[] codes, int maxDistance, long positionCount,
+                      LongToIntFunction values) throws IOException {
+        int bitsPerValue = 32 - Integer.numberOfLeadingZeros(DECIDED + maxDistance);
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        header.put(MAGIC);
+        header.put((byte) rows).put((byte) cols).put((byte) codes.length).put((byte) bitsPerValue);
+        for (int index = 0; index < codes.length; index++) {
+            header.put(8 + index, (byte) codes[index]);
+        }
+        header.putShort(16, (short) maxDistance);
+        header.putLong(24, positionCount);
+        header.position(HEADER).flip();
+
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(tempPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(out, header);
+            ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER);
+            long bits = 0;
+            int bitCount = 0;
+            for (long position = 0; position < positionCount; position++) {
+                bits |= (long) values.applyAsInt(position) << bitCount;
+                bitCount += bitsPerValue;
+                while (bitCount >= Byte.SIZE) {
+                    buffer.put((byte) bits);
+                    bits >>>= Byte.SIZE;
+                    bitCount -= Byte.SIZE;
+                    if (!buffer.hasRemaining()) {
+                        buffer.flip();
+                        writeFully(out, buffer);
+                        buffer.clear();
+                    }
+                }
+            }
+            // the last partial byte, and a long of padding so the last value can be read with one long read
+            int padding = (bitCount > 0 ? 1 : 0) + Long.BYTES;
+            for (int index = 0; index < padding; index++) {
+                if (!buffer.hasRemaining()) {
+                    buffer.flip();
+                    writeFully(out, buffer);
+                    buffer.clear();
+                }
+                buffer.put((byte) bits);
+                bits = 0;
+            }
+            buffer.flip();
+            writeFully(out, buffer);
+        }
+        Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the value of a position
+     * @param index position number, from 0 to getPositionCount() - 1
+     * @return 0 for a draw, ILLEGAL, or DECIDED plus the distance to mate
+     */
+    int getValue(long index) {
+        long bit = index * bitsPerValue;
+        long offset = bit >>> 3;
+        long word = pages[(int) (offset >>> PAGE_BITS)].getLong((int) (offset & PAGE_MASK));
+        return (int) (word >>> (bit & 7) & valueMask);
+    }
+
+    /**
+     * @return number of rows of the board the table is for
+     */
+    int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return number of columns of the board the table is for
+     */
+    int getCols() {
+        return cols;
+    }
+
+    /**
+     * @return piece codes in table order, not to be changed
+     */
+    int[] getCodes() {
+        return codes;
+    }
+
+    /**
+     * @return longest distance to mate in plies of any position in the table
+     */
+    int getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * @return number of positions in the table
+     */
+    long getPositionCount() {
+        return positionCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static long dataBytes(long positionCount, int bitsPerValue) {
+        return HEADER + (positionCount * bitsPerValue + 7) / 8 + Long.BYTES;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,623 @@
+package chess.engine;
+
+import chess.pieces.LeapTable;
+import chess.pieces.PieceType;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Builds the endgame tables read by Tablebases, by retrograde analysis over every placement of a set of pieces.
+ * <p>
+ * A first pass looks at every position once: it marks illegal positions and checkmates, counts the legal quiet moves,
+ * and settles the captures at once by probing the tables of the smaller sets of pieces, which are built first. Then
+ * the positions are resolved one distance at a time. At odd distance d, every position with a quiet move into a
+ * position lost in d - 1 plies is won in d. At even distance d, every position with a quiet move into a position won
+ * in d - 1 plies has that move crossed off, and a position whose quiet moves are all crossed off is lost in d, or later
+ * if a capture holds out longer. The positions a move comes from are found by moving the pieces backwards, which
+ * works because without Pawns every quiet move of every piece, the Tiger's jumps and the Orbit's leaps included, can
+ * be played back the way it came. Whatever is left when two distances in a row settle nothing is a draw.
+ * <p>
+ * Each pass is split over index ranges and run on a ForkJoinPool. Positions updated from several ranges at once are
+ * changed with compare-and-set on one int of state per position, so generation needs 4 bytes of memory per
+ * position: a few MB for four pieces on small boards, 128 MB for four pieces on 8x8, and 8 GB for five pieces on 8x8.
+ */
+public final class TablebaseGenerator {
+
+    private static final int LEAF_SIZE = 1 << 13;
+    private static final int CHUNK_BITS = 24;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+    private static final int MAX_DISTANCE = 252;
+    private static final int MAX_COUNTER = 0xFF;
+    private static final int DRAWING_CAPTURE = 0xFF;
+    private static final VarHandle STATES = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private static final int[] ROW_STEPS = {-1, 1, 0, 0, -1, -1, 1, 1};
+    private static final int[] COL_STEPS = {0, 0, -1, 1, -1, 1, -1, 1};
+    private static final int ORTHOGONAL = 1;
+    private static final int DIAGONAL = 2;
+
+    private final Path directory;
+    private final int rows;
+    private final int cols;
+    private final int squareCount;
+    private final int threadCount;
+    private final long[] kingMasks;
+    private final long[] knightMasks;
+    private final long[] tigerMasks;
+    private final long[] between;
+    private final byte[] lines;
+
+    /**
+     * Creates a generator for one board size
+     * @param directory directory the tables are written to, and where existing tables are reused from
+     * @param rows number of rows of the board
+     * @param cols number of columns of the board
+     * @param threadCount number of threads to generate with, at least 1
+     */
+    public TablebaseGenerator(Path directory, int rows, int cols, int threadCount) {
+        if (rows < 1 || cols < 1 || rows * cols > 64) {
+            throw new IllegalArgumentException("Tables need a board of at most 64 squares");
+        }
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("A generator needs at least one thread");
+        }
+        this.directory = directory;
+        this.rows = rows;
+        this.cols = cols;
+        this.squareCount = rows * cols;
+        this.threadCount = threadCount;
+        kingMasks = leapMasks(PieceType.KING, 0);
+        knightMasks = leapMasks(PieceType.KNIGHT, 0);
+        long[] jumps = leapMasks(PieceType.TIGER, 0);
+        tigerMasks = new long[squareCount];
+        for (int square = 0; square < squareCount; square++) {
+            tigerMasks[square] = jumps[square] | kingMasks[square];
+        }
+        between = new long[squareCount * squareCount];
+        lines = new byte[squareCount * squareCount];
+        for (int square = 0; square < squareCount; square++) {
+            for (int direction = 0; direction < ROW_STEPS.length; direction++) {
+                long passed = 0;
+                int newRow = square / cols + ROW_STEPS[direction];
+                int newCol = square % cols + COL_STEPS[direction];
+                while (newRow >= 0 && newCol >= 0 && newRow < rows && newCol < cols) {
+                    int target = newRow * cols + newCol;
+                    between[square * squareCount + target] = passed;
+                    lines[square * squareCount + target] = (byte) (direction < 4 ? ORTHOGONAL : DIAGONAL);
+                    passed |= 1L << target;
+                    newRow += ROW_STEPS[direction];
+                    newCol += COL_STEPS[direction];
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the table of a set of pieces, first building any missing table of the sets left after a capture. Tables
+     * already in the directory are not built again.
+     * @param material set of pieces, such as "KQvK" or "KO2vKT" (see Tablebases for the notation)
+     * @return path of the table file
+     * @throws IOException if reading or writing a table fails
+     * @throws IllegalArgumentException if the set of pieces cannot have a table
+     */
+    public Path generate(String material) throws IOException {
+        Files.createDirectories(directory);
+        ForkJoinPool pool = new ForkJoinPool(threadCount);
+        try {
+            return generate(Tablebases.parseMaterial(material), pool);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private Path generate(int[] codes, ForkJoinPool pool) throws IOException {
+        Path path = directory.resolve(Tablebases.fileName(codes, rows, cols));
+        if (Files.exists(path)) {
+            return path;
+        }
+        for (int captured = 0; captured < codes.length; captured++) {
+            if ((codes[captured] & Tablebases.TYPE_MASK) == PieceType.KING.ordinal()) {
+                continue;
+            }
+            int[] remaining = new int[codes.length - 1];
+            for (int piece = 0, next = 0; piece < codes.length; piece++) {
+                if (piece != captured) {
+                    remaining[next++] = codes[piece];
+                }
+            }
+            generate(Tablebases.canonical(remaining), pool);
+        }
+        try (Tablebases subTables = Tablebases.open(directory)) {
+            new Job(codes, subTables, pool).run(path);
+        }
+        return path;
+    }
+
+    private long[] leapMasks(PieceType type, int radius) {
+        LeapTable table = LeapTable.get(type, radius, rows, cols);
+        int[] destinations = table.getDestinations();
+        long[] masks = new long[squareCount];
+        for (int square = 0; square < squareCount; square++) {
+            for (int index = table.getStart(square); index < table.getEnd(square); index++) {
+                masks[square] |= 1L << ((destinations[index] >>> 8) * cols + (destinations[index] & 0xFF));
+            }
+        }
+        return masks;
+    }
+
+    /**
+     * Squares a Rook, Bishop or Queen reaches from a square along the given directions, up to and including the first
+     * occupied square of each
+     */
+    private long slide(int square, long occupied, int firstDirection, int lastDirection) {
+        long reached = 0;
+        int row = square / cols;
+        int col = square % cols;
+        for (int direction = firstDirection; direction <= lastDirection; direction++) {
+            int newRow = row + ROW_STEPS[direction];
+            int newCol = col + COL_STEPS[direction];
+            while (newRow >= 0 && newCol >= 0 && newRow < rows && newCol < cols) {
+                long bit = 1L << (newRow * cols + newCol);
+                reached |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                newRow += ROW_STEPS[direction];
+                newCol += COL_STEPS[direction];
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * The state of one position during generation, packed in an int: the number of quiet moves not yet known to lose
+     * in bits 0-7, the value (see Tablebase, 0 while unknown) in bits 8-15, the distance of the fastest winning capture
+     * in bits 16-23 (DRAWING_CAPTURE if the best capture draws, 0 with no capture), and the distance of the slowest
+     * losing capture in bits 24-31.
+     */
+    private static int getCounter(int state) {
+        return state & MAX_COUNTER;
+    }
+
+    private static int getValue(int state) {
+        return state >>> 8 & 0xFF;
+    }
+
+    private static int getCaptureWin(int state) {
+        return state >>> 16 & 0xFF;
+    }
+
+    private static int getCaptureLoss(int state) {
+        return state >>> 24;
+    }
+
+    /**
+     * Generation of one table
+     */
+    private final class Job {
+
+        private final int[] codes;
+        private final int count;
+        private final int blackKing;
+        private final long[][] quietMasks;
+        private final long[][] attackMasks;
+        private final int[] firstDirections;
+        private final int[] lastDirections;
+        private final int[] lineKinds;
+        private final long[] weights;
+        private final long sideSize;
+        private final long size;
+        private final int[][] states;
+        private final Tablebases subTables;
+        private final ForkJoinPool pool;
+        private final LongAdder settled = new LongAdder();
+        private final AtomicInteger lastPending = new AtomicInteger();
+
+        Job(int[] codes, Tablebases subTables, ForkJoinPool pool) {
+            this.codes = codes;
+            this.count = codes.length;
+            this.subTables = subTables;
+            this.pool = pool;
+            int whiteCount = 0;
+            quietMasks = new long[count][];
+            attackMasks = new long[count][];
+            firstDirections = new int[count];
+            lastDirections = new int[count];
+            lineKinds = new int[count];
+            for (int piece = 0; piece < count; piece++) {
+                whiteCount += (codes[piece] & Tablebases.BLACK) == 0 ? 1 : 0;
+                PieceType type = PieceType.values()[codes[piece] & Tablebases.TYPE_MASK];
+                switch (type) {
+                    case KING:
+                        quietMasks[piece] = kingMasks;
+                        attackMasks[piece] = kingMasks;
+                        break;
+                    case KNIGHT:
+                        quietMasks[piece] = knightMasks;
+                        attackMasks[piece] = knightMasks;
+                        break;
+                    case TIGER:
+                        quietMasks[piece] = leapMasks(PieceType.TIGER, 0);
+                        attackMasks[piece] = tigerMasks;
+                        break;
+                    case ORBIT:
+                        int radius = (codes[piece] & ~Tablebases.BLACK) >>> Tablebases.RADIUS_SHIFT;
+                        quietMasks[piece] = leapMasks(PieceType.ORBIT, radius);
+                        attackMasks[piece] = quietMasks[piece];
+                        break;
+                    default:
+                        firstDirections[piece] = type == PieceType.BISHOP ? 4 : 0;
+                        lastDirections[piece] = type == PieceType.ROOK ? 3 : 7;
+                        lineKinds[piece] = (type == PieceType.BISHOP ? 0 : ORTHOGONAL)
+                                | (type == PieceType.ROOK ? 0 : DIAGONAL);
+                }
+            }
+            blackKing = whiteCount;
+            weights = new long[count];
+            long weight = 1;
+            for (int piece = count - 1; piece >= 0; piece--) {
+                weights[piece] = weight;
+                weight *= squareCount;
+            }
+            sideSize = weight;
+            size = 2 * sideSize;
+            int chunkCount = (int) ((size + CHUNK_MASK) >>> CHUNK_BITS);
+            states = new int[chunkCount][];
+            for (int chunk = 0; chunk < chunkCount; chunk++) {
+                states[chunk] = new int[(int) Math.min(1L << CHUNK_BITS, size - ((long) chunk << CHUNK_BITS))];
+            }
+        }
+
+        void run(Path path) throws IOException {
+            pool.invoke(new Sweep(0, 0, size));
+            int maxDistance = 0;
+            long lastSettled = settled.sumThenReset();
+            for (int distance = 1; ; distance++) {
+                pool.invoke(new Sweep(distance, 0, size));
+                long found = settled.sumThenReset();
+                if (found > 0) {
+                    if (distance > MAX_DISTANCE) {
+                        throw new IllegalStateException("Distances to mate above " + MAX_DISTANCE + " plies in "
+                                + Tablebases.materialName(codes));
+                    }
+                    maxDistance = distance;
+                }
+                if (found == 0 && lastSettled == 0 && distance > lastPending.get()) {
+                    break;
+                }
+                lastSettled = found;
+            }
+            Tablebase.write(path, rows, cols, codes, maxDistance, size, index -> getValue(getState(index)));
+        }
+
+        private int getState(long index) {
+            return states[(int) (index >>> CHUNK_BITS)][(int) (index & CHUNK_MASK)];
+        }
+
+        private boolean swapState(long index, int expected, int state) {
+            return STATES.compareAndSet(states[(int) (index >>> CHUNK_BITS)], (int) (index & CHUNK_MASK), expected,
+                    state);
+        }
+
+        /**
+         * Runs one pass over a range of positions
+         * @param distance 0 for the first pass, otherwise the distance to mate being settled
+         */
+        void runRange(int distance, long from, long to) {
+            int[] squares = new int[count];
+            if (distance > 0) {
+                for (long index = from; index < to; index++) {
+                    resolve(distance, index, squares);
+                }
+                return;
+            }
+            // the first pass looks at every position, so it steps through the squares like an odometer
+            decode(from, squares);
+            boolean isBlack = from >= sideSize;
+            int[] subCodes = new int[count];
+            int[] subSquares = new int[count];
+            int[] order = new int[count];
+            int pending = 0;
+            for (long index = from; index < to; index++) {
+                pending = Math.max(pending, initialize(index, squares, isBlack, subCodes, subSquares, order));
+                for (int piece = count - 1; piece >= 0; piece--) {
+                    if (++squares[piece] < squareCount) {
+                        break;
+                    }
+                    squares[piece] = 0;
+                    if (piece == 0) {
+                        isBlack = true;
+                    }
+                }
+            }
+            lastPending.accumulateAndGet(pending, Math::max);
+        }
+
+        private void decode(long index, int[] squares) {
+            long rest = index % sideSize;
+            for (int piece = count - 1; piece >= 0; piece--) {
+                squares[piece] = (int) (rest % squareCount);
+                rest /= squareCount;
+            }
+        }
+
+        /**
+         * Sets up the state of one position
+         * @return the distance a capture of the position settles it at, 0 if none
+         */
+        private int initialize(long index, int[] squares, boolean isBlack, int[] subCodes, int[] subSquares,
+                               int[] order) {
+            long occupied = 0;
+            long enemies = 0;
+            for (int piece = 0; piece < count; piece++) {
+                long bit = 1L << squares[piece];
+                if ((occupied & bit) != 0) {
+                    setState(index, Tablebase.ILLEGAL << 8);
+                    return 0;
+                }
+                occupied |= bit;
+                if (isBlackPiece(piece) != isBlack) {
+                    enemies |= bit;
+                }
+            }
+            int ownKing = isBlack ? blackKing : 0;
+            int enemyKing = isBlack ? 0 : blackKing;
+            if (isAttacked(squares[enemyKing], isBlack, squares, occupied, -1)) {
+                setState(index, Tablebase.ILLEGAL << 8);
+                return 0;
+            }
+            enemies &= ~(1L << squares[enemyKing]);
+
+            int counter = 0;
+            int captureWin = 0;
+            int captureLoss = 0;
+            boolean hasMove = false;
+            for (int piece = isBlack ? blackKing : 0; piece < (isBlack ? count : blackKing); piece++) {
+                int from = squares[piece];
+                long targets = quietTargets(piece, from, occupied) | (attacks(piece, from, occupied) & enemies);
+                while (targets != 0) {
+                    int to = Long.numberOfTrailingZeros(targets);
+                    targets &= targets - 1;
+                    int captured = -1;
+                    if ((enemies >>> to & 1) != 0) {
+                        captured = 0;
+                        while (squares[captured] != to) {
+                            captured++;
+                        }
+                    }
+                    squares[piece] = to;
+                    long after = occupied & ~(1L << from) | 1L << to;
+                    if (!isAttacked(squares[ownKing], !isBlack, squares, after, captured)) {
+                        hasMove = true;
+                        if (captured < 0) {
+                            counter++;
+                        } else {
+                            int value = probeCapture(captured, squares, !isBlack, subCodes, subSquares, order);
+                            if (value == 0) {
+                                captureWin = captureWin == 0 ? DRAWING_CAPTURE : captureWin;
+                            } else if ((value - Tablebase.DECIDED) % 2 == 0) {
+                                int win = value - Tablebase.DECIDED + 1;
+                                captureWin = captureWin == 0 || captureWin == DRAWING_CAPTURE ? win
+                                        : Math.min(captureWin, win);
+                            } else {
+                                captureLoss = Math.max(captureLoss, value - Tablebase.DECIDED + 1);
+                            }
+                        }
+                    }
+                    squares[piece] = from;
+                }
+            }
+            if (counter > MAX_COUNTER) {
+                throw new IllegalStateException("Too many moves in one position of " + Tablebases.materialName(codes));
+            }
+            int value = 0;
+            if (!hasMove && isAttacked(squares[ownKing], !isBlack, squares, occupied, -1)) {
+                value = Tablebase.DECIDED;
+                settled.increment();
+            }
+            setState(index, counter | value << 8 | captureWin << 16 | captureLoss << 24);
+            return Math.max(captureWin == DRAWING_CAPTURE ? 0 : captureWin, captureLoss);
+        }
+
+        /**
+         * Settles one position at a distance if a capture decides it there, and if the position was itself settled
+         * one ply earlier, passes that on to the positions its quiet moves could have come from
+         */
+        private void resolve(int distance, long index, int[] squares) {
+            int state = getState(index);
+            int value = getValue(state);
+            if (value == 0) {
+                boolean isSettled = distance % 2 == 1 ? getCaptureWin(state) == distance
+                        : getCaptureWin(state) == 0 && getCounter(state) == 0 && getCaptureLoss(state) == distance;
+                if (isSettled) {
+                    settle(index, distance);
+                }
+                return;
+            }
+            if (value != Tablebase.DECIDED + distance - 1) {
+                return;
+            }
+            decode(index, squares);
+            boolean isBlack = index >= sideSize;
+            long occupied = 0;
+            for (int piece = 0; piece < count; piece++) {
+                occupied |= 1L << squares[piece];
+            }
+            // the side not to move made the last move
+            long sideChange = isBlack ? -sideSize : sideSize;
+            for (int piece = isBlack ? 0 : blackKing; piece < (isBlack ? blackKing : count); piece++) {
+                int to = squares[piece];
+                long origins = quietTargets(piece, to, occupied);
+                while (origins != 0) {
+                    int from = Long.numberOfTrailingZeros(origins);
+                    origins &= origins - 1;
+                    long origin = index + sideChange + (from - to) * weights[piece];
+                    if (distance % 2 == 1) {
+                        settle(origin, distance);
+                    } else {
+                        crossOff(origin, distance);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Gives a position still unknown the value of a mate at the given distance
+         */
+        private void settle(long index, int distance) {
+            while (true) {
+                int state = getState(index);
+                if (getValue(state) != 0) {
+                    return;
+                }
+                if (swapState(index, state, state | (Tablebase.DECIDED + distance) << 8)) {
+                    settled.increment();
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Crosses off a quiet move of a position that leads to a position won for the other side, and settles the
+         * position as lost once none is left and no capture holds out longer
+         */
+        private void crossOff(long index, int distance) {
+            while (true) {
+                int state = getState(index);
+                if (getValue(state) != 0 || getCaptureWin(state) != 0) {
+                    return;
+                }
+                int counter = getCounter(state) - 1;
+                if (counter < 0) {
+                    throw new IllegalStateException("Move count below zero in " + Tablebases.materialName(codes));
+                }
+                boolean isLost = counter == 0 && getCaptureLoss(state) <= distance;
+                int newState = (state & ~MAX_COUNTER) | counter | (isLost ? (Tablebase.DECIDED + distance) << 8 : 0);
+                if (swapState(index, state, newState)) {
+                    if (isLost) {
+                        settled.increment();
+                    }
+                    return;
+                }
+            }
+        }
+
+        private void setState(long index, int state) {
+            states[(int) (index >>> CHUNK_BITS)][(int) (index & CHUNK_MASK)] = state;
+        }
+
+        /**
+         * Looks up the position after a capture in the table of the remaining pieces
+         */
+        private int probeCapture(int captured, int[] squares, boolean isBlack, int[] subCodes, int[] subSquares,
+                                 int[] order) {
+            int subCount = 0;
+            for (int piece = 0; piece < count; piece++) {
+                if (piece != captured) {
+                    subCodes[subCount] = codes[piece];
+                    subSquares[subCount++] = squares[piece];
+                }
+            }
+            int value = subTables.probeValue(rows, cols, subCodes, subSquares, subCount, isBlack, order);
+            if (value < 0 || value == Tablebase.ILLEGAL) {
+                throw new IllegalStateException("No table value after a capture in " + Tablebases.materialName(codes));
+            }
+            return value;
+        }
+
+        private boolean isBlackPiece(int piece) {
+            return piece >= blackKing;
+        }
+
+        private boolean isAttacked(int square, boolean byBlack, int[] squares, long occupied, int skipped) {
+            for (int piece = byBlack ? blackKing : 0; piece < (byBlack ? count : blackKing); piece++) {
+                if (piece != skipped && attacks(piece, squares[piece], square, occupied)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Checks whether a piece attacks a square, with a lookup for sliding pieces rather than walking their lines
+         */
+        private boolean attacks(int piece, int square, int target, long occupied) {
+            if (attackMasks[piece] != null) {
+                return (attackMasks[piece][square] >>> target & 1) != 0;
+            }
+            int line = square * squareCount + target;
+            return (lines[line] & lineKinds[piece]) != 0 && (between[line] & occupied) == 0;
+        }
+
+        private long attacks(int piece, int square, long occupied) {
+            if (attackMasks[piece] != null) {
+                return attackMasks[piece][square];
+            }
+            return slide(square, occupied, firstDirections[piece], lastDirections[piece]);
+        }
+
+        private long quietTargets(int piece, int square, long occupied) {
+            if (quietMasks[piece] != null) {
+                return quietMasks[piece][square] & ~occupied;
+            }
+            return slide(square, occupied, firstDirections[piece], lastDirections[piece]) & ~occupied;
+        }
+
+        /**
+         * One pass over a range of positions, split in halves until the ranges are small
+         */
+        private final class Sweep extends RecursiveAction {
+
+            private static final long serialVersionUID = 1L;
+
+            private final int distance;
+            private final long from;
+            private final long to;
+
+            Sweep(int distance, long from, long to) {
+                this.distance = distance;
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            protected void compute() {
+                if (to - from <= LEAF_SIZE) {
+                    runRange(distance, from, to);
+                    return;
+                }
+                long middle = (from + to) >>> 1;
+                invokeAll(new Sweep(distance, from, middle), new Sweep(distance, middle, to));
+            }
+        }
+    }
+
+    /**
+     * Builds the table of a set of pieces and those it needs. Arguments: the table directory, the number of rows and
+     * columns of the board, the set of pieces such as "KQvK", and optionally the number of threads (default: one per
+     * processor)
+     * @param args command line arguments
+     * @throws IOException if reading or writing a table fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: TablebaseGenerator <directory> <rows> <cols> <material> [threads]");
+            return;
+        }
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        TablebaseGenerator generator = new TablebaseGenerator(Paths.get(args[0]), Integer.parseInt(args[1]),
+                Integer.parseInt(args[2]), threads);
+        long startTime = System.nanoTime();
+        Path path = generator.generate(args[3]);
+        System.out.println("Wrote " + path + " in " + (System.nanoTime() - startTime) / 1_000_000 + " ms");
+    }
+}
@@ -0,0 +1,377 @@
+package chess.engine;
+
+import chess.Board;
+import chess.pieces.Orbit;
+import chess.pieces.Piece;
+import chess.pieces.PieceType;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Endgame tables for positions without Pawns of at most MAX_MEN pieces, one King on each side, written by
+ * TablebaseGenerator. Each table covers one set of pieces on one board size and gives the exact result of every
+ * position with the distance to mate, so a probe answers a position outright, whatever a search would make of it.
+ * <p>
+ * A piece is stored as a code of one byte: the PieceType ordinal in bits 0-2, the radius of an Orbit in bits 3-6 and
+ * bit 7 set for Black. A table lists its pieces in a fixed order: the stronger side first as White, each side's King
+ * first and the other pieces by code, highest first. Without Pawns the rules are the same for both colors, so one table
+ * answers both a set of pieces and the same set with the colors swapped. A position is numbered
+ * <pre>
+ * ((side * squares + square of piece 0) * squares + square of piece 1) * squares + ...
+ * </pre>
+ * side being 1 if Black (after any swap) is to move, and squares row * cols + column.
+ * <p>
+ * The tables are memory mapped and probing never allocates more than a few small arrays, so it is safe to probe
+ * from every node of a search and from several threads at once.
+ */
+public final class Tablebases implements Closeable {
+
+    /**
+     * Largest number of pieces, Kings included, a table can have
+     */
+    public static final int MAX_MEN = 5;
+
+    /**
+     * Answer of probe for a position no table covers
+     */
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    /**
+     * File name extension of table files
+     */
+    public static final String EXTENSION = ".ctb";
+
+    static final int BLACK = 0x80;
+    static final int RADIUS_SHIFT = 3;
+    static final int TYPE_MASK = 7;
+    static final int MAX_RADIUS = 15;
+
+    private static final String LETTERS = "PNBRQKTO";
+
+    private final Tablebase[] tables;
+    private final long[] keys;
+    private final int maxMen;
+
+    private Tablebases(List<Tablebase> found) {
+        tables = new Tablebase[found.size()];
+        keys = new long[found.size()];
+        found.sort((first, second) -> Long.compare(key(first), key(second)));
+        int men = 0;
+        for (int index = 0; index < tables.length; index++) {
+            tables[index] = found.get(index);
+            keys[index] = key(tables[index]);
+            men = Math.max(men, tables[index].getCodes().length);
+        }
+        maxMen = men;
+    }
+
+    /**
+     * Opens every table file in a directory
+     * @param directory directory of table files; a directory that does not exist has no tables
+     * @return new Tablebases
+     * @throws IOException if a table file cannot be opened or is not a table
+     */
+    public static Tablebases open(Path directory) throws IOException {
+        List<Tablebase> found = new ArrayList<>();
+        if (Files.isDirectory(directory)) {
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+                for (Path file : files) {
+                    Tablebase table = Tablebase.open(file);
+                    if (table.getCodes().length > MAX_MEN) {
+                        table.close();
+                        continue;
+                    }
+                    found.add(table);
+                }
+            } catch (IOException | RuntimeException e) {
+                for (Tablebase table : found) {
+                    table.close();
+                }
+                throw e;
+            }
+        }
+        return new Tablebases(found);
+    }
+
+    /**
+     * @return number of tables
+     */
+    public int size() {
+        return tables.length;
+    }
+
+    /**
+     * @return largest number of pieces of any table, 0 if there are none
+     */
+    public int getMaxMen() {
+        return maxMen;
+    }
+
+    /**
+     * Looks a position up in the tables. Scores follow the search's mate scores: a win in d plies scores
+     * MATE_SCORE - d and a loss -(MATE_SCORE - d), so a checkmated side to move scores -MATE_SCORE.
+     * @param board board with the position; only boards of at most 64 squares have tables
+     * @param isBlack color of the Player to move
+     * @return score for the side to move, 0 for a draw, or NOT_FOUND if no table covers the position
+     */
+    public int probe(Board board, boolean isBlack) {
+        if (tables.length == 0 || !board.isBitboardBacked()) {
+            return NOT_FOUND;
+        }
+        long occupied = board.getOccupancy();
+        int count = Long.bitCount(occupied);
+        if (count > maxMen) {
+            return NOT_FOUND;
+        }
+        int cols = board.getCols();
+        int[] codes = new int[count];
+        int[] squares = new int[count];
+        for (int index = 0; index < count; index++) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            codes[index] = code(board.getPiece(square / cols, square % cols));
+            if (codes[index] < 0) {
+                return NOT_FOUND;
+            }
+            squares[index] = square;
+        }
+        return toScore(probeValue(board.getRows(), cols, codes, squares, count, isBlack, new int[count]));
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (Tablebase table : tables) {
+            try {
+                table.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Looks up the raw table value of a position given as piece codes and squares
+     * @param order scratch array of at least count entries
+     * @return value as stored in the table (see Tablebase), or -1 if there is no table for the pieces
+     */
+    int probeValue(int rows, int cols, int[] codes, int[] squares, int count, boolean isBlack, int[] order) {
+        boolean isSwapped = order(codes, count, order);
+        int found = Arrays.binarySearch(keys, key(rows, cols, codes, order, count, isSwapped));
+        if (found < 0) {
+            return -1;
+        }
+        int squareCount = rows * cols;
+        long index = isBlack != isSwapped ? 1 : 0;
+        for (int piece = 0; piece < count; piece++) {
+            index = index * squareCount + squares[order[piece]];
+        }
+        return tables[found].getValue(index);
+    }
+
+    /**
+     * Converts a table value to a score for the side to move
+     */
+    private static int toScore(int value) {
+        if (value < 0 || value == Tablebase.ILLEGAL) {
+            return NOT_FOUND;
+        }
+        if (value == 0) {
+            return 0;
+        }
+        int distance = value - Tablebase.DECIDED;
+        return (distance & 1) != 0 ? Search.MATE_SCORE - distance : -Search.MATE_SCORE + distance;
+    }
+
+    /**
+     * @return code of a piece, or -1 for a Pawn or an Orbit whose radius does not fit a code
+     */
+    static int code(Piece piece) {
+        PieceType type = piece.getType();
+        int radius = 0;
+        if (type == PieceType.PAWN) {
+            return -1;
+        }
+        if (type == PieceType.ORBIT) {
+            radius = ((Orbit) piece).getRadius();
+            if (radius < 0 || radius > MAX_RADIUS) {
+                return -1;
+            }
+        }
+        return type.ordinal() | radius << RADIUS_SHIFT | (piece.isBlack() ? BLACK : 0);
+    }
+
+    /**
+     * Puts the pieces of a position in table order: fills order with the indexes of the pieces, White's first, each
+     * side's King first and the other pieces by code, highest first, after swapping the colors if Black is stronger.
+     * Black is stronger with more pieces, or with as many and a higher code at the first place the sides differ.
+     * @return true if the colors are swapped, so the table's White pieces are the position's Black pieces
+     */
+    static boolean order(int[] codes, int count, int[] order) {
+        int whiteCount = 0;
+        for (int index = 0; index < count; index++) {
+            int rank = rank(codes[index]);
+            int target = index - 1;
+            while (target >= 0 && rank(codes[order[target]]) > rank) {
+                order[target + 1] = order[target];
+                target--;
+            }
+            order[target + 1] = index;
+            whiteCount += (codes[index] & BLACK) == 0 ? 1 : 0;
+        }
+        int blackCount = count - whiteCount;
+        boolean isSwapped = blackCount > whiteCount;
+        if (blackCount == whiteCount) {
+            for (int index = 0; index < whiteCount; index++) {
+                int whiteRank = rank(codes[order[index]]);
+                int blackRank = rank(codes[order[whiteCount + index]]) - 2 * BLACK;
+                if (whiteRank != blackRank) {
+                    isSwapped = blackRank < whiteRank;
+                    break;
+                }
+            }
+        }
+        if (isSwapped) {
+            reverse(order, 0, count);
+            reverse(order, 0, blackCount);
+            reverse(order, blackCount, count);
+        }
+        return isSwapped;
+    }
+
+    /**
+     * Parses a set of pieces written as each side's letters separated by a "v", White first: K, Q, R, B, N, T for a
+     * Tiger and O for an Orbit, followed by its radius unless it is the default 3. "KQvK" is King and Queen against
+     * King, "KO2vKT" King and Orbit of radius 2 against King and Tiger.
+     * @param material set of pieces
+     * @return piece codes in table order
+     * @throws IllegalArgumentException if the text is not a set of pieces a table can have
+     */
+    static int[] parseMaterial(String material) {
+        String[] sides = material.split("v", -1);
+        if (sides.length != 2) {
+            throw new IllegalArgumentException("Material needs two sides separated by 'v': " + material);
+        }
+        int[] codes = new int[MAX_MEN + 1];
+        int count = 0;
+        for (int side = 0; side < 2; side++) {
+            String letters = sides[side];
+            int kings = 0;
+            for (int at = 0; at < letters.length(); at++) {
+                int type = LETTERS.indexOf(letters.charAt(at));
+                if (type <= PieceType.PAWN.ordinal()) {
+                    throw new IllegalArgumentException("Tables have no piece '" + letters.charAt(at) + "': " + material);
+                }
+                int radius = 0;
+                if (type == PieceType.ORBIT.ordinal()) {
+                    int end = at + 1;
+                    while (end < letters.length() && Character.isDigit(letters.charAt(end))) {
+                        end++;
+                    }
+                    radius = end > at + 1 ? Integer.parseInt(letters.substring(at + 1, end)) : 3;
+                    if (radius > MAX_RADIUS) {
+                        throw new IllegalArgumentException("Orbit radius above " + MAX_RADIUS + ": " + material);
+                    }
+                    at = end - 1;
+                }
+                kings += type == PieceType.KING.ordinal() ? 1 : 0;
+                if (count == codes.length) {
+                    throw new IllegalArgumentException("Tables have at most " + MAX_MEN + " pieces: " + material);
+                }
+                codes[count++] = type | radius << RADIUS_SHIFT | (side == 1 ? BLACK : 0);
+            }
+            if (kings != 1) {
+                throw new IllegalArgumentException("Each side needs exactly one King: " + material);
+            }
+        }
+        if (count > MAX_MEN) {
+            throw new IllegalArgumentException("Tables have at most " + MAX_MEN + " pieces: " + material);
+        }
+        return canonical(Arrays.copyOf(codes, count));
+    }
+
+    /**
+     * @return the same pieces in table order
+     */
+    static int[] canonical(int[] codes) {
+        int[] order = new int[codes.length];
+        int swap = order(codes, codes.length, order) ? BLACK : 0;
+        int[] ordered = new int[codes.length];
+        for (int index = 0; index < codes.length; index++) {
+            ordered[index] = codes[order[index]] ^ swap;
+        }
+        return ordered;
+    }
+
+    /**
+     * @param codes piece codes in table order
+     * @return the set of pieces in the form parseMaterial reads, such as "KQvK"
+     */
+    static String materialName(int[] codes) {
+        StringBuilder str = new StringBuilder();
+        boolean isBlackSide = false;
+        for (int code : codes) {
+            if ((code & BLACK) != 0 && !isBlackSide) {
+                str.append('v');
+                isBlackSide = true;
+            }
+            str.append(LETTERS.charAt(code & TYPE_MASK));
+            int radius = (code & ~BLACK) >>> RADIUS_SHIFT;
+            if ((code & TYPE_MASK) == PieceType.ORBIT.ordinal() && radius != 3) {
+                str.append(radius);
+            }
+        }
+        return str.toString();
+    }
+
+    /**
+     * @param codes piece codes in table order
+     * @return name of the table file of the pieces on a board size, such as "KQvK-8x8.ctb"
+     */
+    static String fileName(int[] codes, int rows, int cols) {
+        return materialName(codes) + "-" + rows + "x" + cols + EXTENSION;
+    }
+
+    /**
+     * Orders the pieces of one side: the King first, then the other pieces by code, highest first; White before Black
+     */
+    private static int rank(int code) {
+        int side = (code & BLACK) != 0 ? 2 * BLACK : 0;
+        return side + ((code & TYPE_MASK) == PieceType.KING.ordinal() ? 0 : BLACK - (code & ~BLACK));
+    }
+
+    private static long key(Tablebase table) {
+        long key = 0;
+        for (int code : table.getCodes()) {
+            key = key << 8 | code;
+        }
+        return (long) table.getRows() << 56 | (long) table.getCols() << 48 | key;
+    }
+
+    private static long key(int rows, int cols, int[] codes, int[] order, int count, boolean isSwapped) {
+        long key = 0;
+        int swap = isSwapped ? BLACK : 0;
+        for (int index = 0; index < count; index++) {
+            key = key << 8 | (codes[order[index]] ^ swap);
+        }
+        return (long) rows << 56 | (long) cols << 48 | key;
+    }
+
+    private static void reverse(int[] values, int from, int to) {
+        for (int low = from, high = to - 1; low < high; low++, high--) {
+            int value = values[low];
+            values[low] = values[high];
+            values[high] = value;
+        }
+    }
+}
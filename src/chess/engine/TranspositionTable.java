@@ -0,0 +1,239 @@
+package chess.engine;
+
+import chess.Move;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed size transposition table keyed by Board Zobrist keys, shared by any number of search threads without locks.
+ * Every entry is 128 bits: the key XORed with the data, followed by the data, which packs the best move, score, depth,
+ * bound type and search age into one long (see pack). A reader only accepts an entry whose two halves XOR back to the
+ * key it is looking for, so an entry torn by two threads writing at once is simply treated as a miss.
+ * <p>
+ * The entries are kept off the Java heap in direct ByteBuffers of at most 1 GB each, so tables of many gigabytes do not
+ * add to garbage collection work. Direct memory is capped by -XX:MaxDirectMemorySize, which defaults to the maximum
+ * heap size, so a table larger than the heap needs that flag raised to at least the table size. Each buffer is sliced
+ * to start on a 64 byte boundary, and entries are grouped in buckets of four sharing one 64 byte cache line. A new
+ * entry replaces the entry with the same key if it is at least as deep, or else the entry of the bucket with the
+ * lowest depth, counting entries from earlier searches as shallower the older they are.
+ */
+public class TranspositionTable {
+
+    /**
+     * Bound types: the score is an upper bound (fail low), a lower bound (fail high), or exact
+     */
+    public static final int UPPER = 1;
+    public static final int LOWER = 2;
+    public static final int EXACT = 3;
+
+    /**
+     * Scores are stored in 16 bits and must lie in [-MAX_SCORE, MAX_SCORE]
+     */
+    public static final int MAX_SCORE = Short.MAX_VALUE;
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_ENTRIES = 4;
+    private static final int BUCKET_BYTES = ENTRY_BYTES * BUCKET_ENTRIES;
+    private static final int CHUNK_SHIFT = 30;
+    private static final int AGE_MASK = 0x3F;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer[] chunks;
+    private final long bucketCount;
+    private final long bucketMask;
+    private final int bucketsPerChunkShift;
+    private volatile int age;
+
+    /**
+     * Allocates a table of at most the given size. The number of buckets is rounded down to a power of two.
+     * @param sizeBytes size of the table in bytes, at least 64
+     * @throws OutOfMemoryError if the table does not fit in the direct memory allowed by -XX:MaxDirectMemorySize
+     */
+    public TranspositionTable(long sizeBytes) {
+        if (sizeBytes < BUCKET_BYTES) {
+            throw new IllegalArgumentException("Transposition table must be at least " + BUCKET_BYTES + " bytes");
+        }
+        bucketCount = Long.highestOneBit(sizeBytes / BUCKET_BYTES);
+        bucketMask = bucketCount - 1;
+        long totalBytes = bucketCount * BUCKET_BYTES;
+        int chunkBytes = (int) Math.min(totalBytes, 1L << CHUNK_SHIFT);
+        bucketsPerChunkShift = Integer.numberOfTrailingZeros(chunkBytes / BUCKET_BYTES);
+        chunks = new ByteBuffer[(int) (totalBytes / chunkBytes)];
+        for (int index = 0; index < chunks.length; index++) {
+            // allocateDirect does not promise any alignment, so allocate a cache line more and slice off the start
+            chunks[index] = ByteBuffer.allocateDirect(chunkBytes + BUCKET_BYTES - 1).alignedSlice(BUCKET_BYTES)
+                    .limit(chunkBytes).slice().order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * @return size of the table in bytes
+     */
+    public long getSizeBytes() {
+        return bucketCount * BUCKET_BYTES;
+    }
+
+    /**
+     * @return number of entries the table holds
+     */
+    public long getCapacity() {
+        return bucketCount * BUCKET_ENTRIES;
+    }
+
+    /**
+     * Starts a new search, so entries stored by earlier searches are replaced before entries of the new one
+     */
+    public void newSearch() {
+        age = (age + 1) & AGE_MASK;
+    }
+
+    /**
+     * Empties the table. Must not be called while a search is using it.
+     */
+    public void clear() {
+        byte[] zeros = new byte[Math.min(chunks[0].capacity(), 1 << 20)];
+        for (ByteBuffer chunk : chunks) {
+            ByteBuffer view = chunk.duplicate();
+            while (view.hasRemaining()) {
+                view.put(zeros, 0, Math.min(zeros.length, view.remaining()));
+            }
+        }
+        age = 0;
+    }
+
+    /**
+     * Looks up the entry for a position
+     * @param key Zobrist key of the position
+     * @return packed entry data (read with getMove, getScore, getDepth and getBound), or 0 if there is no entry
+     */
+    public long probe(long key) {
+        long bucket = key & bucketMask;
+        ByteBuffer chunk = chunks[(int) (bucket >>> bucketsPerChunkShift)];
+        int offset = bucketOffset(bucket);
+        for (int slot = 0; slot < BUCKET_ENTRIES; slot++, offset += ENTRY_BYTES) {
+            long data = (long) LONGS.getOpaque(chunk, offset + Long.BYTES);
+            long check = (long) LONGS.getOpaque(chunk, offset);
+            if (data != 0 && (check ^ data) == key) {
+                return data;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * Stores the result of searching a position. If the position already has an entry and the new move is Move.NONE,
+     * the stored move is kept.
+     * @param key Zobrist key of the position
+     * @param move best move found, or Move.NONE
+     * @param score score of the position
+     * @param depth depth searched, 0 to 255
+     * @param bound UPPER, LOWER or EXACT
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        long bucket = key & bucketMask;
+        ByteBuffer chunk = chunks[(int) (bucket >>> bucketsPerChunkShift)];
+        int firstOffset = bucketOffset(bucket);
+        int currentAge = age;
+        int replaceOffset = firstOffset;
+        int replaceValue = Integer.MAX_VALUE;
+        for (int slot = 0, offset = firstOffset; slot < BUCKET_ENTRIES; slot++, offset += ENTRY_BYTES) {
+            long data = (long) LONGS.getOpaque(chunk, offset + Long.BYTES);
+            long check = (long) LONGS.getOpaque(chunk, offset);
+            if (data == 0) {
+                if (replaceValue > Integer.MIN_VALUE) {
+                    replaceOffset = offset;
+                    replaceValue = Integer.MIN_VALUE;
+                }
+                continue;
+            }
+            if ((check ^ data) == key) {
+                if (depth < getDepth(data) && bound != EXACT && getAge(data) == currentAge) {
+                    return;
+                }
+                if (move == Move.NONE) {
+                    move = getMove(data);
+                }
+                replaceOffset = offset;
+                break;
+            }
+            int value = getDepth(data) - 8 * ((currentAge - getAge(data)) & AGE_MASK);
+            if (value < replaceValue) {
+                replaceOffset = offset;
+                replaceValue = value;
+            }
+        }
+        long data = pack(move, score, depth, bound, currentAge);
+        LONGS.setOpaque(chunk, replaceOffset, key ^ data);
+        LONGS.setOpaque(chunk, replaceOffset + Long.BYTES, data);
+    }
+
+    /**
+     * Estimates how full the table is from its first buckets
+     * @return number of entries per thousand stored by the current search
+     */
+    public int getPermilleFull() {
+        ByteBuffer chunk = chunks[0];
+        int sampleBuckets = (int) Math.min(bucketCount, 250);
+        int used = 0;
+        int currentAge = age;
+        for (int offset = Long.BYTES; offset < sampleBuckets * BUCKET_BYTES; offset += ENTRY_BYTES) {
+            long data = (long) LONGS.getOpaque(chunk, offset);
+            if (data != 0 && getAge(data) == currentAge) {
+                used++;
+            }
+        }
+        return used * 1000 / (sampleBuckets * BUCKET_ENTRIES);
+    }
+
+    /**
+     * Packs entry data: the move in bits 0 to 31, the score in bits 32 to 47, the depth in bits 48 to 55, the bound in
+     * bits 56 and 57, and the age in bits 58 to 63. The bound is never 0, so packed data is never 0.
+     */
+    private static long pack(int move, int score, int depth, int bound, int age) {
+        return (move & 0xFFFFFFFFL) | (long) (score & 0xFFFF) << 32 | (long) (depth & 0xFF) << 48
+                | (long) bound << 56 | (long) age << 58;
+    }
+
+    /**
+     * @param data entry data from probe
+     * @return packed best move (see Move), or Move.NONE
+     */
+    public static int getMove(long data) {
+        return (int) data;
+    }
+
+    /**
+     * @param data entry data from probe
+     * @return stored score
+     */
+    public static int getScore(long data) {
+        return (short) (data >>> 32);
+    }
+
+    /**
+     * @param data entry data from probe
+     * @return depth the score was searched to
+     */
+    public static int getDepth(long data) {
+        return (int) (data >>> 48) & 0xFF;
+    }
+
+    /**
+     * @param data entry data from probe
+     * @return UPPER, LOWER or EXACT
+     */
+    public static int getBound(long data) {
+        return (int) (data >>> 56) & 0x3;
+    }
+
+    private static int getAge(long data) {
+        return (int) (data >>> 58);
+    }
+
+    private int bucketOffset(long bucket) {
+        return (int) (bucket & ((1L << bucketsPerChunkShift) - 1)) * BUCKET_BYTES;
+    }
+}
@@ -0,0 +1,307 @@
+package chess.io;
+
+import chess.Board;
+import chess.CompactBoard;
+import chess.Move;
+import chess.pieces.Orbit;
+import chess.pieces.Pawn;
+import chess.pieces.Piece;
+import chess.pieces.PieceCode;
+import chess.pieces.PieceType;
+
+import java.util.Arrays;
+
+/**
+ * Reads and writes positions in Forsyth-Edwards Notation, extended for this game. The placement field lists the rows
+ * from row 0 (Black's back row) down, separated by '/', with the usual letters PNBRQK plus T for Tiger and O for Orbit,
+ * upper case for White. Runs of empty squares are written as decimal numbers, so boards of every size up to
+ * Move.MAX_SIDE rows and columns round trip, and the number of rows and columns follows from the placement. Piece
+ * state goes in brackets after the letter, and only where it differs from the default: an Orbit's radius if it is not
+ * 3 ("O[5]", any int), and "[m]" for a Pawn that has moved while standing on its starting row or "[u]" for one that
+ * has not moved while standing elsewhere. A Pawn's starting row is row 1 for Black and the second to last row for
+ * White.
+ * <p>
+ * toFen(Board) and toBoard work on Pieces directly, so they take Orbits of any radius. parse and toFen(CompactBoard)
+ * go through piece codes, which hold radii up to PieceCode.MAX_ORBIT_RADIUS.
+ * <p>
+ * The second field is the side to move. The game has no castling, en passant or move clocks, so positions are
+ * written with "- - 0 1" and those fields are ignored when reading. The standard starting position is
+ * "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1".
+ */
+public final class Fen {
+
+    static final String LETTERS = "PNBRQKTO";
+    private static final int DEFAULT_ORBIT_RADIUS = 3;
+
+    /**
+     * Largest number of rows or columns, the most a packed move can address (see Move)
+     */
+    private static final int MAX_SIDE = Move.MAX_SIDE;
+
+    private Fen() {
+    }
+
+    /**
+     * Writes the position on a board. Pieces are read straight from the board, so Orbits of any radius are written.
+     * @param board board to write, left unchanged
+     * @return FEN string
+     */
+    public static String toFen(Board board) {
+        StringBuilder fen = new StringBuilder();
+        for (int rowIter = 0; rowIter < board.getRows(); rowIter++) {
+            if (rowIter > 0) {
+                fen.append('/');
+            }
+            int empty = 0;
+            for (int colIter = 0; colIter < board.getCols(); colIter++) {
+                Piece piece = board.getPiece(rowIter, colIter);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                appendPiece(fen, piece, rowIter, board.getRows());
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+        }
+        return fen.append(board.isBlackTurn() ? " b" : " w").append(" - - 0 1").toString();
+    }
+
+    /**
+     * Writes a position
+     * @param position position to write
+     * @return FEN string
+     */
+    public static String toFen(CompactBoard position) {
+        StringBuilder fen = new StringBuilder();
+        for (int rowIter = 0; rowIter < position.getRows(); rowIter++) {
+            if (rowIter > 0) {
+                fen.append('/');
+            }
+            int empty = 0;
+            for (int colIter = 0; colIter < position.getCols(); colIter++) {
+                byte code = position.getCode(rowIter, colIter);
+                if (code == PieceCode.EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append(empty);
+                    empty = 0;
+                }
+                appendPiece(fen, PieceCode.decode(code, rowIter, colIter), rowIter, position.getRows());
+            }
+            if (empty > 0) {
+                fen.append(empty);
+            }
+        }
+        return fen.append(position.isBlackTurn() ? " b" : " w").append(" - - 0 1").toString();
+    }
+
+    /**
+     * Reads a position onto a new Board. Orbits may have any radius.
+     * @param fen FEN string
+     * @return new Board with the position
+     * @throws IllegalArgumentException if the string is not a valid position
+     */
+    public static Board toBoard(String fen) {
+        Placement placement = parsePlacement(fen);
+        Board board = Board.empty(placement.rows, placement.cols);
+        for (Piece piece : placement.pieces) {
+            if (piece != null) {
+                board.setPiece(piece.getRowCoord(), piece.getColCoord(), piece);
+            }
+        }
+        board.setBlackTurn(placement.isBlackTurn);
+        return board;
+    }
+
+    /**
+     * Reads a position
+     * @param fen FEN string
+     * @return CompactBoard of the position
+     * @throws IllegalArgumentException if the string is not a valid position, or holds an Orbit whose radius does not
+     *                                  fit in a piece code (see PieceCode)
+     */
+    public static CompactBoard parse(String fen) {
+        Placement placement = parsePlacement(fen);
+        byte[] squares = new byte[placement.pieces.length];
+        for (int square = 0; square < squares.length; square++) {
+            squares[square] = PieceCode.encode(placement.pieces[square]);
+        }
+        return new CompactBoard(placement.rows, placement.cols, squares, placement.isBlackTurn);
+    }
+
+    /**
+     * Pieces of a parsed FEN, indexed by row * cols + column with null for an empty square, and the side to move
+     */
+    private static final class Placement {
+        private final int rows;
+        private final int cols;
+        private final Piece[] pieces;
+        private final boolean isBlackTurn;
+
+        private Placement(int rows, int cols, Piece[] pieces, boolean isBlackTurn) {
+            this.rows = rows;
+            this.cols = cols;
+            this.pieces = pieces;
+            this.isBlackTurn = isBlackTurn;
+        }
+    }
+
+    private static Placement parsePlacement(String fen) {
+        String[] fields = fen.trim().split("\\s+");
+        if (fields[0].isEmpty()) {
+            throw new IllegalArgumentException("Empty FEN");
+        }
+        boolean isBlackTurn = false;
+        if (fields.length > 1) {
+            if (!fields[1].equals("w") && !fields[1].equals("b")) {
+                throw new IllegalArgumentException("Bad side to move: " + fields[1]);
+            }
+            isBlackTurn = fields[1].equals("b");
+        }
+        String[] rowTexts = fields[0].split("/", -1);
+        int rows = rowTexts.length;
+        if (rows > MAX_SIDE) {
+            throw new IllegalArgumentException("FEN has " + rows + " rows, at most " + MAX_SIDE + " are supported");
+        }
+        int cols = -1;
+        Piece[][] rowPieces = new Piece[rows][];
+        for (int rowIter = 0; rowIter < rows; rowIter++) {
+            rowPieces[rowIter] = parseRow(rowTexts[rowIter], rowIter, rows);
+            if (cols >= 0 && rowPieces[rowIter].length != cols) {
+                throw new IllegalArgumentException("Row " + rowIter + " has " + rowPieces[rowIter].length
+                        + " squares, expected " + cols);
+            }
+            cols = rowPieces[rowIter].length;
+        }
+        if (cols == 0) {
+            throw new IllegalArgumentException("FEN has no columns");
+        }
+        Piece[] pieces = new Piece[rows * cols];
+        for (int rowIter = 0; rowIter < rows; rowIter++) {
+            System.arraycopy(rowPieces[rowIter], 0, pieces, rowIter * cols, cols);
+        }
+        return new Placement(rows, cols, pieces, isBlackTurn);
+    }
+
+    private static void appendPiece(StringBuilder fen, Piece piece, int rowCoord, int rows) {
+        PieceType type = piece.getType();
+        char letter = LETTERS.charAt(type.ordinal());
+        fen.append(piece.isBlack() ? Character.toLowerCase(letter) : letter);
+        int state;
+        if (type == PieceType.ORBIT) {
+            state = ((Orbit) piece).getRadius();
+        } else if (type == PieceType.PAWN) {
+            state = ((Pawn) piece).getIsFirstMove() ? 1 : 0;
+        } else {
+            return;
+        }
+        if (state == defaultPayload(type, piece.isBlack(), rowCoord, rows)) {
+            return;
+        }
+        if (type == PieceType.ORBIT) {
+            fen.append('[').append(state).append(']');
+        } else {
+            fen.append(state != 0 ? "[u]" : "[m]");
+        }
+    }
+
+    private static Piece[] parseRow(String text, int rowCoord, int rows) {
+        Piece[] pieces = new Piece[text.length()];
+        int count = 0;
+        int index = 0;
+        while (index < text.length()) {
+            char symbol = text.charAt(index);
+            if (Character.isDigit(symbol)) {
+                int end = index;
+                while (end < text.length() && Character.isDigit(text.charAt(end))) {
+                    end++;
+                }
+                int empty = end - index > 3 ? MAX_SIDE + 1 : Integer.parseInt(text.substring(index, end));
+                if (empty == 0) {
+                    throw new IllegalArgumentException("Empty run of 0 in row " + rowCoord);
+                }
+                if (count + empty > MAX_SIDE) {
+                    throw new IllegalArgumentException("Row " + rowCoord + " has more than " + MAX_SIDE + " squares");
+                }
+                if (count + empty > pieces.length) {
+                    pieces = Arrays.copyOf(pieces, Math.max(pieces.length * 2, count + empty));
+                }
+                count += empty;
+                index = end;
+                continue;
+            }
+            int type = LETTERS.indexOf(Character.toUpperCase(symbol));
+            if (type < 0) {
+                throw new IllegalArgumentException("Unknown piece letter '" + symbol + "' in row " + rowCoord);
+            }
+            boolean isBlack = Character.isLowerCase(symbol);
+            PieceType pieceType = PieceType.values()[type];
+            String modifier = null;
+            index++;
+            if (index < text.length() && text.charAt(index) == '[') {
+                int end = text.indexOf(']', index);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unclosed '[' in row " + rowCoord);
+                }
+                modifier = text.substring(index + 1, end);
+                index = end + 1;
+            }
+            int state = modifier == null ? defaultPayload(pieceType, isBlack, rowCoord, rows)
+                    : parseModifier(modifier, pieceType, rowCoord);
+            if (count == MAX_SIDE) {
+                throw new IllegalArgumentException("Row " + rowCoord + " has more than " + MAX_SIDE + " squares");
+            }
+            if (count == pieces.length) {
+                pieces = Arrays.copyOf(pieces, pieces.length * 2 + 1);
+            }
+            pieces[count] = pieceType == PieceType.ORBIT ? new Orbit(rowCoord, count, isBlack, state)
+                    : PieceCode.decode(PieceCode.encode(pieceType, isBlack, state), rowCoord, count);
+            count++;
+        }
+        return Arrays.copyOf(pieces, count);
+    }
+
+    private static int parseModifier(String modifier, PieceType type, int rowCoord) {
+        if (type == PieceType.PAWN && (modifier.equals("m") || modifier.equals("u"))) {
+            return modifier.equals("u") ? 1 : 0;
+        }
+        if (type == PieceType.ORBIT && modifier.matches("-?[0-9]{1,10}")) {
+            try {
+                return Integer.parseInt(modifier);
+            } catch (NumberFormatException e) {
+                // out of int range, reported below
+            }
+        }
+        throw new IllegalArgumentException("Bad state [" + modifier + "] for " + type + " in row " + rowCoord);
+    }
+
+    /**
+     * @return true if a Pawn of the given color on the given row has its first move by default
+     */
+    static boolean isPawnStartRow(int rowCoord, int rows, boolean isBlack) {
+        return isBlack ? rowCoord == 1 : rowCoord == rows - 2;
+    }
+
+    /**
+     * Gets the state a piece has unless stated otherwise, which both FEN and PackedPosition leave out
+     * @param type type of the piece
+     * @param isBlack color of the piece
+     * @param rowCoord row the piece stands on
+     * @param rows number of rows of the board
+     * @return default payload of the piece's code (see PieceCode)
+     */
+    static int defaultPayload(PieceType type, boolean isBlack, int rowCoord, int rows) {
+        if (type == PieceType.PAWN) {
+            return isPawnStartRow(rowCoord, rows, isBlack) ? 1 : 0;
+        }
+        return type == PieceType.ORBIT ? DEFAULT_ORBIT_RADIUS : 0;
+    }
+}
@@ -0,0 +1,249 @@
+package chess.io;
+
+import chess.GameSession;
+import chess.Move;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only view of a GameStore file through memory-mapped windows. Games are visited in file order with a Cursor,
+ * which reads the flags and moves of the current game straight from the mapped window instead of copying them onto
+ * the heap, so an archive of millions of games can be scanned or replayed with constant memory. Only one window is
+ * mapped per cursor at a time, and a new one is mapped when a game crosses its end.
+ * <p>
+ * The archive sees the file as it was when it was opened; games appended later need a new GameArchive. A record cut
+ * short at the end of the file is treated as the end of the archive.
+ */
+public final class GameArchive implements Closeable {
+
+    /**
+     * Default size of a mapped window in bytes
+     */
+    public static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowSize;
+
+    private GameArchive(FileChannel channel, int windowSize) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+        this.windowSize = windowSize;
+        ByteBuffer magic = ByteBuffer.allocate(GameStore.MAGIC.length);
+        while (magic.hasRemaining()) {
+            if (channel.read(magic, magic.position()) < 0) {
+                break;
+            }
+        }
+        magic.flip();
+        if (magic.remaining() < GameStore.MAGIC.length || !magic.equals(ByteBuffer.wrap(GameStore.MAGIC))) {
+            throw new IOException("Not a game store file");
+        }
+    }
+
+    /**
+     * Opens a store file for reading with the default window size
+     * @param path file of the store
+     * @return new GameArchive
+     * @throws IOException if the file cannot be opened or is not a game store
+     */
+    public static GameArchive open(Path path) throws IOException {
+        return open(path, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * Opens a store file for reading
+     * @param path file of the store
+     * @param windowSize size of the mapped windows in bytes; a game larger than this gets a window of its own size
+     * @return new GameArchive
+     * @throws IOException if the file cannot be opened or is not a game store
+     */
+    public static GameArchive open(Path path, int windowSize) throws IOException {
+        if (windowSize < GameStore.RECORD_HEADER) {
+            throw new IllegalArgumentException("Window of " + windowSize + " bytes is too small");
+        }
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new GameArchive(channel, windowSize);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return length of the file when the archive was opened
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Creates a cursor before the first game
+     * @return new Cursor
+     */
+    public Cursor cursor() {
+        return new Cursor(GameStore.MAGIC.length);
+    }
+
+    /**
+     * Creates a cursor before the game at an offset returned by GameStore.append or Cursor.getOffset
+     * @param offset offset of a record in the file
+     * @return new Cursor, whose next call moves to the game at the offset
+     */
+    public Cursor cursor(long offset) {
+        Cursor cursor = new Cursor(GameStore.MAGIC.length);
+        cursor.seek(offset);
+        return cursor;
+    }
+
+    /**
+     * Counts the games by walking over the record headers
+     * @return number of complete games in the archive
+     */
+    public long countGames() {
+        long count = 0;
+        Cursor cursor = cursor();
+        while (cursor.next()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return offset just past the last complete record
+     */
+    long getValidLength() {
+        Cursor cursor = cursor();
+        boolean hasNext = cursor.next();
+        while (hasNext) {
+            hasNext = cursor.next();
+        }
+        return cursor.nextOffset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Position in the archive. A cursor starts before a game; each call to next moves it to the following game, whose
+     * fields are then read through the RecordedGame methods. A cursor is not thread safe, but any number of cursors
+     * can read one archive at the same time.
+     */
+    public final class Cursor implements RecordedGame {
+
+        private long nextOffset;
+        private long offset = -1;
+        private MappedByteBuffer window;
+        private long windowStart;
+        private int flags;
+        private int moveCount;
+
+        private Cursor(long nextOffset) {
+            this.nextOffset = nextOffset;
+        }
+
+        /**
+         * Moves to the next game
+         * @return true if there is a next game, false at the end of the archive
+         * @throws java.io.UncheckedIOException if mapping the file fails
+         */
+        public boolean next() {
+            if (nextOffset + GameStore.RECORD_HEADER > size) {
+                return false;
+            }
+            map(nextOffset, GameStore.RECORD_HEADER);
+            int header = window.getInt((int) (nextOffset - windowStart));
+            int length = GameStore.RECORD_HEADER + (header & GameStore.MAX_MOVES) * 2;
+            if (nextOffset + length > size) {
+                return false;
+            }
+            map(nextOffset, length);
+            offset = nextOffset;
+            nextOffset += length;
+            flags = header >>> 24;
+            moveCount = header & GameStore.MAX_MOVES;
+            return true;
+        }
+
+        /**
+         * Moves the cursor before the game at an offset, keeping its mapped window, so jumping between nearby games
+         * is cheaper than creating a cursor for each
+         * @param offset offset of a record in the file, as returned by GameStore.append or getOffset
+         */
+        public void seek(long offset) {
+            if (offset < GameStore.MAGIC.length || offset > size) {
+                throw new IllegalArgumentException("Offset " + offset + " is outside the archive");
+            }
+            nextOffset = offset;
+            this.offset = -1;
+            moveCount = 0;
+        }
+
+        /**
+         * @return offset of the current game's record in the file
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        @Override
+        public boolean isCustom() {
+            return (flags & GameStore.CUSTOM) != 0;
+        }
+
+        @Override
+        public boolean isBlackFirst() {
+            return (flags & GameStore.BLACK_FIRST) != 0;
+        }
+
+        @Override
+        public GameSession.Ending getEnding() {
+            return GameStore.getEnding(flags);
+        }
+
+        @Override
+        public boolean isWinnerBlack() {
+            return (flags & GameStore.WINNER_BLACK) != 0;
+        }
+
+        @Override
+        public int getMoveCount() {
+            return moveCount;
+        }
+
+        @Override
+        public int getMove(int index) {
+            if (offset < 0 || index < 0 || index >= moveCount) {
+                throw new IndexOutOfBoundsException("Move " + index + " of " + moveCount);
+            }
+            int position = (int) (offset - windowStart) + GameStore.RECORD_HEADER + index * 2;
+            int from = window.get(position) & 0xFF;
+            int to = window.get(position + 1) & 0xFF;
+            return Move.encode(from / GameStore.BOARD_SIZE, from % GameStore.BOARD_SIZE, to / GameStore.BOARD_SIZE,
+                    to % GameStore.BOARD_SIZE);
+        }
+
+        private void map(long start, int length) {
+            if (window != null && start >= windowStart && start + length <= windowStart + window.capacity()) {
+                return;
+            }
+            long mapLength = Math.min(Math.max(windowSize, length), size - start);
+            try {
+                window = channel.map(FileChannel.MapMode.READ_ONLY, start, mapLength);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            windowStart = start;
+        }
+    }
+}
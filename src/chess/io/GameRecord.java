@@ -0,0 +1,123 @@
+package chess.io;
+
+import chess.GameSession;
+
+import java.util.Arrays;
+
+/**
+ * Immutable game held on the heap, as written to a GameStore
+ */
+public final class GameRecord implements RecordedGame {
+
+    private final boolean isCustom;
+    private final boolean isBlackFirst;
+    private final int[] moves;
+    private final GameSession.Ending ending;
+    private final boolean isWinnerBlack;
+
+    /**
+     * Creates a record of a game
+     * @param isCustom true if the game used the custom setup with Tigers and Orbits
+     * @param isBlackFirst true if Black made the first move
+     * @param moves packed moves of the game, first move first, copied
+     * @param ending how the game ended, or null if it has not ended
+     * @param isWinnerBlack true if Black won
+     */
+    public GameRecord(boolean isCustom, boolean isBlackFirst, int[] moves, GameSession.Ending ending,
+                      boolean isWinnerBlack) {
+        this.isCustom = isCustom;
+        this.isBlackFirst = isBlackFirst;
+        this.moves = moves.clone();
+        this.ending = ending;
+        this.isWinnerBlack = ending != null && ending != GameSession.Ending.STALEMATE && isWinnerBlack;
+    }
+
+    /**
+     * Creates a record of the game in a session so far
+     * @param session session of the game
+     * @return new GameRecord, with no ending if the game is still going on
+     */
+    public static GameRecord of(GameSession session) {
+        int[] moves = session.getMoves();
+        boolean isBlackFirst = session.isBlackTurn() != (moves.length % 2 == 1);
+        return new GameRecord(session.isCustom(), isBlackFirst, moves, session.getEnding(), session.isWinnerBlack());
+    }
+
+    /**
+     * Copies a game, for example one read through a GameArchive.Cursor, onto the heap
+     * @param game game to copy
+     * @return new GameRecord
+     */
+    public static GameRecord copyOf(RecordedGame game) {
+        int[] moves = new int[game.getMoveCount()];
+        for (int index = 0; index < moves.length; index++) {
+            moves[index] = game.getMove(index);
+        }
+        return new GameRecord(game.isCustom(), game.isBlackFirst(), moves, game.getEnding(), game.isWinnerBlack());
+    }
+
+    @Override
+    public boolean isCustom() {
+        return isCustom;
+    }
+
+    @Override
+    public boolean isBlackFirst() {
+        return isBlackFirst;
+    }
+
+    @Override
+    public GameSession.Ending getEnding() {
+        return ending;
+    }
+
+    @Override
+    public boolean isWinnerBlack() {
+        return isWinnerBlack;
+    }
+
+    @Override
+    public int getMoveCount() {
+        return moves.length;
+    }
+
+    @Override
+    public int getMove(int index) {
+        return moves[index];
+    }
+
+    /**
+     * Gets the moves of the game
+     * @return new int[] of packed moves, first move first
+     */
+    public int[] getMoves() {
+        return moves.clone();
+    }
+
+    /**
+     * Two records are equal if they have the same setup, moves and result
+     * @param obj object to compare with
+     * @return true if obj is a GameRecord of the same game
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof GameRecord)) {
+            return false;
+        }
+        GameRecord other = (GameRecord) obj;
+        return isCustom == other.isCustom && isBlackFirst == other.isBlackFirst && ending == other.ending
+                && isWinnerBlack == other.isWinnerBlack && Arrays.equals(moves, other.moves);
+    }
+
+    /**
+     * @return hash code of the setup, moves and result, consistent with equals
+     */
+    @Override
+    public int hashCode() {
+        int hash = Arrays.hashCode(moves) * 31 + (ending == null ? 0 : ending.ordinal() + 1);
+        return ((hash * 2 + (isCustom ? 1 : 0)) * 2 + (isBlackFirst ? 1 : 0)) * 2 + (isWinnerBlack ? 1 : 0);
+    }
+}
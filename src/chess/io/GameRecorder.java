@@ -0,0 +1,35 @@
+package chess.io;
+
+import chess.GameSession;
+
+import java.io.IOException;
+
+/**
+ * Listener that appends every game of a session to a GameStore when it ends, by checkmate, stalemate or resignation.
+ * Each game is flushed to the file as soon as it is added, so finished games survive the program closing.
+ */
+public class GameRecorder implements GameSession.Listener {
+
+    private final GameStore store;
+
+    /**
+     * Creates a recorder; add it to a session with GameSession.addListener
+     * @param store store the games are appended to
+     */
+    public GameRecorder(GameStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Appends the finished game to the store. A failure to write is reported on System.err and does not stop the game.
+     */
+    @Override
+    public void gameOver(GameSession session, GameSession.Ending ending, boolean isWinnerBlack) {
+        try {
+            store.append(GameRecord.of(session));
+            store.flush();
+        } catch (IOException e) {
+            System.err.println("Could not record the game: " + e.getMessage());
+        }
+    }
+}
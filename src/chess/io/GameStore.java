@@ -0,0 +1,180 @@
+package chess.io;
+
+import chess.GameSession;
+import chess.Move;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only file of games in a compact binary format, read back with GameArchive. The file starts with the 4 byte
+ * MAGIC, followed by one record per game:
+ * <pre>
+ * flags           1 byte: bit 0 custom setup, bit 1 Black moved first, bit 2 Black won,
+ *                 bits 3-4 ending (0 none, otherwise GameSession.Ending ordinal + 1)
+ * move count      3 bytes, big endian
+ * moves           2 bytes per move: start square and end square, each row * 8 + column
+ * </pre>
+ * Games are played on the 8x8 boards of the standard and custom setups, so a move takes 2 bytes. Records are only ever
+ * added at the end, and a record cut short by a crash is dropped the next time the store is opened.
+ */
+public final class GameStore implements Closeable, Flushable {
+
+    /**
+     * First bytes of every game store file
+     */
+    static final byte[] MAGIC = {'C', 'G', 'S', '1'};
+
+    static final int RECORD_HEADER = 4;
+    static final int BOARD_SIZE = 8;
+    static final int MAX_MOVES = (1 << 24) - 1;
+    static final int CUSTOM = 1;
+    static final int BLACK_FIRST = 2;
+    static final int WINNER_BLACK = 4;
+    static final int ENDING_SHIFT = 3;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private long end;
+
+    private GameStore(FileChannel channel, long end) {
+        this.channel = channel;
+        this.end = end;
+    }
+
+    /**
+     * Opens a store for appending, creating the file if it does not exist. A record left incomplete at the end of the
+     * file is cut off.
+     * @param path file of the store
+     * @return new GameStore positioned at the end of the file
+     * @throws IOException if the file cannot be opened or is not a game store
+     */
+    public static GameStore open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            long end;
+            if (channel.size() == 0) {
+                writeFully(channel, ByteBuffer.wrap(MAGIC), 0);
+                end = MAGIC.length;
+            } else {
+                try (GameArchive archive = GameArchive.open(path)) {
+                    end = archive.getValidLength();
+                }
+                if (end < channel.size()) {
+                    channel.truncate(end);
+                }
+            }
+            return new GameStore(channel, end);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Adds a game at the end of the store. The record reaches the file when the buffer fills up, on flush or on close.
+     * @param game game to add
+     * @return offset of the new record in the file, which GameArchive.cursor(long) can seek to
+     * @throws IllegalArgumentException if the game has a move outside an 8x8 board or too many moves
+     * @throws IOException if writing fails
+     */
+    public long append(RecordedGame game) throws IOException {
+        int moveCount = game.getMoveCount();
+        if (moveCount > MAX_MOVES) {
+            throw new IllegalArgumentException("Game has " + moveCount + " moves, at most " + MAX_MOVES + " fit");
+        }
+        int length = RECORD_HEADER + moveCount * 2;
+        ByteBuffer target = buffer;
+        if (length > buffer.remaining()) {
+            flush();
+            if (length > buffer.capacity()) {
+                target = ByteBuffer.allocate(length);
+            }
+        }
+        GameSession.Ending ending = game.getEnding();
+        int flags = (game.isCustom() ? CUSTOM : 0) | (game.isBlackFirst() ? BLACK_FIRST : 0)
+                | (game.isWinnerBlack() ? WINNER_BLACK : 0)
+                | (ending == null ? 0 : ending.ordinal() + 1) << ENDING_SHIFT;
+        int start = target.position();
+        target.putInt(flags << 24 | moveCount);
+        for (int index = 0; index < moveCount; index++) {
+            int move = game.getMove(index);
+            if (Move.getFromRow(move) >= BOARD_SIZE || Move.getFromCol(move) >= BOARD_SIZE
+                    || Move.getToRow(move) >= BOARD_SIZE || Move.getToCol(move) >= BOARD_SIZE) {
+                target.position(start);
+                throw new IllegalArgumentException("Move " + Move.toString(move) + " is not on an 8x8 board");
+            }
+            target.put((byte) (Move.getFromRow(move) * BOARD_SIZE + Move.getFromCol(move)));
+            target.put((byte) (Move.getToRow(move) * BOARD_SIZE + Move.getToCol(move)));
+        }
+        long offset = end;
+        end += length;
+        if (target != buffer) {
+            target.flip();
+            writeFully(channel, target, offset);
+        }
+        return offset;
+    }
+
+    /**
+     * @return length of the file once every buffered record is written
+     */
+    public long size() {
+        return end;
+    }
+
+    /**
+     * Writes the buffered records to the file
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void flush() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        buffer.flip();
+        writeFully(channel, buffer, end - buffer.remaining());
+        buffer.clear();
+    }
+
+    /**
+     * Writes the buffered records and closes the file
+     * @throws IOException if writing fails
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer bytes, long position) throws IOException {
+        while (bytes.hasRemaining()) {
+            position += channel.write(bytes, position);
+        }
+    }
+
+    /**
+     * @param flags flags byte of a record
+     * @return GameSession.Ending stored in the flags, or null for none
+     * @throws IllegalArgumentException if the flags hold no valid ending
+     */
+    static GameSession.Ending getEnding(int flags) {
+        int ending = flags >>> ENDING_SHIFT & 3;
+        GameSession.Ending[] endings = GameSession.Ending.values();
+        if (ending > endings.length) {
+            throw new IllegalArgumentException("Bad ending in record flags " + flags);
+        }
+        return ending == 0 ? null : endings[ending - 1];
+    }
+}
@@ -0,0 +1,90 @@
+package chess.io;
+
+/**
+ * Sorting of pairs of longs kept in two parallel arrays, as used for index and book entries, without boxing them into
+ * objects
+ */
+final class LongPairs {
+
+    private LongPairs() {
+    }
+
+    /**
+     * Compares two pairs by key, then value
+     * @return negative, zero or positive as the first pair sorts before, with or after the second
+     */
+    static int compare(long key, long value, long otherKey, long otherValue) {
+        int result = Long.compare(key, otherKey);
+        return result != 0 ? result : Long.compare(value, otherValue);
+    }
+
+    /**
+     * Sorts parallel key and value arrays by key, then value
+     * @param keys keys to sort by first
+     * @param values values to sort by among equal keys, moved along with their keys
+     * @param from index of the first pair to sort
+     * @param to index after the last pair to sort
+     */
+    static void sort(long[] keys, long[] values, int from, int to) {
+        sortRange(keys, values, from, to - 1);
+    }
+
+    private static void sortRange(long[] keys, long[] values, int low, int high) {
+        while (high - low > 16) {
+            int middle = (low + high) >>> 1;
+            if (compare(keys[middle], values[middle], keys[low], values[low]) < 0) {
+                swap(keys, values, middle, low);
+            }
+            if (compare(keys[high], values[high], keys[low], values[low]) < 0) {
+                swap(keys, values, high, low);
+            }
+            if (compare(keys[high], values[high], keys[middle], values[middle]) < 0) {
+                swap(keys, values, high, middle);
+            }
+            long pivotKey = keys[middle];
+            long pivotValue = values[middle];
+            int left = low;
+            int right = high;
+            while (left <= right) {
+                while (compare(keys[left], values[left], pivotKey, pivotValue) < 0) {
+                    left++;
+                }
+                while (compare(keys[right], values[right], pivotKey, pivotValue) > 0) {
+                    right--;
+                }
+                if (left <= right) {
+                    swap(keys, values, left++, right--);
+                }
+            }
+            // recurse into the smaller half so the stack stays shallow
+            if (right - low < high - left) {
+                sortRange(keys, values, low, right);
+                low = left;
+            } else {
+                sortRange(keys, values, left, high);
+                high = right;
+            }
+        }
+        for (int index = low + 1; index <= high; index++) {
+            long key = keys[index];
+            long value = values[index];
+            int target = index - 1;
+            while (target >= low && compare(keys[target], values[target], key, value) > 0) {
+                keys[target + 1] = keys[target];
+                values[target + 1] = values[target];
+                target--;
+            }
+            keys[target + 1] = key;
+            values[target + 1] = value;
+        }
+    }
+
+    private static void swap(long[] keys, long[] values, int first, int second) {
+        long key = keys[first];
+        keys[first] = keys[second];
+        keys[second] = key;
+        long value = values[first];
+        values[first] = values[second];
+        values[second] = value;
+    }
+}
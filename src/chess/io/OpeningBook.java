@@ -0,0 +1,355 @@
+package chess.io;
+
+import chess.Board;
+import chess.GameSession;
+import chess.Move;
+import chess.MoveList;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Opening book in a layout modelled on Polyglot: a file of 16 byte entries sorted by position key, read through a
+ * memory mapping and searched by binary search. An entry is, big endian:
+ * <pre>
+ * key      8 bytes: Board.getZobristKey() of the position
+ * move     2 bytes: bits 0-2 end column, 3-5 end rank, 6-8 start column, 9-11 start rank, rank being 7 - row
+ * weight   2 bytes: unsigned, how often the move should be chosen relative to the other moves of the position
+ * learn    4 bytes: unused, 0
+ * </pre>
+ * Entries of one position are next to each other, highest weight first. The keys are this game's Zobrist keys rather
+ * than Polyglot's, so books are not interchangeable with other programs. Each setup of Board(boolean) gets a book of
+ * its own, built with build from the archived games of that setup.
+ */
+public final class OpeningBook implements Closeable {
+
+    /**
+     * Plies of each game that build puts in a book unless told otherwise
+     */
+    public static final int DEFAULT_MAX_PLY = 16;
+
+    private static final int ENTRY = 16;
+    private static final int SIDE = 8;
+    private static final int MAX_WEIGHT = 0xFFFF;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer entries;
+    private final int count;
+    private final MoveList legalMoves = new MoveList();
+
+    private OpeningBook(FileChannel channel) throws IOException {
+        this.channel = channel;
+        long size = channel.size();
+        if (size % ENTRY != 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("Not an opening book file");
+        }
+        this.entries = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        this.count = (int) (size / ENTRY);
+    }
+
+    /**
+     * Opens a book file
+     * @param path book file
+     * @return new OpeningBook
+     * @throws IOException if the file cannot be opened or is not a book
+     */
+    public static OpeningBook open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new OpeningBook(channel);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return number of entries in the book
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Gets the book moves of a position
+     * @param key Zobrist key of the position
+     * @return int[] of packed moves, highest weight first, empty if the position is not in the book
+     */
+    public int[] getMoves(long key) {
+        int first = lowerBound(key);
+        int last = first;
+        while (last < count && getKey(last) == key) {
+            last++;
+        }
+        int[] moves = new int[last - first];
+        for (int entry = first; entry < last; entry++) {
+            moves[entry - first] = getMove(entry);
+        }
+        return moves;
+    }
+
+    /**
+     * Gets the weight of a book move
+     * @param key Zobrist key of the position
+     * @param move packed move
+     * @return weight of the move, 0 if it is not in the book
+     */
+    public int getWeight(long key, int move) {
+        for (int entry = lowerBound(key); entry < count && getKey(entry) == key; entry++) {
+            if (getMove(entry) == move) {
+                return getWeight(entry);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Chooses a book move for the side to move on a board, each legal book move with a chance proportional to its
+     * weight. Moves that are not legal on the board, which can only come from a key collision, are skipped.
+     * @param board board with the position, its turn set to the side to move
+     * @param random source of the choice
+     * @return packed move, or Move.NONE if the position has no legal book move
+     */
+    public synchronized int pickMove(Board board, Random random) {
+        long key = board.getZobristKey();
+        int first = lowerBound(key);
+        if (first == count || getKey(first) != key) {
+            return Move.NONE;
+        }
+        board.generateLegalMoves(board.isBlackTurn(), legalMoves);
+        long total = 0;
+        int last = first;
+        for (; last < count && getKey(last) == key; last++) {
+            if (legalMoves.contains(getMove(last))) {
+                total += getWeight(last);
+            }
+        }
+        if (total == 0) {
+            return Move.NONE;
+        }
+        long choice = (long) (random.nextDouble() * total);
+        for (int entry = first; entry < last; entry++) {
+            if (legalMoves.contains(getMove(entry))) {
+                choice -= getWeight(entry);
+                if (choice < 0) {
+                    return getMove(entry);
+                }
+            }
+        }
+        return Move.NONE;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Builds a book from the games of one setup in an archive. Every move played in the first maxPly plies of a game
+     * scores 2 for the mover if the mover went on to win, 1 for a stalemate or an unfinished game and 0 for a loss.
+     * The weight of a move is its total score, scaled down to fit 16 bits when needed. Moves with a weight below
+     * minWeight are left out.
+     * @param archive archive to read
+     * @param isCustom true to use the games of the custom setup, false for the standard setup
+     * @param maxPly number of plies of each game to use
+     * @param minWeight smallest total score a move needs to go in the book
+     * @param path book file to write; it is replaced atomically once complete
+     * @return number of entries written
+     * @throws IOException if writing the book fails
+     */
+    public static int build(GameArchive archive, boolean isCustom, int maxPly, int minWeight, Path path)
+            throws IOException {
+        BookBuilder builder = new BookBuilder();
+        Board[] startBoards = new Board[2];
+        GameArchive.Cursor game = archive.cursor();
+        while (game.next()) {
+            if (game.isCustom() != isCustom) {
+                continue;
+            }
+            int side = game.isBlackFirst() ? 1 : 0;
+            if (startBoards[side] == null) {
+                startBoards[side] = game.createStartBoard();
+            }
+            Board board = startBoards[side];
+            int plies = Math.min(maxPly, game.getMoveCount());
+            for (int ply = 0; ply < plies; ply++) {
+                int move = game.getMove(ply);
+                boolean isMoverBlack = board.isBlackTurn();
+                int score = 1;
+                if (game.getEnding() != null && game.getEnding() != GameSession.Ending.STALEMATE) {
+                    score = game.isWinnerBlack() == isMoverBlack ? 2 : 0;
+                }
+                builder.add(board.getZobristKey(), move, score);
+                board.makeMove(move);
+            }
+            for (int ply = 0; ply < plies; ply++) {
+                board.unmakeMove();
+            }
+        }
+        return builder.write(path, minWeight);
+    }
+
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (getKey(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private long getKey(int entry) {
+        return entries.getLong(entry * ENTRY);
+    }
+
+    private int getMove(int entry) {
+        return decodeMove(entries.getShort(entry * ENTRY + 8) & 0xFFFF);
+    }
+
+    private int getWeight(int entry) {
+        return entries.getShort(entry * ENTRY + 10) & 0xFFFF;
+    }
+
+    private static int encodeMove(int move) {
+        return Move.getToCol(move) | (SIDE - 1 - Move.getToRow(move)) << 3 | Move.getFromCol(move) << 6
+                | (SIDE - 1 - Move.getFromRow(move)) << 9;
+    }
+
+    private static int decodeMove(int bookMove) {
+        return Move.encode(SIDE - 1 - (bookMove >>> 9 & 7), bookMove >>> 6 & 7, SIDE - 1 - (bookMove >>> 3 & 7),
+                bookMove & 7);
+    }
+
+    /**
+     * Collects (key, move, score) triples as pairs of longs, the value holding the move in its high and the score in
+     * its low 32 bits, and merges repeats of the same key and move whenever the arrays fill up, so memory grows with
+     * the number of distinct moves rather than the number of games
+     */
+    private static final class BookBuilder {
+
+        private long[] keys = new long[1 << 16];
+        private long[] values = new long[1 << 16];
+        private int size;
+
+        void add(long key, int move, int score) {
+            if (size == keys.length) {
+                merge();
+                if (size > keys.length / 2) {
+                    keys = Arrays.copyOf(keys, keys.length * 2);
+                    values = Arrays.copyOf(values, values.length * 2);
+                }
+            }
+            keys[size] = key;
+            values[size] = (long) encodeMove(move) << 32 | score;
+            size++;
+        }
+
+        /**
+         * Sorts the pairs and adds up the scores of each key and move into one pair
+         */
+        void merge() {
+            LongPairs.sort(keys, values, 0, size);
+            int merged = 0;
+            for (int index = 0; index < size; index++) {
+                if (merged > 0 && keys[merged - 1] == keys[index]
+                        && values[merged - 1] >>> 32 == values[index] >>> 32) {
+                    long score = Math.min((values[merged - 1] & 0xFFFFFFFFL) + (values[index] & 0xFFFFFFFFL),
+                            Integer.MAX_VALUE);
+                    values[merged - 1] = values[merged - 1] >>> 32 << 32 | score;
+                } else {
+                    keys[merged] = keys[index];
+                    values[merged] = values[index];
+                    merged++;
+                }
+            }
+            size = merged;
+        }
+
+        int write(Path path, int minWeight) throws IOException {
+            merge();
+            long maxScore = 1;
+            for (int index = 0; index < size; index++) {
+                maxScore = Math.max(maxScore, values[index] & 0xFFFFFFFFL);
+            }
+            Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+            int written = 0;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath),
+                    1 << 16))) {
+                int first = 0;
+                while (first < size) {
+                    int last = first;
+                    while (last < size && keys[last] == keys[first]) {
+                        last++;
+                    }
+                    sortByScore(first, last);
+                    for (int index = first; index < last; index++) {
+                        long score = values[index] & 0xFFFFFFFFL;
+                        long weight = maxScore > MAX_WEIGHT ? score * MAX_WEIGHT / maxScore : score;
+                        if (score < minWeight || weight == 0) {
+                            continue;
+                        }
+                        out.writeLong(keys[index]);
+                        out.writeShort((int) (values[index] >>> 32));
+                        out.writeShort((int) weight);
+                        out.writeInt(0);
+                        written++;
+                    }
+                    first = last;
+                }
+            }
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return written;
+        }
+
+        /**
+         * Orders the moves of one position by score, highest first
+         */
+        private void sortByScore(int first, int last) {
+            for (int index = first + 1; index < last; index++) {
+                long value = values[index];
+                int target = index - 1;
+                while (target >= first && (values[target] & 0xFFFFFFFFL) < (value & 0xFFFFFFFFL)) {
+                    values[target + 1] = values[target];
+                    target--;
+                }
+                values[target + 1] = value;
+            }
+        }
+    }
+
+    /**
+     * Builds a book from a game store file. Arguments: the store file, the book file to write, "custom" for the Tiger
+     * and Orbit setup or "standard", and optionally the number of plies per game (default DEFAULT_MAX_PLY) and the
+     * smallest weight to keep (default 1)
+     * @param args command line arguments
+     * @throws IOException if reading the store or writing the book fails
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: OpeningBook <store> <book> standard|custom [maxPly] [minWeight]");
+            return;
+        }
+        int maxPly = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_MAX_PLY;
+        int minWeight = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+        try (GameArchive archive = GameArchive.open(Paths.get(args[0]))) {
+            int entries = build(archive, args[2].equals("custom"), maxPly, minWeight, Paths.get(args[1]));
+            System.out.println("Wrote " + entries + " entries to " + args[1]);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package chess.io;
+
+import chess.Board;
+import chess.GameSession;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Opening explorer over a game archive: for a position, the moves played from it in the archived games with how often
+ * each was played and how those games ended. The games are found with a PositionIndex, and only the record of each
+ * game is read from the archive, at the ply where it reached the position, so nothing is replayed.
+ */
+public class OpeningExplorer {
+
+    /**
+     * Statistics of one move played from a position
+     */
+    public static final class MoveStats {
+
+        private final int move;
+        private int games;
+        private int whiteWins;
+        private int blackWins;
+        private int draws;
+
+        private MoveStats(int move) {
+            this.move = move;
+        }
+
+        /**
+         * @return packed move (see Move)
+         */
+        public int getMove() {
+            return move;
+        }
+
+        /**
+         * @return number of games in which the move was played from the position
+         */
+        public int getGames() {
+            return games;
+        }
+
+        /**
+         * @return number of those games that White won
+         */
+        public int getWhiteWins() {
+            return whiteWins;
+        }
+
+        /**
+         * @return number of those games that Black won
+         */
+        public int getBlackWins() {
+            return blackWins;
+        }
+
+        /**
+         * @return number of those games that ended in a stalemate
+         */
+        public int getDraws() {
+            return draws;
+        }
+
+        /**
+         * Gets the share of the games won by one color, counting draws as half a win. Games stored before they ended
+         * count as neither.
+         * @param isBlack color to score
+         * @return score from 0 to 1, 0 if the move has no games
+         */
+        public double getWinRate(boolean isBlack) {
+            if (games == 0) {
+                return 0;
+            }
+            return ((isBlack ? blackWins : whiteWins) + draws * 0.5) / games;
+        }
+    }
+
+    private final PositionIndex index;
+    private final GameArchive archive;
+
+    /**
+     * Creates an explorer
+     * @param index index of the archive's games
+     * @param archive archive the index was built from
+     */
+    public OpeningExplorer(PositionIndex index, GameArchive archive) {
+        this.index = index;
+        this.archive = archive;
+    }
+
+    /**
+     * @param board board with the position
+     * @return number of archived games that reached the position
+     */
+    public int getGameCount(Board board) {
+        return index.findGames(board).length;
+    }
+
+    /**
+     * Lists the moves played from a position. A game that reached the position more than once counts for the move it
+     * played the first time, and games that ended in the position count for no move.
+     * @param board board with the position
+     * @return List of MoveStats, most played move first
+     */
+    public List<MoveStats> explore(Board board) {
+        long[] entries = index.findEntries(board.getZobristKey());
+        Map<Integer, MoveStats> stats = new HashMap<>();
+        GameArchive.Cursor game = archive.cursor();
+        long lastOffset = -1;
+        for (long entry : entries) {
+            long offset = PositionIndex.getOffset(entry);
+            if (offset == lastOffset || offset >= archive.size()) {
+                continue;
+            }
+            lastOffset = offset;
+            game.seek(offset);
+            int ply = PositionIndex.getPly(entry);
+            if (!game.next() || ply >= game.getMoveCount()) {
+                continue;
+            }
+            MoveStats moveStats = stats.computeIfAbsent(game.getMove(ply), MoveStats::new);
+            moveStats.games++;
+            if (game.getEnding() == GameSession.Ending.STALEMATE) {
+                moveStats.draws++;
+            } else if (game.getEnding() != null) {
+                if (game.isWinnerBlack()) {
+                    moveStats.blackWins++;
+                } else {
+                    moveStats.whiteWins++;
+                }
+            }
+        }
+        List<MoveStats> moves = new ArrayList<>(stats.values());
+        moves.sort(Comparator.comparingInt(MoveStats::getGames).reversed()
+                .thenComparingInt(MoveStats::getMove));
+        return moves;
+    }
+}
@@ -0,0 +1,223 @@
+package chess.io;
+
+import chess.CompactBoard;
+import chess.pieces.PieceCode;
+import chess.pieces.PieceType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Compact binary encoding of a position, for storing and moving large numbers of positions. A record is:
+ * <pre>
+ * header          1 byte: bit 0 Black to move, bit 1 size follows, bit 2 piece states follow
+ * size            rows - 1 and cols - 1, one byte each, only for boards that are not 8x8
+ * occupancy       one bit per square in square index order, (rows * cols + 7) / 8 bytes
+ * pieces          one nibble per occupied square in the same order, low nibble first: type ordinal * 2 + 1 for Black
+ * piece states    only if bit 2 is set: a varint count, then for each piece whose state differs from the FEN default
+ *                 (see Fen) its varint position in the piece list and its PieceCode payload byte
+ * </pre>
+ * Records are self-delimiting, so they can be written back to back to a stream. A standard 8x8 position with 32
+ * pieces in their default states takes 25 bytes.
+ */
+public final class PackedPosition {
+
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int HAS_SIZE = 2;
+    private static final int HAS_STATES = 4;
+    private static final PieceType[] TYPES = PieceType.values();
+
+    private PackedPosition() {
+    }
+
+    /**
+     * Encodes a position
+     * @param position position to encode
+     * @return byte[] record
+     */
+    public static byte[] encode(CompactBoard position) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+        try {
+            write(position, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes a record made by encode
+     * @param record byte[] record
+     * @return CompactBoard of the position
+     * @throws IllegalArgumentException if the record is malformed, truncated or followed by extra bytes
+     */
+    public static CompactBoard decode(byte[] record) {
+        ByteArrayInputStream in = new ByteArrayInputStream(record);
+        try {
+            CompactBoard position = read(in);
+            if (position == null || in.available() > 0) {
+                throw new IllegalArgumentException("Record is empty or has extra bytes");
+            }
+            return position;
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed record: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Writes a position as one record
+     * @param position position to write
+     * @param out stream the record is written to
+     * @throws IOException if writing fails
+     */
+    public static void write(CompactBoard position, OutputStream out) throws IOException {
+        int rows = position.getRows();
+        int cols = position.getCols();
+        int squareCount = rows * cols;
+        byte[] occupancy = new byte[(squareCount + 7) >>> 3];
+        byte[] pieces = new byte[(squareCount + 1) >>> 1];
+        int pieceCount = 0;
+        int stateCount = 0;
+        int[] states = null;
+        for (int square = 0; square < squareCount; square++) {
+            byte code = position.getCode(square / cols, square % cols);
+            if (code == PieceCode.EMPTY) {
+                continue;
+            }
+            occupancy[square >>> 3] |= (byte) (1 << (square & 7));
+            PieceType type = PieceCode.getType(code);
+            boolean isBlack = PieceCode.isBlack(code);
+            pieces[pieceCount >>> 1] |= (byte) ((type.ordinal() * 2 + (isBlack ? 1 : 0)) << ((pieceCount & 1) * 4));
+            int payload = PieceCode.getPayload(code);
+            if (payload != Fen.defaultPayload(type, isBlack, square / cols, rows)) {
+                if (states == null) {
+                    states = new int[8];
+                } else if (stateCount == states.length) {
+                    states = Arrays.copyOf(states, stateCount * 2);
+                }
+                states[stateCount++] = pieceCount << 8 | payload;
+            }
+            pieceCount++;
+        }
+        boolean hasSize = rows != 8 || cols != 8;
+        out.write((position.isBlackTurn() ? BLACK_TO_MOVE : 0) | (hasSize ? HAS_SIZE : 0)
+                | (stateCount > 0 ? HAS_STATES : 0));
+        if (hasSize) {
+            out.write(rows - 1);
+            out.write(cols - 1);
+        }
+        out.write(occupancy);
+        out.write(pieces, 0, (pieceCount + 1) >>> 1);
+        if (stateCount > 0) {
+            writeVarint(out, stateCount);
+            for (int index = 0; index < stateCount; index++) {
+                writeVarint(out, states[index] >>> 8);
+                out.write(states[index] & 0xFF);
+            }
+        }
+    }
+
+    /**
+     * Reads one record
+     * @param in stream positioned at the start of a record
+     * @return CompactBoard of the position, or null if the stream ended before the record
+     * @throws EOFException if the stream ends inside the record
+     * @throws IOException if reading fails or the record is malformed
+     */
+    public static CompactBoard read(InputStream in) throws IOException {
+        int header = in.read();
+        if (header < 0) {
+            return null;
+        }
+        if ((header & ~(BLACK_TO_MOVE | HAS_SIZE | HAS_STATES)) != 0) {
+            throw new IOException("Bad record header " + header);
+        }
+        int rows = 8;
+        int cols = 8;
+        if ((header & HAS_SIZE) != 0) {
+            rows = readByte(in) + 1;
+            cols = readByte(in) + 1;
+        }
+        int squareCount = rows * cols;
+        byte[] occupancy = readFully(in, (squareCount + 7) >>> 3);
+        int pieceCount = 0;
+        for (byte bits : occupancy) {
+            pieceCount += Integer.bitCount(bits & 0xFF);
+        }
+        byte[] pieces = readFully(in, (pieceCount + 1) >>> 1);
+        byte[] squares = new byte[squareCount];
+        int[] pieceSquares = new int[pieceCount];
+        int pieceIndex = 0;
+        for (int square = 0; square < squareCount; square++) {
+            if ((occupancy[square >>> 3] & (1 << (square & 7))) == 0) {
+                continue;
+            }
+            int nibble = (pieces[pieceIndex >>> 1] >>> ((pieceIndex & 1) * 4)) & 0x0F;
+            PieceType type = TYPES[nibble >>> 1];
+            boolean isBlack = (nibble & 1) != 0;
+            squares[square] = PieceCode.encode(type, isBlack, Fen.defaultPayload(type, isBlack, square / cols, rows));
+            pieceSquares[pieceIndex++] = square;
+        }
+        if ((header & HAS_STATES) != 0) {
+            int stateCount = readVarint(in);
+            for (int index = 0; index < stateCount; index++) {
+                int piece = readVarint(in);
+                int payload = readByte(in);
+                if (piece < 0 || piece >= pieceCount || payload > PieceCode.MAX_ORBIT_RADIUS) {
+                    throw new IOException("Bad piece state " + piece + ":" + payload);
+                }
+                byte code = squares[pieceSquares[piece]];
+                squares[pieceSquares[piece]] = PieceCode.encode(PieceCode.getType(code), PieceCode.isBlack(code),
+                        payload);
+            }
+        }
+        return new CompactBoard(rows, cols, squares, (header & BLACK_TO_MOVE) != 0);
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int value = in.read();
+        if (value < 0) {
+            throw new EOFException("Record ends early");
+        }
+        return value;
+    }
+
+    private static byte[] readFully(InputStream in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int count = in.read(bytes, offset, length - offset);
+            if (count < 0) {
+                throw new EOFException("Record ends early");
+            }
+            offset += count;
+        }
+        return bytes;
+    }
+
+    private static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int next = readByte(in);
+            value |= (next & 0x7F) << shift;
+            if ((next & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint too long");
+    }
+}
@@ -0,0 +1,177 @@
+package chess.io;
+
+import chess.Board;
+import chess.GameSession;
+import chess.Move;
+import chess.MoveList;
+import chess.pieces.Piece;
+import chess.pieces.PieceType;
+
+import java.io.IOException;
+
+/**
+ * Writes games as Portable Game Notation text for export to other chess programs. Moves are written in Standard
+ * Algebraic Notation with files a-h from column 0 and rank 1 on the last row, using T and O for Tigers and Orbits. A
+ * game that does not start from the standard position with White to move gets SetUp and FEN tags (see Fen), and the
+ * custom setup is marked with a Variant tag.
+ */
+public final class Pgn {
+
+    private static final int LINE_LENGTH = 79;
+    private static final String STANDARD_START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w - - 0 1";
+
+    private Pgn() {
+    }
+
+    /**
+     * Writes one game
+     * @param game game to write
+     * @param out destination of the text
+     * @throws IOException if writing fails
+     */
+    public static void write(RecordedGame game, Appendable out) throws IOException {
+        Board board = game.createStartBoard();
+        String result = getResult(game);
+        tag(out, "Event", "Casual Game");
+        tag(out, "Site", "?");
+        tag(out, "Date", "????.??.??");
+        tag(out, "Round", "?");
+        tag(out, "White", "?");
+        tag(out, "Black", "?");
+        tag(out, "Result", result);
+        if (game.isCustom()) {
+            tag(out, "Variant", "Tigers and Orbits");
+        }
+        String fen = Fen.toFen(board);
+        if (!fen.equals(STANDARD_START)) {
+            tag(out, "SetUp", "1");
+            tag(out, "FEN", fen);
+        }
+        if (game.getEnding() == GameSession.Ending.RESIGNATION) {
+            tag(out, "Termination", "resignation");
+        }
+        out.append('\n');
+
+        MoveList legalMoves = new MoveList();
+        StringBuilder line = new StringBuilder();
+        int moveNumber = 1;
+        for (int index = 0; index < game.getMoveCount(); index++) {
+            int move = game.getMove(index);
+            boolean isMoverBlack = board.getPiece(Move.getFromRow(move), Move.getFromCol(move)).isBlack();
+            if (!isMoverBlack) {
+                appendToken(out, line, moveNumber + ".");
+            } else if (index == 0) {
+                appendToken(out, line, moveNumber + "...");
+            }
+            board.generateLegalMoves(isMoverBlack, legalMoves);
+            appendToken(out, line, toSan(board, move, legalMoves));
+            if (isMoverBlack) {
+                moveNumber++;
+            }
+        }
+        appendToken(out, line, result);
+        out.append(line).append("\n\n");
+    }
+
+    /**
+     * Writes every game of an archive, one after the other, reading each game straight from the archive
+     * @param archive archive to export
+     * @param out destination of the text
+     * @return number of games written
+     * @throws IOException if writing fails
+     */
+    public static long export(GameArchive archive, Appendable out) throws IOException {
+        long count = 0;
+        GameArchive.Cursor cursor = archive.cursor();
+        while (cursor.next()) {
+            write(cursor, out);
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Writes a move in Standard Algebraic Notation and makes it on the board
+     * @param board board before the move, left after the move
+     * @param move packed move to write, legal on the board
+     * @param legalMoves legal moves of the moving side, used to tell apart pieces that could make the same move
+     * @return String SAN of the move, with + for check and # for checkmate
+     */
+    static String toSan(Board board, int move, MoveList legalMoves) {
+        int fromRow = Move.getFromRow(move);
+        int fromCol = Move.getFromCol(move);
+        int toRow = Move.getToRow(move);
+        int toCol = Move.getToCol(move);
+        Piece piece = board.getPiece(fromRow, fromCol);
+        boolean isCapture = board.getPiece(toRow, toCol) != null;
+        StringBuilder san = new StringBuilder();
+        if (piece.getType() != PieceType.PAWN) {
+            san.append(Fen.LETTERS.charAt(piece.getType().ordinal()));
+        }
+        boolean isAmbiguous = false;
+        boolean isFileShared = false;
+        boolean isRankShared = false;
+        for (int index = 0; index < legalMoves.size(); index++) {
+            int other = legalMoves.get(index);
+            if (other == move || Move.getToRow(other) != toRow || Move.getToCol(other) != toCol) {
+                continue;
+            }
+            if (board.getPiece(Move.getFromRow(other), Move.getFromCol(other)).getType() != piece.getType()) {
+                continue;
+            }
+            isAmbiguous = true;
+            isFileShared |= Move.getFromCol(other) == fromCol;
+            isRankShared |= Move.getFromRow(other) == fromRow;
+        }
+        if (isAmbiguous && (!isFileShared || isRankShared) || piece.getType() == PieceType.PAWN && isCapture) {
+            san.append(getFile(fromCol));
+        }
+        if (isAmbiguous && isFileShared) {
+            san.append(getRank(board, fromRow));
+        }
+        if (isCapture) {
+            san.append('x');
+        }
+        san.append(getFile(toCol)).append(getRank(board, toRow));
+        board.makeMove(move);
+        if (board.isCheckmate(!piece.isBlack())) {
+            san.append('#');
+        } else if (board.isInCheck(!piece.isBlack())) {
+            san.append('+');
+        }
+        return san.toString();
+    }
+
+    private static String getResult(RecordedGame game) {
+        if (game.getEnding() == null) {
+            return "*";
+        }
+        if (game.getEnding() == GameSession.Ending.STALEMATE) {
+            return "1/2-1/2";
+        }
+        return game.isWinnerBlack() ? "0-1" : "1-0";
+    }
+
+    private static char getFile(int colCoord) {
+        return (char) ('a' + colCoord);
+    }
+
+    private static int getRank(Board board, int rowCoord) {
+        return board.getRows() - rowCoord;
+    }
+
+    private static void tag(Appendable out, String name, String value) throws IOException {
+        out.append('[').append(name).append(" \"").append(value).append("\"]\n");
+    }
+
+    private static void appendToken(Appendable out, StringBuilder line, String token) throws IOException {
+        if (line.length() > 0 && line.length() + 1 + token.length() > LINE_LENGTH) {
+            out.append(line).append('\n');
+            line.setLength(0);
+        }
+        if (line.length() > 0) {
+            line.append(' ');
+        }
+        line.append(token);
+    }
+}
@@ -0,0 +1,441 @@
+package chess.io;
+
+import chess.Board;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * On-disk index from position hash (see Board.getZobristKey) to the games of a GameArchive that reached the
+ * position. Every entry is 16 bytes: the position key, then the game's record offset shifted left by 16 bits with the
+ * ply at which the game reached the position in the low 16 bits.
+ * <p>
+ * The index is kept in two files. The segment file holds entries sorted by key and value and is read through
+ * memory-mapped pages, so a lookup is a binary search that touches a few pages. The delta file, next to it with the
+ * ".delta" suffix, takes the entries of games appended to the archive since the segment was written. Delta entries
+ * stay in file order on disk and are sorted in memory. Once the delta grows past a threshold, it is merged into a new
+ * segment, which replaces the old one with an atomic rename. Both files start with a 32 byte header: MAGIC, 4 unused
+ * bytes, the archive length the file covers and its number of entries.
+ * <p>
+ * Games are only replayed through a Board while they are being indexed; lookups read the index files alone. A
+ * PositionIndex is not thread safe.
+ */
+public final class PositionIndex implements Closeable {
+
+    /**
+     * Number of delta entries at which update merges the delta into the segment
+     */
+    public static final int DEFAULT_MERGE_THRESHOLD = 1 << 20;
+
+    static final byte[] MAGIC = {'C', 'P', 'I', '1'};
+
+    private static final int HEADER = 32;
+    private static final int ENTRY = 16;
+    private static final int PAGE_SHIFT = 26;
+    private static final long PAGE_MASK = (1L << PAGE_SHIFT) - 1;
+    private static final int PLY_BITS = 16;
+    private static final int MAX_PLY = (1 << PLY_BITS) - 1;
+    private static final int WRITE_BUFFER = 1 << 16;
+
+    private final Path segmentPath;
+    private final Path tempPath;
+    private final int mergeThreshold;
+    private final FileChannel delta;
+    private MappedByteBuffer[] pages;
+    private long segmentCount;
+    private long segmentLength;
+    private long indexedLength;
+    private long[] deltaKeys = new long[1024];
+    private long[] deltaValues = new long[1024];
+    private int deltaCount;
+    private boolean isDeltaSorted = true;
+    private final Board[] startBoards = new Board[4];
+
+    private PositionIndex(Path segmentPath, int mergeThreshold, FileChannel delta) {
+        this.segmentPath = segmentPath;
+        this.tempPath = segmentPath.resolveSibling(segmentPath.getFileName() + ".tmp");
+        this.mergeThreshold = mergeThreshold;
+        this.delta = delta;
+    }
+
+    /**
+     * Opens an index with the default merge threshold, creating empty index files if they do not exist
+     * @param path segment file of the index; the delta file is the same path with ".delta" added
+     * @return new PositionIndex
+     * @throws IOException if the files cannot be opened or are not index files
+     */
+    public static PositionIndex open(Path path) throws IOException {
+        return open(path, DEFAULT_MERGE_THRESHOLD);
+    }
+
+    /**
+     * Opens an index, creating empty index files if they do not exist
+     * @param path segment file of the index; the delta file is the same path with ".delta" added
+     * @param mergeThreshold number of delta entries at which update merges the delta into the segment
+     * @return new PositionIndex
+     * @throws IOException if the files cannot be opened or are not index files
+     */
+    public static PositionIndex open(Path path, int mergeThreshold) throws IOException {
+        if (!Files.exists(path)) {
+            try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(path))) {
+                writeHeader(out, GameStore.MAGIC.length, 0);
+            }
+        }
+        FileChannel delta = FileChannel.open(path.resolveSibling(path.getFileName() + ".delta"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        PositionIndex index = new PositionIndex(path, mergeThreshold, delta);
+        try {
+            index.mapSegment();
+            index.loadDelta();
+        } catch (IOException | RuntimeException e) {
+            delta.close();
+            throw e;
+        }
+        return index;
+    }
+
+    /**
+     * @return length of the archive whose games are all in the index; update indexes the games after it
+     */
+    public long getIndexedLength() {
+        return indexedLength;
+    }
+
+    /**
+     * @return number of entries in the index, one per position of every indexed game
+     */
+    public long getEntryCount() {
+        return segmentCount + deltaCount;
+    }
+
+    /**
+     * Indexes the games appended to an archive since the last update. The new entries are written to the delta file,
+     * which is merged into the segment once it reaches the merge threshold.
+     * @param archive archive of the store the index belongs to
+     * @return number of games indexed
+     * @throws IllegalArgumentException if the archive is shorter than the part already indexed
+     * @throws IOException if writing the index fails
+     */
+    public int update(GameArchive archive) throws IOException {
+        if (archive.size() < indexedLength) {
+            throw new IllegalArgumentException("Archive of " + archive.size() + " bytes is shorter than the "
+                    + indexedLength + " bytes already indexed");
+        }
+        int firstNew = deltaCount;
+        int games = 0;
+        long end = indexedLength;
+        GameArchive.Cursor cursor = archive.cursor(indexedLength);
+        while (cursor.next()) {
+            addGame(cursor);
+            games++;
+            end = cursor.getOffset() + GameStore.RECORD_HEADER + cursor.getMoveCount() * 2L;
+        }
+        if (games == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER);
+        long position = HEADER + (long) firstNew * ENTRY;
+        for (int entry = firstNew; entry < deltaCount; entry++) {
+            if (!buffer.hasRemaining()) {
+                position += writeBuffer(buffer, position);
+            }
+            buffer.putLong(deltaKeys[entry]).putLong(deltaValues[entry]);
+        }
+        writeBuffer(buffer, position);
+        indexedLength = end;
+        writeDeltaHeader();
+        if (deltaCount >= mergeThreshold) {
+            compact();
+        }
+        return games;
+    }
+
+    /**
+     * Merges the delta into a new segment file and empties the delta
+     * @throws IOException if writing the index fails
+     */
+    public void compact() throws IOException {
+        if (deltaCount == 0) {
+            return;
+        }
+        sortDelta();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath),
+                WRITE_BUFFER))) {
+            writeHeader(out, indexedLength, segmentCount + deltaCount);
+            long segmentEntry = 0;
+            int deltaEntry = 0;
+            while (segmentEntry < segmentCount || deltaEntry < deltaCount) {
+                boolean isFromSegment = deltaEntry == deltaCount || segmentEntry < segmentCount
+                        && LongPairs.compare(getKey(segmentEntry), getValue(segmentEntry), deltaKeys[deltaEntry],
+                        deltaValues[deltaEntry]) <= 0;
+                if (isFromSegment) {
+                    out.writeLong(getKey(segmentEntry));
+                    out.writeLong(getValue(segmentEntry));
+                    segmentEntry++;
+                } else {
+                    out.writeLong(deltaKeys[deltaEntry]);
+                    out.writeLong(deltaValues[deltaEntry]);
+                    deltaEntry++;
+                }
+            }
+        }
+        pages = null;
+        Files.move(tempPath, segmentPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        mapSegment();
+        deltaCount = 0;
+        delta.truncate(HEADER);
+        writeDeltaHeader();
+    }
+
+    /**
+     * Finds the games that reached the position on a board
+     * @param board board with the position
+     * @return long[] of the record offsets of the games, ascending, each game once
+     */
+    public long[] findGames(Board board) {
+        return findGames(board.getZobristKey());
+    }
+
+    /**
+     * Finds the games that reached a position
+     * @param key Zobrist key of the position
+     * @return long[] of the record offsets of the games, ascending, each game once
+     */
+    public long[] findGames(long key) {
+        long[] entries = findEntries(key);
+        int count = 0;
+        for (long entry : entries) {
+            long offset = entry >>> PLY_BITS;
+            if (count == 0 || entries[count - 1] != offset) {
+                entries[count++] = offset;
+            }
+        }
+        return Arrays.copyOf(entries, count);
+    }
+
+    /**
+     * Finds every time a game reached a position
+     * @param key Zobrist key of the position
+     * @return long[] of record offset shifted left by 16 bits plus ply, ascending
+     */
+    long[] findEntries(long key) {
+        sortDelta();
+        long first = lowerBound(key);
+        long last = first;
+        while (last < segmentCount && getKey(last) == key) {
+            last++;
+        }
+        int deltaFirst = deltaLowerBound(key);
+        int deltaLast = deltaFirst;
+        while (deltaLast < deltaCount && deltaKeys[deltaLast] == key) {
+            deltaLast++;
+        }
+        long[] entries = new long[Math.toIntExact(last - first) + deltaLast - deltaFirst];
+        int count = 0;
+        for (long entry = first; entry < last; entry++) {
+            entries[count++] = getValue(entry);
+        }
+        System.arraycopy(deltaValues, deltaFirst, entries, count, deltaLast - deltaFirst);
+        Arrays.sort(entries);
+        return entries;
+    }
+
+    /**
+     * @param entry value of an index entry
+     * @return record offset of the game
+     */
+    static long getOffset(long entry) {
+        return entry >>> PLY_BITS;
+    }
+
+    /**
+     * @param entry value of an index entry
+     * @return ply at which the game reached the position
+     */
+    static int getPly(long entry) {
+        return (int) (entry & MAX_PLY);
+    }
+
+    @Override
+    public void close() throws IOException {
+        pages = null;
+        delta.close();
+    }
+
+    private void addGame(GameArchive.Cursor game) {
+        int slot = (game.isCustom() ? 2 : 0) + (game.isBlackFirst() ? 1 : 0);
+        if (startBoards[slot] == null) {
+            startBoards[slot] = game.createStartBoard();
+        }
+        Board board = startBoards[slot];
+        long value = game.getOffset() << PLY_BITS;
+        int plies = Math.min(game.getMoveCount(), MAX_PLY);
+        addEntry(board.getZobristKey(), value);
+        for (int ply = 1; ply <= plies; ply++) {
+            board.makeMove(game.getMove(ply - 1));
+            addEntry(board.getZobristKey(), value | ply);
+        }
+        for (int ply = 0; ply < plies; ply++) {
+            board.unmakeMove();
+        }
+    }
+
+    private void addEntry(long key, long value) {
+        if (deltaCount == deltaKeys.length) {
+            deltaKeys = Arrays.copyOf(deltaKeys, deltaCount * 2);
+            deltaValues = Arrays.copyOf(deltaValues, deltaCount * 2);
+        }
+        deltaKeys[deltaCount] = key;
+        deltaValues[deltaCount] = value;
+        deltaCount++;
+        isDeltaSorted = false;
+    }
+
+    private void mapSegment() throws IOException {
+        try (FileChannel channel = FileChannel.open(segmentPath, StandardOpenOption.READ)) {
+            ByteBuffer header = readHeader(channel);
+            segmentLength = header.getLong(8);
+            segmentCount = header.getLong(16);
+            if (HEADER + segmentCount * ENTRY > channel.size()) {
+                throw new IOException("Index segment is truncated");
+            }
+            pages = new MappedByteBuffer[(int) ((segmentCount + PAGE_MASK) >>> PAGE_SHIFT)];
+            for (int page = 0; page < pages.length; page++) {
+                long first = (long) page << PAGE_SHIFT;
+                long entries = Math.min(PAGE_MASK + 1, segmentCount - first);
+                pages[page] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER + first * ENTRY, entries * ENTRY);
+            }
+        }
+        indexedLength = Math.max(indexedLength, segmentLength);
+    }
+
+    private void loadDelta() throws IOException {
+        if (delta.size() < HEADER) {
+            resetDelta();
+            return;
+        }
+        ByteBuffer header = readHeader(delta);
+        long deltaLength = header.getLong(8);
+        long count = header.getLong(16);
+        if (deltaLength <= segmentLength || HEADER + count * ENTRY > delta.size() || count > Integer.MAX_VALUE - 8) {
+            // the delta was already merged into the segment, or its last update did not finish
+            resetDelta();
+            return;
+        }
+        deltaKeys = new long[Math.max(1024, (int) count)];
+        deltaValues = new long[deltaKeys.length];
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER);
+        long position = HEADER;
+        while (deltaCount < count) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), (count - deltaCount) * ENTRY));
+            while (buffer.hasRemaining()) {
+                position += delta.read(buffer, position);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                addEntry(buffer.getLong(), buffer.getLong());
+            }
+        }
+        indexedLength = deltaLength;
+    }
+
+    private void resetDelta() throws IOException {
+        deltaCount = 0;
+        indexedLength = segmentLength;
+        delta.truncate(HEADER);
+        writeDeltaHeader();
+    }
+
+    private void writeDeltaHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        header.put(MAGIC).putInt(0).putLong(indexedLength).putLong(deltaCount).putLong(0);
+        writeBuffer(header, 0);
+        delta.force(false);
+    }
+
+    private int writeBuffer(ByteBuffer buffer, long position) throws IOException {
+        buffer.flip();
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            position += delta.write(buffer, position);
+        }
+        buffer.clear();
+        return length;
+    }
+
+    private static ByteBuffer readHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Not a position index file");
+            }
+        }
+        header.flip();
+        if (!header.duplicate().limit(MAGIC.length).equals(ByteBuffer.wrap(MAGIC))) {
+            throw new IOException("Not a position index file");
+        }
+        return header;
+    }
+
+    private static void writeHeader(DataOutputStream out, long indexedLength, long count) throws IOException {
+        out.write(MAGIC);
+        out.writeInt(0);
+        out.writeLong(indexedLength);
+        out.writeLong(count);
+        out.writeLong(0);
+    }
+
+    private long getKey(long entry) {
+        return pages[(int) (entry >>> PAGE_SHIFT)].getLong((int) (entry & PAGE_MASK) * ENTRY);
+    }
+
+    private long getValue(long entry) {
+        return pages[(int) (entry >>> PAGE_SHIFT)].getLong((int) (entry & PAGE_MASK) * ENTRY + 8);
+    }
+
+    private long lowerBound(long key) {
+        long low = 0;
+        long high = segmentCount;
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+            if (getKey(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private int deltaLowerBound(long key) {
+        int low = 0;
+        int high = deltaCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (deltaKeys[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void sortDelta() {
+        if (!isDeltaSorted) {
+            LongPairs.sort(deltaKeys, deltaValues, 0, deltaCount);
+            isDeltaSorted = true;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package chess.io;
+
+import chess.CompactBoard;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads the positions written by PositionWriter, one record at a time, from a buffered stream
+ */
+public class PositionReader implements Closeable {
+
+    private final InputStream in;
+    private long count;
+
+    /**
+     * Creates a reader on a stream. Closing the reader closes the stream.
+     * @param in stream to read from
+     */
+    public PositionReader(InputStream in) {
+        this.in = new BufferedInputStream(in, 1 << 16);
+    }
+
+    /**
+     * Reads the next position
+     * @return CompactBoard of the position, or null at the end of the stream
+     * @throws java.io.EOFException if the stream ends inside a record
+     * @throws IOException if reading fails or a record is malformed
+     */
+    public CompactBoard read() throws IOException {
+        CompactBoard position = PackedPosition.read(in);
+        if (position != null) {
+            count++;
+        }
+        return position;
+    }
+
+    /**
+     * @return number of positions read so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
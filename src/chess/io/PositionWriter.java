@@ -0,0 +1,64 @@
+package chess.io;
+
+import chess.Board;
+import chess.CompactBoard;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes positions to a stream as back to back PackedPosition records, buffered so that writing millions of positions
+ * does not make a system call for each one. Read them back with PositionReader.
+ */
+public class PositionWriter implements Closeable, Flushable {
+
+    private final OutputStream out;
+    private long count;
+
+    /**
+     * Creates a writer on a stream. Closing the writer closes the stream.
+     * @param out stream to write to
+     */
+    public PositionWriter(OutputStream out) {
+        this.out = new BufferedOutputStream(out, 1 << 16);
+    }
+
+    /**
+     * Writes the position on a board
+     * @param board board to write, left unchanged
+     * @throws IOException if writing fails
+     */
+    public void write(Board board) throws IOException {
+        write(new CompactBoard(board));
+    }
+
+    /**
+     * Writes a position
+     * @param position position to write
+     * @throws IOException if writing fails
+     */
+    public void write(CompactBoard position) throws IOException {
+        PackedPosition.write(position, out);
+        count++;
+    }
+
+    /**
+     * @return number of positions written so far
+     */
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,66 @@
+package chess.io;
+
+import chess.Board;
+import chess.GameSession;
+
+/**
+ * Read access to a game as it is kept in a game store: the setup it started from, its moves and how it ended. A
+ * GameRecord holds a game on the heap, while a GameArchive.Cursor reads the same fields straight from a mapped file.
+ */
+public interface RecordedGame {
+
+    /**
+     * @return true if the game used the custom setup with Tigers and Orbits
+     */
+    boolean isCustom();
+
+    /**
+     * @return true if Black made the first move
+     */
+    boolean isBlackFirst();
+
+    /**
+     * @return how the game ended, or null if it was stored before it ended
+     */
+    GameSession.Ending getEnding();
+
+    /**
+     * @return true if Black won; meaningless if the game has no ending or ended in a STALEMATE
+     */
+    boolean isWinnerBlack();
+
+    /**
+     * @return number of moves made in the game
+     */
+    int getMoveCount();
+
+    /**
+     * @param index index of the move, 0 for the first move
+     * @return packed move (see Move)
+     * @throws IndexOutOfBoundsException if index is not below getMoveCount()
+     */
+    int getMove(int index);
+
+    /**
+     * Creates a Board with the starting position of the game
+     * @return new Board, with the first player to move
+     */
+    default Board createStartBoard() {
+        Board board = new Board(isCustom());
+        board.setBlackTurn(isBlackFirst());
+        return board;
+    }
+
+    /**
+     * Replays the first moves of the game on a new Board
+     * @param moveCount number of moves to make, at most getMoveCount()
+     * @return new Board with the position after the moves
+     */
+    default Board replay(int moveCount) {
+        Board board = createStartBoard();
+        for (int index = 0; index < moveCount; index++) {
+            board.makeMove(getMove(index));
+        }
+        return board;
+    }
+}
@@ -1,6 +1,7 @@
 package chess.pieces;
 
 import chess.Board;
+import chess.MoveList;
 
 public class Bishop extends Piece {
     public Bishop(int rowCoord, int colCoord) {
@@ -24,6 +25,29 @@ public class Bishop extends Piece {
         return false;
     }
 
+    @Override
+    public void generateMoves(Board board, MoveList moves) {
+        if (MagicBitboards.fits(board)) {
+            addAttackMoves(board, MagicBitboards.bishopAttacks(getRowCoord() * 8 + getColCoord(),
+                    board.getOccupancy()), moves);
+            return;
+        }
+        addSlidingMoves(board, -1, -1, moves);
+        addSlidingMoves(board, -1, 1, moves);
+        addSlidingMoves(board, 1, -1, moves);
+        addSlidingMoves(board, 1, 1, moves);
+    }
+
+    @Override
+    public PieceType getType() {
+        return PieceType.BISHOP;
+    }
+
+    @Override
+    public Piece copy() {
+        return new Bishop(getRowCoord(), getColCoord(), isBlack());
+    }
+
 //    public boolean checkBishopMove(Board board, int newRow, int newCol, int currentRow, int currentCol) {
 //        if(Math.abs(currentCol - newCol) != Math.abs(currentRow - newRow)){
 //            return true;
@@ -1,6 +1,7 @@
 package chess.pieces;
 
 import chess.Board;
+import chess.MoveList;
 
 public class King extends Piece {
     /**
@@ -39,10 +40,46 @@ public class King extends Piece {
         if(newPiece != null && (newPiece.isBlack() == this.isBlack())) {
             return false;
         }
-
+        LeapTable table = board.getLeapTable(PieceType.KING, 0);
+        if(table != null) {
+            return table.reaches(board.getSquareIndex(currentRow, currentCol), newRow, newCol);
+        }
         if((Math.abs(currentCol - newCol) <= 1) &&  (Math.abs(currentRow-newRow) <= 1)){
             return true;
         }
         return false;
     }
+
+    /**
+     * Adds every move to an adjacent square that is not occupied by a piece of the same color
+     * @param board current board
+     * @param moves list the moves are appended to
+     */
+    @Override
+    public void generateMoves(Board board, MoveList moves) {
+        LeapTable table = board.getLeapTable(PieceType.KING, 0);
+        if (table != null) {
+            addLeapMoves(board, table, moves);
+            return;
+        }
+        int currentRow = this.getRowCoord();
+        int currentCol = this.getColCoord();
+        for (int rowMove = -1; rowMove < 2; rowMove++) {
+            for (int colMove = -1; colMove < 2; colMove++) {
+                if (rowMove != 0 || colMove != 0) {
+                    addMoveIfNotOwn(board, currentRow + rowMove, currentCol + colMove, moves);
+                }
+            }
+        }
+    }
+
+    @Override
+    public PieceType getType() {
+        return PieceType.KING;
+    }
+
+    @Override
+    public Piece copy() {
+        return new King(getRowCoord(), getColCoord(), isBlack());
+    }
 }
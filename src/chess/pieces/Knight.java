@@ -1,6 +1,7 @@
 package chess.pieces;
 
 import chess.Board;
+import chess.MoveList;
 
 public class Knight extends Piece {
     public Knight(int rowCoord, int colCoord) {
@@ -18,10 +19,43 @@ public class Knight extends Piece {
         if(newPiece != null && (newPiece.isBlack() == this.isBlack())) {
             return false;
         }
+        LeapTable table = board.getLeapTable(PieceType.KNIGHT, 0);
+        if(table != null) {
+            return table.reaches(board.getSquareIndex(currentRow, currentCol), newRow, newCol);
+        }
         if(((Math.abs(newRow - currentRow) == 2) && (Math.abs(newCol - currentCol) == 1)||
                 (Math.abs(newCol - currentCol) == 2 && Math.abs(newRow-currentRow) == 1))) {
             return true;
         }
         return false;
     }
+
+    @Override
+    public void generateMoves(Board board, MoveList moves) {
+        LeapTable table = board.getLeapTable(PieceType.KNIGHT, 0);
+        if (table != null) {
+            addLeapMoves(board, table, moves);
+            return;
+        }
+        int currentRow = this.getRowCoord();
+        int currentCol = this.getColCoord();
+        addMoveIfNotOwn(board, currentRow - 2, currentCol - 1, moves);
+        addMoveIfNotOwn(board, currentRow - 2, currentCol + 1, moves);
+        addMoveIfNotOwn(board, currentRow - 1, currentCol - 2, moves);
+        addMoveIfNotOwn(board, currentRow - 1, currentCol + 2, moves);
+        addMoveIfNotOwn(board, currentRow + 1, currentCol - 2, moves);
+        addMoveIfNotOwn(board, currentRow + 1, currentCol + 2, moves);
+        addMoveIfNotOwn(board, currentRow + 2, currentCol - 1, moves);
+        addMoveIfNotOwn(board, currentRow + 2, currentCol + 1, moves);
+    }
+
+    @Override
+    public PieceType getType() {
+        return PieceType.KNIGHT;
+    }
+
+    @Override
+    public Piece copy() {
+        return new Knight(getRowCoord(), getColCoord(), isBlack());
+    }
 }
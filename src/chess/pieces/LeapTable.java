@@ -0,0 +1,197 @@
+package chess.pieces;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Precomputed destinations of a leaping piece (Knight, King, the Tiger's jumps, or an Orbit of one radius) from every
+ * square of a board of one size. Destinations are stored as (row &lt;&lt; 8 | column), ready to be ORed into a packed
+ * Move, and boards with at most 64 squares also get one bitboard mask per square, so asking whether the piece reaches
+ * a square is a single bit test. Tables are immutable and shared by every Board of the same size.
+ */
+public final class LeapTable {
+
+    /**
+     * Boards with more squares than this do not get tables, and pieces compute their destinations instead
+     */
+    public static final int MAX_TABLE_SQUARES = 4096;
+
+    private static final int KNIGHT = 0;
+    private static final int KING = 1;
+    private static final int TIGER_JUMP = 2;
+    private static final int ORBIT = 3;
+    private static final ConcurrentHashMap<Long, LeapTable> TABLES = new ConcurrentHashMap<>();
+
+    private final int rows;
+    private final int cols;
+    private final int[] starts;
+    private final int[] destinations;
+    private final long[] masks;
+
+    private LeapTable(int kind, int radius, int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        int squareCount = rows * cols;
+        int[][] offsets = offsets(kind, radius);
+        starts = new int[squareCount + 1];
+        int[] found = new int[squareCount * offsets.length];
+        int count = 0;
+        for (int square = 0; square < squareCount; square++) {
+            starts[square] = count;
+            int row = square / cols;
+            int col = square % cols;
+            for (int[] offset : offsets) {
+                int newRow = row + offset[0];
+                int newCol = col + offset[1];
+                if (newRow >= 0 && newCol >= 0 && newRow < rows && newCol < cols) {
+                    found[count++] = newRow << 8 | newCol;
+                }
+            }
+        }
+        starts[squareCount] = count;
+        destinations = Arrays.copyOf(found, count);
+        if (squareCount <= 64) {
+            masks = new long[squareCount];
+            for (int square = 0; square < squareCount; square++) {
+                for (int index = starts[square]; index < starts[square + 1]; index++) {
+                    masks[square] |= 1L << ((destinations[index] >>> 8) * cols + (destinations[index] & 0xFF));
+                }
+            }
+        } else {
+            masks = null;
+        }
+    }
+
+    /**
+     * Gets the table of the given leaper for a board size, building and caching it on first use
+     * @param type KNIGHT, KING, TIGER (its 2 square jumps only; its captures use the KING table) or ORBIT
+     * @param radius radius of an Orbit, ignored for the other types
+     * @param rows number of rows of the board
+     * @param cols number of columns of the board
+     * @return LeapTable, or null if the board has more than MAX_TABLE_SQUARES squares
+     */
+    public static LeapTable get(PieceType type, int radius, int rows, int cols) {
+        if (rows * cols > MAX_TABLE_SQUARES) {
+            return null;
+        }
+        int kind;
+        switch (type) {
+            case KNIGHT:
+                kind = KNIGHT;
+                break;
+            case KING:
+                kind = KING;
+                break;
+            case TIGER:
+                kind = TIGER_JUMP;
+                break;
+            case ORBIT:
+                kind = ORBIT;
+                break;
+            default:
+                throw new IllegalArgumentException(type + " is not a leaping piece");
+        }
+        int tableRadius = kind == ORBIT ? clampRadius(radius, rows, cols) : 0;
+        long key = (long) kind << 56 | (long) tableRadius << 32 | (long) rows << 16 | cols;
+        return TABLES.computeIfAbsent(key, unused -> new LeapTable(kind, tableRadius, rows, cols));
+    }
+
+    /**
+     * Clamps an Orbit radius to the longest distance between two squares of a board, ceil(sqrt((rows - 1)^2 +
+     * (cols - 1)^2)), and to 0 from below. An Orbit with a larger radius reaches the same squares, so the clamped
+     * radius stands for it in tables and in the arithmetic of boards without tables.
+     * @param radius radius of an Orbit
+     * @param rows number of rows of the board
+     * @param cols number of columns of the board
+     * @return radius between 0 and the board's longest distance
+     */
+    public static int clampRadius(int radius, int rows, int cols) {
+        long farthest = (long) (rows - 1) * (rows - 1) + (long) (cols - 1) * (cols - 1);
+        int longest = (int) Math.ceil(Math.sqrt(farthest));
+        while ((long) longest * longest < farthest) {
+            longest++;
+        }
+        return Math.max(0, Math.min(radius, longest));
+    }
+
+    /**
+     * @param square square index (row * cols + column) of the piece
+     * @return index of the square's first destination in getDestinations
+     */
+    public int getStart(int square) {
+        return starts[square];
+    }
+
+    /**
+     * @param square square index (row * cols + column) of the piece
+     * @return index just past the square's last destination in getDestinations
+     */
+    public int getEnd(int square) {
+        return starts[square + 1];
+    }
+
+    /**
+     * Gets the destinations of every square, each as (row &lt;&lt; 8 | column). The destinations of a square are the
+     * entries from getStart(square) up to getEnd(square). The array must not be changed.
+     * @return int[] destinations
+     */
+    public int[] getDestinations() {
+        return destinations;
+    }
+
+    /**
+     * @return true if the table has bitboard masks, which boards of at most 64 squares do
+     */
+    public boolean hasMasks() {
+        return masks != null;
+    }
+
+    /**
+     * Checks whether the piece reaches a square, using the masks if the table has them
+     * @param square square index of the piece
+     * @param newRow row of the destination
+     * @param newCol column of the destination
+     * @return true if (newRow, newCol) is one of the square's destinations, false if it is off the board
+     */
+    public boolean reaches(int square, int newRow, int newCol) {
+        if (newRow < 0 || newCol < 0 || newRow >= rows || newCol >= cols) {
+            return false;
+        }
+        if (masks != null) {
+            return (masks[square] >>> (newRow * cols + newCol) & 1L) != 0;
+        }
+        int target = newRow << 8 | newCol;
+        for (int index = starts[square]; index < starts[square + 1]; index++) {
+            if (destinations[index] == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lists the (row, column) offsets of a leaper. Orbit offsets are every square within the radius, compared with
+     * integer squared distances.
+     */
+    private static int[][] offsets(int kind, int radius) {
+        switch (kind) {
+            case KNIGHT:
+                return new int[][] {{-2, -1}, {-2, 1}, {-1, -2}, {-1, 2}, {1, -2}, {1, 2}, {2, -1}, {2, 1}};
+            case KING:
+                return new int[][] {{-1, -1}, {-1, 0}, {-1, 1}, {0, -1}, {0, 1}, {1, -1}, {1, 0}, {1, 1}};
+            case TIGER_JUMP:
+                return new int[][] {{-2, 0}, {2, 0}, {0, -2}, {0, 2}};
+            default:
+                int count = 0;
+                int[][] offsets = new int[(2 * radius + 1) * (2 * radius + 1)][];
+                for (int rowMove = -radius; rowMove <= radius; rowMove++) {
+                    for (int colMove = -radius; colMove <= radius; colMove++) {
+                        if ((rowMove != 0 || colMove != 0) && rowMove * rowMove + colMove * colMove <= radius * radius) {
+                            offsets[count++] = new int[] {rowMove, colMove};
+                        }
+                    }
+                }
+                return Arrays.copyOf(offsets, count);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package chess.pieces;
+
+import chess.Board;
+
+/**
+ * Sliding attacks of Rooks and Bishops on the 8x8 board through magic bitboards. For every square, the occupied squares
+ * on the piece's lines that can block it (the edges never block) are multiplied by a magic number, and the top bits of
+ * the product index a table holding the attacks for that occupancy. All of a slider's attacks, up to and including the
+ * first piece in every direction, come from one mask, multiply, shift and load.
+ * <p>
+ * Squares are numbered row * 8 + column, like the Board's bitboards. The magic numbers below were found by main, which
+ * tries sparse random numbers from a fixed seed until one maps every occupancy of a square without a harmful
+ * collision. Searching takes millions of tries, so it is not done at class loading, which only fills the tables and
+ * checks that no two occupancies with different attacks share an entry.
+ */
+public final class MagicBitboards {
+
+    private static final int[][] ROOK_DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    private static final long[] BISHOP_MAGICS = {
+            0x01A0C20202002A00L, 0x2320810102008401L, 0x0408820402218000L, 0x10024081010C0040L,
+            0x4104042001041200L, 0x8400902420001100L, 0x001108220220001AL, 0xAA80240208040300L,
+            0x21C8089014080060L, 0x0000020214140090L, 0x0280040C0C104000L, 0x18B0022082084040L,
+            0x4004040420810801L, 0x4448008804402804L, 0x4081091401044000L, 0x20404C8848021008L,
+            0xC251800510100100L, 0x0620200802808200L, 0xA111000206020200L, 0x8001002020408000L,
+            0x0024011084A00006L, 0x202040020110010AL, 0x004A048088042300L, 0x004840A104208C20L,
+            0x0010C82044481000L, 0x0081041208080820L, 0x0040240008004408L, 0x2804010000200880L,
+            0x0504040000410050L, 0x100A008014100090L, 0x8212008007480848L, 0x0021020001328424L,
+            0x0001901000082008L, 0x0A01086000031400L, 0x0030140202440800L, 0x4084820080180480L,
+            0x0081010400C20020L, 0x8010010040020042L, 0x80241804A0360082L, 0x044C009201108440L,
+            0xA104020241301000L, 0x00808C10020B0922L, 0x0012042208000100L, 0x8000004012021041L,
+            0x8082400B02100B00L, 0x0040408808425680L, 0x20621A0441180400L, 0x4022240848808201L,
+            0x0004840120122000L, 0x1000420210420002L, 0xC800404044108100L, 0x4009800A10440000L,
+            0x011D010510440840L, 0x80008A2048408024L, 0x1062024418088201L, 0x3004410809250010L,
+            0x2820818409114080L, 0x0000042402080404L, 0x0200090020841000L, 0x0082090000842408L,
+            0x1010080060024424L, 0x1100600488100100L, 0x0022082204681210L, 0x0140288094008024L
+    };
+
+    private static final long[] ROOK_MAGICS = {
+            0xA080001820400080L, 0x0040002000401000L, 0x0180300160008008L, 0x0480040800801001L,
+            0x2A00081084204200L, 0x0480018012003400L, 0x0600010082000428L, 0x420002250C018042L,
+            0x0040800040002080L, 0x000040002000500CL, 0x2002004022001080L, 0x0026002200400810L,
+            0x2000808008000400L, 0x0022000200883104L, 0x2C88808001000200L, 0x1112000080420104L,
+            0x0100908000400020L, 0x0080808020004000L, 0x0008410010200300L, 0x0014808010000801L,
+            0x0080050011004800L, 0x00D1010002080400L, 0x3221540021080210L, 0x1000120005288244L,
+            0x020C400080248002L, 0x4020411200220082L, 0x8028100080200881L, 0x1210001100090020L,
+            0x005A005200084520L, 0x0080040080020080L, 0x00D6002200280401L, 0x440B210A00006884L,
+            0x0880401028800080L, 0x2000802008804000L, 0x2160001041002900L, 0x0800080080801000L,
+            0x0444820400800800L, 0x0000040080800200L, 0x0080028104001028L, 0x2808104102000894L,
+            0x0000800100450024L, 0x0000408102020020L, 0x2000200100110044L, 0x0110040008004040L,
+            0x0000080005010010L, 0x0002001088120044L, 0x0008100208040001L, 0x000100008045002AL,
+            0x0001002040800100L, 0x1602209200490200L, 0x1109100020008880L, 0x5000100100200900L,
+            0x0000040080080080L, 0x0003000204000900L, 0x4220080630035400L, 0x6140801100006080L,
+            0x1009234100800039L, 0x8000201200804102L, 0x5004100822004082L, 0x2802000440100822L,
+            0x0801008408001017L, 0x0002000108041062L, 0x8040121108129044L, 0x0400032411008242L
+    };
+
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final long[][] ROOK_ATTACKS = new long[64][];
+    private static final long[] BISHOP_MASKS = new long[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+    private static final long[][] BISHOP_ATTACKS = new long[64][];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            ROOK_MASKS[square] = slidingAttacks(square, 0, ROOK_DIRECTIONS, true);
+            ROOK_SHIFTS[square] = 64 - Long.bitCount(ROOK_MASKS[square]);
+            ROOK_ATTACKS[square] = fillTable(square, ROOK_DIRECTIONS, ROOK_MASKS[square], ROOK_MAGICS[square]);
+            BISHOP_MASKS[square] = slidingAttacks(square, 0, BISHOP_DIRECTIONS, true);
+            BISHOP_SHIFTS[square] = 64 - Long.bitCount(BISHOP_MASKS[square]);
+            BISHOP_ATTACKS[square] = fillTable(square, BISHOP_DIRECTIONS, BISHOP_MASKS[square],
+                    BISHOP_MAGICS[square]);
+        }
+    }
+
+    private MagicBitboards() {
+    }
+
+    /**
+     * Checks whether the board has the 8x8 layout the tables are built for
+     * @param board board to check
+     * @return true if the magic lookups can be used on the board
+     */
+    public static boolean fits(Board board) {
+        return board.getRows() == 8 && board.getCols() == 8;
+    }
+
+    /**
+     * Gets the squares a Rook on the given square attacks
+     * @param square square index (row * 8 + column) of the Rook
+     * @param occupancy bitboard of every occupied square
+     * @return long bitboard of the attacked squares, including the first occupied square in every direction
+     */
+    public static long rookAttacks(int square, long occupancy) {
+        return ROOK_ATTACKS[square][(int) (((occupancy & ROOK_MASKS[square]) * ROOK_MAGICS[square])
+                >>> ROOK_SHIFTS[square])];
+    }
+
+    /**
+     * Gets the squares a Bishop on the given square attacks
+     * @param square square index (row * 8 + column) of the Bishop
+     * @param occupancy bitboard of every occupied square
+     * @return long bitboard of the attacked squares, including the first occupied square in every direction
+     */
+    public static long bishopAttacks(int square, long occupancy) {
+        return BISHOP_ATTACKS[square][(int) (((occupancy & BISHOP_MASKS[square]) * BISHOP_MAGICS[square])
+                >>> BISHOP_SHIFTS[square])];
+    }
+
+    /**
+     * Gets the squares a sliding piece on the given square attacks
+     * @param type ROOK, BISHOP or QUEEN
+     * @param square square index (row * 8 + column) of the piece
+     * @param occupancy bitboard of every occupied square
+     * @return long bitboard of the attacked squares, or 0 if the type does not slide
+     */
+    public static long attacks(PieceType type, int square, long occupancy) {
+        switch (type) {
+            case ROOK:
+                return rookAttacks(square, occupancy);
+            case BISHOP:
+                return bishopAttacks(square, occupancy);
+            case QUEEN:
+                return rookAttacks(square, occupancy) | bishopAttacks(square, occupancy);
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Fills the attack table of a square, visiting every subset of the blocker mask
+     * @throws IllegalStateException if the magic sends two occupancies with different attacks to the same entry
+     */
+    private static long[] fillTable(int square, int[][] directions, long mask, long magic) {
+        int bits = Long.bitCount(mask);
+        long[] table = new long[1 << bits];
+        boolean[] isUsed = new boolean[table.length];
+        long subset = 0;
+        do {
+            int slot = (int) ((subset * magic) >>> (64 - bits));
+            long attacks = slidingAttacks(square, subset, directions, false);
+            if (isUsed[slot] && table[slot] != attacks) {
+                throw new IllegalStateException("Bad magic number for square " + square);
+            }
+            isUsed[slot] = true;
+            table[slot] = attacks;
+            subset = (subset - mask) & mask;
+        } while (subset != 0);
+        return table;
+    }
+
+    /**
+     * Tries candidate magics for a square until every subset of the blocker mask indexes a slot that is either empty
+     * or already holds the same attacks
+     */
+    private static long findMagic(int square, int[][] directions, long[] seed) {
+        long mask = slidingAttacks(square, 0, directions, true);
+        int bits = Long.bitCount(mask);
+        int subsetCount = 1 << bits;
+        long[] occupancies = new long[subsetCount];
+        long[] attacks = new long[subsetCount];
+        long subset = 0;
+        for (int index = 0; index < subsetCount; index++) {
+            occupancies[index] = subset;
+            attacks[index] = slidingAttacks(square, subset, directions, false);
+            subset = (subset - mask) & mask;
+        }
+        long[] table = new long[subsetCount];
+        int[] usedBy = new int[subsetCount];
+        for (int attempt = 1; ; attempt++) {
+            long magic = nextRandom(seed) & nextRandom(seed) & nextRandom(seed);
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) {
+                continue;
+            }
+            boolean isMagic = true;
+            for (int index = 0; index < subsetCount && isMagic; index++) {
+                int slot = (int) ((occupancies[index] * magic) >>> (64 - bits));
+                if (usedBy[slot] != attempt) {
+                    usedBy[slot] = attempt;
+                    table[slot] = attacks[index];
+                } else if (table[slot] != attacks[index]) {
+                    isMagic = false;
+                }
+            }
+            if (isMagic) {
+                return magic;
+            }
+        }
+    }
+
+    /**
+     * Walks the given directions from a square. With isMask set, the result is the blocker mask: every square the
+     * lines cross except the last one before the edge. Otherwise it is the attacks, stopping at the first occupied
+     * square.
+     */
+    private static long slidingAttacks(int square, long occupancy, int[][] directions, boolean isMask) {
+        long result = 0;
+        for (int[] direction : directions) {
+            int rowIter = square / 8 + direction[0];
+            int colIter = square % 8 + direction[1];
+            while (rowIter >= 0 && colIter >= 0 && rowIter < 8 && colIter < 8) {
+                int nextRow = rowIter + direction[0];
+                int nextCol = colIter + direction[1];
+                if (isMask && (nextRow < 0 || nextCol < 0 || nextRow >= 8 || nextCol >= 8)) {
+                    break;
+                }
+                long bit = 1L << (rowIter * 8 + colIter);
+                result |= bit;
+                if ((occupancy & bit) != 0) {
+                    break;
+                }
+                rowIter = nextRow;
+                colIter = nextCol;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * SplitMix64 step, so the magics do not depend on the java.util.Random implementation
+     */
+    private static long nextRandom(long[] seed) {
+        long value = (seed[0] += 0x9E3779B97F4A7C15L);
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    /**
+     * Searches for the magic numbers from the fixed seed and prints them as the ROOK_MAGICS and BISHOP_MAGICS tables
+     * @param args unused
+     */
+    public static void main(String[] args) {
+        long[] seed = {0x2545F4914F6CDD1DL};
+        long[] rookMagics = new long[64];
+        long[] bishopMagics = new long[64];
+        for (int square = 0; square < 64; square++) {
+            rookMagics[square] = findMagic(square, ROOK_DIRECTIONS, seed);
+            bishopMagics[square] = findMagic(square, BISHOP_DIRECTIONS, seed);
+        }
+        printTable("ROOK_MAGICS", rookMagics);
+        printTable("BISHOP_MAGICS", bishopMagics);
+    }
+
+    private static void printTable(String name, long[] magics) {
+        StringBuilder out = new StringBuilder("    private static final long[] " + name + " = {");
+        for (int square = 0; square < 64; square++) {
+            out.append(square % 4 == 0 ? "\n           " : "").append(String.format(" 0x%016XL,", magics[square]));
+        }
+        out.setLength(out.length() - 1);
+        System.out.println(out.append("\n    };"));
+    }
+}
@@ -1,6 +1,7 @@
 package chess.pieces;
 
 import chess.Board;
+import chess.MoveList;
 
 /**
  * Orbit Class is a custom chess piece class. It allows movements from the piece to any location on the board
@@ -73,8 +74,8 @@ public class Orbit extends Piece {
     /**
      * abstract canMove method defined by the Piece Class is overridden with the logic for the Orbit piece.
      * Orbits can move to any square that is within the radius for the piece. The distance from the current space
-     * to the new space is computed mathematically using the standard distance formula.
-     * taking the
+     * to the new space is looked up in the destination table for the board's size, or compared as whole-number squared
+     * distances on boards too large for tables.
      * @param board  current board
      * @param newRow new row coordinate to be moved to
      * @param newCol new column coordinate to be moved to
@@ -89,9 +90,54 @@ public class Orbit extends Piece {
         if(newPiece != null && (newPiece.isBlack() == this.isBlack())) {
             return false;
         }
-        if(Math.sqrt(Math.pow(Math.abs(newRow - currentRow), 2) + Math.pow(Math.abs(newCol-currentCol), 2)) <= this.getRadius()){
-            return true;
+        LeapTable table = board.getLeapTable(PieceType.ORBIT, radius);
+        if(table != null) {
+            return table.reaches(board.getSquareIndex(currentRow, currentCol), newRow, newCol);
         }
-        return false;
+        int reach = LeapTable.clampRadius(radius, board.getRows(), board.getCols());
+        int rowMove = newRow - currentRow;
+        int colMove = newCol - currentCol;
+        return (long) rowMove * rowMove + (long) colMove * colMove <= (long) reach * reach;
+    }
+
+    /**
+     * Adds every square within the radius of the Orbit that is not occupied by a piece of the same color
+     * @param board current board
+     * @param moves list the moves are appended to
+     */
+    @Override
+    public void generateMoves(Board board, MoveList moves) {
+        LeapTable table = board.getLeapTable(PieceType.ORBIT, radius);
+        if (table != null) {
+            addLeapMoves(board, table, moves);
+            return;
+        }
+        int currentRow = this.getRowCoord();
+        int currentCol = this.getColCoord();
+        int reach = LeapTable.clampRadius(radius, board.getRows(), board.getCols());
+        int radiusSquared = reach * reach;
+        for (int rowMove = Math.max(-reach, -currentRow); rowMove <= Math.min(reach, board.getRows() - 1 - currentRow);
+             rowMove++) {
+            for (int colMove = Math.max(-reach, -currentCol);
+                 colMove <= Math.min(reach, board.getCols() - 1 - currentCol); colMove++) {
+                if ((rowMove != 0 || colMove != 0) && rowMove * rowMove + colMove * colMove <= radiusSquared) {
+                    addMoveIfNotOwn(board, currentRow + rowMove, currentCol + colMove, moves);
+                }
+            }
+        }
+    }
+
+    @Override
+    public PieceType getType() {
+        return PieceType.ORBIT;
+    }
+
+    /**
+     * Copies the Orbit along with its radius
+     * @return new Orbit with the same state
+     */
+    @Override
+    public Piece copy() {
+        return new Orbit(getRowCoord(), getColCoord(), isBlack(), radius);
     }
 }
@@ -1,6 +1,8 @@
 package chess.pieces;
 
 import chess.Board;
+import chess.Move;
+import chess.MoveList;
 
 public class Pawn extends Piece{
 
@@ -17,7 +19,9 @@ public class Pawn extends Piece{
     }
 
     /**
-     * Sets the isFirstMove value of Pawn to the given firstMove value
+     * Sets the isFirstMove value of Pawn to the given firstMove value. The Board keeps this up to date itself as
+     * moves are made and unmade; a Pawn that is already on a Board should be set on it again with Board.setPiece
+     * after changing the value, so the Board's attack maps see the change.
      * @param firstMove true if it would be the first move for the pawn;
      *                  false if the pawn has already moved
      */
@@ -47,11 +51,13 @@ public class Pawn extends Piece{
     }
 
     /**
-     * Checks if the move to the newRow, newCol on the board is a valid move for the current Pawn piece.
+     * Checks if the move to the newRow, newCol on the board is a valid move for the current Pawn piece. Only reads the
+     * board and the Pawn; the first move is used up by Board.makeMove when the Pawn actually moves.
      * @param board current board
      * @param newRow new row coordinate to be moved to
      * @param newCol new column coordinate to be moved to
-     * @return
+     * @return true if it is a valid move;
+     *         false otherwise
      */
     @Override
     public boolean canMove(Board board, int newRow, int newCol) {
@@ -66,12 +72,7 @@ public class Pawn extends Piece{
         }
         if (currentCol == newCol){
             if (Math.abs(newRow - currentRow) == 2){
-                if (this.getIsFirstMove()){
-                    this.setFirstMove(false);
-                    return true;
-                } else {
-                    return false;
-                }
+                return this.getIsFirstMove();
             } else {
                 if(newPiece != null){
                     return false;
@@ -83,13 +84,56 @@ public class Pawn extends Piece{
                 return false;
             } else {
                 if((newPiece != null) && (newPiece.isBlack() != this.isBlack())) {
-                    if(this.getIsFirstMove()){
-                        this.setFirstMove(false);
-                    }
                     return true;
                 }
             }
         }
             return false;
     }
+
+    /**
+     * Adds the moves of one square forward or backward onto an empty square, the jump of two squares on the first
+     * move, and the diagonal captures of enemy pieces
+     * @param board current board
+     * @param moves list the moves are appended to
+     */
+    @Override
+    public void generateMoves(Board board, MoveList moves) {
+        int currentRow = this.getRowCoord();
+        int currentCol = this.getColCoord();
+        for (int rowMove = -1; rowMove < 2; rowMove += 2) {
+            int newRow = currentRow + rowMove;
+            if (newRow < 0 || newRow >= board.getRows()) {
+                continue;
+            }
+            if (board.getPiece(newRow, currentCol) == null) {
+                moves.add(Move.encode(currentRow, currentCol, newRow, currentCol));
+            }
+            for (int colMove = -1; colMove < 2; colMove += 2) {
+                Piece newPiece = board.getPiece(newRow, currentCol + colMove);
+                if (newPiece != null && newPiece.isBlack() != this.isBlack()) {
+                    moves.add(Move.encode(currentRow, currentCol, newRow, currentCol + colMove));
+                }
+            }
+            if (isFirstMove) {
+                addMoveIfNotOwn(board, currentRow + 2 * rowMove, currentCol, moves);
+            }
+        }
+    }
+
+    @Override
+    public PieceType getType() {
+        return PieceType.PAWN;
+    }
+
+    /**
+     * Copies the Pawn along with whether it has used its first move
+     * @return new Pawn with the same state
+     */
+    @Override
+    public Piece copy() {
+        Pawn pawn = new Pawn(getRowCoord(), getColCoord(), isBlack());
+        pawn.setFirstMove(isFirstMove);
+        return pawn;
+    }
 }
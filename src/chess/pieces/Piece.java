@@ -1,6 +1,8 @@
 package chess.pieces;
 
 import chess.Board;
+import chess.Move;
+import chess.MoveList;
 
 /**
  * Abstract class that represents each Chess piece that is present on the Board. Extended by Pawn, Rook, Knight, Bishop,
@@ -80,7 +82,8 @@ public abstract class Piece {
      * Abstract method implemented by the inherited classes to determine if a given piece can move to a new location on
      * the board. The new location may have a piece from the opposing team that can be captured, or be an empty space.
      * Pieces may jump over intermediate spaces like the Knight, or have to travel through the path to the new location
-     * for the other pieces and the path must be empty.
+     * for the other pieces and the path must be empty. Implementations must only read the board and the piece, so
+     * asking whether a move is possible never changes the game.
      * @param board current board
      * @param newRow new row coordinate to be moved to
      * @param newCol new column coordinate to be moved to
@@ -89,6 +92,157 @@ public abstract class Piece {
      */
     public abstract boolean canMove(Board board, int newRow, int newCol);
 
+    /**
+     * Abstract method implemented by the inherited classes to add every move the piece can make by its own movement
+     * rules to the given list, as packed moves. Exactly the destinations for which canMove is true are added. The
+     * moves are pseudo-legal: they are not checked for leaving the player's own King under check.
+     * @param board current board
+     * @param moves list the moves are appended to
+     */
+    public abstract void generateMoves(Board board, MoveList moves);
+
+    /**
+     * Adds the move from the current location to the new location if the new location is on the board and not
+     * occupied by a piece of the same color
+     * @param board current board
+     * @param newRow new row coordinate
+     * @param newCol new column coordinate
+     * @param moves list the move is appended to
+     */
+    protected void addMoveIfNotOwn(Board board, int newRow, int newCol, MoveList moves) {
+        if (newRow < 0 || newCol < 0 || newRow >= board.getRows() || newCol >= board.getCols()) {
+            return;
+        }
+        Piece newPiece = board.getPiece(newRow, newCol);
+        if (newPiece == null || newPiece.isBlack() != this.isBlack()) {
+            moves.add(Move.encode(rowCoord, colCoord, newRow, newCol));
+        }
+    }
+
+    /**
+     * Adds the move to every destination of the table from the current location that is not occupied by a piece of
+     * the same color
+     * @param board current board
+     * @param table destination table of the piece for the board's size
+     * @param moves list the moves are appended to
+     */
+    protected void addLeapMoves(Board board, LeapTable table, MoveList moves) {
+        int square = board.getSquareIndex(rowCoord, colCoord);
+        int[] destinations = table.getDestinations();
+        int fromMove = Move.encode(rowCoord, colCoord, 0, 0);
+        for (int index = table.getStart(square); index < table.getEnd(square); index++) {
+            int destination = destinations[index];
+            Piece newPiece = board.getPiece(destination >>> 8, destination & 0xFF);
+            if (newPiece == null || newPiece.isBlack() != this.isBlack()) {
+                moves.add(fromMove | destination);
+            }
+        }
+    }
+
+    /**
+     * Adds a move from the current location to every square of the attack bitboard that is not occupied by a piece of
+     * the same color. Only for boards where MagicBitboards fits.
+     * @param board current board
+     * @param attacks bitboard of the squares the piece attacks
+     * @param moves list the moves are appended to
+     */
+    protected void addAttackMoves(Board board, long attacks, MoveList moves) {
+        long targets = attacks & ~board.getOccupancy(this.isBlack());
+        int fromMove = Move.encode(rowCoord, colCoord, 0, 0);
+        while (targets != 0) {
+            int square = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves.add(fromMove | (square >>> 3) << 8 | (square & 7));
+        }
+    }
+
+    /**
+     * Checks whether a line move can be answered from the bitboards: both squares are on the board and differ. Other
+     * moves, and moves on boards without magic bitboards or a line index, are checked square by square.
+     */
+    private static boolean isLookup(Board board, int newRow, int newCol, int currentRow, int currentCol) {
+        return (newRow != currentRow || newCol != currentCol)
+                && newRow >= 0 && newCol >= 0 && newRow < board.getRows() && newCol < board.getCols()
+                && currentRow >= 0 && currentCol >= 0 && currentRow < board.getRows() && currentCol < board.getCols();
+    }
+
+    /**
+     * Checks a line move on a board with wide bitboards or a sparse index: the squares between are empty if the target
+     * is no further away than the first occupied square in its direction. Both squares must already be known to share
+     * a line.
+     */
+    private static boolean isIndexedLineClear(Board board, int newRow, int newCol, int currentRow, int currentCol) {
+        int square = board.getSquareIndex(currentRow, currentCol);
+        int target = board.getSquareIndex(newRow, newCol);
+        int last = board.getLineEnd(currentRow, currentCol, Integer.signum(newRow - currentRow),
+                Integer.signum(newCol - currentCol));
+        return target > square ? target <= last : target >= last;
+    }
+
+    /**
+     * Adds every move along a straight line from the current location in the direction (rowStep, colStep), up to and
+     * including the first occupied square if it holds an enemy piece
+     * @param board current board
+     * @param rowStep row direction, -1, 0, or 1
+     * @param colStep column direction, -1, 0, or 1
+     * @param moves list the moves are appended to
+     */
+    protected void addSlidingMoves(Board board, int rowStep, int colStep, MoveList moves) {
+        if (board.isLineIndexed()) {
+            int square = board.getSquareIndex(rowCoord, colCoord);
+            int last = board.getLineEnd(rowCoord, colCoord, rowStep, colStep);
+            if (last < 0) {
+                return;
+            }
+            int step = rowStep * board.getCols() + colStep;
+            int newRow = rowCoord;
+            int newCol = colCoord;
+            while (true) {
+                square += step;
+                newRow += rowStep;
+                newCol += colStep;
+                if (square == last) {
+                    break;
+                }
+                moves.add(Move.encode(rowCoord, colCoord, newRow, newCol));
+            }
+            Piece lastPiece = board.getPiece(newRow, newCol);
+            if (lastPiece == null || lastPiece.isBlack() != this.isBlack()) {
+                moves.add(Move.encode(rowCoord, colCoord, newRow, newCol));
+            }
+            return;
+        }
+        int rows = board.getRows();
+        int cols = board.getCols();
+        int newRow = rowCoord + rowStep;
+        int newCol = colCoord + colStep;
+        while (newRow >= 0 && newCol >= 0 && newRow < rows && newCol < cols) {
+            Piece newPiece = board.getPiece(newRow, newCol);
+            if (newPiece != null) {
+                if (newPiece.isBlack() != this.isBlack()) {
+                    moves.add(Move.encode(rowCoord, colCoord, newRow, newCol));
+                }
+                return;
+            }
+            moves.add(Move.encode(rowCoord, colCoord, newRow, newCol));
+            newRow += rowStep;
+            newCol += colStep;
+        }
+    }
+
+    /**
+     * Gets the type of the piece, used by the Board to index the piece without instanceof checks
+     * @return PieceType of the piece
+     */
+    public abstract PieceType getType();
+
+    /**
+     * Creates an independent copy of the piece with the same coordinates, color, and any piece specific state. Used
+     * to copy a Board without sharing mutable Piece objects between the two boards.
+     * @return a new Piece equal to this piece
+     */
+    public abstract Piece copy();
+
     /**
      * Checks to see if the move from the current location to the new location is a Rook move. This means
      * moving either vertically and horizontally with no pieces in the way.
@@ -105,6 +259,15 @@ public abstract class Piece {
         if (currentRow != newRow && currentCol != newCol) {
             return false;
         }
+        if (isLookup(board, newRow, newCol, currentRow, currentCol)) {
+            if (MagicBitboards.fits(board)) {
+                return (MagicBitboards.rookAttacks(currentRow * 8 + currentCol, board.getOccupancy())
+                        >>> (newRow * 8 + newCol) & 1L) != 0;
+            }
+            if (board.isLineIndexed()) {
+                return isIndexedLineClear(board, newRow, newCol, currentRow, currentCol);
+            }
+        }
         if(currentRow != newRow){
             if(currentRow > newRow){
                 for (int rowUpper = currentRow - 1; rowUpper > newRow; rowUpper--) {
@@ -153,6 +316,15 @@ public abstract class Piece {
         if(Math.abs(currentCol - newCol) != Math.abs(currentRow - newRow)){
             return false;
         }
+        if (isLookup(board, newRow, newCol, currentRow, currentCol)) {
+            if (MagicBitboards.fits(board)) {
+                return (MagicBitboards.bishopAttacks(currentRow * 8 + currentCol, board.getOccupancy())
+                        >>> (newRow * 8 + newCol) & 1L) != 0;
+            }
+            if (board.isLineIndexed()) {
+                return isIndexedLineClear(board, newRow, newCol, currentRow, currentCol);
+            }
+        }
         if(currentRow < newRow && currentCol < newCol){
             for (int rowLowerRight = currentRow + 1; rowLowerRight < newRow; rowLowerRight++) {
                 if(board.getPiece(rowLowerRight, (++currentCol)) != null){
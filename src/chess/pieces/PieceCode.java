@@ -0,0 +1,156 @@
+package chess.pieces;
+
+import java.util.Locale;
+
+/**
+ * Static helpers to pack a piece into a single byte, so positions can be stored as a flat byte[] of squares instead
+ * of Piece objects. Bits 0-3 hold the PieceType ordinal plus one, bit 4 is set for Black, and bits 5-7 hold the state
+ * of the piece: 1 for a Pawn that still has its first move, the radius of an Orbit. An empty square is EMPTY (0).
+ * <p>
+ * A code carries everything a Piece stores apart from its square, so the Piece objects are only created when a
+ * position is loaded onto a Board. What depends on the code alone, such as the name used to look up piece images, is
+ * kept in shared tables indexed by the code.
+ */
+public final class PieceCode {
+
+    /**
+     * Code of an empty square
+     */
+    public static final byte EMPTY = 0;
+
+    /**
+     * Largest Orbit radius a code can hold
+     */
+    public static final int MAX_ORBIT_RADIUS = 7;
+
+    private static final int BLACK_BIT = 0x10;
+    private static final int PAYLOAD_SHIFT = 5;
+    private static final PieceType[] TYPES = PieceType.values();
+    private static final String[] NAMES = new String[256];
+
+    static {
+        for (int code = 1; code < NAMES.length; code++) {
+            int type = (code & 0x0F) - 1;
+            if (type >= 0 && type < TYPES.length) {
+                NAMES[code] = ((code & BLACK_BIT) != 0 ? "black_" : "white_")
+                        + TYPES[type].name().toLowerCase(Locale.ROOT);
+            }
+        }
+    }
+
+    private PieceCode() {
+    }
+
+    /**
+     * Packs a piece into a code
+     * @param piece piece to pack, or null for an empty square
+     * @return byte code, EMPTY for null
+     * @throws IllegalArgumentException if the piece is an Orbit whose radius is negative or above MAX_ORBIT_RADIUS
+     */
+    public static byte encode(Piece piece) {
+        if (piece == null) {
+            return EMPTY;
+        }
+        int payload = 0;
+        if (piece.getType() == PieceType.PAWN) {
+            payload = ((Pawn) piece).getIsFirstMove() ? 1 : 0;
+        } else if (piece.getType() == PieceType.ORBIT) {
+            payload = ((Orbit) piece).getRadius();
+            if (payload < 0 || payload > MAX_ORBIT_RADIUS) {
+                throw new IllegalArgumentException("Orbit radius " + payload + " does not fit in a piece code");
+            }
+        }
+        return encode(piece.getType(), piece.isBlack(), payload);
+    }
+
+    /**
+     * Packs a piece type and color into a code without any piece state
+     * @param type type of the piece
+     * @param isBlack true for a Black piece
+     * @return byte code
+     */
+    public static byte encode(PieceType type, boolean isBlack) {
+        return (byte) (type.ordinal() + 1 | (isBlack ? BLACK_BIT : 0));
+    }
+
+    /**
+     * Packs a piece type, color and state into a code
+     * @param type type of the piece
+     * @param isBlack true for a Black piece
+     * @param payload state bits, 1 for a Pawn with its first move, the radius of an Orbit, from 0 to 7
+     * @return byte code
+     */
+    public static byte encode(PieceType type, boolean isBlack, int payload) {
+        return (byte) (encode(type, isBlack) | payload << PAYLOAD_SHIFT);
+    }
+
+    /**
+     * Creates the Piece a code stands for
+     * @param code piece code, not EMPTY
+     * @param rowCoord row coordinate of the new piece
+     * @param colCoord column coordinate of the new piece
+     * @return new Piece
+     * @throws IllegalArgumentException if the code is EMPTY or has no piece type
+     */
+    public static Piece decode(byte code, int rowCoord, int colCoord) {
+        boolean isBlack = isBlack(code);
+        switch (getType(code)) {
+            case PAWN:
+                Pawn pawn = new Pawn(rowCoord, colCoord, isBlack);
+                pawn.setFirstMove(getPayload(code) != 0);
+                return pawn;
+            case KNIGHT:
+                return new Knight(rowCoord, colCoord, isBlack);
+            case BISHOP:
+                return new Bishop(rowCoord, colCoord, isBlack);
+            case ROOK:
+                return new Rook(rowCoord, colCoord, isBlack);
+            case QUEEN:
+                return new Queen(rowCoord, colCoord, isBlack);
+            case KING:
+                return new King(rowCoord, colCoord, isBlack);
+            case TIGER:
+                return new Tiger(rowCoord, colCoord, isBlack);
+            default:
+                return new Orbit(rowCoord, colCoord, isBlack, getPayload(code));
+        }
+    }
+
+    /**
+     * @param code piece code, not EMPTY
+     * @return PieceType of the code
+     * @throws IllegalArgumentException if the code is EMPTY or has no piece type
+     */
+    public static PieceType getType(byte code) {
+        int type = (code & 0x0F) - 1;
+        if (type < 0 || type >= TYPES.length) {
+            throw new IllegalArgumentException("No piece type in code " + code);
+        }
+        return TYPES[type];
+    }
+
+    /**
+     * @param code piece code
+     * @return true if the code is a Black piece
+     */
+    public static boolean isBlack(byte code) {
+        return (code & BLACK_BIT) != 0;
+    }
+
+    /**
+     * @param code piece code
+     * @return state bits of the code: 1 for a Pawn with its first move, the radius of an Orbit, 0 otherwise
+     */
+    public static int getPayload(byte code) {
+        return (code & 0xFF) >>> PAYLOAD_SHIFT;
+    }
+
+    /**
+     * Gets the name of the piece a code stands for, as used for the piece images, for example "white_rook"
+     * @param code piece code
+     * @return String name, or null for EMPTY
+     */
+    public static String getName(byte code) {
+        return NAMES[code & 0xFF];
+    }
+}
@@ -0,0 +1,21 @@
+package chess.pieces;
+
+/**
+ * Enumerates the kinds of Pieces that can be placed on a Board. The ordinal of each type is used by the Board to index
+ * its per-type bitboards, so new types must only ever be appended to the end of the list.
+ */
+public enum PieceType {
+    PAWN,
+    KNIGHT,
+    BISHOP,
+    ROOK,
+    QUEEN,
+    KING,
+    TIGER,
+    ORBIT;
+
+    /**
+     * Number of different piece types, used to size per-type tables
+     */
+    public static final int COUNT = values().length;
+}
@@ -1,6 +1,7 @@
 package chess.pieces;
 
 import chess.Board;
+import chess.MoveList;
 
 public class Queen extends Piece {
     /**
@@ -42,4 +43,37 @@ public class Queen extends Piece {
         }
         return false;
     }
+
+    /**
+     * Adds every move along the eight lines from the Queen up to the first blocking piece
+     * @param board current board
+     * @param moves list the moves are appended to
+     */
+    @Override
+    public void generateMoves(Board board, MoveList moves) {
+        if (MagicBitboards.fits(board)) {
+            int square = getRowCoord() * 8 + getColCoord();
+            long occupancy = board.getOccupancy();
+            addAttackMoves(board, MagicBitboards.rookAttacks(square, occupancy)
+                    | MagicBitboards.bishopAttacks(square, occupancy), moves);
+            return;
+        }
+        for (int rowStep = -1; rowStep <= 1; rowStep++) {
+            for (int colStep = -1; colStep <= 1; colStep++) {
+                if (rowStep != 0 || colStep != 0) {
+                    addSlidingMoves(board, rowStep, colStep, moves);
+                }
+            }
+        }
+    }
+
+    @Override
+    public PieceType getType() {
+        return PieceType.QUEEN;
+    }
+
+    @Override
+    public Piece copy() {
+        return new Queen(getRowCoord(), getColCoord(), isBlack());
+    }
 }
@@ -1,6 +1,7 @@
 package chess.pieces;
 
 import chess.Board;
+import chess.MoveList;
 
 public class Rook extends Piece {
     /**
@@ -42,4 +43,32 @@ public class Rook extends Piece {
         }
         return false;
     }
+
+    /**
+     * Adds every horizontal and vertical move up to the first blocking piece
+     * @param board current board
+     * @param moves list the moves are appended to
+     */
+    @Override
+    public void generateMoves(Board board, MoveList moves) {
+        if (MagicBitboards.fits(board)) {
+            addAttackMoves(board, MagicBitboards.rookAttacks(getRowCoord() * 8 + getColCoord(), board.getOccupancy()),
+                    moves);
+            return;
+        }
+        addSlidingMoves(board, -1, 0, moves);
+        addSlidingMoves(board, 1, 0, moves);
+        addSlidingMoves(board, 0, -1, moves);
+        addSlidingMoves(board, 0, 1, moves);
+    }
+
+    @Override
+    public PieceType getType() {
+        return PieceType.ROOK;
+    }
+
+    @Override
+    public Piece copy() {
+        return new Rook(getRowCoord(), getColCoord(), isBlack());
+    }
 }
@@ -1,6 +1,8 @@
 package chess.pieces;
 
 import chess.Board;
+import chess.Move;
+import chess.MoveList;
 
 /**
  * The Tiger class is for the Tiger custom chess piece. Tiger pieces can  jump to any space that is 2 spaces away
@@ -51,6 +53,12 @@ public class Tiger extends Piece {
         if(newPiece != null && (newPiece.isBlack() == this.isBlack())) {
             return false;
         }
+        LeapTable jumps = board.getLeapTable(PieceType.TIGER, 0);
+        if(jumps != null) {
+            int square = board.getSquareIndex(currentRow, currentCol);
+            return jumps.reaches(square, newRow, newCol)
+                    || (newPiece != null && board.getLeapTable(PieceType.KING, 0).reaches(square, newRow, newCol));
+        }
         if((Math.abs(currentCol - newCol) == 2 && Math.abs(currentRow - newRow) == 0)
                 || ((Math.abs(currentCol - newCol) == 0 && Math.abs(currentRow - newRow) == 2))){
             return true;
@@ -62,4 +70,53 @@ public class Tiger extends Piece {
         }
         return false;
     }
+
+    /**
+     * Adds the jumps of 2 squares horizontally or vertically, and the captures of enemy pieces on adjacent squares
+     *
+     * @param board current board
+     * @param moves list the moves are appended to
+     */
+    @Override
+    public void generateMoves(Board board, MoveList moves) {
+        int currentRow = this.getRowCoord();
+        int currentCol = this.getColCoord();
+        LeapTable jumps = board.getLeapTable(PieceType.TIGER, 0);
+        if (jumps != null) {
+            addLeapMoves(board, jumps, moves);
+            LeapTable neighbours = board.getLeapTable(PieceType.KING, 0);
+            int square = board.getSquareIndex(currentRow, currentCol);
+            int[] destinations = neighbours.getDestinations();
+            for (int index = neighbours.getStart(square); index < neighbours.getEnd(square); index++) {
+                int destination = destinations[index];
+                Piece newPiece = board.getPiece(destination >>> 8, destination & 0xFF);
+                if (newPiece != null && newPiece.isBlack() != this.isBlack()) {
+                    moves.add(Move.encode(currentRow, currentCol, 0, 0) | destination);
+                }
+            }
+            return;
+        }
+        addMoveIfNotOwn(board, currentRow - 2, currentCol, moves);
+        addMoveIfNotOwn(board, currentRow + 2, currentCol, moves);
+        addMoveIfNotOwn(board, currentRow, currentCol - 2, moves);
+        addMoveIfNotOwn(board, currentRow, currentCol + 2, moves);
+        for (int rowMove = -1; rowMove < 2; rowMove++) {
+            for (int colMove = -1; colMove < 2; colMove++) {
+                Piece newPiece = board.getPiece(currentRow + rowMove, currentCol + colMove);
+                if (newPiece != null && newPiece.isBlack() != this.isBlack()) {
+                    moves.add(Move.encode(currentRow, currentCol, currentRow + rowMove, currentCol + colMove));
+                }
+            }
+        }
+    }
+
+    @Override
+    public PieceType getType() {
+        return PieceType.TIGER;
+    }
+
+    @Override
+    public Piece copy() {
+        return new Tiger(getRowCoord(), getColCoord(), isBlack());
+    }
 }
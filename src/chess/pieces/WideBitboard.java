@@ -0,0 +1,253 @@
+package chess.pieces;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Layout of a multi-word bitboard for boards with more than 64 squares, up to MAX_SQUARES (16x16 and any other shape of
+ * that size). A bitboard is a fixed-width long[] of getWords() words, where bit (square &amp; 63) of word (square
+ * &gt;&gt;&gt; 6) stands for square index row * cols + column. The layout holds the column masks used to shift whole
+ * bitboards by a row and column step, and the eight rays leaving every square, so a sliding piece finds the first
+ * occupied square in a direction with a bit scan instead of stepping through the Piece[][] array. Layouts
+ * are immutable and shared by every Board of the same size.
+ */
+public final class WideBitboard {
+
+    /**
+     * Largest number of squares a wide bitboard layout is built for
+     */
+    public static final int MAX_SQUARES = 256;
+
+    /**
+     * (row step, column step) of the eight ray directions. Rooks slide along the first four, Bishops along the last
+     * four.
+     */
+    public static final int[][] DIRECTIONS = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}, {-1, -1}, {-1, 1}, {1, -1}, {1, 1}};
+
+    private static final ConcurrentHashMap<Integer, WideBitboard> LAYOUTS = new ConcurrentHashMap<>();
+
+    private final int rows;
+    private final int cols;
+    private final int words;
+    private final long[] boardMask;
+    private final long[] notFirstCol;
+    private final long[] notLastCol;
+    private final long[] rays;
+    private final int[] rayLengths;
+    private final int[] steps = new int[DIRECTIONS.length];
+
+    private WideBitboard(int rows, int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        int squareCount = rows * cols;
+        words = (squareCount + 63) >>> 6;
+        boardMask = new long[words];
+        notFirstCol = new long[words];
+        notLastCol = new long[words];
+        for (int square = 0; square < squareCount; square++) {
+            set(boardMask, square);
+            if (square % cols != 0) {
+                set(notFirstCol, square);
+            }
+            if (square % cols != cols - 1) {
+                set(notLastCol, square);
+            }
+        }
+        for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+            steps[direction] = DIRECTIONS[direction][0] * cols + DIRECTIONS[direction][1];
+        }
+        rays = new long[squareCount * DIRECTIONS.length * words];
+        rayLengths = new int[squareCount * DIRECTIONS.length];
+        long[] step = new long[words];
+        for (int square = 0; square < squareCount; square++) {
+            for (int direction = 0; direction < DIRECTIONS.length; direction++) {
+                Arrays.fill(step, 0L);
+                set(step, square);
+                int rayBase = (square * DIRECTIONS.length + direction) * words;
+                int length = 0;
+                while (true) {
+                    shift(step, DIRECTIONS[direction][0], DIRECTIONS[direction][1], step);
+                    if (isEmpty(step)) {
+                        break;
+                    }
+                    for (int word = 0; word < words; word++) {
+                        rays[rayBase + word] |= step[word];
+                    }
+                    length++;
+                }
+                rayLengths[square * DIRECTIONS.length + direction] = length;
+            }
+        }
+    }
+
+    /**
+     * Gets the layout for a board size, building and caching it on first use
+     * @param rows number of rows of the board
+     * @param cols number of columns of the board
+     * @return WideBitboard layout, or null if the board fits in a single long or has more than MAX_SQUARES squares
+     */
+    public static WideBitboard get(int rows, int cols) {
+        if (rows * cols <= 64 || rows * cols > MAX_SQUARES) {
+            return null;
+        }
+        return LAYOUTS.computeIfAbsent(rows << 16 | cols, unused -> new WideBitboard(rows, cols));
+    }
+
+    /**
+     * @return number of longs in a bitboard of this layout
+     */
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * @return new empty bitboard of this layout
+     */
+    public long[] newBitboard() {
+        return new long[words];
+    }
+
+    /**
+     * Sets the bit of a square
+     * @param bits bitboard
+     * @param square square index
+     */
+    public static void set(long[] bits, int square) {
+        bits[square >>> 6] |= 1L << square;
+    }
+
+    /**
+     * Clears the bit of a square
+     * @param bits bitboard
+     * @param square square index
+     */
+    public static void clear(long[] bits, int square) {
+        bits[square >>> 6] &= ~(1L << square);
+    }
+
+    /**
+     * @param bits bitboard
+     * @param square square index
+     * @return true if the bit of the square is set
+     */
+    public static boolean test(long[] bits, int square) {
+        return (bits[square >>> 6] & (1L << square)) != 0;
+    }
+
+    /**
+     * @param bits bitboard
+     * @return true if no bit is set
+     */
+    public static boolean isEmpty(long[] bits) {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Moves every set square of a bitboard by one step, dropping the squares that would leave the board. The source
+     * and target may be the same array.
+     * @param bits bitboard to shift
+     * @param rowStep row step, -1, 0 or 1
+     * @param colStep column step, -1, 0 or 1
+     * @param out bitboard receiving the result
+     */
+    public void shift(long[] bits, int rowStep, int colStep, long[] out) {
+        long[] columnMask = colStep > 0 ? notLastCol : colStep < 0 ? notFirstCol : boardMask;
+        int distance = rowStep * cols + colStep;
+        if (distance >= 0) {
+            int wordShift = distance >>> 6;
+            int bitShift = distance & 63;
+            for (int word = words - 1; word >= 0; word--) {
+                int source = word - wordShift;
+                long low = source >= 0 ? bits[source] & columnMask[source] : 0L;
+                long carry = bitShift != 0 && source > 0
+                        ? (bits[source - 1] & columnMask[source - 1]) >>> (64 - bitShift) : 0L;
+                out[word] = ((low << bitShift) | carry) & boardMask[word];
+            }
+        } else {
+            int wordShift = -distance >>> 6;
+            int bitShift = -distance & 63;
+            for (int word = 0; word < words; word++) {
+                int source = word + wordShift;
+                long high = source < words ? bits[source] & columnMask[source] : 0L;
+                long carry = bitShift != 0 && source + 1 < words
+                        ? (bits[source + 1] & columnMask[source + 1]) << (64 - bitShift) : 0L;
+                out[word] = ((high >>> bitShift) | carry) & boardMask[word];
+            }
+        }
+    }
+
+    /**
+     * Gets the index of a direction in DIRECTIONS
+     * @param rowStep row step, -1, 0 or 1
+     * @param colStep column step, -1, 0 or 1, not both 0
+     * @return int direction index
+     */
+    public static int direction(int rowStep, int colStep) {
+        if (rowStep == 0 || colStep == 0) {
+            return rowStep != 0 ? (rowStep < 0 ? 0 : 1) : (colStep < 0 ? 2 : 3);
+        }
+        return 4 + (rowStep < 0 ? 0 : 2) + (colStep < 0 ? 0 : 1);
+    }
+
+    /**
+     * Gets the square index step of a direction on this layout, row step * cols + column step
+     * @param direction direction index (see DIRECTIONS)
+     * @return int square index step
+     */
+    public int getStep(int direction) {
+        return steps[direction];
+    }
+
+    /**
+     * Finds the last square a sliding piece on the given square covers in a direction: the first occupied square, or
+     * the square on the edge if the line is empty. Rays only run forward from the piece's own word for positive steps
+     * and backward for negative ones, so only those words are scanned.
+     * @param square square index of the piece
+     * @param direction direction index (see DIRECTIONS)
+     * @param occupancy bitboard of every occupied square
+     * @return square index of the last square, or -1 if the piece stands on the edge in that direction
+     */
+    public int lastSquare(int square, int direction, long[] occupancy) {
+        int length = rayLengths[square * DIRECTIONS.length + direction];
+        if (length == 0) {
+            return -1;
+        }
+        int rayBase = (square * DIRECTIONS.length + direction) * words;
+        int step = steps[direction];
+        if (step > 0) {
+            for (int word = square >>> 6; word < words; word++) {
+                long hits = rays[rayBase + word] & occupancy[word];
+                if (hits != 0) {
+                    return word << 6 | Long.numberOfTrailingZeros(hits);
+                }
+            }
+        } else {
+            for (int word = square >>> 6; word >= 0; word--) {
+                long hits = rays[rayBase + word] & occupancy[word];
+                if (hits != 0) {
+                    return word << 6 | (63 - Long.numberOfLeadingZeros(hits));
+                }
+            }
+        }
+        return square + length * step;
+    }
+
+    /**
+     * @return number of rows of the layout
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return number of columns of the layout
+     */
+    public int getCols() {
+        return cols;
+    }
+}
@@ -0,0 +1,317 @@
+package chess.server;
+
+import chess.Board;
+import chess.GameSession;
+import chess.Move;
+import chess.MoveList;
+import chess.pieces.Piece;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local server hosting many games at once over a line protocol. Every command is one line and gets one response line,
+ * starting with "OK" or "ERR":
+ * <pre>
+ * NEW [custom]                              OK &lt;game id&gt;
+ * MOVE &lt;id&gt; &lt;row&gt; &lt;col&gt; &lt;newRow&gt; &lt;newCol&gt;   OK MOVED | OK CHECK | OK CHECKMATE | OK STALEMATE
+ *                                           | ERR illegal move
+ * MOVES &lt;id&gt;                                OK &lt;legal moves of the player to move&gt;
+ * UNDO &lt;id&gt;                                 OK | ERR nothing to undo | ERR game over
+ * BOARD &lt;id&gt;                                OK &lt;rows from row 0, '/' separated&gt; &lt;w|b&gt;
+ * RESIGN &lt;id&gt; &lt;white|black&gt;                 OK
+ * CLOSE &lt;id&gt;                                OK
+ * QUIT                                      closes the connection
+ * </pre>
+ * A client may play any number of games over one connection. Every game is a ServerSession with its own GameSession,
+ * Board and Pieces, and its commands run one at a time on the session's mailbox, so games never share mutable state
+ * and need no locks. Mailboxes and connections run on virtual threads when the Java runtime has them, and on pooled
+ * platform threads otherwise. The number of games is capped, and games left idle are closed.
+ */
+public class GameServer implements Closeable {
+
+    private static final Set<String> GAME_COMMANDS = Set.of("MOVE", "MOVES", "UNDO", "BOARD", "RESIGN", "CLOSE");
+
+    private final int maxSessions;
+    private final long idleTimeoutMillis;
+    private final Map<Long, ServerSession> sessions = new ConcurrentHashMap<>();
+    private final AtomicInteger sessionCount = new AtomicInteger();
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final ExecutorService sessionExecutor;
+    private final ExecutorService connectionExecutor;
+    private final ScheduledExecutorService sweeper;
+    private volatile ServerSocket serverSocket;
+
+    /**
+     * Creates a server that is not yet listening; commands can already be run with execute
+     * @param maxSessions most games hosted at once
+     * @param idleTimeoutMillis games with no command for this long are closed, 0 to keep games until CLOSE
+     */
+    public GameServer(int maxSessions, long idleTimeoutMillis) {
+        this.maxSessions = maxSessions;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        sessionExecutor = ServerThreads.newSessionExecutor();
+        connectionExecutor = ServerThreads.newConnectionExecutor();
+        sweeper = Executors.newSingleThreadScheduledExecutor(ServerThreads.daemonFactory("chess-server-sweeper"));
+        if (idleTimeoutMillis > 0) {
+            long period = Math.max(idleTimeoutMillis / 4, 1000);
+            sweeper.scheduleAtFixedRate(this::closeIdleSessions, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Starts listening for connections on the loopback address
+     * @param port port to listen on, 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public void start(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 512, InetAddress.getLoopbackAddress());
+        new Thread(this::acceptConnections, "chess-server-acceptor").start();
+    }
+
+    /**
+     * @return port the server listens on, or -1 if it was not started
+     */
+    public int getPort() {
+        ServerSocket socket = serverSocket;
+        return socket == null ? -1 : socket.getLocalPort();
+    }
+
+    /**
+     * @return number of games hosted
+     */
+    public int getSessionCount() {
+        return sessionCount.get();
+    }
+
+    /**
+     * Runs one command line and waits for its response
+     * @param line command line
+     * @return response line
+     */
+    public String execute(String line) {
+        try {
+            return submit(line).join();
+        } catch (CompletionException e) {
+            return "ERR " + e.getCause().getMessage();
+        }
+    }
+
+    /**
+     * Runs one command line; commands for a game run on the game's mailbox
+     * @param line command line
+     * @return future completed with the response line
+     */
+    public CompletableFuture<String> submit(String line) {
+        String[] words = line.trim().split("\\s+");
+        String command = words[0].toUpperCase();
+        if (command.equals("NEW")) {
+            boolean isCustom = words.length > 1 && words[1].equalsIgnoreCase("custom");
+            return CompletableFuture.completedFuture(newSession(isCustom));
+        }
+        if (!GAME_COMMANDS.contains(command) || words.length < 2) {
+            return error("bad command");
+        }
+        long id;
+        try {
+            id = Long.parseLong(words[1]);
+        } catch (NumberFormatException e) {
+            return error("bad game id");
+        }
+        ServerSession session = sessions.get(id);
+        if (session == null) {
+            return error("unknown game");
+        }
+        switch (command) {
+            case "MOVE":
+                if (words.length != 6) {
+                    return error("bad command");
+                }
+                int[] coords = new int[4];
+                try {
+                    for (int index = 0; index < 4; index++) {
+                        coords[index] = Integer.parseInt(words[index + 2]);
+                    }
+                } catch (NumberFormatException e) {
+                    return error("bad coordinates");
+                }
+                return session.submit(game -> {
+                    GameSession.MoveResult result = game.move(coords[0], coords[1], coords[2], coords[3]);
+                    return result == GameSession.MoveResult.ILLEGAL ? "ERR illegal move" : "OK " + result;
+                });
+            case "MOVES":
+                return session.submit(GameServer::legalMoves);
+            case "UNDO":
+                return session.submit(game -> game.undo() ? "OK"
+                        : game.getEnding() == GameSession.Ending.RESIGNATION ? "ERR game over" : "ERR nothing to undo");
+            case "BOARD":
+                return session.submit(game -> "OK " + describe(game));
+            case "RESIGN":
+                if (words.length != 3
+                        || !words[2].equalsIgnoreCase("white") && !words[2].equalsIgnoreCase("black")) {
+                    return error("bad command");
+                }
+                boolean isBlack = words[2].equalsIgnoreCase("black");
+                return session.submit(game -> {
+                    game.resign(isBlack);
+                    return "OK";
+                });
+            case "CLOSE":
+                closeSession(session);
+                return CompletableFuture.completedFuture("OK");
+            default:
+                return error("bad command");
+        }
+    }
+
+    private String newSession(boolean isCustom) {
+        if (sessionCount.incrementAndGet() > maxSessions) {
+            sessionCount.decrementAndGet();
+            return "ERR server full";
+        }
+        long id = nextId.getAndIncrement();
+        sessions.put(id, new ServerSession(id, isCustom, sessionExecutor));
+        return "OK " + id;
+    }
+
+    private void closeSession(ServerSession session) {
+        if (sessions.remove(session.getId(), session)) {
+            sessionCount.decrementAndGet();
+        }
+    }
+
+    private void closeIdleSessions() {
+        long oldest = System.currentTimeMillis() - idleTimeoutMillis;
+        for (ServerSession session : sessions.values()) {
+            if (session.getLastActiveMillis() < oldest) {
+                closeSession(session);
+            }
+        }
+    }
+
+    private static CompletableFuture<String> error(String message) {
+        return CompletableFuture.completedFuture("ERR " + message);
+    }
+
+    private static String legalMoves(GameSession game) {
+        MoveList moves = new MoveList();
+        game.getBoard().generateLegalMoves(game.isBlackTurn(), moves);
+        StringBuilder response = new StringBuilder("OK");
+        for (int index = 0; index < moves.size(); index++) {
+            response.append(' ').append(Move.toString(moves.get(index)));
+        }
+        return response.toString();
+    }
+
+    /**
+     * Describes the board one row at a time from row 0, White pieces in upper case and Black pieces in lower case
+     * (P N B R Q K, T for Tiger, O for Orbit), '.' for an empty square, followed by the player to move
+     */
+    private static String describe(GameSession game) {
+        Board board = game.getBoard();
+        StringBuilder response = new StringBuilder();
+        for (int rowIter = 0; rowIter < board.getRows(); rowIter++) {
+            if (rowIter > 0) {
+                response.append('/');
+            }
+            for (int colIter = 0; colIter < board.getCols(); colIter++) {
+                Piece piece = board.getPiece(rowIter, colIter);
+                if (piece == null) {
+                    response.append('.');
+                } else {
+                    char letter = "PNBRQKTO".charAt(piece.getType().ordinal());
+                    response.append(piece.isBlack() ? Character.toLowerCase(letter) : letter);
+                }
+            }
+        }
+        return response.append(game.isBlackTurn() ? " b" : " w").toString();
+    }
+
+    private void acceptConnections() {
+        ServerSocket socket = serverSocket;
+        while (!socket.isClosed()) {
+            try {
+                Socket connection = socket.accept();
+                connectionExecutor.execute(() -> serve(connection));
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    System.err.println("Accept failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void serve(Socket connection) {
+        try (connection;
+             BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(),
+                     StandardCharsets.UTF_8));
+             PrintWriter out = new PrintWriter(new OutputStreamWriter(connection.getOutputStream(),
+                     StandardCharsets.UTF_8))) {
+            connection.setTcpNoDelay(true);
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (line.trim().equalsIgnoreCase("QUIT")) {
+                    break;
+                }
+                out.println(execute(line));
+                out.flush();
+            }
+        } catch (IOException e) {
+            // the client went away; its games stay open until closed or idle
+        }
+    }
+
+    /**
+     * Stops listening and shuts down the server's threads. Hosted games are dropped.
+     */
+    @Override
+    public void close() throws IOException {
+        ServerSocket socket = serverSocket;
+        if (socket != null) {
+            socket.close();
+        }
+        sweeper.shutdownNow();
+        connectionExecutor.shutdownNow();
+        sessionExecutor.shutdown();
+        sessions.clear();
+        sessionCount.set(0);
+    }
+
+    /**
+     * Runs a server. Arguments: port (default 7070), most games (default 20000), and idle timeout in seconds
+     * (default 600)
+     * @param args command line arguments
+     * @throws IOException if the port cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7070;
+        int maxSessions = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        long idleSeconds = args.length > 2 ? Long.parseLong(args[2]) : 600;
+        GameServer server = new GameServer(maxSessions, idleSeconds * 1000);
+        server.start(port);
+        System.out.println("Chess server listening on port " + server.getPort()
+                + (ServerThreads.hasVirtualThreads() ? " with virtual threads" : ""));
+    }
+}
@@ -0,0 +1,87 @@
+package chess.server;
+
+import chess.GameSession;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * One game hosted by the GameServer. Commands for the game are queued in a mailbox and run one at a time, in the order
+ * they arrived, so the GameSession (and its Board and Pieces, which belong to this game alone) is only ever used by one
+ * thread at a time without any locks around the rules engine.
+ */
+class ServerSession {
+
+    private final long id;
+    private final GameSession game;
+    private final Executor executor;
+    private final Queue<Runnable> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isScheduled = new AtomicBoolean();
+    private volatile long lastActiveMillis;
+
+    /**
+     * Creates a hosted game
+     * @param id id the clients refer to the game by
+     * @param isCustom true for the custom setup with Tigers and Orbits
+     * @param executor executor the mailbox is drained on
+     */
+    ServerSession(long id, boolean isCustom, Executor executor) {
+        this.id = id;
+        this.game = new GameSession(isCustom);
+        this.executor = executor;
+        this.lastActiveMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * @return id of the game
+     */
+    long getId() {
+        return id;
+    }
+
+    /**
+     * @return time of the last command, from System.currentTimeMillis
+     */
+    long getLastActiveMillis() {
+        return lastActiveMillis;
+    }
+
+    /**
+     * Queues a command for the game
+     * @param command command to run against the game, returning the response
+     * @return future completed with the response once the command has run
+     */
+    CompletableFuture<String> submit(Function<GameSession, String> command) {
+        lastActiveMillis = System.currentTimeMillis();
+        CompletableFuture<String> response = new CompletableFuture<>();
+        mailbox.add(() -> {
+            try {
+                response.complete(command.apply(game));
+            } catch (RuntimeException e) {
+                response.completeExceptionally(e);
+            }
+        });
+        if (isScheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+        return response;
+    }
+
+    /**
+     * Runs queued commands until the mailbox is empty. A command queued after the last poll but before the flag is
+     * cleared is picked up by checking the mailbox again.
+     */
+    private void drain() {
+        do {
+            Runnable command;
+            while ((command = mailbox.poll()) != null) {
+                command.run();
+            }
+            isScheduled.set(false);
+        } while (!mailbox.isEmpty() && isScheduled.compareAndSet(false, true));
+    }
+}
@@ -0,0 +1,88 @@
+package chess.server;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates the GameServer's executors. On a Java runtime with virtual threads, every task gets a virtual thread of its
+ * own; the runtime is probed by reflection so the server still builds and runs on Java 17, where session mailboxes
+ * share a pool with one platform thread per core and connections get a platform thread each.
+ */
+final class ServerThreads {
+
+    private static final Method VIRTUAL_EXECUTOR = findVirtualExecutor();
+
+    private ServerThreads() {
+    }
+
+    /**
+     * @return true if the runtime supports virtual threads
+     */
+    static boolean hasVirtualThreads() {
+        return VIRTUAL_EXECUTOR != null;
+    }
+
+    /**
+     * @return executor that session mailboxes are drained on
+     */
+    static ExecutorService newSessionExecutor() {
+        ExecutorService executor = newVirtualExecutor();
+        if (executor != null) {
+            return executor;
+        }
+        return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                daemonFactory("chess-server-session"));
+    }
+
+    /**
+     * @return executor that client connections are served on, one task per connection
+     */
+    static ExecutorService newConnectionExecutor() {
+        ExecutorService executor = newVirtualExecutor();
+        if (executor != null) {
+            return executor;
+        }
+        return Executors.newCachedThreadPool(daemonFactory("chess-server-connection"));
+    }
+
+    /**
+     * @param name prefix of the thread names
+     * @return ThreadFactory making numbered daemon threads
+     */
+    static ThreadFactory daemonFactory(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static ExecutorService newVirtualExecutor() {
+        if (VIRTUAL_EXECUTOR == null) {
+            return null;
+        }
+        try {
+            return (ExecutorService) VIRTUAL_EXECUTOR.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Looks up Executors.newVirtualThreadPerTaskExecutor, and checks that it can be called: on runtimes where virtual
+     * threads are a preview feature that is not enabled, calling it throws
+     */
+    private static Method findVirtualExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ((ExecutorService) method.invoke(null)).shutdown();
+            return method;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+}